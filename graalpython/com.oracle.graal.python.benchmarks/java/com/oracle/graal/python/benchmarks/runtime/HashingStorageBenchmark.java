@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.runtime;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.KeywordsStorage;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+
+/**
+ * Insertion and lookup in the dictionary storages. {@link DynamicObjectStorage} is only used for
+ * small string-keyed dictionaries, so its benchmarks are capped at
+ * {@link DynamicObjectStorage#SIZE_THRESHOLD} keys.
+ */
+public class HashingStorageBenchmark extends RuntimeBenchmark {
+
+    private static final int KEYWORDS_COUNT = 8;
+
+    @Param({"16", "1024"}) public int size;
+
+    private HashingStorageLibrary lib;
+    private Integer[] intKeys;
+    private String[] stringKeys;
+    private HashingStorage economicMapInts;
+    private HashingStorage economicMapStrings;
+    private HashingStorage dynamicObject;
+    private HashingStorage keywords;
+
+    @Override
+    protected void setUp() {
+        lib = HashingStorageLibrary.getFactory().createDispatched(4);
+        intKeys = new Integer[size];
+        stringKeys = new String[size];
+        for (int i = 0; i < size; i++) {
+            intKeys[i] = i * 31;
+            stringKeys[i] = "key" + i;
+        }
+        economicMapInts = fill(EconomicMapStorage.create(), intKeys, size);
+        economicMapStrings = fill(EconomicMapStorage.create(), stringKeys, size);
+        dynamicObject = fill(new DynamicObjectStorage(), stringKeys, dynamicObjectSize());
+
+        PKeyword[] kwargs = new PKeyword[KEYWORDS_COUNT];
+        for (int i = 0; i < kwargs.length; i++) {
+            kwargs[i] = new PKeyword(stringKeys[i], i);
+        }
+        keywords = KeywordsStorage.create(kwargs);
+    }
+
+    private int dynamicObjectSize() {
+        return Math.min(size, DynamicObjectStorage.SIZE_THRESHOLD);
+    }
+
+    private HashingStorage fill(HashingStorage storage, Object[] keys, int count) {
+        HashingStorage result = storage;
+        for (int i = 0; i < count; i++) {
+            result = lib.setItem(result, keys[i], i);
+        }
+        return result;
+    }
+
+    private void lookup(HashingStorage storage, Object[] keys, int count, Blackhole bh) {
+        for (int i = 0; i < count; i++) {
+            bh.consume(lib.getItem(storage, keys[i]));
+        }
+    }
+
+    @Benchmark
+    public HashingStorage economicMapPutInt() {
+        return fill(EconomicMapStorage.create(), intKeys, size);
+    }
+
+    @Benchmark
+    public HashingStorage economicMapPutString() {
+        return fill(EconomicMapStorage.create(), stringKeys, size);
+    }
+
+    @Benchmark
+    public void economicMapGetInt(Blackhole bh) {
+        lookup(economicMapInts, intKeys, size, bh);
+    }
+
+    @Benchmark
+    public void economicMapGetString(Blackhole bh) {
+        lookup(economicMapStrings, stringKeys, size, bh);
+    }
+
+    @Benchmark
+    public HashingStorage economicMapCopy() {
+        return lib.copy(economicMapStrings);
+    }
+
+    @Benchmark
+    public HashingStorage dynamicObjectPut() {
+        return fill(new DynamicObjectStorage(), stringKeys, dynamicObjectSize());
+    }
+
+    @Benchmark
+    public void dynamicObjectGet(Blackhole bh) {
+        lookup(dynamicObject, stringKeys, dynamicObjectSize(), bh);
+    }
+
+    @Benchmark
+    public void keywordsGet(Blackhole bh) {
+        lookup(keywords, stringKeys, KEYWORDS_COUNT, bh);
+    }
+
+    /**
+     * Adding a key to keyword arguments converts them into a generic storage.
+     */
+    @Benchmark
+    public HashingStorage keywordsGeneralize() {
+        return lib.setItem(keywords, "extra", 0);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.runtime;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.PythonCodeSerializer;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * Parsing a module to a Truffle AST and the round trip through the code serializer, which is what
+ * {@code compile()}, {@code marshal} and the code cache use.
+ */
+public class ParserBenchmark extends RuntimeBenchmark {
+
+    @Param({"50"}) public int functions;
+
+    private PythonCore core;
+    private PythonCodeSerializer serializer;
+    private Source source;
+    private RootNode parsed;
+    private byte[] serialized;
+
+    @Override
+    protected void setUp() {
+        core = getCore();
+        serializer = core.getSerializer();
+        source = Source.newBuilder(PythonLanguage.ID, createModule(functions), "parser_bench.py").build();
+        parsed = (RootNode) parse();
+        serialized = serializer.serialize(parsed);
+    }
+
+    private static String createModule(int count) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import sys\n\n");
+        for (int i = 0; i < count; i++) {
+            sb.append("class Point").append(i).append(":\n");
+            sb.append("    def __init__(self, x, y=0, *args, **kwargs):\n");
+            sb.append("        self.x, self.y = x, y\n");
+            sb.append("        self.extra = {k: v for k, v in kwargs.items() if not k.startswith('_')}\n\n");
+            sb.append("    def __repr__(self):\n");
+            sb.append("        return f'Point").append(i).append("({self.x!r}, {self.y:.2f})'\n\n");
+            sb.append("def compute").append(i).append("(items, limit=").append(i).append("):\n");
+            sb.append("    result = []\n");
+            sb.append("    for idx, item in enumerate(items):\n");
+            sb.append("        if idx > limit and item % 2 == 0:\n");
+            sb.append("            break\n");
+            sb.append("        try:\n");
+            sb.append("            result.append(item ** 2 if item else -1)\n");
+            sb.append("        except (TypeError, ValueError) as e:\n");
+            sb.append("            print('error', e, file=sys.stderr)\n");
+            sb.append("    return sorted(result, key=lambda v: (v % 7, -v))\n\n");
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public Node parse() {
+        return core.getParser().parse(ParserMode.File, core, source, null, null);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(parsed);
+    }
+
+    @Benchmark
+    public RootNode deserialize() {
+        return serializer.deserialize(source, serialized);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.runtime;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
+
+/**
+ * Base class for micro benchmarks that exercise runtime data structures directly, without going
+ * through Python code. Each benchmark thread creates and enters its own Python context, so nodes,
+ * libraries and the core can be used like in a unit test.
+ *
+ * The benchmarks are regular JMH benchmarks and are picked up from the {@code GRAALPYTHON_BENCH}
+ * distribution, e.g.:
+ *
+ * <pre>
+ * mx benchmark jmh-dist:GRAALPYTHON_BENCH -- -Dorg.graalvm.language.python.home=graalpython -- -prof gc SequenceStorage
+ * </pre>
+ *
+ * Run with {@code -prof gc} to get allocation rates next to the throughput numbers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = RuntimeBenchmark.WARMUP_ITERATIONS, time = 1)
+@Measurement(iterations = RuntimeBenchmark.MEASUREMENT_ITERATIONS, time = 1)
+@Fork(1)
+public abstract class RuntimeBenchmark {
+
+    public static final int WARMUP_ITERATIONS = 5;
+    public static final int MEASUREMENT_ITERATIONS = 5;
+
+    private Context context;
+
+    @Setup(Level.Trial)
+    public final void enterContext() {
+        context = Context.newBuilder(PythonLanguage.ID).allowExperimentalOptions(true).allowAllAccess(true).build();
+        context.initialize(PythonLanguage.ID);
+        context.enter();
+        setUp();
+    }
+
+    /**
+     * Prepares the benchmark data. Called once per trial, with the Python context entered.
+     */
+    protected void setUp() {
+    }
+
+    @TearDown(Level.Trial)
+    public final void leaveContext() {
+        context.leave();
+        context.close();
+    }
+
+    protected static PythonContext getContext() {
+        return PythonLanguage.getContext();
+    }
+
+    protected static PythonCore getCore() {
+        return PythonLanguage.getCore();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.runtime;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.AppendNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+
+/**
+ * Appending, generalizing and slicing of list storages.
+ */
+public class SequenceStorageBenchmark extends RuntimeBenchmark {
+
+    @Param({"1000", "100000"}) public int size;
+
+    private AppendNode appendNode;
+    private IntSequenceStorage ints;
+    private ObjectSequenceStorage objects;
+
+    @Override
+    protected void setUp() {
+        appendNode = AppendNode.create();
+        int[] intValues = new int[size];
+        Object[] objectValues = new Object[size];
+        for (int i = 0; i < size; i++) {
+            intValues[i] = i;
+            objectValues[i] = Integer.toString(i);
+        }
+        ints = new IntSequenceStorage(intValues);
+        objects = new ObjectSequenceStorage(objectValues);
+    }
+
+    private SequenceStorage append(SequenceStorage storage, Object value) {
+        return appendNode.execute(storage, value, ListGeneralizationNode.SUPPLIER);
+    }
+
+    @Benchmark
+    public SequenceStorage appendInt() {
+        SequenceStorage storage = EmptySequenceStorage.INSTANCE;
+        for (int i = 0; i < size; i++) {
+            storage = append(storage, i);
+        }
+        return storage;
+    }
+
+    @Benchmark
+    public SequenceStorage appendObject() {
+        SequenceStorage storage = EmptySequenceStorage.INSTANCE;
+        for (int i = 0; i < size; i++) {
+            storage = append(storage, objects.getItemNormalized(i));
+        }
+        return storage;
+    }
+
+    /**
+     * Starts with an int storage, generalizes to a long storage half way and to an object storage
+     * with the last element.
+     */
+    @Benchmark
+    public SequenceStorage appendGeneralize() {
+        SequenceStorage storage = EmptySequenceStorage.INSTANCE;
+        int half = size / 2;
+        for (int i = 0; i < half; i++) {
+            storage = append(storage, i);
+        }
+        for (int i = half; i < size; i++) {
+            storage = append(storage, Integer.MAX_VALUE + (long) i);
+        }
+        return append(storage, "end");
+    }
+
+    @Benchmark
+    public SequenceStorage sliceInt() {
+        return ints.getSliceInBound(size / 4, size / 4 + size / 2, 1, size / 2);
+    }
+
+    @Benchmark
+    public SequenceStorage sliceIntStep() {
+        return ints.getSliceInBound(0, size, 3, (size + 2) / 3);
+    }
+
+    @Benchmark
+    public SequenceStorage sliceObject() {
+        return objects.getSliceInBound(size / 4, size / 4 + size / 2, 1, size / 2);
+    }
+
+    @Benchmark
+    public SequenceStorage copyInt() {
+        return ints.copy();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.StartupTimes;
+import com.oracle.graal.python.runtime.StartupTimes.Phase;
+
+/**
+ * Measures the time from creating a Python context until {@code site} and a set of commonly used
+ * standard library modules are imported. The {@code cold} benchmark creates a new engine for every
+ * context, like a fresh process would, the {@code warm} benchmark creates all contexts on one
+ * shared engine, so the language instance and its code cache are reused.
+ *
+ * The time spent in the individual phases (see {@link StartupTimes}) is reported as secondary
+ * results in microseconds, e.g.:
+ *
+ * <pre>
+ * mx benchmark jmh-dist:GRAALPYTHON_BENCH -- -Dorg.graalvm.language.python.home=graalpython -- StartupBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(3)
+public class StartupBenchmark {
+
+    @Param({"", "import os, re, json, collections, functools, itertools"}) public String imports;
+
+    @State(Scope.Benchmark)
+    public static class SharedEngine {
+        Engine engine;
+
+        @Setup(Level.Trial)
+        public void createEngine() {
+            engine = Engine.newBuilder().allowExperimentalOptions(true).build();
+        }
+
+        @TearDown(Level.Trial)
+        public void closeEngine() {
+            engine.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Phases {
+        public long parseUs;
+        public long translateUs;
+        public long coreFilesUs;
+        public long siteImportUs;
+        public long importsUs;
+        public long extensionLoadUs;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            parseUs = translateUs = coreFilesUs = siteImportUs = importsUs = extensionLoadUs = 0;
+        }
+
+        void record(StartupTimes times) {
+            parseUs += toMicros(times, Phase.PARSE);
+            translateUs += toMicros(times, Phase.TRANSLATE);
+            coreFilesUs += toMicros(times, Phase.CORE_FILES);
+            siteImportUs += toMicros(times, Phase.SITE_IMPORT);
+            importsUs += toMicros(times, Phase.IMPORT);
+            extensionLoadUs += toMicros(times, Phase.EXTENSION_LOAD);
+        }
+
+        private static long toMicros(StartupTimes times, Phase phase) {
+            return TimeUnit.NANOSECONDS.toMicros(times.getNanos(phase));
+        }
+    }
+
+    @Benchmark
+    public void cold(Phases phases) {
+        startup(Context.newBuilder(PythonLanguage.ID), phases);
+    }
+
+    @Benchmark
+    public void warm(SharedEngine shared, Phases phases) {
+        startup(Context.newBuilder(PythonLanguage.ID).engine(shared.engine), phases);
+    }
+
+    private void startup(Context.Builder builder, Phases phases) {
+        // the statistics are also printed when the context is closed, swallow that output
+        builder.allowExperimentalOptions(true).allowAllAccess(true).err(new ByteArrayOutputStream());
+        builder.option("python.ForceImportSite", "true").option("python.StartupStatistics", "true");
+        try (Context context = builder.build()) {
+            context.initialize(PythonLanguage.ID);
+            if (!imports.isEmpty()) {
+                context.eval(PythonLanguage.ID, imports);
+            }
+            context.enter();
+            try {
+                phases.record(PythonLanguage.getContext().getStartupTimes());
+            } finally {
+                context.leave();
+            }
+        }
+    }
+}
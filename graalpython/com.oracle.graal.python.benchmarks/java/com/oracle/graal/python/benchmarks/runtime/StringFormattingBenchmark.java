@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.runtime;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.str.StringNodes.JoinInternalNode;
+import com.oracle.graal.python.builtins.objects.str.StringNodesFactory.JoinInternalNodeGen;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.formatting.FloatFormatter;
+import com.oracle.graal.python.runtime.formatting.FormattingUtils;
+import com.oracle.graal.python.runtime.formatting.IntegerFormatter;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
+import com.oracle.graal.python.runtime.formatting.InternalFormat.Spec;
+import com.oracle.graal.python.runtime.formatting.TextFormatter;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+
+/**
+ * Formatting of numbers and strings as done by {@code format()} and f-strings, and string building
+ * with {@code str.join}.
+ */
+public class StringFormattingBenchmark extends RuntimeBenchmark {
+
+    @Param({"1000"}) public int size;
+
+    private PythonCore core;
+    private Spec floatSpec;
+    private Spec intSpec;
+    private Spec textSpec;
+    private String[] words;
+    private PList wordList;
+    private JoinInternalNode joinNode;
+
+    @Override
+    protected void setUp() {
+        core = getCore();
+        floatSpec = FormattingUtils.validateAndPrepareForFloat(InternalFormat.fromText(core, ">12.4f", __FORMAT__), core, "float");
+        intSpec = InternalFormat.fromText(core, ",d", __FORMAT__);
+        textSpec = InternalFormat.fromText(core, "^16", __FORMAT__).withDefaults(Spec.STRING);
+        words = new String[size];
+        Object[] items = new Object[size];
+        for (int i = 0; i < size; i++) {
+            words[i] = "word" + i;
+            items[i] = words[i];
+        }
+        wordList = PythonObjectFactory.getUncached().createList(items);
+        joinNode = JoinInternalNodeGen.create();
+    }
+
+    @Benchmark
+    public void formatFloat(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            FloatFormatter formatter = new FloatFormatter(core, floatSpec);
+            formatter.format(i * 1.37);
+            bh.consume(formatter.pad().getResult());
+        }
+    }
+
+    @Benchmark
+    public void formatInt(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            IntegerFormatter formatter = new IntegerFormatter(core, intSpec);
+            formatter.format(i * 7919);
+            bh.consume(formatter.pad().getResult());
+        }
+    }
+
+    @Benchmark
+    public void formatText(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            TextFormatter formatter = new TextFormatter(core, textSpec);
+            formatter.format(words[i]);
+            bh.consume(formatter.pad().getResult());
+        }
+    }
+
+    @Benchmark
+    public String join() {
+        return joinNode.execute(null, ", ", wordList);
+    }
+}
@@ -1,4 +1,4 @@
-# Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # The Universal Permissive License (UPL), Version 1.0
@@ -36,11 +36,28 @@
 # LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
+# micro benchmark: datetime arithmetic, comparisons and strftime
+import datetime
 
 
-class Empty(Exception):
-    'Exception raised by Queue.get(block=0)/get_nowait().'
-    pass
+def do_stuff(start, step):
+    current = start
+    count = 0
+    for i in range(10000):
+        current = current + step
+        if current > start:
+            count += 1
+    return count, current.strftime("%Y-%m-%d %H:%M:%S.%f")
 
 
-SimpleQueue = None
+def measure(num):
+    start = datetime.datetime(2020, 1, 1)
+    step = datetime.timedelta(minutes=1, microseconds=7)
+    for i in range(num):
+        result = do_stuff(start, step)
+
+    print(result)
+
+
+def __benchmark__(num=1000):
+    measure(num)
@@ -138,6 +138,45 @@ public class InteropLibraryTest extends PythonTests {
         assertPrints("True\n", source);
     }
 
+    @Test
+    public void testBuiltinSequenceElements() {
+        Value list = v("[1, 'two', 3.0]");
+        assertEquals(3, list.getArraySize());
+        assertEquals(1, list.getArrayElement(0).asInt());
+        assertEquals("two", list.getArrayElement(1).asString());
+        assertEquals(3.0, list.getArrayElement(2).asDouble(), 0);
+        assertTrue(polyglotElementInfo("[1, 2, 3]", 2, "readable"));
+        assertFalse(polyglotElementInfo("[1, 2, 3]", 3, "readable"));
+        assertFalse(polyglotElementInfo("(1, 2, 3)", -1, "readable"));
+
+        Value tuple = v("tuple(range(100))");
+        long sum = 0;
+        for (long i = 0; i < tuple.getArraySize(); i++) {
+            sum += tuple.getArrayElement(i).asLong();
+        }
+        assertEquals(4950, sum);
+    }
+
+    @Test
+    public void testDictItemMembers() {
+        Value dict = v("{'a': 1, 'keys': 2}");
+        assertEquals(1, dict.getMember("[a").asInt());
+        assertEquals(2, dict.getMember("[keys").asInt());
+        assertTrue(dict.getMember("keys").canExecute());
+
+        Value missing = v("" +
+                        "class D(dict):\n" +
+                        "    def __missing__(self, key):\n" +
+                        "        return key * 2\n" +
+                        "D(a=1)");
+        assertEquals(1, missing.getMember("[a").asInt());
+        assertEquals("bb", missing.getMember("[b").asString());
+    }
+
+    private boolean polyglotElementInfo(String receiver, int index, String info) {
+        return v("import polyglot\npolyglot.__element_info__(" + receiver + ", " + index + ", \"" + info + "\")").asBoolean();
+    }
+
     @Test
     public void testIsNull() {
         assertTrue(v("None").isNull());
@@ -161,6 +161,15 @@ public class JavaInteropTest {
             fail();
         }
 
+        @Test
+        public void unknownGcCollectPolicyFailsContextCreation() {
+            try (Context c = Context.newBuilder().allowExperimentalOptions(true).option("python.GcCollectPolicy", "young").build()) {
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("young"));
+            }
+        }
+
         @Test
         public void truffleMethodExport() {
             String source = "import polyglot\n" +
@@ -0,0 +1,114 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import asyncio
+import os
+import sys
+import unittest
+
+
+@unittest.skipIf(sys.implementation.name != "graalpython", "tests the Java event loop core")
+class EventLoopCoreTests(unittest.TestCase):
+
+    def setUp(self):
+        self.loop = asyncio.new_event_loop()
+
+    def tearDown(self):
+        self.loop.close()
+
+    def test_default_loop_uses_core(self):
+        import _asyncio_truffle
+        self.assertIsInstance(self.loop._core, _asyncio_truffle.EventLoopCore)
+
+    def test_timers_run_in_order(self):
+        order = []
+        for delay in (0.03, 0.01, 0.02):
+            self.loop.call_later(delay, order.append, delay)
+        cancelled = self.loop.call_later(0.015, order.append, "cancelled")
+        cancelled.cancel()
+        self.loop.run_until_complete(asyncio.sleep(0.05))
+        self.assertEqual(order, [0.01, 0.02, 0.03])
+
+    def test_reader_and_writer(self):
+        r, w = os.pipe()
+        try:
+            got = []
+
+            def on_readable():
+                got.append(os.read(r, 10))
+                self.loop.remove_reader(r)
+                self.loop.stop()
+
+            def on_writable():
+                self.loop.remove_writer(w)
+                os.write(w, b"data")
+
+            self.loop.add_reader(r, on_readable)
+            self.loop.add_writer(w, on_writable)
+            self.loop.run_forever()
+            self.assertEqual(got, [b"data"])
+            self.assertFalse(self.loop.remove_reader(r))
+        finally:
+            os.close(r)
+            os.close(w)
+
+    def test_streams(self):
+        async def handle(reader, writer):
+            writer.write((await reader.readline()).upper())
+            await writer.drain()
+            writer.close()
+
+        async def main():
+            server = await asyncio.start_server(handle, "127.0.0.1", 0)
+            port = server.sockets[0].getsockname()[1]
+
+            async def client(i):
+                reader, writer = await asyncio.open_connection("127.0.0.1", port)
+                writer.write(b"hello %d\n" % i)
+                await writer.drain()
+                line = await reader.readline()
+                writer.close()
+                return line
+
+            result = await asyncio.gather(*[client(i) for i in range(10)])
+            server.close()
+            await server.wait_closed()
+            return result
+
+        self.assertEqual(self.loop.run_until_complete(main()), [b"HELLO %d\n" % i for i in range(10)])
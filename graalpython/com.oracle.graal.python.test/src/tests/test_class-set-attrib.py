@@ -150,3 +150,58 @@ def test_deepcopy_attribute_removal():
 
     i1.add_rem_attr()
     assert i1.__dict__ == deepcopy(i1).__dict__
+
+
+def test_megamorphic_lookup_invalidation():
+    class Base:
+        def m(self):
+            return 1
+
+        def __add__(self, other):
+            return 10
+
+    # more classes than the inline caches hold, so lookups go through the generic path
+    classes = [type("Sub%d" % i, (Base,), {}) for i in range(20)]
+
+    def call_all():
+        return [c().m() + (c() + 1) for c in classes]
+
+    assert call_all() == [11] * 20
+    Base.m = lambda self: 2
+    assert call_all() == [12] * 20
+    classes[3].m = lambda self: 3
+    classes[5].__add__ = lambda self, other: 20
+    result = call_all()
+    assert result[3] == 13 and result[5] == 22
+    assert result[:3] == [12] * 3
+    del classes[3].m
+    Base.__add__ = lambda self, other: 30
+    result = call_all()
+    assert result[3] == 32 and result[5] == 22
+    del Base.m
+    try:
+        classes[0]().m()
+    except AttributeError:
+        pass
+    else:
+        assert False, "expected AttributeError"
+
+
+def test_lookup_after_repeated_class_changes():
+    class Base:
+        counter = 0
+
+    class Sub(Base):
+        pass
+
+    def read(obj):
+        return obj.counter
+
+    for i in range(50):
+        Base.counter = i
+        assert read(Sub()) == i
+        if i % 10 == 5:
+            Sub.counter = -i
+            assert read(Sub()) == -i
+            del Sub.counter
+        assert read(Base()) == i
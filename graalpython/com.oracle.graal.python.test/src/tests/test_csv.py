@@ -0,0 +1,165 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import csv
+import io
+import unittest
+
+
+class ReaderTests(unittest.TestCase):
+    def read(self, lines, **kwargs):
+        return list(csv.reader(lines, **kwargs))
+
+    def test_simple(self):
+        self.assertEqual(self.read(['a,b,c\r\n', '1,2,3\r\n']), [['a', 'b', 'c'], ['1', '2', '3']])
+        self.assertEqual(self.read(['']), [[]])
+        self.assertEqual(self.read(['a,,']), [['a', '', '']])
+
+    def test_quoted(self):
+        self.assertEqual(self.read(['"a,b","c""d",e']), [['a,b', 'c"d', 'e']])
+        self.assertEqual(self.read(['"multi\n', 'line",x\n']), [['multi\nline', 'x']])
+        self.assertEqual(self.read(['"ab"c'], doublequote=False), [['abc']])
+        self.assertRaises(csv.Error, self.read, ['"ab"c'], strict=True)
+        self.assertRaises(csv.Error, self.read, ['"a'], strict=True)
+        self.assertEqual(self.read(['"a']), [['a']])
+
+    def test_escape(self):
+        self.assertEqual(self.read(['a\\,b,c'], escapechar='\\'), [['a,b', 'c']])
+        self.assertEqual(self.read(['^'], escapechar='^'), [['\n']])
+
+    def test_nonnumeric(self):
+        self.assertEqual(self.read([',3,"5",7.3, 9'], quoting=csv.QUOTE_NONNUMERIC), [['', 3.0, '5', 7.3, 9.0]])
+        self.assertRaises(ValueError, self.read, ['abc,3'], quoting=csv.QUOTE_NONNUMERIC)
+
+    def test_errors(self):
+        self.assertRaises(csv.Error, self.read, ['a,b\rc,d'])
+        self.assertRaises(csv.Error, self.read, [b'a,b'])
+
+    def test_unicode(self):
+        self.assertEqual(self.read(['\U0001F600\u039B\U0001F601'], delimiter='\u039B'), [['\U0001F600', '\U0001F601']])
+
+    def test_line_num(self):
+        r = csv.reader(['a', '"b\n', 'c"', 'd'])
+        self.assertEqual(r.line_num, 0)
+        self.assertEqual(next(r), ['a'])
+        self.assertEqual(next(r), ['b\nc'])
+        self.assertEqual(r.line_num, 3)
+
+    def test_field_size_limit(self):
+        old = csv.field_size_limit()
+        try:
+            csv.field_size_limit(4)
+            self.assertEqual(self.read(['abcd,"ef"']), [['abcd', 'ef']])
+            self.assertRaises(csv.Error, self.read, ['abcde'])
+            self.assertRaises(csv.Error, self.read, ['"abcde"'])
+            self.assertEqual(csv.field_size_limit(), 4)
+            self.assertRaises(TypeError, csv.field_size_limit, 1.0)
+        finally:
+            csv.field_size_limit(old)
+
+
+class WriterTests(unittest.TestCase):
+    def write(self, rows, **kwargs):
+        buf = io.StringIO()
+        w = csv.writer(buf, **kwargs)
+        w.writerows(rows)
+        return buf.getvalue()
+
+    def test_simple(self):
+        self.assertEqual(self.write([['a', 1, 2.5, None]]), 'a,1,2.5,\r\n')
+        self.assertEqual(self.write([[None], ['']]), '""\r\n""\r\n')
+        self.assertEqual(self.write([iter(['x', 'y'])], lineterminator='\n'), 'x,y\n')
+
+    def test_quoting(self):
+        self.assertEqual(self.write([['a,b', 'c"d', 'e\nf']]), '"a,b","c""d","e\nf"\r\n')
+        self.assertEqual(self.write([['a', 1]], quoting=csv.QUOTE_ALL), '"a","1"\r\n')
+        self.assertEqual(self.write([['a', 1, 1.5]], quoting=csv.QUOTE_NONNUMERIC), '"a",1,1.5\r\n')
+        self.assertEqual(self.write([['a,b', '"']], quoting=csv.QUOTE_NONE, escapechar='\\'), 'a\\,b,\\"\r\n')
+        self.assertEqual(self.write([['"']], escapechar='\\', doublequote=False), '\\"\r\n')
+
+    def test_errors(self):
+        self.assertRaises(csv.Error, self.write, [['a,b']], quoting=csv.QUOTE_NONE)
+        self.assertRaises(csv.Error, self.write, [['']], quoting=csv.QUOTE_NONE)
+        self.assertRaises(csv.Error, self.write, [None])
+        self.assertRaises(TypeError, self.write, None)
+        self.assertRaises(TypeError, csv.writer, object())
+
+    def test_roundtrip(self):
+        rows = [['a\nb', 'c,d', 'e"f'], ['', ' g ', '\U0001F600']]
+        self.assertEqual(list(csv.reader(io.StringIO(self.write(rows), newline=''))), rows)
+
+
+class DialectTests(unittest.TestCase):
+    def test_attributes(self):
+        d = csv.reader([], delimiter=';', quotechar=None).dialect
+        self.assertEqual(d.delimiter, ';')
+        self.assertIsNone(d.quotechar)
+        self.assertEqual(d.quoting, csv.QUOTE_NONE)
+        self.assertEqual(d.lineterminator, '\r\n')
+        self.assertRaises(AttributeError, setattr, d, 'delimiter', ',')
+
+    def test_validation(self):
+        self.assertRaises(TypeError, csv.reader, [], delimiter='ab')
+        self.assertRaises(TypeError, csv.reader, [], delimiter='')
+        self.assertRaises(TypeError, csv.reader, [], quoting=4)
+        self.assertRaises(TypeError, csv.reader, [], quoting=True)
+        self.assertRaises(TypeError, csv.reader, [], lineterminator=None)
+        self.assertRaises(TypeError, csv.reader, [], bad_attr=1)
+
+    def test_registry(self):
+        csv.register_dialect('semi', delimiter=';')
+        try:
+            self.assertIn('semi', csv.list_dialects())
+            self.assertEqual(csv.get_dialect('semi').delimiter, ';')
+            self.assertEqual(list(csv.reader(['a;b'], 'semi')), [['a', 'b']])
+        finally:
+            csv.unregister_dialect('semi')
+        self.assertRaises(csv.Error, csv.get_dialect, 'semi')
+        self.assertRaises(csv.Error, csv.unregister_dialect, 'semi')
+        self.assertRaises(TypeError, csv.register_dialect, 1)
+
+    def test_dialect_reuse(self):
+        d = csv.get_dialect('excel')
+        self.assertIs(csv.reader([], d).dialect, d)
+        self.assertRaises(TypeError, copy_dialect, d)
+
+
+def copy_dialect(d):
+    import copy
+    return copy.copy(d)
@@ -0,0 +1,122 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import datetime
+import unittest
+
+
+class DatetimeHelpersTests(unittest.TestCase):
+
+    def test_ordinal_roundtrip(self):
+        for ordinal in list(range(1, 3000)) + list(range(730000, 740000, 7)) + [datetime._MAXORDINAL]:
+            d = datetime.date.fromordinal(ordinal)
+            self.assertEqual(d.toordinal(), ordinal)
+        self.assertEqual(datetime.date(2000, 2, 29).toordinal(), 730179)
+        self.assertEqual(datetime.date.fromordinal(730179), datetime.date(2000, 2, 29))
+        self.assertEqual(datetime.date.fromordinal(1), datetime.date.min)
+        self.assertEqual(datetime.date.fromordinal(datetime._MAXORDINAL), datetime.date.max)
+
+    def test_calendar_helpers(self):
+        self.assertTrue(datetime._is_leap(2000))
+        self.assertFalse(datetime._is_leap(1900))
+        self.assertEqual(datetime._days_in_month(2004, 2), 29)
+        self.assertEqual(datetime._days_in_month(2003, 2), 28)
+        self.assertEqual(datetime._days_before_month(2004, 3), 60)
+        self.assertEqual(datetime._days_before_year(2), 365)
+        self.assertRaises(ValueError, datetime.date, 2003, 2, 29)
+        self.assertRaises(ValueError, datetime.date, 2003, 13, 1)
+
+    def test_isoformat(self):
+        t = datetime.time(12, 3, 4, 5600)
+        self.assertEqual(t.isoformat(), "12:03:04.005600")
+        self.assertEqual(t.isoformat("hours"), "12")
+        self.assertEqual(t.isoformat("minutes"), "12:03")
+        self.assertEqual(t.isoformat("seconds"), "12:03:04")
+        self.assertEqual(t.isoformat("milliseconds"), "12:03:04.005")
+        self.assertEqual(datetime.time(1, 2, 3).isoformat(), "01:02:03")
+        self.assertRaises(ValueError, t.isoformat, "nanoseconds")
+
+    def test_fromisoformat(self):
+        self.assertEqual(datetime.date.fromisoformat("2020-07-14"), datetime.date(2020, 7, 14))
+        self.assertEqual(datetime.datetime.fromisoformat("2020-07-14T10:11:12.123"),
+                         datetime.datetime(2020, 7, 14, 10, 11, 12, 123000))
+        self.assertEqual(datetime.datetime.fromisoformat("2020-07-14 10:11+02:00"),
+                         datetime.datetime(2020, 7, 14, 10, 11, tzinfo=datetime.timezone(datetime.timedelta(hours=2))))
+        for invalid in ["2020/07/14", "2020-7-14", "20x0-07-14", "2020-07-14T1", "2020-07-14T10:11:12.1234"]:
+            self.assertRaises(ValueError, datetime.datetime.fromisoformat, invalid)
+        self.assertRaises(ValueError, datetime.date.fromisoformat, "2020-07-1x")
+
+    def test_timedelta_normalization(self):
+        td = datetime.timedelta(days=1, seconds=-1, microseconds=-1)
+        self.assertEqual((td.days, td.seconds, td.microseconds), (0, 86398, 999999))
+        td = datetime.timedelta(weeks=1, hours=25, minutes=61, milliseconds=1001)
+        self.assertEqual((td.days, td.seconds, td.microseconds), (8, 7261, 1000))
+        td = datetime.timedelta(microseconds=-1)
+        self.assertEqual((td.days, td.seconds, td.microseconds), (-1, 86399, 999999))
+        self.assertEqual(datetime.timedelta(seconds=1.5), datetime.timedelta(seconds=1, microseconds=500000))
+        self.assertEqual(datetime.timedelta(days=True), datetime.timedelta(days=1))
+        self.assertRaises(OverflowError, datetime.timedelta, days=1000000000)
+        self.assertRaises(OverflowError, datetime.timedelta, days=2 ** 70)
+
+    def test_datetime_arithmetic(self):
+        tz = datetime.timezone(datetime.timedelta(hours=2))
+        dt = datetime.datetime(2020, 12, 31, 23, 59, 59, 999999, tzinfo=tz)
+        self.assertEqual(dt + datetime.timedelta(microseconds=1), datetime.datetime(2021, 1, 1, tzinfo=tz))
+        self.assertEqual(dt - datetime.timedelta(days=366, seconds=59, microseconds=999999),
+                         datetime.datetime(2019, 12, 31, 23, 59, tzinfo=tz))
+        self.assertEqual(datetime.datetime(2000, 2, 28, 12) + datetime.timedelta(hours=12), datetime.datetime(2000, 2, 29))
+        self.assertIs((dt + datetime.timedelta(1)).tzinfo, tz)
+        self.assertRaises(OverflowError, datetime.datetime.__add__, datetime.datetime.max, datetime.timedelta(microseconds=1))
+        self.assertRaises(OverflowError, datetime.datetime.__sub__, datetime.datetime.min, datetime.timedelta(microseconds=1))
+
+    def test_comparisons(self):
+        self.assertLess(datetime.date(2020, 1, 31), datetime.date(2020, 2, 1))
+        self.assertEqual(datetime.date(2020, 2, 1), datetime.date(2020, 2, 1))
+        self.assertGreater(datetime.time(12, 0, 0, 1), datetime.time(12))
+        self.assertLess(datetime.datetime(2020, 1, 1, 0, 0, 0, 1), datetime.datetime(2020, 1, 1, 0, 0, 1))
+        self.assertLess(datetime.timedelta(-1), datetime.timedelta(microseconds=-1))
+        self.assertEqual(datetime.timedelta(hours=24), datetime.timedelta(1))
+
+    def test_strftime(self):
+        tz = datetime.timezone(datetime.timedelta(hours=-3, minutes=-30), "X%Y")
+        dt = datetime.datetime(2020, 7, 14, 10, 11, 12, 1300, tzinfo=tz)
+        self.assertEqual(dt.strftime("%Y-%m-%d %f %z %Z %%f %"), "2020-07-14 001300 -0330 X%Y %f %")
+        self.assertEqual(datetime.datetime(2020, 7, 14).strftime("%z|%Z|%f"), "||000000")
+        self.assertEqual(datetime.time(1, 2, 3, 4).strftime("%H:%M:%S.%f"), "01:02:03.000004")
+        self.assertEqual(datetime.date(2020, 7, 14).strftime("%d.%m.%Y"), "14.07.2020")
@@ -0,0 +1,185 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import copy
+import functools
+import threading
+import unittest
+
+import _functools
+
+
+def capture(*args, **kw):
+    return args, kw
+
+
+class PartialTests(unittest.TestCase):
+
+    def test_is_builtin(self):
+        self.assertIs(functools.partial, _functools.partial)
+
+    def test_call(self):
+        p = functools.partial(capture, 1, 2, a=10, b=20)
+        self.assertEqual(p(3, b=30, c=40), ((1, 2, 3), {'a': 10, 'b': 30, 'c': 40}))
+        self.assertEqual(p(), ((1, 2), {'a': 10, 'b': 20}))
+        self.assertEqual(p.func, capture)
+        self.assertEqual(p.args, (1, 2))
+        self.assertEqual(p.keywords, {'a': 10, 'b': 20})
+
+    def test_flattening(self):
+        inner = functools.partial(capture, 1, a=1)
+        outer = functools.partial(inner, 2, a=2, b=3)
+        self.assertIs(outer.func, capture)
+        self.assertEqual(outer.args, (1, 2))
+        self.assertEqual(outer.keywords, {'a': 2, 'b': 3})
+
+    def test_repr(self):
+        p = functools.partial(capture, 1, a=2)
+        self.assertEqual(repr(p), "functools.partial(%r, 1, a=2)" % capture)
+
+    def test_setstate_and_copy(self):
+        p = functools.partial(capture)
+        p.__setstate__((capture, (1,), {'a': 10}, {'attr': []}))
+        self.assertEqual(p(2), ((1, 2), {'a': 10}))
+        c = copy.copy(p)
+        self.assertIs(c.args, p.args)
+        self.assertIs(c.attr, p.attr)
+        self.assertRaises(TypeError, p.__setstate__, (capture, (), {}))
+        self.assertRaises(TypeError, functools.partial)
+        self.assertRaises(TypeError, functools.partial, 1)
+
+
+class LruCacheTests(unittest.TestCase):
+
+    def test_is_builtin(self):
+        @functools.lru_cache(maxsize=4)
+        def f(x):
+            return x
+        self.assertIsInstance(f, _functools._lru_cache_wrapper)
+
+    def test_eviction_order(self):
+        calls = []
+
+        @functools.lru_cache(maxsize=2)
+        def f(x):
+            calls.append(x)
+            return x * 2
+
+        self.assertEqual(f(1), 2)
+        self.assertEqual(f(2), 4)
+        self.assertEqual(f(1), 2)
+        self.assertEqual(f(3), 6)  # evicts 2, the least recently used
+        self.assertEqual(f(1), 2)
+        self.assertEqual(f(2), 4)
+        self.assertEqual(calls, [1, 2, 3, 2])
+        self.assertEqual(f.cache_info(), (2, 4, 2, 2))
+        f.cache_clear()
+        self.assertEqual(f.cache_info(), (0, 0, 2, 0))
+
+    def test_keys(self):
+        @functools.lru_cache(maxsize=None, typed=True)
+        def f(*args, **kwargs):
+            return args, kwargs
+
+        f(1)
+        f(1.0)
+        f(1, **{})
+        f(a=1, b=2)
+        f(b=2, a=1)
+        self.assertEqual(f.cache_info().hits, 1)
+        self.assertEqual(f.cache_info().currsize, 4)
+
+    def test_method(self):
+        class A:
+            @functools.lru_cache()
+            def m(self, x):
+                return (self, x)
+        a = A()
+        self.assertEqual(a.m(1), (a, 1))
+        self.assertEqual(a.m(1), (a, 1))
+        self.assertEqual(A.m.cache_info().hits, 1)
+        self.assertEqual(A.m.__name__, 'm')
+        self.assertIs(copy.deepcopy(A.m), A.m)
+
+    def test_threads(self):
+        @functools.lru_cache(maxsize=16)
+        def f(x):
+            return x * 3
+
+        def work():
+            for i in range(200):
+                self.assertEqual(f(i % 32), (i % 32) * 3)
+
+        threads = [threading.Thread(target=work) for _ in range(4)]
+        for t in threads:
+            t.start()
+        for t in threads:
+            t.join()
+        info = f.cache_info()
+        self.assertEqual(info.hits + info.misses, 800)
+        self.assertLessEqual(info.currsize, 16)
+
+    def test_eq_calls_cache_from_other_thread(self):
+        @functools.lru_cache(maxsize=4)
+        def f(x):
+            return x
+
+        spawned = []
+
+        class Key:
+            def __init__(self, name):
+                self.name = name
+
+            def __hash__(self):
+                return 42
+
+            def __eq__(self, other):
+                if not spawned:
+                    # another thread uses the cache with a key of the same hash while we compare
+                    t = threading.Thread(target=f, args=(Key("c"),))
+                    spawned.append(t)
+                    t.start()
+                    t.join(10)
+                return self.name == other.name
+
+        f(Key("a"))
+        f(Key("b"))
+        self.assertEqual(len(spawned), 1)
+        self.assertFalse(spawned[0].is_alive())
+        self.assertEqual(f.cache_info().currsize, 3)
@@ -39,6 +39,7 @@
 
 from _weakref import ref, getweakrefcount
 import gc
+import time
 
 
 def test_gc_collect():
@@ -48,3 +49,36 @@ def test_gc_collect():
 def test_gc_count():
     c0, c1, c2 = gc.get_count()
     assert c0 + c1 + c2 > 0, "we definitely had something collected"
+
+
+class A:
+    pass
+
+
+def _make_garbage():
+    objs = [A() for i in range(100)]
+    for o in objs:
+        # a cycle, so that CPython also finds them in a collection
+        o.cycle = o
+    return [ref(o) for o in objs]
+
+
+def test_gc_collect_generations():
+    for generation in range(3):
+        assert gc.collect(generation) >= 0
+    for generation in (-1, 3):
+        try:
+            gc.collect(generation)
+        except ValueError:
+            pass
+        else:
+            assert False, "expected ValueError for generation %d" % generation
+    # dead references are counted when they are dequeued, which happens asynchronously and
+    # may miss a collection, so there is new garbage for every attempt
+    for i in range(100):
+        refs = _make_garbage()
+        if gc.collect() > 0:
+            break
+        time.sleep(0.1)
+    else:
+        assert False, "gc.collect() did not report any reclaimed objects"
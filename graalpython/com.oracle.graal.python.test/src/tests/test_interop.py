@@ -535,3 +535,86 @@ if sys.implementation.name == "graalpython":
             assert True
         else:
             assert False, "should throw a type error again"
+
+    def test_host_primitive_array_bulk_conversion():
+        import java
+        import array
+        il = java.type("int[]")(5)
+        for i in range(5):
+            il[i] = i * 3
+        assert list(il) == [0, 3, 6, 9, 12]
+        assert tuple(il) == (0, 3, 6, 9, 12)
+        assert il[1:4] == [3, 6, 9]
+        assert il[::-2] == [12, 6, 0]
+        assert list(array.array('i', il)) == [0, 3, 6, 9, 12]
+        it = iter(il)
+        assert next(it) == 0
+        assert list(it) == [3, 6, 9, 12]
+
+        dl = java.type("double[]")(3)
+        dl[0] = 0.5
+        dl[2] = -1.5
+        assert list(dl) == [0.5, 0.0, -1.5]
+        fl = java.type("float[]")(2)
+        fl[1] = 2.5
+        assert list(fl) == [0.0, 2.5]
+
+        bl = java.type("byte[]")(3)
+        bl[0] = 1
+        bl[2] = 127
+        assert list(bl) == [1, 0, 127]
+        assert bytes(bl) == b"\x01\x00\x7f"
+        bl[1] = -1
+        assert list(bl) == [1, -1, 127]
+        try:
+            bytes(bl)
+        except ValueError:
+            assert True
+        else:
+            assert False, "should throw a value error"
+
+    def test_host_byte_buffers_are_bytes_like():
+        import java
+        import binascii
+        import zlib
+        ByteBuffer = java.type("java.nio.ByteBuffer")
+        data = b"hello host buffer"
+        ba = java.type("byte[]")(len(data))
+        for i, b in enumerate(data):
+            ba[i] = b
+        heap = ByteBuffer.wrap(ba)
+        direct = ByteBuffer.allocateDirect(len(data))
+        direct.put(ba)
+        direct.flip()
+        for buf in (ba, heap, direct):
+            assert str(buf, "ascii") == "hello host buffer"
+            assert binascii.b2a_hex(buf) == binascii.b2a_hex(data)
+            assert zlib.decompress(zlib.compress(buf)) == data
+            assert zlib.crc32(buf) == zlib.crc32(data)
+
+        # only the remaining bytes of a buffer are visible
+        heap.position(6)
+        assert str(heap, "ascii") == "host buffer"
+        assert zlib.crc32(heap) == zlib.crc32(data[6:])
+
+    def test_host_byte_buffers_are_copied():
+        import java
+        import os
+        data = b"hello host buffer"
+        ba = java.type("byte[]")(len(data))
+        for i, b in enumerate(data):
+            ba[i] = b
+        copy = bytes(ba)
+        joined = b"".join([ba])
+        ba[0] = ord("j")
+        assert copy == data
+        assert joined == data
+
+        # os.write only reads the host memory
+        r, w = os.pipe()
+        try:
+            assert os.write(w, ba) == len(data)
+            assert os.read(r, len(data)) == b"jello host buffer"
+        finally:
+            os.close(r)
+            os.close(w)
@@ -0,0 +1,110 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import sys
+import unittest
+
+IS_GRAAL = sys.implementation.name == "graalpython"
+
+
+def square(x):
+    return x * x
+
+
+def put_greeting(queue, name):
+    queue.put(("hello", name))
+
+
+def exit_with(code):
+    sys.exit(code)
+
+
+def wait_on(queue):
+    queue.get()
+
+
+@unittest.skipUnless(IS_GRAAL, "the inprocess start method is specific to GraalPython")
+class InProcessTests(unittest.TestCase):
+
+    def setUp(self):
+        import multiprocessing
+        self.ctx = multiprocessing.get_context("inprocess")
+
+    def test_channel_hands_over_immutable_objects(self):
+        import _multiprocessing
+        channel = _multiprocessing._channel_create()
+        try:
+            obj = (1, 2 ** 100, 1.5, "str", b"bytes", None, (True,))
+            self.assertTrue(_multiprocessing._channel_put(channel, obj, False))
+            self.assertFalse(_multiprocessing._channel_put(channel, [1], False))
+            self.assertTrue(_multiprocessing._channel_poll(channel))
+            self.assertEqual(_multiprocessing._channel_get(channel, None), (obj, False))
+            self.assertFalse(_multiprocessing._channel_poll(channel))
+            self.assertIsNone(_multiprocessing._channel_get(channel, 0))
+        finally:
+            _multiprocessing._channel_release(channel)
+
+    def test_process(self):
+        queue = self.ctx.SimpleQueue()
+        p = self.ctx.Process(target=put_greeting, args=(queue, "world"))
+        p.start()
+        self.assertEqual(queue.get(), ("hello", "world"))
+        p.join()
+        self.assertEqual(p.exitcode, 0)
+
+    def test_exitcode(self):
+        p = self.ctx.Process(target=exit_with, args=(3,))
+        p.start()
+        p.join()
+        self.assertEqual(p.exitcode, 3)
+
+    def test_terminate_waiting_worker(self):
+        queue = self.ctx.SimpleQueue()
+        p = self.ctx.Process(target=wait_on, args=(queue,))
+        p.start()
+        p.terminate()
+        p.join()
+        self.assertEqual(p.exitcode, -15)
+        # the channel shared with the worker is still usable
+        queue.put(1)
+        self.assertEqual(queue.get(), 1)
+
+    def test_pool(self):
+        with self.ctx.Pool(2) as pool:
+            self.assertEqual(pool.map(square, range(10)), [x * x for x in range(10)])
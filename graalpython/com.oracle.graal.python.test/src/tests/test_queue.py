@@ -0,0 +1,104 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import threading
+import time
+import unittest
+
+import _queue
+import queue
+
+
+class SimpleQueueTests(unittest.TestCase):
+
+    def test_fifo(self):
+        q = _queue.SimpleQueue()
+        self.assertTrue(q.empty())
+        for i in range(5):
+            q.put(i)
+        q.put_nowait(None)
+        self.assertEqual(q.qsize(), 6)
+        self.assertFalse(q.empty())
+        self.assertEqual([q.get() for i in range(5)], list(range(5)))
+        self.assertIsNone(q.get_nowait())
+        self.assertTrue(q.empty())
+
+    def test_empty(self):
+        q = _queue.SimpleQueue()
+        self.assertRaises(_queue.Empty, q.get_nowait)
+        self.assertRaises(_queue.Empty, q.get, False)
+        self.assertRaises(_queue.Empty, q.get, None)
+        self.assertRaises(_queue.Empty, q.get, block=0)
+        self.assertRaises(_queue.Empty, q.get, timeout=0.01)
+        self.assertRaises(ValueError, q.get, timeout=-1)
+        self.assertIs(queue.Empty, _queue.Empty)
+        self.assertTrue(issubclass(_queue.Empty, Exception))
+
+    def test_timeout(self):
+        q = _queue.SimpleQueue()
+        start = time.monotonic()
+        self.assertRaises(_queue.Empty, q.get, True, 0.2)
+        self.assertGreaterEqual(time.monotonic() - start, 0.15)
+
+    def test_blocking_get(self):
+        q = _queue.SimpleQueue()
+        results = []
+
+        def consumer():
+            for i in range(3):
+                results.append(q.get())
+
+        t = threading.Thread(target=consumer)
+        t.start()
+        for i in range(3):
+            time.sleep(0.01)
+            q.put(i)
+        t.join(10)
+        self.assertEqual(results, [0, 1, 2])
+
+    def test_subclass(self):
+        class MyQueue(_queue.SimpleQueue):
+            pass
+
+        q = MyQueue()
+        q.put('a')
+        self.assertEqual(q.get(), 'a')
+
+    def test_used_by_queue_module(self):
+        self.assertIs(queue.SimpleQueue, _queue.SimpleQueue)
@@ -44,3 +44,129 @@ def test_select_raises_on_object_with_no_fileno_func():
     except TypeError:
         raised = True
     assert raised
+
+
+def test_poll_pipe():
+    import os
+    import select
+    r, w = os.pipe()
+    try:
+        p = select.poll()
+        p.register(r, select.POLLIN)
+        p.register(w, select.POLLOUT)
+        assert p.poll(0) == [(w, select.POLLOUT)]
+        os.write(w, b"x")
+        assert sorted(p.poll(1000)) == sorted([(r, select.POLLIN), (w, select.POLLOUT)])
+        p.modify(w, select.POLLIN)
+        assert p.poll(0) == [(r, select.POLLIN)]
+        p.unregister(w)
+        try:
+            p.unregister(w)
+        except KeyError:
+            pass
+        else:
+            assert False, "expected KeyError"
+        os.read(r, 1)
+        assert p.poll(0) == []
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_epoll_pipe():
+    import os
+    import select
+    if not hasattr(select, "epoll"):
+        return
+    r, w = os.pipe()
+    try:
+        with select.epoll() as ep:
+            assert ep.fileno() >= 0
+            ep.register(r, select.EPOLLIN)
+            try:
+                ep.register(r, select.EPOLLIN)
+            except FileExistsError:
+                pass
+            else:
+                assert False, "expected FileExistsError"
+            assert ep.poll(0) == []
+            os.write(w, b"xy")
+            assert ep.poll(1) == [(r, select.EPOLLIN)]
+            ep.register(w, select.EPOLLOUT)
+            assert len(ep.poll(0, 1)) == 1
+            ep.unregister(r)
+            assert ep.poll(0) == [(w, select.EPOLLOUT)]
+        assert ep.closed
+        try:
+            ep.poll(0)
+        except ValueError:
+            pass
+        else:
+            assert False, "expected ValueError"
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_epoll_regular_file():
+    import select
+    import tempfile
+    if not hasattr(select, "epoll"):
+        return
+    with tempfile.TemporaryFile() as f, select.epoll() as ep:
+        try:
+            ep.register(f.fileno(), select.EPOLLIN)
+        except PermissionError:
+            pass
+        else:
+            assert False, "expected PermissionError"
+
+
+def test_poll_keeps_socket_blocking():
+    import select
+    import socket
+    a, b = socket.socketpair()
+    try:
+        p = select.poll()
+        p.register(a, select.POLLIN)
+        assert p.poll(0) == []
+        # a blocking socket keeps blocking while it is registered
+        b.send(b"x")
+        assert a.recv(1) == b"x"
+        p.unregister(a)
+        a.setblocking(True)
+        assert a.getblocking()
+        b.sendall(b"y" * 100)
+        assert a.recv(100) == b"y" * 100
+        a.settimeout(None)
+        b.send(b"z")
+        assert a.recv(1) == b"z"
+    finally:
+        a.close()
+        b.close()
+
+
+def test_poll_register_invalid_fd():
+    import os
+    import select
+    import sys
+    polls = []
+    if hasattr(select, "epoll"):
+        polls.append(select.epoll())
+    if sys.implementation.name == "graalpython":
+        # CPython's poll reports POLLNVAL for the fd instead
+        polls.append(select.poll())
+    r, w = os.pipe()
+    os.close(r)
+    os.close(w)
+    try:
+        for p in polls:
+            try:
+                p.register(r, select.POLLIN)
+            except OSError as e:
+                assert e.errno == 9, e
+            else:
+                assert False, "expected OSError"
+    finally:
+        if hasattr(select, "epoll"):
+            polls[0].close()
@@ -0,0 +1,203 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import sys
+
+
+def _traced(a):
+    b = a + 1
+    return b
+
+
+def _relative_line(frame):
+    return frame.f_lineno - _traced.__code__.co_firstlineno
+
+
+def test_settrace_events():
+    events = []
+
+    def tracer(frame, event, arg):
+        if frame.f_code.co_name == "_traced":
+            events.append((event, _relative_line(frame), arg))
+        return tracer
+
+    sys.settrace(tracer)
+    try:
+        _traced(1)
+    finally:
+        sys.settrace(None)
+    assert [e[0] for e in events] == ["call", "line", "line", "return"], events
+    assert events[1:] == [("line", 1, None), ("line", 2, None), ("return", 2, 2)], events
+
+
+def test_settrace_without_local_trace():
+    events = []
+
+    def tracer(frame, event, arg):
+        if frame.f_code.co_name == "_traced":
+            events.append(event)
+        return None
+
+    sys.settrace(tracer)
+    try:
+        _traced(1)
+    finally:
+        sys.settrace(None)
+    assert events == ["call"], events
+
+
+def test_local_trace_returning_none_stops_line_events():
+    events = []
+
+    def local(frame, event, arg):
+        events.append(event)
+        return None
+
+    def tracer(frame, event, arg):
+        if frame.f_code.co_name == "_traced":
+            return local
+        return None
+
+    sys.settrace(tracer)
+    try:
+        _traced(1)
+    finally:
+        sys.settrace(None)
+    assert events == ["line"], events
+
+
+def test_settrace_loop_lines():
+    lines = []
+
+    def loop():
+        for i in range(3):
+            i += 1
+
+    first = loop.__code__.co_firstlineno
+
+    def tracer(frame, event, arg):
+        if frame.f_code.co_name == "loop" and event == "line":
+            lines.append(frame.f_lineno - first)
+        return tracer
+
+    sys.settrace(tracer)
+    try:
+        loop()
+    finally:
+        sys.settrace(None)
+    assert lines.count(2) == 3, lines
+
+
+def test_gettrace_getprofile():
+    def func(frame, event, arg):
+        pass
+
+    assert sys.gettrace() is None
+    assert sys.getprofile() is None
+    sys.settrace(func)
+    sys.setprofile(func)
+    try:
+        assert sys.gettrace() is func
+        assert sys.getprofile() is func
+    finally:
+        sys.settrace(None)
+        sys.setprofile(None)
+    assert sys.gettrace() is None
+    assert sys.getprofile() is None
+
+
+def test_setprofile_events():
+    events = []
+
+    def profiler(frame, event, arg):
+        if frame.f_code.co_name == "_traced":
+            events.append((event, arg))
+
+    sys.setprofile(profiler)
+    try:
+        _traced(1)
+    finally:
+        sys.setprofile(None)
+    assert events == [("call", None), ("return", 2)], events
+
+
+def test_failing_trace_function_is_removed():
+    def tracer(frame, event, arg):
+        raise RuntimeError
+
+    sys.settrace(tracer)
+    try:
+        _traced(1)
+    except RuntimeError:
+        pass
+    finally:
+        removed = sys.gettrace() is None
+        sys.settrace(None)
+    assert removed
+
+
+def test_cprofile_call_counts():
+    import cProfile
+    import pstats
+
+    def fib(n):
+        return n if n < 2 else fib(n - 1) + fib(n - 2)
+
+    profile = cProfile.Profile()
+    profile.enable()
+    fib(10)
+    profile.disable()
+    stats = [v for k, v in pstats.Stats(profile).stats.items() if k[2] == "fib"]
+    assert len(stats) == 1, stats
+    primitive_calls, total_calls, _, _, callers = stats[0]
+    assert total_calls == 177, stats
+    assert primitive_calls == 1, stats
+    assert callers, stats
+
+
+def test_lsprof_rejects_custom_timer():
+    if sys.implementation.name != "graalpython":
+        return
+    import _lsprof
+    try:
+        _lsprof.Profiler(lambda: 0)
+    except NotImplementedError:
+        pass
+    else:
+        assert False, "expected NotImplementedError"
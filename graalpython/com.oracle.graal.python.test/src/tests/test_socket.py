@@ -37,6 +37,7 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
+import os
 import unittest
 
 import socket
@@ -66,3 +67,211 @@ def test_get_name_info():
     except TypeError:
         raised = True
     assert raised
+
+
+class TestSendRecv(unittest.TestCase):
+    def setUp(self):
+        self.server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        self.server.bind(("127.0.0.1", 0))
+        self.server.listen(1)
+        self.client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        self.client.connect(self.server.getsockname())
+        self.conn, _ = self.server.accept()
+
+    def tearDown(self):
+        self.conn.close()
+        self.client.close()
+        self.server.close()
+
+    def recv_exactly(self, n):
+        data = b""
+        while len(data) < n:
+            data += self.conn.recv(n - len(data))
+        return data
+
+    def test_send_returns_count(self):
+        self.assertEqual(self.client.send(b"hello"), 5)
+        self.assertEqual(self.recv_exactly(5), b"hello")
+
+    def test_sendall_bytearray(self):
+        data = bytearray(range(256)) * 64
+        self.client.sendall(data)
+        self.assertEqual(self.recv_exactly(len(data)), bytes(data))
+
+    def test_recv_into_bytearray(self):
+        self.client.sendall(b"abcdef")
+        buf = bytearray(10)
+        n = self.conn.recv_into(buf, 3)
+        self.assertEqual(n, 3)
+        self.assertEqual(buf, b"abc" + bytes(7))
+        n = self.conn.recv_into(buf)
+        self.assertEqual(buf[:n], b"def")
+        self.assertRaises(ValueError, self.conn.recv_into, buf, 11)
+        self.assertRaises(ValueError, self.conn.recv_into, buf, -1)
+
+    def test_recv_into_memoryview(self):
+        self.client.sendall(b"xyz")
+        buf = bytearray(8)
+        n = self.conn.recv_into(memoryview(buf)[2:])
+        self.assertEqual(buf[2:2 + n], b"xyz"[:n])
+        self.assertEqual(buf[:2], bytes(2))
+
+    def test_timeout(self):
+        self.assertIsNone(self.client.gettimeout())
+        self.assertTrue(self.client.getblocking())
+        self.client.setblocking(False)
+        self.assertEqual(self.client.gettimeout(), 0.0)
+        self.assertFalse(self.client.getblocking())
+        self.client.settimeout(2.5)
+        self.assertEqual(self.client.gettimeout(), 2.5)
+        self.assertTrue(self.client.getblocking())
+        self.client.settimeout(None)
+        self.assertIsNone(self.client.gettimeout())
+        self.assertRaises(ValueError, self.client.settimeout, -1)
+
+    def test_recv_timeout(self):
+        self.conn.settimeout(0.1)
+        self.assertRaises(socket.timeout, self.conn.recv, 10)
+        self.client.sendall(b"late")
+        self.assertEqual(self.conn.recv(10), b"late")
+
+    def test_sendall_full_buffer(self):
+        chunk = b"x" * (1024 * 1024)
+        self.client.setblocking(False)
+        with self.assertRaises(BlockingIOError):
+            for _ in range(1024):
+                self.client.sendall(chunk)
+        self.client.settimeout(0.1)
+        with self.assertRaises(socket.timeout):
+            for _ in range(1024):
+                self.client.sendall(chunk)
+
+    def write_temp_file(self, data):
+        import tempfile
+        f = tempfile.TemporaryFile()
+        f.write(data)
+        f.flush()
+        self.addCleanup(f.close)
+        return f
+
+    @unittest.skipUnless(hasattr(os, "sendfile"), "no os.sendfile")
+    def test_os_sendfile(self):
+        f = self.write_temp_file(b"0123456789")
+        f.seek(2)
+        # with an offset the file position stays where it is
+        self.assertEqual(os.sendfile(self.client.fileno(), f.fileno(), 5, 3), 3)
+        self.assertEqual(f.tell(), 2)
+        self.assertEqual(self.recv_exactly(3), b"567")
+        # without one it is used and advanced
+        self.assertEqual(os.sendfile(self.client.fileno(), f.fileno(), None, 4), 4)
+        self.assertEqual(os.lseek(f.fileno(), 0, os.SEEK_CUR), 6)
+        self.assertEqual(self.recv_exactly(4), b"2345")
+        self.assertEqual(os.sendfile(self.client.fileno(), f.fileno(), 10, 4), 0)
+
+    def test_socket_sendfile(self):
+        data = bytes(range(256)) * 1024
+        f = self.write_temp_file(data)
+        f.seek(0)
+        self.assertEqual(self.client.sendfile(f, 100), len(data) - 100)
+        self.assertEqual(f.tell(), len(data))
+        self.assertEqual(self.recv_exactly(len(data) - 100), data[100:])
+
+
+class TestDatagram(unittest.TestCase):
+    def setUp(self):
+        self.server = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+        self.server.bind(("127.0.0.1", 0))
+        self.client = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+
+    def tearDown(self):
+        self.client.close()
+        self.server.close()
+
+    def test_sendto_recvfrom(self):
+        addr = self.server.getsockname()
+        self.assertEqual(self.client.sendto(b"ping", addr), 4)
+        data, source = self.server.recvfrom(100)
+        self.assertEqual(data, b"ping")
+        self.assertEqual(source[1], self.client.getsockname()[1])
+        self.server.sendto(b"pong", source)
+        self.assertEqual(self.client.recvfrom(100), (b"pong", addr))
+
+    def test_connected_send_recv(self):
+        self.client.connect(self.server.getsockname())
+        self.assertEqual(self.client.getpeername(), self.server.getsockname())
+        self.client.send(b"hello")
+        self.assertEqual(self.server.recv(100), b"hello")
+
+    def test_nonblocking_recvfrom(self):
+        self.server.setblocking(False)
+        self.assertRaises(BlockingIOError, self.server.recvfrom, 100)
+
+    def test_select(self):
+        import select
+        self.client.sendto(b"x", self.server.getsockname())
+        readable, _, _ = select.select([self.server], [], [], 5)
+        self.assertEqual(readable, [self.server])
+
+    @unittest.skipUnless(hasattr(socket.socket, "_recvfrom_many"), "graalpython only")
+    def test_recvfrom_many(self):
+        addr = self.server.getsockname()
+        for i in range(5):
+            self.client.sendto(bytes([i]), addr)
+        self.server.setblocking(False)
+        received = []
+        while len(received) < 5:
+            try:
+                received += self.server._recvfrom_many(100, 3)
+            except BlockingIOError:
+                pass
+        self.assertEqual([data for data, _ in received], [bytes([i]) for i in range(5)])
+        self.assertRaises(BlockingIOError, self.server._recvfrom_many, 100, 3)
+        self.assertRaises(ValueError, self.server._recvfrom_many, 100, 0)
+
+
+@unittest.skipUnless(hasattr(socket, "AF_UNIX"), "no Unix domain sockets")
+class TestUnixStream(unittest.TestCase):
+    def test_send_recv(self):
+        import os
+        import tempfile
+        with tempfile.TemporaryDirectory() as tmpdir:
+            path = os.path.join(tmpdir, "sock")
+            server = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+            server.bind(path)
+            server.listen(1)
+            client = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+            try:
+                client.connect(path)
+                conn, _ = server.accept()
+                self.assertEqual(server.getsockname(), path)
+                client.sendall(b"over unix")
+                data = b""
+                while len(data) < 9:
+                    data += conn.recv(100)
+                self.assertEqual(data, b"over unix")
+                conn.close()
+            finally:
+                client.close()
+                server.close()
+
+    def test_timeout(self):
+        import os
+        import tempfile
+        with tempfile.TemporaryDirectory() as tmpdir:
+            path = os.path.join(tmpdir, "sock")
+            server = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+            server.bind(path)
+            server.listen(1)
+            server.settimeout(0.1)
+            self.assertEqual(server.gettimeout(), 0.1)
+            client = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+            try:
+                self.assertRaises(socket.timeout, server.accept)
+                client.connect(path)
+                conn, _ = server.accept()
+                conn.settimeout(0.1)
+                self.assertRaises(socket.timeout, conn.recv, 10)
+                conn.close()
+            finally:
+                client.close()
+                server.close()
@@ -80,6 +80,34 @@ class TestSubprocess(unittest.TestCase):
             self.fail("Expected ValueError when stdout arg supplied.")
         self.assertIn('stdout', c.exception.args[0])
 
+    def test_communicate(self):
+        p = subprocess.Popen([sys.executable, "-c",
+                              "import sys; data = sys.stdin.read(); sys.stdout.write(data.upper()); sys.stderr.write(data)"],
+                             stdin=subprocess.PIPE, stdout=subprocess.PIPE, stderr=subprocess.PIPE)
+        out, err = p.communicate(b"hello\n" * 10000)
+        self.assertEqual(out, b"HELLO\n" * 10000)
+        self.assertEqual(err, b"hello\n" * 10000)
+        self.assertEqual(p.returncode, 0)
+
+    def test_select_on_stdout(self):
+        import os, select
+        p = subprocess.Popen([sys.executable, "-c", "print('ready')"], stdout=subprocess.PIPE)
+        try:
+            r, _, _ = select.select([p.stdout], [], [], 60)
+            self.assertEqual(r, [p.stdout])
+            data = os.read(p.stdout.fileno(), 100)
+            self.assertTrue(data and b"ready\n".startswith(data), data)
+        finally:
+            p.stdout.close()
+            p.wait()
+
+    def test_many_children(self):
+        procs = [subprocess.Popen([sys.executable, "-c", "import sys; print(sys.argv[1])", str(i)], stdout=subprocess.PIPE)
+                 for i in range(20)]
+        for i, p in enumerate(procs):
+            out, _ = p.communicate()
+            self.assertEqual(out.strip(), str(i).encode())
+
     def test_kill(self):
         p = subprocess.Popen([sys.executable, "-c", "print('oh no')"])
         p.kill()
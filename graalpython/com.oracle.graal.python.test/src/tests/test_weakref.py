@@ -62,6 +62,18 @@ def cleanup(ref):
     cleaned_up = True
 
 
+def test_weakref_many_callbacks():
+    import gc, weakref
+    class A(): pass
+    called = []
+    refs = [weakref.ref(A(), called.append) for i in range(200)]
+    i = 0
+    while len(called) < len(refs) and i < MAX_WAIT_COUNT:
+        gc.collect()
+        i += 1
+    assert len(called) == len(refs), "only %d of %d callbacks were called" % (len(called), len(refs))
+
+
 def test_weakref_hash():
     from collections import UserString as ustr
     from weakref import ref
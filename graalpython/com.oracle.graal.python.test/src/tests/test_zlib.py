@@ -164,6 +164,70 @@ class CompressTests(BaseCompressTestCase, unittest.TestCase):
         compressed = zlib.compress(data, 1)
         self.assertEqual(zlib.decompress(compressed, 15, CustomInt()), data)
 
+
+class CompressObjectTests(unittest.TestCase):
+    # Test compression object
+    def test_pair(self):
+        data = HAMLET_SCENE * 16
+        for wbits in (zlib.MAX_WBITS, -zlib.MAX_WBITS):
+            co = zlib.compressobj(6, zlib.DEFLATED, wbits)
+            x = b''.join(co.compress(data[i:i + 256]) for i in range(0, len(data), 256))
+            x += co.flush()
+            self.assertRaises(zlib.error, co.compress, b'more')
+            dco = zlib.decompressobj(wbits)
+            y = dco.decompress(x) + dco.flush()
+            self.assertEqual(data, y)
+            self.assertTrue(dco.eof)
+            self.assertEqual(dco.unused_data, b'')
+
+    def test_max_length(self):
+        data = HAMLET_SCENE * 8
+        x = zlib.compress(data)
+        dco = zlib.decompressobj()
+        chunks = []
+        chunk = dco.decompress(x, 100)
+        while chunk:
+            self.assertLessEqual(len(chunk), 100)
+            chunks.append(chunk)
+            chunk = dco.decompress(dco.unconsumed_tail, 100)
+        chunks.append(dco.flush())
+        self.assertEqual(data, b''.join(chunks))
+        self.assertRaises(ValueError, dco.decompress, x, -1)
+
+    def test_flush_length(self):
+        data = HAMLET_SCENE * 8
+        dco = zlib.decompressobj()
+        head = dco.decompress(zlib.compress(data), 10)
+        self.assertRaises(ValueError, dco.flush, 0)
+        self.assertRaises(ValueError, dco.flush, -1)
+        self.assertEqual(data, head + dco.flush(1))
+
+    def test_unused_data(self):
+        x = zlib.compress(HAMLET_SCENE)
+        dco = zlib.decompressobj()
+        self.assertEqual(dco.decompress(x + b'trailing'), HAMLET_SCENE)
+        self.assertTrue(dco.eof)
+        self.assertEqual(dco.unused_data, b'trailing')
+
+    def test_full_flush(self):
+        co = zlib.compressobj()
+        dco = zlib.decompressobj()
+        first = co.compress(HAMLET_SCENE) + co.flush(zlib.Z_FULL_FLUSH)
+        self.assertEqual(dco.decompress(first), HAMLET_SCENE)
+        second = co.compress(b'tail') + co.flush()
+        self.assertEqual(dco.decompress(second), b'tail')
+
+    def test_zdict(self):
+        zdict = b'LAERTES LORD POLONIUS OPHELIA'
+        co = zlib.compressobj(zdict=zdict)
+        x = co.compress(HAMLET_SCENE) + co.flush()
+        dco = zlib.decompressobj(zdict=zdict)
+        self.assertEqual(dco.decompress(x), HAMLET_SCENE)
+        self.assertRaises(zlib.error, zlib.decompress, x)
+
+    def test_invalid_level(self):
+        self.assertRaises(ValueError, zlib.compressobj, 42)
+
 HAMLET_SCENE = b"""
 LAERTES
 
@@ -26,6 +26,7 @@
 package com.oracle.graal.python;
 
 import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
@@ -52,10 +53,12 @@ import com.oracle.graal.python.nodes.control.TopLevelExceptionHandler;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.parser.PythonParserImpl;
+import com.oracle.graal.python.runtime.InProcessContexts;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.StartupTimes;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.interop.InteropMap;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
@@ -143,6 +146,12 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
      */
     public final ConcurrentHashMap<String, Semaphore> namedSemaphores = new ConcurrentHashMap<>();
 
+    /**
+     * The worker contexts of the {@code inprocess} start method of {@code multiprocessing} run in
+     * the same engine, so the channels and descriptors they inherit are shared here, too.
+     */
+    public final InProcessContexts inProcessContexts = new InProcessContexts();
+
     /*
      * We need to store this here, because the check is on the language and can come from a thread
      * that has no context, but we enable or disable threads with a context option. So we store this
@@ -179,6 +188,11 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
     protected void finalizeContext(PythonContext context) {
         context.shutdownThreads();
         context.runShutdownHooks();
+        context.getResources().dispose();
+        StartupTimes startupTimes = context.getStartupTimes();
+        if (startupTimes != null) {
+            startupTimes.print(new PrintStream(context.getStandardErr()));
+        }
         super.finalizeContext(context);
     }
 
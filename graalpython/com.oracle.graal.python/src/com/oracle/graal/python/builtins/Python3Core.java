@@ -48,16 +48,19 @@ import org.graalvm.nativeimage.ImageInfo;
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.modules.ArrayModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AstModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.AsyncioTruffleModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AtexitModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BinasciiModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BuiltinConstructors;
 import com.oracle.graal.python.builtins.modules.BuiltinFunctions;
+import com.oracle.graal.python.builtins.modules.CSVModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CmathModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CodecsTruffleModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CollectionsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ContextvarsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.CtypesModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.DatetimeTruffleModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ErrnoModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FaulthandlerModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FcntlModuleBuiltins;
@@ -102,12 +105,16 @@ import com.oracle.graal.python.builtins.modules.ZLibModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ZipImportModuleBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.array.ArrayBuiltins;
+import com.oracle.graal.python.builtins.objects.asyncio.EventLoopCoreBuiltins;
 import com.oracle.graal.python.builtins.objects.bool.BoolBuiltins;
 import com.oracle.graal.python.builtins.objects.bytes.ByteArrayBuiltins;
 import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins;
 import com.oracle.graal.python.builtins.objects.cell.CellBuiltins;
 import com.oracle.graal.python.builtins.objects.code.CodeBuiltins;
 import com.oracle.graal.python.builtins.objects.complex.ComplexBuiltins;
+import com.oracle.graal.python.builtins.objects.csv.CSVDialectBuiltins;
+import com.oracle.graal.python.builtins.objects.csv.CSVReaderBuiltins;
+import com.oracle.graal.python.builtins.objects.csv.CSVWriterBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictReprBuiltin;
 import com.oracle.graal.python.builtins.objects.dict.DictValuesBuiltins;
@@ -125,6 +132,8 @@ import com.oracle.graal.python.builtins.objects.function.BuiltinFunctionBuiltins
 import com.oracle.graal.python.builtins.objects.function.FunctionBuiltins;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
+import com.oracle.graal.python.builtins.objects.functools.LruCacheWrapperBuiltins;
+import com.oracle.graal.python.builtins.objects.functools.PartialBuiltins;
 import com.oracle.graal.python.builtins.objects.generator.GeneratorBuiltins;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptorTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
@@ -153,10 +162,13 @@ import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.DirEntryBuiltins;
 import com.oracle.graal.python.builtins.objects.posix.ScandirIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.queue.SimpleQueueBuiltins;
 import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
 import com.oracle.graal.python.builtins.objects.range.RangeBuiltins;
 import com.oracle.graal.python.builtins.objects.referencetype.ReferenceTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.reversed.ReversedBuiltins;
+import com.oracle.graal.python.builtins.objects.select.EpollBuiltins;
+import com.oracle.graal.python.builtins.objects.select.PollBuiltins;
 import com.oracle.graal.python.builtins.objects.set.BaseSetBuiltins;
 import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltins;
 import com.oracle.graal.python.builtins.objects.set.SetBuiltins;
@@ -174,6 +186,8 @@ import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
 import com.oracle.graal.python.builtins.objects.type.TypeBuiltins;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
 import com.oracle.graal.python.builtins.objects.zipimporter.ZipImporterBuiltins;
+import com.oracle.graal.python.builtins.objects.zlib.ZLibCompressBuiltins;
+import com.oracle.graal.python.builtins.objects.zlib.ZLibDecompressBuiltins;
 import com.oracle.graal.python.nodes.BuiltinNames;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromDynamicObjectNode;
 import com.oracle.graal.python.nodes.call.CallNode;
@@ -184,6 +198,7 @@ import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser;
 import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.StartupTimes;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.formatting.ErrorMessageFormatter;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
@@ -254,11 +269,9 @@ public final class Python3Core implements PythonCore {
                         "_sysconfig",
                         "_socket",
                         "ctypes",
-                        "zlib",
                         "termios",
                         "zipimport",
                         "mmap",
-                        "_queue",
                         "_ast",
                         "java",
                         "pyio_patches",
@@ -289,7 +302,6 @@ public final class Python3Core implements PythonCore {
     private final PythonBuiltins[] builtins;
 
     private static final boolean hasCoverageTool;
-    private static final boolean hasProfilerTool;
     static {
         Class<?> c = null;
         try {
@@ -298,12 +310,6 @@ public final class Python3Core implements PythonCore {
         }
         hasCoverageTool = c != null;
         c = null;
-        try {
-            c = Class.forName("com.oracle.truffle.tools.profiler.CPUSampler");
-        } catch (LinkageError | ClassNotFoundException e) {
-        }
-        hasProfilerTool = c != null;
-        c = null;
     }
 
     private static PythonBuiltins[] initializeBuiltins() {
@@ -362,6 +368,7 @@ public final class Python3Core implements PythonCore {
                         new ArrayModuleBuiltins(),
                         new ArrayBuiltins(),
                         new TimeModuleBuiltins(),
+                        new DatetimeTruffleModuleBuiltins(),
                         new ModuleBuiltins(),
                         new MathModuleBuiltins(),
                         new CmathModuleBuiltins(),
@@ -375,6 +382,8 @@ public final class Python3Core implements PythonCore {
                         new StringModuleBuiltins(),
                         new ItertoolsModuleBuiltins(),
                         new FunctoolsModuleBuiltins(),
+                        new PartialBuiltins(),
+                        new LruCacheWrapperBuiltins(),
                         new ErrnoModuleBuiltins(),
                         new CodecsModuleBuiltins(),
                         new CodecsTruffleModuleBuiltins(),
@@ -383,6 +392,10 @@ public final class Python3Core implements PythonCore {
                         new SREModuleBuiltins(),
                         new AstModuleBuiltins(),
                         new SelectModuleBuiltins(),
+                        new PollBuiltins(),
+                        new EpollBuiltins(),
+                        new AsyncioTruffleModuleBuiltins(),
+                        new EventLoopCoreBuiltins(),
                         new SocketModuleBuiltins(),
                         new SocketBuiltins(),
                         new SignalModuleBuiltins(),
@@ -406,10 +419,17 @@ public final class Python3Core implements PythonCore {
                         new ZipImporterBuiltins(),
                         new ZipImportModuleBuiltins(),
                         new ZLibModuleBuiltins(),
+                        new ZLibCompressBuiltins(),
+                        new ZLibDecompressBuiltins(),
+                        new CSVModuleBuiltins(),
+                        new CSVDialectBuiltins(),
+                        new CSVReaderBuiltins(),
+                        new CSVWriterBuiltins(),
                         new MMapModuleBuiltins(),
                         new FcntlModuleBuiltins(),
                         new MMapBuiltins(),
                         new QueueModuleBuiltins(),
+                        new SimpleQueueBuiltins(),
                         new ThreadModuleBuiltins(),
                         new ThreadBuiltins(),
                         new LockBuiltins(),
@@ -422,14 +442,12 @@ public final class Python3Core implements PythonCore {
                         new LZMADecompressorBuiltins(),
                         new MultiprocessingModuleBuiltins(),
                         new SemLockBuiltins(),
+                        new LsprofModuleBuiltins(),
+                        LsprofModuleBuiltins.newProfilerBuiltins(),
                         new GraalPythonModuleBuiltins()));
         if (hasCoverageTool) {
             builtins.add(new TraceModuleBuiltins());
         }
-        if (hasProfilerTool) {
-            builtins.add(new LsprofModuleBuiltins());
-            builtins.add(LsprofModuleBuiltins.newProfilerBuiltins());
-        }
         if (!ImageInfo.inImageRuntimeCode()) {
             ServiceLoader<PythonBuiltins> providers = ServiceLoader.load(PythonBuiltins.class, Python3Core.class.getClassLoader());
             for (PythonBuiltins builtin : providers) {
@@ -705,6 +723,8 @@ public final class Python3Core implements PythonCore {
     }
 
     private void loadFile(String s, String prefix) {
+        StartupTimes startupTimes = singletonContext.getStartupTimes();
+        long start = startupTimes != null ? StartupTimes.start() : 0;
         Supplier<CallTarget> getCode = () -> {
             Source source = getInternalSource(s, prefix);
             return Truffle.getRuntime().createCallTarget((RootNode) getParser().parse(ParserMode.File, this, source, null, null));
@@ -716,6 +736,9 @@ public final class Python3Core implements PythonCore {
             mod = factory().createPythonModule("__anonymous__");
         }
         GenericInvokeNode.getUncached().execute(callTarget, PArguments.withGlobals(mod));
+        if (startupTimes != null) {
+            startupTimes.stop(StartupTimes.Phase.CORE_FILES, start);
+        }
     }
 
     @Override
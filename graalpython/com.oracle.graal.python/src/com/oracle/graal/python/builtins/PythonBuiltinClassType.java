@@ -119,6 +119,9 @@ public enum PythonBuiltinClassType implements TruffleObject {
     PRLock("RLock", "_thread"),
     PSemLock("SemLock", "_multiprocessing"),
     PSocket("socket", "_socket"),
+    PPoll("poll", "select", false),
+    PEpoll("epoll", "select"),
+    PEventLoopCore("EventLoopCore", "_asyncio_truffle", false),
     PJavaSignalHandler("java_signal_handler"),
     PStaticmethod("staticmethod", BuiltinNames.BUILTINS),
     PClassmethod("classmethod", BuiltinNames.BUILTINS),
@@ -126,8 +129,16 @@ public enum PythonBuiltinClassType implements TruffleObject {
     PDirEntry("DirEntry", "posix"),
     PLZMACompressor("LZMACompressor", "_lzma"),
     PLZMADecompressor("LZMADecompressor", "_lzma"),
+    PZLibCompress("Compress", "zlib", false),
+    PZLibDecompress("Decompress", "zlib", false),
     LsprofProfiler("Profiler", "_lsprof"),
     PStruct("Struct", "_struct"),
+    PPartial("partial", "_functools"),
+    PLruCacheWrapper("_lru_cache_wrapper", "_functools", false),
+    CSVDialect("Dialect", "_csv"),
+    CSVReader("Reader", "_csv", false),
+    CSVWriter("Writer", "_csv", false),
+    PSimpleQueue("SimpleQueue", "_queue"),
 
     // Errors and exceptions:
 
@@ -175,6 +186,8 @@ public enum PythonBuiltinClassType implements TruffleObject {
     ZLibError("error", "zlib"),
     LZMAError("LZMAError", "_lzma"),
     StructError("StructError", "_struct"),
+    CSVError("Error", "_csv"),
+    QueueEmpty("Empty", "_queue"),
     SocketGAIError("gaierror", "_socket"),
     SocketHError("herror", "_socket"),
     SocketTimeout("timeout", "_socket"),
@@ -343,6 +356,8 @@ public enum PythonBuiltinClassType implements TruffleObject {
         ZipImportError.base = ImportError;
         ZLibError.base = Exception;
         LZMAError.base = Exception;
+        CSVError.base = Exception;
+        QueueEmpty.base = Exception;
         SocketGAIError.base = OSError;
         SocketHError.base = OSError;
         SocketTimeout.base = OSError;
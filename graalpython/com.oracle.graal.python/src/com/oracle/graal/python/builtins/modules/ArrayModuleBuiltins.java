@@ -250,7 +250,14 @@ public final class ArrayModuleBuiltins extends PythonBuiltins {
 
         @Specialization
         @TruffleBoundary
-        PArray arrayWithObjectInitializer(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") String typeCode, Object initializer) {
+        PArray arrayWithObjectInitializer(Object cls, String typeCode, Object initializer) {
+            Object hostArray = getContext().getHostPrimitiveArray(initializer);
+            if (hostArray != null) {
+                PArray array = arrayFromHostArray(cls, typeCode.charAt(0), hostArray);
+                if (array != null) {
+                    return array;
+                }
+            }
             if (!(isIntArray(typeCode) || isByteArray(typeCode) || isDoubleArray(typeCode) || isCharArray(typeCode))) {
                 // TODO implement support for typecodes: b, B, u, h, H, i, I, l, L, q, Q, f or d
                 throw raise(ValueError, ErrorMessages.BAD_TYPECODE);
@@ -258,6 +265,35 @@ public final class ArrayModuleBuiltins extends PythonBuiltins {
             throw new RuntimeException("Unsupported initializer " + initializer);
         }
 
+        /**
+         * Copies a Java primitive array in bulk if its component type matches the type code.
+         */
+        private PArray arrayFromHostArray(Object cls, char typeCode, Object hostArray) {
+            switch (typeCode) {
+                case 'b':
+                    if (hostArray instanceof byte[]) {
+                        return factory().createArray(cls, ((byte[]) hostArray).clone());
+                    }
+                    break;
+                case 'i':
+                    if (hostArray instanceof int[]) {
+                        return factory().createArray(cls, ((int[]) hostArray).clone());
+                    }
+                    break;
+                case 'l':
+                    if (hostArray instanceof long[]) {
+                        return factory().createArray(cls, ((long[]) hostArray).clone());
+                    }
+                    break;
+                case 'd':
+                    if (hostArray instanceof double[]) {
+                        return factory().createArray(cls, ((double[]) hostArray).clone());
+                    }
+                    break;
+            }
+            return null;
+        }
+
         @Specialization(guards = "!isString(typeCode)")
         PArray noArray(@SuppressWarnings("unused") Object cls, Object typeCode, @SuppressWarnings("unused") Object initializer) {
             throw raise(TypeError, ErrorMessages.ARG_MUST_BE_UNICODE, "array()", 1, typeCode);
@@ -141,6 +141,7 @@ import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenPythonKey;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.map.PMap;
@@ -309,6 +310,12 @@ public final class BuiltinConstructors extends PythonBuiltins {
                         @SuppressWarnings("unused") @CachedLibrary(limit = "3") PythonObjectLibrary lib) {
 
             Object it = getIteratorNode.executeWith(frame, iterable);
+            if (it instanceof PForeignArrayIterator) {
+                byte[] bulk = BytesNodes.copyHostByteArray((PForeignArrayIterator) it);
+                if (bulk != null) {
+                    return create(cls, bulk);
+                }
+            }
             byte[] arr = new byte[16];
             int i = 0;
             while (true) {
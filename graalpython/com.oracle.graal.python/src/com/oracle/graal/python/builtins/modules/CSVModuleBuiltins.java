@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.NOT_SET;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_ALL;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_MINIMAL;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONE;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONNUMERIC;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.csv.CSVDialect;
+import com.oracle.graal.python.builtins.objects.csv.CSVModuleState;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.object.HiddenKey;
+
+@CoreFunctions(defineModule = "_csv")
+public class CSVModuleBuiltins extends PythonBuiltins {
+    private static final HiddenKey STATE = new HiddenKey("__csv_state__");
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("__version__", "1.0");
+        builtinConstants.put("QUOTE_MINIMAL", QUOTE_MINIMAL);
+        builtinConstants.put("QUOTE_ALL", QUOTE_ALL);
+        builtinConstants.put("QUOTE_NONNUMERIC", QUOTE_NONNUMERIC);
+        builtinConstants.put("QUOTE_NONE", QUOTE_NONE);
+    }
+
+    @Override
+    public void postInitialize(PythonCore core) {
+        super.postInitialize(core);
+        core.lookupBuiltinModule("_csv").setAttribute(STATE, new CSVModuleState());
+    }
+
+    static CSVModuleState getState(PythonModule module, ReadAttributeFromObjectNode readNode) {
+        return (CSVModuleState) readNode.execute(module, STATE);
+    }
+
+    /**
+     * Equivalent of {@code _call_dialect}: creates a validated dialect from a dialect name, a
+     * dialect-like object or {@link PNone#NO_VALUE}, and the keyword arguments overriding its
+     * attributes.
+     */
+    static CSVDialect callDialect(VirtualFrame frame, PythonCore core, CallNode callNode, Object dialect, PKeyword[] kwargs) {
+        Object[] args = dialect == PNone.NO_VALUE ? new Object[0] : new Object[]{dialect};
+        return (CSVDialect) callNode.execute(frame, core.lookupType(PythonBuiltinClassType.CSVDialect), args, kwargs);
+    }
+
+    @Builtin(name = "Dialect", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.CSVDialect, //
+                    parameterNames = {"$cls", "dialect", "delimiter", "doublequote", "escapechar", "lineterminator", "quotechar", "quoting", "skipinitialspace", "strict"})
+    @GenerateNodeFactory
+    abstract static class DialectNode extends PythonBuiltinNode {
+
+        @Specialization
+        Object dialect(VirtualFrame frame, Object cls, Object dialectArg, Object delimiterArg, Object doublequoteArg, Object escapecharArg, Object lineterminatorArg, Object quotecharArg,
+                        Object quotingArg, Object skipinitialspaceArg, Object strictArg,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached CastToJavaStringNode castToString,
+                        @Cached IsBuiltinClassProfile isExactIntProfile) {
+            Object dialect = dialectArg;
+            Object delimiterObj = delimiterArg;
+            Object doublequoteObj = doublequoteArg;
+            Object escapecharObj = escapecharArg;
+            Object lineterminatorObj = lineterminatorArg;
+            Object quotecharObj = quotecharArg;
+            Object quotingObj = quotingArg;
+            Object skipinitialspaceObj = skipinitialspaceArg;
+            Object strictObj = strictArg;
+            if (dialect != PNone.NO_VALUE) {
+                String name = castToStringOrNull(castToString, dialect);
+                if (name != null) {
+                    dialect = getDialectFromRegistry(name);
+                }
+                // can we reuse this instance?
+                if (dialect instanceof CSVDialect && delimiterObj == PNone.NO_VALUE && doublequoteObj == PNone.NO_VALUE && escapecharObj == PNone.NO_VALUE &&
+                                lineterminatorObj == PNone.NO_VALUE && quotecharObj == PNone.NO_VALUE && quotingObj == PNone.NO_VALUE && skipinitialspaceObj == PNone.NO_VALUE &&
+                                strictObj == PNone.NO_VALUE) {
+                    return dialect;
+                }
+                delimiterObj = getAttributeIfMissing(frame, lib, dialect, delimiterObj, "delimiter");
+                doublequoteObj = getAttributeIfMissing(frame, lib, dialect, doublequoteObj, "doublequote");
+                escapecharObj = getAttributeIfMissing(frame, lib, dialect, escapecharObj, "escapechar");
+                lineterminatorObj = getAttributeIfMissing(frame, lib, dialect, lineterminatorObj, "lineterminator");
+                quotecharObj = getAttributeIfMissing(frame, lib, dialect, quotecharObj, "quotechar");
+                quotingObj = getAttributeIfMissing(frame, lib, dialect, quotingObj, "quoting");
+                skipinitialspaceObj = getAttributeIfMissing(frame, lib, dialect, skipinitialspaceObj, "skipinitialspace");
+                strictObj = getAttributeIfMissing(frame, lib, dialect, strictObj, "strict");
+            }
+
+            int delimiter = toChar("delimiter", delimiterObj, ',', castToString);
+            boolean doublequote = toBool(doublequoteObj, true, lib);
+            int escapechar = toChar("escapechar", escapecharObj, NOT_SET, castToString);
+            String lineterminator = toStr("lineterminator", lineterminatorObj, "\r\n", castToString);
+            int quotechar = toChar("quotechar", quotecharObj, '"', castToString);
+            int quoting = toInt("quoting", quotingObj, QUOTE_MINIMAL, isExactIntProfile);
+            boolean skipinitialspace = toBool(skipinitialspaceObj, false, lib);
+            boolean strict = toBool(strictObj, false, lib);
+
+            // validate options
+            if (quoting < QUOTE_MINIMAL || quoting > QUOTE_NONE) {
+                throw raise(TypeError, ErrorMessages.BAD_QUOTING_VALUE);
+            }
+            if (delimiter == NOT_SET) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_1_CHAR_STRING, "delimiter");
+            }
+            if (quotecharObj == PNone.NONE && quotingObj == PNone.NO_VALUE) {
+                quoting = QUOTE_NONE;
+            }
+            if (quoting != QUOTE_NONE && quotechar == NOT_SET) {
+                throw raise(TypeError, ErrorMessages.QUOTECHAR_MUST_BE_SET_IF_QUOTING_ENABLED);
+            }
+            if (lineterminator == null) {
+                throw raise(TypeError, ErrorMessages.LINETERMINATOR_MUST_BE_SET);
+            }
+            return factory().createCSVDialect(cls, delimiter, doublequote, escapechar, lineterminator, quotechar, quoting, skipinitialspace, strict);
+        }
+
+        @TruffleBoundary
+        private Object getDialectFromRegistry(String name) {
+            Object dialect = getState(getCore().lookupBuiltinModule("_csv"), ReadAttributeFromObjectNode.getUncached()).getDialect(name);
+            if (dialect == null) {
+                throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.UNKNOWN_DIALECT);
+            }
+            return dialect;
+        }
+
+        private static Object getAttributeIfMissing(VirtualFrame frame, PythonObjectLibrary lib, Object dialect, Object value, String name) {
+            if (value == PNone.NO_VALUE) {
+                return lib.lookupAttribute(dialect, frame, name);
+            }
+            return value;
+        }
+
+        private int toChar(String name, Object src, int dflt, CastToJavaStringNode castToString) {
+            if (src == PNone.NO_VALUE) {
+                return dflt;
+            } else if (src == PNone.NONE) {
+                return NOT_SET;
+            }
+            String str = castToStringOrNull(castToString, src);
+            if (str == null) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_STRING_NOT_P, name, src);
+            }
+            if (str.isEmpty()) {
+                return NOT_SET;
+            }
+            int c = str.codePointAt(0);
+            if (Character.charCount(c) != str.length()) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_1_CHAR_STRING, name);
+            }
+            return c;
+        }
+
+        private String toStr(String name, Object src, String dflt, CastToJavaStringNode castToString) {
+            if (src == PNone.NO_VALUE) {
+                return dflt;
+            } else if (src == PNone.NONE) {
+                return null;
+            }
+            String str = castToStringOrNull(castToString, src);
+            if (str == null) {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_A_STRING, name);
+            }
+            return str;
+        }
+
+        private int toInt(String name, Object src, int dflt, IsBuiltinClassProfile isExactIntProfile) {
+            if (src == PNone.NO_VALUE) {
+                return dflt;
+            }
+            long value;
+            if (src instanceof Integer || src instanceof Long) {
+                value = ((Number) src).longValue();
+            } else if (src instanceof PInt && isExactIntProfile.profileObject(src, PythonBuiltinClassType.PInt)) {
+                value = ((PInt) src).fitsInLong() ? ((PInt) src).longValue() : -1;
+            } else {
+                throw raise(TypeError, ErrorMessages.S_MUST_BE_AN_INTEGER, name);
+            }
+            // out of range values are rejected by the caller as a bad quoting value
+            return value == (int) value ? (int) value : -1;
+        }
+
+        private static boolean toBool(Object src, boolean dflt, PythonObjectLibrary lib) {
+            if (src == PNone.NO_VALUE) {
+                return dflt;
+            }
+            return lib.isTrue(src);
+        }
+    }
+
+    static String castToStringOrNull(CastToJavaStringNode castToString, Object obj) {
+        try {
+            return castToString.execute(obj);
+        } catch (CannotCastException e) {
+            return null;
+        }
+    }
+
+    // reader(csvfile, dialect='excel', **fmtparams)
+    @Builtin(name = "reader", minNumOfPositionalArgs = 2, parameterNames = {"$self", "csvfile", "dialect"}, takesVarKeywordArgs = true, declaresExplicitSelf = true)
+    @GenerateNodeFactory
+    abstract static class ReaderNode extends PythonBuiltinNode {
+        @Specialization
+        Object reader(VirtualFrame frame, PythonModule module, Object csvfile, Object dialect, PKeyword[] kwargs,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached CallNode callNode,
+                        @Cached ReadAttributeFromObjectNode readStateNode) {
+            Object inputIter = getIterator.executeWith(frame, csvfile);
+            CSVDialect csvDialect = callDialect(frame, getCore(), callNode, dialect, kwargs);
+            return factory().createCSVReader(PythonBuiltinClassType.CSVReader, inputIter, csvDialect, getState(module, readStateNode));
+        }
+    }
+
+    // writer(fileobj, dialect='excel', **fmtparams)
+    @Builtin(name = "writer", minNumOfPositionalArgs = 1, parameterNames = {"fileobj", "dialect"}, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    abstract static class WriterNode extends PythonBuiltinNode {
+        @Specialization
+        Object writer(VirtualFrame frame, Object fileobj, Object dialect, PKeyword[] kwargs,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached CallNode callNode) {
+            Object write = lib.lookupAttribute(fileobj, frame, "write");
+            if (write == PNone.NO_VALUE || !lib.isCallable(write)) {
+                throw raise(TypeError, ErrorMessages.ARG_1_MUST_HAVE_WRITE_METHOD);
+            }
+            CSVDialect csvDialect = callDialect(frame, getCore(), callNode, dialect, kwargs);
+            return factory().createCSVWriter(PythonBuiltinClassType.CSVWriter, write, csvDialect);
+        }
+    }
+
+    // register_dialect(name[, dialect[, **fmtparams]])
+    @Builtin(name = "register_dialect", minNumOfPositionalArgs = 2, parameterNames = {"$self", "name", "dialect"}, takesVarKeywordArgs = true, declaresExplicitSelf = true)
+    @GenerateNodeFactory
+    abstract static class RegisterDialectNode extends PythonBuiltinNode {
+        @Specialization
+        Object register(VirtualFrame frame, PythonModule module, Object nameObj, Object dialect, PKeyword[] kwargs,
+                        @Cached CastToJavaStringNode castToString,
+                        @Cached CallNode callNode,
+                        @Cached ReadAttributeFromObjectNode readStateNode) {
+            String name = castToStringOrNull(castToString, nameObj);
+            if (name == null) {
+                throw raise(TypeError, ErrorMessages.DIALECT_NAME_MUST_BE_STRING);
+            }
+            CSVDialect csvDialect = callDialect(frame, getCore(), callNode, dialect, kwargs);
+            getState(module, readStateNode).registerDialect(name, csvDialect);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unregister_dialect", minNumOfPositionalArgs = 2, parameterNames = {"$self", "name"}, declaresExplicitSelf = true)
+    @GenerateNodeFactory
+    abstract static class UnregisterDialectNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object unregister(PythonModule module, Object nameObj,
+                        @Cached CastToJavaStringNode castToString,
+                        @Cached ReadAttributeFromObjectNode readStateNode) {
+            String name = castToStringOrNull(castToString, nameObj);
+            if (name == null || !getState(module, readStateNode).unregisterDialect(name)) {
+                throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.UNKNOWN_DIALECT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "get_dialect", minNumOfPositionalArgs = 2, parameterNames = {"$self", "name"}, declaresExplicitSelf = true)
+    @GenerateNodeFactory
+    abstract static class GetDialectNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object get(PythonModule module, Object nameObj,
+                        @Cached CastToJavaStringNode castToString,
+                        @Cached ReadAttributeFromObjectNode readStateNode) {
+            String name = castToStringOrNull(castToString, nameObj);
+            Object dialect = name != null ? getState(module, readStateNode).getDialect(name) : null;
+            if (dialect == null) {
+                throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.UNKNOWN_DIALECT);
+            }
+            return dialect;
+        }
+    }
+
+    @Builtin(name = "list_dialects", minNumOfPositionalArgs = 1, parameterNames = {"$self"}, declaresExplicitSelf = true)
+    @GenerateNodeFactory
+    abstract static class ListDialectsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object list(PythonModule module,
+                        @Cached ReadAttributeFromObjectNode readStateNode) {
+            return factory().createList(getState(module, readStateNode).getDialectNames());
+        }
+    }
+
+    // field_size_limit([limit])
+    @Builtin(name = "field_size_limit", minNumOfPositionalArgs = 1, parameterNames = {"$self", "new_limit"}, declaresExplicitSelf = true)
+    @GenerateNodeFactory
+    abstract static class FieldSizeLimitNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fieldSizeLimit(PythonModule module, Object newLimit,
+                        @Cached ReadAttributeFromObjectNode readStateNode,
+                        @Cached IsBuiltinClassProfile isExactIntProfile) {
+            CSVModuleState state = getState(module, readStateNode);
+            long oldLimit = state.getFieldLimit();
+            if (newLimit != PNone.NO_VALUE) {
+                if (newLimit instanceof Integer || newLimit instanceof Long) {
+                    state.setFieldLimit(((Number) newLimit).longValue());
+                } else if (newLimit instanceof PInt && isExactIntProfile.profileObject(newLimit, PythonBuiltinClassType.PInt)) {
+                    try {
+                        state.setFieldLimit(((PInt) newLimit).longValueExact());
+                    } catch (ArithmeticException e) {
+                        throw raise(PythonBuiltinClassType.OverflowError, ErrorMessages.PYTHON_INT_TOO_LARGE_TO_CONV_TO, "C long");
+                    }
+                } else {
+                    throw raise(TypeError, ErrorMessages.LIMIT_MUST_BE_INTEGER);
+                }
+            }
+            return oldLimit;
+        }
+    }
+}
@@ -0,0 +1,643 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaLongExactNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+
+/**
+ * Java implementations of the helper functions of the pure-Python {@code datetime} module that
+ * dominate parsing, formatting, comparisons and ordinal arithmetic. The {@code datetime} classes
+ * keep their fields in {@code __slots__}, which are stored in primitive shape locations anyway, so
+ * only the interpreted helper code is replaced.
+ */
+@CoreFunctions(defineModule = "_datetime_truffle")
+public class DatetimeTruffleModuleBuiltins extends PythonBuiltins {
+
+    static final int MAX_DELTA_DAYS = 999999999;
+    static final int MAX_ORDINAL = 3652059;
+
+    private static final int SECONDS_PER_DAY = 24 * 3600;
+    private static final int US_PER_SECOND = 1000000;
+
+    private static final int[] DAYS_IN_MONTH = {-1, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int[] DAYS_BEFORE_MONTH = {-1, 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+
+    private static final long DI400Y = daysBeforeYear(401);
+    private static final long DI100Y = daysBeforeYear(101);
+    private static final long DI4Y = daysBeforeYear(5);
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DatetimeTruffleModuleBuiltinsFactory.getFactories();
+    }
+
+    static boolean isLeap(long year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static long daysBeforeYear(long year) {
+        long y = year - 1;
+        return y * 365 + Math.floorDiv(y, 4) - Math.floorDiv(y, 100) + Math.floorDiv(y, 400);
+    }
+
+    static int daysInMonth(long year, int month) {
+        if (month == 2 && isLeap(year)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month];
+    }
+
+    static int daysBeforeMonth(long year, int month) {
+        return DAYS_BEFORE_MONTH[month] + (month > 2 && isLeap(year) ? 1 : 0);
+    }
+
+    static long ymdToOrdinal(long year, int month, long day) {
+        return daysBeforeYear(year) + daysBeforeMonth(year, month) + day;
+    }
+
+    /**
+     * Inverse of {@link #ymdToOrdinal}; see {@code _ord2ymd} in {@code datetime.py} for the
+     * explanation of the 400/100/4/1 year cycle decomposition.
+     */
+    static long[] ordinalToYmd(long ordinal) {
+        long n = ordinal - 1;
+        long n400 = Math.floorDiv(n, DI400Y);
+        n = Math.floorMod(n, DI400Y);
+        long year = n400 * 400 + 1;
+
+        long n100 = n / DI100Y;
+        n = n % DI100Y;
+        long n4 = n / DI4Y;
+        n = n % DI4Y;
+        long n1 = n / 365;
+        n = n % 365;
+
+        year += n100 * 100 + n4 * 4 + n1;
+        if (n1 == 4 || n100 == 4) {
+            return new long[]{year - 1, 12, 31};
+        }
+
+        boolean leapyear = n1 == 3 && (n4 != 24 || n100 == 3);
+        int month = (int) ((n + 50) >> 5);
+        int preceding = DAYS_BEFORE_MONTH[month] + (month > 2 && leapyear ? 1 : 0);
+        if (preceding > n) {
+            month -= 1;
+            preceding -= DAYS_IN_MONTH[month] + (month == 2 && leapyear ? 1 : 0);
+        }
+        n -= preceding;
+        return new long[]{year, month, n + 1};
+    }
+
+    abstract static class DatetimeHelperNode extends PythonBuiltinNode {
+
+        protected final long asLong(Object value, CastToJavaLongExactNode castNode) {
+            try {
+                return castNode.execute(value);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.INTEGER_REQUIRED_GOT, value);
+            }
+        }
+    }
+
+    @Builtin(name = "is_leap", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsLeapNode extends DatetimeHelperNode {
+        @Specialization
+        boolean isLeap(Object year,
+                        @Cached CastToJavaLongExactNode castNode) {
+            return DatetimeTruffleModuleBuiltins.isLeap(asLong(year, castNode));
+        }
+    }
+
+    @Builtin(name = "days_before_year", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DaysBeforeYearNode extends DatetimeHelperNode {
+        @Specialization
+        long daysBefore(Object year,
+                        @Cached CastToJavaLongExactNode castNode) {
+            return daysBeforeYear(asLong(year, castNode));
+        }
+    }
+
+    @Builtin(name = "days_in_month", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DaysInMonthNode extends DatetimeHelperNode {
+        @Specialization
+        int daysIn(Object yearObj, Object monthObj,
+                        @Cached CastToJavaLongExactNode castNode) {
+            long year = asLong(yearObj, castNode);
+            long month = asLong(monthObj, castNode);
+            if (month < 1 || month > 12) {
+                throw raise(ValueError, ErrorMessages.MONTH_MUST_BE_IN_1_12);
+            }
+            return daysInMonth(year, (int) month);
+        }
+    }
+
+    @Builtin(name = "days_before_month", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DaysBeforeMonthNode extends DatetimeHelperNode {
+        @Specialization
+        int daysBefore(Object yearObj, Object monthObj,
+                        @Cached CastToJavaLongExactNode castNode) {
+            long year = asLong(yearObj, castNode);
+            long month = asLong(monthObj, castNode);
+            if (month < 1 || month > 12) {
+                throw raise(ValueError, ErrorMessages.MONTH_MUST_BE_IN_1_12);
+            }
+            return daysBeforeMonth(year, (int) month);
+        }
+    }
+
+    @Builtin(name = "ymd2ord", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class YmdToOrdNode extends DatetimeHelperNode {
+        @Specialization
+        long ymd2ord(Object yearObj, Object monthObj, Object dayObj,
+                        @Cached CastToJavaLongExactNode castNode) {
+            long year = asLong(yearObj, castNode);
+            long month = asLong(monthObj, castNode);
+            long day = asLong(dayObj, castNode);
+            if (month < 1 || month > 12) {
+                throw raise(ValueError, ErrorMessages.MONTH_MUST_BE_IN_1_12);
+            }
+            int dim = daysInMonth(year, (int) month);
+            if (day < 1 || day > dim) {
+                throw raise(ValueError, ErrorMessages.DAY_MUST_BE_IN_1_D, dim);
+            }
+            return ymdToOrdinal(year, (int) month, day);
+        }
+    }
+
+    @Builtin(name = "ord2ymd", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class OrdToYmdNode extends DatetimeHelperNode {
+        @Specialization
+        PTuple ord2ymd(Object ordinalObj,
+                        @Cached CastToJavaLongExactNode castNode) {
+            long[] ymd = ordinalToYmd(asLong(ordinalObj, castNode));
+            return factory().createTuple(new Object[]{ymd[0], (int) ymd[1], (int) ymd[2]});
+        }
+    }
+
+    @Builtin(name = "format_time", parameterNames = {"hh", "mm", "ss", "us", "timespec"})
+    @GenerateNodeFactory
+    abstract static class FormatTimeNode extends DatetimeHelperNode {
+        @Specialization
+        String format(Object hhObj, Object mmObj, Object ssObj, Object usObj, Object timespecObj,
+                        @Cached CastToJavaLongExactNode castNode,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            long hh = asLong(hhObj, castNode);
+            long mm = asLong(mmObj, castNode);
+            long ss = asLong(ssObj, castNode);
+            long us = asLong(usObj, castNode);
+            String timespec;
+            if (timespecObj == PNone.NO_VALUE) {
+                timespec = "auto";
+            } else {
+                try {
+                    timespec = castToStringNode.execute(timespecObj);
+                } catch (CannotCastException e) {
+                    throw raise(ValueError, ErrorMessages.UNKNOWN_TIMESPEC_VALUE);
+                }
+            }
+            String result = formatTime(hh, mm, ss, us, timespec);
+            if (result == null) {
+                throw raise(ValueError, ErrorMessages.UNKNOWN_TIMESPEC_VALUE);
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        private static String formatTime(long hh, long mm, long ss, long us, String timespec) {
+            StringBuilder sb = new StringBuilder(15);
+            switch (timespec) {
+                case "auto":
+                    appendTime(sb, hh, mm, ss);
+                    if (us != 0) {
+                        sb.append('.');
+                        appendPadded(sb, us, 6);
+                    }
+                    break;
+                case "hours":
+                    appendPadded(sb, hh, 2);
+                    break;
+                case "minutes":
+                    appendPadded(sb, hh, 2);
+                    sb.append(':');
+                    appendPadded(sb, mm, 2);
+                    break;
+                case "seconds":
+                    appendTime(sb, hh, mm, ss);
+                    break;
+                case "milliseconds":
+                    appendTime(sb, hh, mm, ss);
+                    sb.append('.');
+                    appendPadded(sb, Math.floorDiv(us, 1000), 3);
+                    break;
+                case "microseconds":
+                    appendTime(sb, hh, mm, ss);
+                    sb.append('.');
+                    appendPadded(sb, us, 6);
+                    break;
+                default:
+                    return null;
+            }
+            return sb.toString();
+        }
+
+        private static void appendTime(StringBuilder sb, long hh, long mm, long ss) {
+            appendPadded(sb, hh, 2);
+            sb.append(':');
+            appendPadded(sb, mm, 2);
+            sb.append(':');
+            appendPadded(sb, ss, 2);
+        }
+
+        private static void appendPadded(StringBuilder sb, long value, int width) {
+            String digits = Long.toString(Math.abs(value));
+            if (value < 0) {
+                sb.append('-');
+                width--;
+            }
+            for (int i = digits.length(); i < width; i++) {
+                sb.append('0');
+            }
+            sb.append(digits);
+        }
+    }
+
+    /**
+     * Compares two runs of integer fields of the same length, e.g. {@code (year, month, day)} of
+     * two dates, without building tuples. The first half of the arguments are the fields of the
+     * left operand. Returns {@code -1}, {@code 0} or {@code 1} like {@code _cmp}.
+     */
+    @Builtin(name = "cmp_fields", takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class CmpFieldsNode extends DatetimeHelperNode {
+        @Specialization
+        int cmp(Object[] fields,
+                        @Cached CastToJavaLongExactNode castNode) {
+            if (fields.length % 2 != 0) {
+                throw raise(ValueError, ErrorMessages.S_EXPECTED_EVEN_NUMBER_OF_ARGS_GOT_D, "cmp_fields", fields.length);
+            }
+            int half = fields.length / 2;
+            for (int i = 0; i < half; i++) {
+                long a = asLong(fields[i], castNode);
+                long b = asLong(fields[half + i], castNode);
+                if (a != b) {
+                    return a < b ? -1 : 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Adds the normalized fields of a {@code timedelta} to the fields of a {@code datetime} and
+     * returns the fields of the result as {@code (year, month, day, hour, minute, second,
+     * microsecond)}.
+     */
+    @Builtin(name = "add_to_datetime", parameterNames = {"year", "month", "day", "hour", "minute", "second", "microsecond", "days", "seconds", "microseconds"})
+    @GenerateNodeFactory
+    abstract static class AddToDatetimeNode extends DatetimeHelperNode {
+        @Specialization
+        PTuple add(Object yearObj, Object monthObj, Object dayObj, Object hourObj, Object minuteObj, Object secondObj, Object microsecondObj, Object daysObj, Object secondsObj,
+                        Object microsecondsObj,
+                        @Cached CastToJavaLongExactNode castNode) {
+            long year = asLong(yearObj, castNode);
+            long month = asLong(monthObj, castNode);
+            long day = asLong(dayObj, castNode);
+            long hour = asLong(hourObj, castNode);
+            long minute = asLong(minuteObj, castNode);
+            long second = asLong(secondObj, castNode);
+            long microsecond = asLong(microsecondObj, castNode);
+            long days = asLong(daysObj, castNode);
+            long seconds = asLong(secondsObj, castNode);
+            long microseconds = asLong(microsecondsObj, castNode);
+            if (month < 1 || month > 12) {
+                throw raise(ValueError, ErrorMessages.MONTH_MUST_BE_IN_1_12);
+            }
+            // all fields are bounded (|days| <= MAX_DELTA_DAYS), so nothing overflows here
+            long us = microsecond + microseconds;
+            long s = hour * 3600 + minute * 60 + second + seconds + Math.floorDiv(us, US_PER_SECOND);
+            us = Math.floorMod(us, US_PER_SECOND);
+            long ordinal = ymdToOrdinal(year, (int) month, day) + days + Math.floorDiv(s, SECONDS_PER_DAY);
+            s = Math.floorMod(s, SECONDS_PER_DAY);
+            if (ordinal <= 0 || ordinal > MAX_ORDINAL) {
+                throw raise(OverflowError, ErrorMessages.RESULT_OUT_OF_RANGE);
+            }
+            long[] ymd = ordinalToYmd(ordinal);
+            return factory().createTuple(new Object[]{ymd[0], (int) ymd[1], (int) ymd[2], (int) (s / 3600), (int) (s % 3600 / 60), (int) (s % 60), (int) us});
+        }
+    }
+
+    /**
+     * Returns which of the {@code %f}, {@code %z} and {@code %Z} escapes a {@code strftime} format
+     * contains, as the bits {@code 1}, {@code 2} and {@code 4}, so that the caller only computes the
+     * replacements it needs.
+     */
+    @Builtin(name = "strftime_escapes", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrftimeEscapesNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int escapes(Object formatObj,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            return scanEscapes(castFormat(this, formatObj, castToStringNode), null, null, null, null);
+        }
+    }
+
+    /**
+     * Replaces the {@code %f}, {@code %z} and {@code %Z} escapes of a {@code strftime} format.
+     */
+    @Builtin(name = "expand_strftime", parameterNames = {"format", "freplace", "zreplace", "Zreplace"})
+    @GenerateNodeFactory
+    abstract static class ExpandStrftimeNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        String expand(Object formatObj, Object freplaceObj, Object zreplaceObj, Object capitalZreplaceObj,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            String format = castFormat(this, formatObj, castToStringNode);
+            String freplace = castFormat(this, freplaceObj, castToStringNode);
+            String zreplace = castFormat(this, zreplaceObj, castToStringNode);
+            String capitalZreplace = castFormat(this, capitalZreplaceObj, castToStringNode);
+            StringBuilder sb = newStringBuilder(format.length());
+            scanEscapes(format, sb, freplace, zreplace, capitalZreplace);
+            return toString(sb);
+        }
+
+        @TruffleBoundary
+        private static StringBuilder newStringBuilder(int capacity) {
+            return new StringBuilder(capacity);
+        }
+
+        @TruffleBoundary
+        private static String toString(StringBuilder sb) {
+            return sb.toString();
+        }
+    }
+
+    private static String castFormat(PythonBuiltinBaseNode node, Object value, CastToJavaStringNode castToStringNode) {
+        try {
+            return castToStringNode.execute(value);
+        } catch (CannotCastException e) {
+            throw node.raise(TypeError, ErrorMessages.ARG_MUST_BE_S_NOT_P, "strftime()", "str", value);
+        }
+    }
+
+    /**
+     * Scans a {@code strftime} format like {@code _wrap_strftime}. Returns the escapes found (see
+     * {@link StrftimeEscapesNode}) and, if {@code sb} is given, appends the format with the escapes
+     * replaced.
+     */
+    @TruffleBoundary
+    static int scanEscapes(String format, StringBuilder sb, String freplace, String zreplace, String capitalZreplace) {
+        int escapes = 0;
+        int n = format.length();
+        int i = 0;
+        while (i < n) {
+            char ch = format.charAt(i++);
+            if (ch != '%') {
+                if (sb != null) {
+                    sb.append(ch);
+                }
+            } else if (i < n) {
+                ch = format.charAt(i++);
+                String replacement;
+                if (ch == 'f') {
+                    escapes |= 1;
+                    replacement = freplace;
+                } else if (ch == 'z') {
+                    escapes |= 2;
+                    replacement = zreplace;
+                } else if (ch == 'Z') {
+                    escapes |= 4;
+                    replacement = capitalZreplace;
+                } else {
+                    replacement = null;
+                }
+                if (sb != null) {
+                    if (replacement != null) {
+                        sb.append(replacement);
+                    } else {
+                        sb.append('%').append(ch);
+                    }
+                }
+            } else if (sb != null) {
+                sb.append('%');
+            }
+        }
+        return escapes;
+    }
+
+    /**
+     * Parses {@code YYYY-MM-DD}. Like CPython's C implementation (and unlike the {@code int()}
+     * calls of the pure-Python version) only ASCII digits are accepted.
+     */
+    @Builtin(name = "parse_isoformat_date", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ParseIsoformatDateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PList parse(Object dtstrObj,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            String dtstr;
+            try {
+                dtstr = castToStringNode.execute(dtstrObj);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.ARG_MUST_BE_S_NOT_P, "fromisoformat:", "str", dtstrObj);
+            }
+            if (dtstr.length() < 10) {
+                throw raise(ValueError, ErrorMessages.INVALID_ISOFORMAT_STRING, dtstr);
+            }
+            int year = parseDigits(dtstr, 0, 4);
+            if (dtstr.charAt(4) != '-' || dtstr.charAt(7) != '-') {
+                throw raise(ValueError, ErrorMessages.INVALID_DATE_SEPARATOR);
+            }
+            int month = parseDigits(dtstr, 5, 2);
+            int day = parseDigits(dtstr, 8, 2);
+            if (year < 0 || month < 0 || day < 0) {
+                throw raise(ValueError, ErrorMessages.INVALID_ISOFORMAT_STRING, dtstr);
+            }
+            return factory().createList(new IntSequenceStorage(new int[]{year, month, day}));
+        }
+    }
+
+    /**
+     * Parses {@code HH[:MM[:SS[.fff[fff]]]]} into a list of hour, minute, second and microsecond.
+     */
+    @Builtin(name = "parse_hh_mm_ss_ff", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ParseHhMmSsFfNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PList parse(Object tstrObj,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            String tstr;
+            try {
+                tstr = castToStringNode.execute(tstrObj);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.ARG_MUST_BE_S_NOT_P, "fromisoformat:", "str", tstrObj);
+            }
+            int len = tstr.length();
+            int[] comps = new int[4];
+            int pos = 0;
+            for (int comp = 0; comp < 3; comp++) {
+                if (len - pos < 2) {
+                    throw raise(ValueError, ErrorMessages.INCOMPLETE_TIME_COMPONENT);
+                }
+                comps[comp] = parseDigits(tstr, pos, 2);
+                if (comps[comp] < 0) {
+                    throw raise(ValueError, ErrorMessages.INVALID_ISOFORMAT_STRING, tstr);
+                }
+                pos += 2;
+                if (pos >= len || comp >= 2) {
+                    break;
+                }
+                char next = tstr.charAt(pos);
+                if (next != ':') {
+                    throw raise(ValueError, ErrorMessages.INVALID_TIME_SEPARATOR, next);
+                }
+                pos++;
+            }
+            if (pos < len) {
+                if (tstr.charAt(pos) != '.') {
+                    throw raise(ValueError, ErrorMessages.INVALID_MICROSECOND_COMPONENT);
+                }
+                pos++;
+                int remainder = len - pos;
+                if (remainder != 3 && remainder != 6) {
+                    throw raise(ValueError, ErrorMessages.INVALID_MICROSECOND_COMPONENT);
+                }
+                int fraction = parseDigits(tstr, pos, remainder);
+                if (fraction < 0) {
+                    throw raise(ValueError, ErrorMessages.INVALID_MICROSECOND_COMPONENT);
+                }
+                comps[3] = remainder == 3 ? fraction * 1000 : fraction;
+            }
+            return factory().createList(new IntSequenceStorage(comps));
+        }
+    }
+
+    /**
+     * Normalizes integer {@code timedelta} constructor arguments to {@code (days, seconds,
+     * microseconds)} with {@code 0 <= seconds < 86400} and {@code 0 <= microseconds < 10**6}.
+     * Returns {@code None} if any argument is not a Java-representable int or if the intermediate
+     * computation overflows, in which case the caller uses the generic Python code.
+     */
+    @Builtin(name = "normalize_timedelta", parameterNames = {"days", "seconds", "microseconds", "milliseconds", "minutes", "hours", "weeks"})
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class NormalizeTimedeltaNode extends PythonBuiltinNode {
+        @Specialization
+        Object normalize(long days, long seconds, long microseconds, long milliseconds, long minutes, long hours, long weeks) {
+            long d;
+            long s;
+            long us;
+            try {
+                us = Math.addExact(microseconds, Math.multiplyExact(milliseconds, 1000));
+                s = Math.addExact(seconds, Math.addExact(Math.multiplyExact(minutes, 60), Math.multiplyExact(hours, 3600)));
+                d = Math.addExact(days, Math.multiplyExact(weeks, 7));
+
+                s = Math.addExact(s, Math.floorDiv(us, US_PER_SECOND));
+                us = Math.floorMod(us, US_PER_SECOND);
+                d = Math.addExact(d, Math.floorDiv(s, SECONDS_PER_DAY));
+                s = Math.floorMod(s, SECONDS_PER_DAY);
+            } catch (ArithmeticException e) {
+                return PNone.NONE;
+            }
+            if (Math.abs(d) > MAX_DELTA_DAYS) {
+                throw raise(OverflowError, ErrorMessages.TIMEDELTA_DAYS_TOO_LARGE, d);
+            }
+            return factory().createTuple(new Object[]{d, (int) s, (int) us});
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object generic(Object days, Object seconds, Object microseconds, Object milliseconds, Object minutes, Object hours, Object weeks) {
+            return PNone.NONE;
+        }
+    }
+
+    /**
+     * Parses {@code count} ASCII digits starting at {@code start}. Returns {@code -1} if any of the
+     * characters is not an ASCII digit or the string is too short.
+     */
+    static int parseDigits(String s, int start, int count) {
+        if (start + count > s.length()) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
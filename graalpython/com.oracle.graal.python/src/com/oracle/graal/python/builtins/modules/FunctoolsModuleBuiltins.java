@@ -40,18 +40,111 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
+import com.oracle.graal.python.builtins.objects.functools.PartialBuiltins;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode.ExpandKeywordStarargsNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaLongExactNode;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "_functools")
 public class FunctoolsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return FunctoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    // partial(func, *args, **keywords)
+    @Builtin(name = "partial", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PPartial)
+    @GenerateNodeFactory
+    abstract static class PartialNode extends PythonBuiltinNode {
+        @Specialization
+        Object partial(Object cls, Object[] args, PKeyword[] keywords,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary fnLib,
+                        @Cached IsBuiltinClassProfile isExactPartialClass,
+                        @Cached IsBuiltinClassProfile isExactPartialFn,
+                        @Cached GetObjectArrayNode getArgsNode,
+                        @Cached ExpandKeywordStarargsNode expandKeywordsNode,
+                        @Cached("createBinaryProfile()") ConditionProfile flattenProfile) {
+            if (args.length == 0) {
+                throw raise(TypeError, ErrorMessages.TYPE_S_TAKES_AT_LEAST_ONE_ARGUMENT, "partial");
+            }
+            Object fn = args[0];
+            if (!fnLib.isCallable(fn)) {
+                throw raise(TypeError, ErrorMessages.FIRST_ARG_MUST_BE_CALLABLE);
+            }
+            Object[] fnArgs = new Object[args.length - 1];
+            PythonUtils.arraycopy(args, 1, fnArgs, 0, fnArgs.length);
+            PKeyword[] fnKeywords = keywords;
+            // partial(partial(f, a), b) is flattened to partial(f, a, b), like CPython does
+            if (flattenProfile.profile(fn instanceof PPartial && isExactPartialClass.profileClass(cls, PythonBuiltinClassType.PPartial) &&
+                            isExactPartialFn.profileObject(fn, PythonBuiltinClassType.PPartial) && fnLib.getDict(fn) == null)) {
+                PPartial inner = (PPartial) fn;
+                Object[] innerArgs = getArgsNode.execute(inner.getArgs());
+                Object[] combined = new Object[innerArgs.length + fnArgs.length];
+                PythonUtils.arraycopy(innerArgs, 0, combined, 0, innerArgs.length);
+                PythonUtils.arraycopy(fnArgs, 0, combined, innerArgs.length, fnArgs.length);
+                fnArgs = combined;
+                PKeyword[] innerKeywords = expandKeywordsNode.executeWith(inner.getKeywords());
+                if (innerKeywords.length > 0) {
+                    fnKeywords = PartialBuiltins.mergeKeywords(innerKeywords, keywords);
+                }
+                fn = inner.getFn();
+            }
+            return factory().createPartial(cls, fn, factory().createTuple(fnArgs), factory().createDict(fnKeywords));
+        }
+    }
+
+    // _lru_cache_wrapper(user_function, maxsize, typed, cache_info_type)
+    @Builtin(name = "_lru_cache_wrapper", minNumOfPositionalArgs = 5, parameterNames = {"$cls", "user_function", "maxsize", "typed", "cache_info_type"}, constructsClass = PythonBuiltinClassType.PLruCacheWrapper)
+    @GenerateNodeFactory
+    abstract static class LruCacheWrapperNode extends PythonBuiltinNode {
+        @Specialization(limit = "3")
+        Object lruCacheWrapper(Object cls, Object userFunction, Object maxsize, Object typed, Object cacheInfoType,
+                        @CachedLibrary("userFunction") PythonObjectLibrary lib,
+                        @CachedLibrary("typed") PythonObjectLibrary typedLib,
+                        @Cached CastToJavaLongExactNode castToLong) {
+            if (!lib.isCallable(userFunction)) {
+                throw raise(TypeError, ErrorMessages.FIRST_ARG_MUST_BE_CALLABLE);
+            }
+            long limit;
+            if (maxsize == PNone.NONE) {
+                limit = -1;
+            } else if (maxsize instanceof PInt && !((PInt) maxsize).fitsInLong()) {
+                limit = ((PInt) maxsize).isNegative() ? 0 : Long.MAX_VALUE;
+            } else {
+                try {
+                    limit = Math.max(castToLong.execute(maxsize), 0);
+                } catch (CannotCastException e) {
+                    throw raise(TypeError, ErrorMessages.MAXSIZE_SHOULD_BE_INTEGER_OR_NONE);
+                }
+            }
+            boolean isTyped = typedLib.isTrue(typed);
+            return factory().createLruCacheWrapper(cls, userFunction, maxsize, limit, isTyped, cacheInfoType);
+        }
     }
 }
@@ -31,19 +31,26 @@ import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeObject;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.BranchProfile;
 
 @CoreFunctions(defineModule = "gc")
@@ -57,13 +64,43 @@ public final class GcModuleBuiltins extends PythonBuiltins {
     @Builtin(name = "collect", minNumOfPositionalArgs = 0, maxNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class GcCollectNode extends PythonBuiltinNode {
+        private static final int MAX_GENERATION = 2;
+
+        /**
+         * Java offers no way to ask for a young collection, so with the generational policy the
+         * younger generations only process the references that the JVM has already cleared. A
+         * full collection is reserved for the oldest generation and for native memory pressure.
+         * <p>
+         * Returns the number of weak and native object references that were reclaimed meanwhile.
+         * The count is approximate: a reference is counted when the async action thread takes it
+         * from its reference queue, not when this call reclaims it. References that are dequeued
+         * between two calls are not reported by either, and ones that the JVM clears later are
+         * reported by a later call.
+         */
         @Specialization
-        int collect(VirtualFrame frame, @SuppressWarnings("unused") Object level,
+        long collect(VirtualFrame frame, Object level,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib,
                         @Cached BranchProfile asyncProfile) {
-            doGc();
+            int generation = level == PNone.NO_VALUE ? MAX_GENERATION : lib.asSizeWithState(level, PArguments.getThreadState(frame));
+            if (generation < 0 || generation > MAX_GENERATION) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.INVALID_GENERATION);
+            }
+            PythonContext context = getContext();
+            long reclaimed = context.getReclaimedReferences();
+            if (generation == MAX_GENERATION || needsFullCollection(context)) {
+                doGc();
+            }
             // collect some weak references now
-            getContext().triggerAsyncActions(frame, asyncProfile);
-            return 0;
+            context.triggerAsyncActions(frame, asyncProfile);
+            return context.getReclaimedReferences() - reclaimed;
+        }
+
+        @TruffleBoundary
+        private static boolean needsFullCollection(PythonContext context) {
+            if (!"generational".equals(context.getOption(PythonOptions.GcCollectPolicy))) {
+                return true;
+            }
+            return context.hasCApiContext() && context.getCApiContext().hasMemoryPressure();
         }
 
         @TruffleBoundary
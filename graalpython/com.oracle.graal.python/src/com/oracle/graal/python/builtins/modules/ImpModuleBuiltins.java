@@ -88,6 +88,7 @@ import com.oracle.graal.python.parser.sst.SerializationUtils;
 import com.oracle.graal.python.runtime.ExecutionContext.ForeignCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.StartupTimes;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -199,11 +200,16 @@ public class ImpModuleBuiltins extends PythonBuiltins {
         public Object run(VirtualFrame frame, PythonObject moduleSpec, @SuppressWarnings("unused") Object filename,
                         @CachedLibrary(limit = "1") InteropLibrary interop) {
             PythonContext context = getContextRef().get();
+            StartupTimes startupTimes = context.getStartupTimes();
+            long start = startupTimes != null ? StartupTimes.start() : 0;
             Object state = ForeignCallContext.enter(frame, context, this);
             try {
                 return run(moduleSpec, interop);
             } finally {
                 ForeignCallContext.exit(frame, context, state);
+                if (startupTimes != null) {
+                    startupTimes.stop(StartupTimes.Phase.EXTENSION_LOAD, start);
+                }
             }
         }
 
@@ -41,7 +41,7 @@
 package com.oracle.graal.python.builtins.modules;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,25 +50,24 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonTracer;
+import com.oracle.graal.python.runtime.PythonTracer.ProfileListener;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.InstrumentInfo;
-import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.source.SourceSection;
-import com.oracle.truffle.tools.profiler.CPUSampler;
-import com.oracle.truffle.tools.profiler.CPUSampler.Payload;
-import com.oracle.truffle.tools.profiler.ProfilerNode;
-import com.oracle.truffle.tools.profiler.impl.CPUSamplerInstrument;
 
 @CoreFunctions(defineModule = "_lsprof")
 public class LsprofModuleBuiltins extends PythonBuiltins {
@@ -85,36 +84,120 @@ public class LsprofModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class LsprofNew extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         Profiler doit(Object cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
-            Env env = getContext().getEnv();
-            Map<String, InstrumentInfo> instruments = env.getInstruments();
-            InstrumentInfo instrumentInfo = instruments.get(CPUSamplerInstrument.ID);
-            if (instrumentInfo != null) {
-                CPUSampler sampler = env.lookup(instrumentInfo, CPUSampler.class);
-                if (sampler != null) {
-                    return factory().trace(new Profiler(cls, factory().getShape(cls), sampler));
-                }
-            }
-            throw raise(PythonBuiltinClassType.NotImplementedError, "coverage tracker not available");
+            return factory().trace(new Profiler(cls, factory().getShape(cls)));
         }
     }
 }
 
-class Profiler extends PythonBuiltinObject {
+/**
+ * A deterministic profiler like CPython's. It is installed as the profile function of the thread
+ * that enables it and gets the call and return events of that thread in batches from the
+ * {@link PythonTracer}.
+ */
+class Profiler extends PythonBuiltinObject implements ProfileListener {
     boolean subcalls;
     boolean builtins;
     double timeunit;
-    Object externalTimer;
-    double time;
-    final CPUSampler sampler;
 
-    public Profiler(Object cls, Shape instanceShape, CPUSampler sampler) {
+    final Map<Object, Entry> entries = new LinkedHashMap<>();
+    Call current;
+
+    static final class Entry {
+        final RootNode root;
+        PCode code;
+        long callCount;
+        long recursiveCallCount;
+        long totalTime;
+        long inlineTime;
+        int recursionLevel;
+        Map<Entry, Entry> calls;
+
+        Entry(RootNode root) {
+            this.root = root;
+        }
+
+        Entry getSubEntry(Entry callee) {
+            if (calls == null) {
+                calls = new LinkedHashMap<>();
+            }
+            return calls.computeIfAbsent(callee, e -> new Entry(e.root));
+        }
+
+        void account(long tt, long it) {
+            if (--recursionLevel == 0) {
+                totalTime += tt;
+            } else {
+                recursiveCallCount++;
+            }
+            inlineTime += it;
+            callCount++;
+        }
+
+        PCode getCode(PythonObjectFactory factory) {
+            if (code == null) {
+                code = factory.createCode(root.getCallTarget());
+            }
+            return code;
+        }
+    }
+
+    static final class Call {
+        final Call previous;
+        final Entry entry;
+        final long start;
+        long subcallTime;
+
+        Call(Call previous, Entry entry, long start) {
+            this.previous = previous;
+            this.entry = entry;
+            this.start = start;
+        }
+    }
+
+    public Profiler(Object cls, Shape instanceShape) {
         super(cls, instanceShape);
-        this.sampler = sampler;
-        this.sampler.setFilter(SourceSectionFilter.newBuilder().includeInternal(true).build());
-        this.sampler.setMode(CPUSampler.Mode.ROOTS);
-        this.sampler.setPeriod(1);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void onEvents(RootNode[] roots, long[] timestamps, int count) {
+        for (int i = 0; i < count; i++) {
+            if (roots[i] != null) {
+                enter(roots[i], timestamps[i]);
+            } else {
+                leave(timestamps[i]);
+            }
+        }
+    }
+
+    private void enter(RootNode root, long time) {
+        // splitting copies the root node, the source section identifies the function
+        SourceSection section = root.getSourceSection();
+        Entry entry = entries.computeIfAbsent(section != null ? section : root, k -> new Entry(root));
+        current = new Call(current, entry, time);
+        entry.recursionLevel++;
+        if (subcalls && current.previous != null) {
+            current.previous.entry.getSubEntry(entry).recursionLevel++;
+        }
+    }
+
+    void leave(long time) {
+        Call call = current;
+        if (call == null) {
+            // returns of frames that were entered before profiling started
+            return;
+        }
+        current = call.previous;
+        long tt = time - call.start;
+        long it = tt - call.subcallTime;
+        if (current != null) {
+            current.subcallTime += tt;
+        }
+        call.entry.account(tt, it);
+        if (subcalls && current != null) {
+            current.entry.getSubEntry(call.entry).account(tt, it);
+        }
     }
 }
 
@@ -130,35 +213,39 @@ class ProfilerBuiltins extends PythonBuiltins {
     abstract static class Init extends PythonBuiltinNode {
         @Specialization
         PNone doit(Profiler self, Object timer, double timeunit, long subcalls, long builtins) {
+            checkTimer(timer);
             self.subcalls = subcalls > 0;
             self.builtins = builtins > 0;
             self.timeunit = timeunit;
-            self.externalTimer = timer;
             return PNone.NONE;
         }
 
         @Specialization
         @SuppressWarnings("unused")
         PNone doit(Profiler self, Object timer, PNone timeunit, PNone subcalls, PNone builtins) {
+            checkTimer(timer);
             self.subcalls = true;
             self.builtins = true;
             self.timeunit = -1;
-            self.externalTimer = timer;
             return PNone.NONE;
         }
+
+        private void checkTimer(Object timer) {
+            // all times are measured with System.nanoTime
+            if (!(timer instanceof PNone)) {
+                throw raise(PythonBuiltinClassType.NotImplementedError, ErrorMessages.PROFILER_CUSTOM_TIMER_NOT_SUPPORTED);
+            }
+        }
     }
 
     @Builtin(name = "enable", minNumOfPositionalArgs = 1, parameterNames = {"$self", "subcalls", "builtins"})
     @GenerateNodeFactory
     abstract static class Enable extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         PNone doit(Profiler self, long subcalls, long builtins) {
             self.subcalls = subcalls > 0;
             self.builtins = builtins > 0;
-            // TODO: deal with any arguments
-            self.time = System.currentTimeMillis();
-            self.sampler.setCollecting(true);
+            getContext().getTracer().setProfile(self);
             return PNone.NONE;
         }
 
@@ -182,12 +269,23 @@ class ProfilerBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class Disable extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         PNone doit(Profiler self) {
-            self.sampler.setCollecting(false);
-            self.time = (System.currentTimeMillis() - self.time) / 1000D;
+            disable(getContext().getTracer(), self);
             return PNone.NONE;
         }
+
+        @TruffleBoundary
+        private static void disable(PythonTracer tracer, Profiler self) {
+            if (tracer.getProfile() == self) {
+                // this delivers the pending events
+                tracer.setProfile(null);
+            }
+            // account the calls that are still running
+            long now = System.nanoTime();
+            while (self.current != null) {
+                self.leave(now);
+            }
+        }
     }
 
     @Builtin(name = "clear", minNumOfPositionalArgs = 1)
@@ -196,7 +294,9 @@ class ProfilerBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         PNone doit(Profiler self) {
-            self.sampler.clearData();
+            getContext().getTracer().flush(self);
+            self.entries.clear();
+            self.current = null;
             return PNone.NONE;
         }
     }
@@ -225,55 +325,42 @@ class ProfilerBuiltins extends PythonBuiltins {
                     "    inlinetime    inline time (not in further subcalls)\n")
     @GenerateNodeFactory
     abstract static class GetStats extends PythonBuiltinNode {
+        private static final double NANOS_PER_SECOND = 1e9;
+
         @Specialization
         @TruffleBoundary
         PList doit(Profiler self) {
-            double avgSampleSeconds = self.sampler.getPeriod() / 1000D;
+            getContext().getTracer().flush(self);
+            PythonObjectFactory factory = factory();
             List<PList> entries = new ArrayList<>();
-            for (ProfilerNode<Payload> node : self.sampler.getRootNodes()) {
-                countNode(entries, node, avgSampleSeconds);
-            }
-            self.sampler.close();
-            return factory().createList(entries.toArray());
-        }
-
-        private void countNode(List<PList> entries, ProfilerNode<Payload> node, double avgSampleTime) {
-            Collection<ProfilerNode<Payload>> children = node.getChildren();
-            Object[] profilerEntry = getProfilerEntry(node, avgSampleTime);
-            Object[] calls = new Object[children.size()];
-            int callIdx = 0;
-            for (ProfilerNode<Payload> childNode : children) {
-                countNode(entries, childNode, avgSampleTime);
-                calls[callIdx++] = factory().createList(getProfilerEntry(childNode, avgSampleTime));
+            for (Profiler.Entry entry : self.entries.values()) {
+                Object calls = PNone.NONE;
+                if (self.subcalls) {
+                    List<PList> subEntries = new ArrayList<>();
+                    if (entry.calls != null) {
+                        for (Profiler.Entry subEntry : entry.calls.values()) {
+                            subEntries.add(factory.createList(getProfilerEntry(factory, subEntry)));
+                        }
+                    }
+                    calls = factory.createList(subEntries.toArray());
+                }
+                Object[] profilerEntry = getProfilerEntry(factory, entry);
+                Object[] withCalls = new Object[profilerEntry.length + 1];
+                System.arraycopy(profilerEntry, 0, withCalls, 0, profilerEntry.length);
+                withCalls[profilerEntry.length] = calls;
+                entries.add(factory.createList(withCalls));
             }
-            assert callIdx == calls.length;
-            profilerEntry[profilerEntry.length - 1] = factory().createList(calls);
-            entries.add(factory().createList(profilerEntry));
+            return factory.createList(entries.toArray());
         }
 
-        private static Object[] getProfilerEntry(ProfilerNode<Payload> node, double avgSampleTime) {
-            SourceSection sec = node.getSourceSection();
-            String rootName;
-            if (sec == null) {
-                rootName = node.getRootName();
-            } else {
-                rootName = sec.getSource().getName() + ":" + sec.getStartLine() + "(" + node.getRootName() + ")";
-            }
-            if (rootName == null) {
-                rootName = "<unknown root>";
-            }
-            int otherHitCount = node.getPayload().getHitCount();
-            int selfHitCount = node.getPayload().getSelfHitCount();
-            long hitCount = (long) otherHitCount + selfHitCount;
-            Object[] profilerEntry = new Object[]{
-                            rootName,
-                            hitCount,
-                            0,
-                            otherHitCount * avgSampleTime,
-                            selfHitCount * avgSampleTime,
-                            PNone.NONE
+        private static Object[] getProfilerEntry(PythonObjectFactory factory, Profiler.Entry entry) {
+            return new Object[]{
+                            entry.getCode(factory),
+                            entry.callCount,
+                            entry.recursiveCallCount,
+                            entry.totalTime / NANOS_PER_SECOND,
+                            entry.inlineTime / NANOS_PER_SECOND
             };
-            return profilerEntry;
         }
     }
 }
@@ -40,6 +40,8 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import java.io.IOException;
+import java.math.BigInteger;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 
@@ -49,21 +51,42 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.thread.PSemLock;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaDoubleNode;
 import com.oracle.graal.python.nodes.util.CastToJavaIntExactNode;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.InProcessContexts;
+import com.oracle.graal.python.runtime.InProcessContexts.Channel;
+import com.oracle.graal.python.runtime.InProcessContexts.Worker;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.CachedLanguage;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
 
 @CoreFunctions(defineModule = "_multiprocessing")
 public class MultiprocessingModuleBuiltins extends PythonBuiltins {
@@ -154,4 +177,352 @@ public class MultiprocessingModuleBuiltins extends PythonBuiltins {
             return lang.namedSemaphores.remove(name);
         }
     }
+
+    /**
+     * Starts a worker of the {@code inprocess} start method in a new inner context on its own
+     * thread. The worker bootstraps from the data its parent put into {@code channel} and the
+     * write end of the pipe {@code sentinel} is closed when it finishes. The worker context is
+     * disposed when it is waited for, or at the latest when {@code owner} is collected.
+     */
+    @Builtin(name = "_spawn_context", minNumOfPositionalArgs = 3, parameterNames = {"channel", "sentinel", "owner"})
+    @GenerateNodeFactory
+    abstract static class SpawnContextNode extends PythonTernaryBuiltinNode {
+        private static final String BOOTSTRAP = "from multiprocessing.popen_inprocess import _child_main\n_child_main(%d)\n";
+
+        @Specialization
+        int spawn(VirtualFrame frame, Object channelObj, Object sentinelObj, Object owner,
+                        @Cached CastToJavaIntExactNode castChannelNode,
+                        @Cached CastToJavaIntExactNode castSentinelNode,
+                        @CachedLanguage PythonLanguage lang) {
+            int channel = castChannelNode.execute(channelObj);
+            PythonContext context = getContext();
+            Object sentinel = context.getResources().shareFD(castSentinelNode.execute(sentinelObj));
+            if (sentinel == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            int id = spawn(lang, context.getEnv(), channel, sentinel);
+            InProcessContexts workers = lang.inProcessContexts;
+            context.registerCleanup(owner, () -> workers.closeWorker(id));
+            return id;
+        }
+
+        @TruffleBoundary
+        private static int spawn(PythonLanguage lang, TruffleLanguage.Env env, int channel, Object sentinel) {
+            TruffleContext innerContext = env.newContextBuilder().build();
+            Worker worker = new Worker(innerContext, String.format(BOOTSTRAP, channel), sentinel);
+            int id = lang.inProcessContexts.addWorker(worker);
+            // the thread belongs to this context and enters the worker context itself
+            worker.start(env.createThread(worker));
+            return id;
+        }
+    }
+
+    @Builtin(name = "_wait_context", minNumOfPositionalArgs = 1, parameterNames = {"id", "timeout"})
+    @GenerateNodeFactory
+    abstract static class WaitContextNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object doWait(VirtualFrame frame, Object idObj, Object timeoutObj,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @Cached CastToJavaDoubleNode castTimeoutNode,
+                        @CachedLanguage PythonLanguage lang) {
+            int id = castIdNode.execute(idObj);
+            Worker worker = lang.inProcessContexts.getWorker(id);
+            if (worker == null) {
+                throw raiseOSError(frame, OSErrorEnum.ECHILD);
+            }
+            try {
+                if (!worker.join(toMillis(timeoutObj, castTimeoutNode))) {
+                    return PNone.NONE;
+                }
+            } catch (InterruptedException e) {
+                throw raiseOSError(frame, OSErrorEnum.EINTR);
+            }
+            lang.inProcessContexts.removeWorker(id);
+            return worker.getExitCode();
+        }
+    }
+
+    @Builtin(name = "_terminate_context", minNumOfPositionalArgs = 1, parameterNames = {"id"})
+    @GenerateNodeFactory
+    abstract static class TerminateContextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone terminate(Object idObj,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @CachedLanguage PythonLanguage lang) {
+            Worker worker = lang.inProcessContexts.getWorker(castIdNode.execute(idObj));
+            if (worker != null) {
+                worker.terminate();
+            }
+            return PNone.NONE;
+        }
+    }
+
+    /**
+     * Takes a reference to the channel of {@code fd} for a worker context, which installs it with
+     * {@code _adopt_fd}. This is the equivalent of passing a descriptor to a child process.
+     */
+    @Builtin(name = "_share_fd", minNumOfPositionalArgs = 1, parameterNames = {"fd"})
+    @GenerateNodeFactory
+    abstract static class ShareFdNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int share(VirtualFrame frame, Object fdObj,
+                        @Cached CastToJavaIntExactNode castFdNode,
+                        @CachedLanguage PythonLanguage lang) {
+            Object shared = getContext().getResources().shareFD(castFdNode.execute(fdObj));
+            if (shared == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return lang.inProcessContexts.putSharedFD(shared);
+        }
+    }
+
+    @Builtin(name = "_adopt_fd", minNumOfPositionalArgs = 1, parameterNames = {"token"})
+    @GenerateNodeFactory
+    abstract static class AdoptFdNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int adopt(VirtualFrame frame, Object tokenObj,
+                        @Cached CastToJavaIntExactNode castTokenNode,
+                        @CachedLanguage PythonLanguage lang) {
+            Object shared = lang.inProcessContexts.takeSharedFD(castTokenNode.execute(tokenObj));
+            if (shared == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return getContext().getResources().adoptFD(shared);
+        }
+    }
+
+    @Builtin(name = "_release_fd", minNumOfPositionalArgs = 1, parameterNames = {"token"})
+    @GenerateNodeFactory
+    abstract static class ReleaseFdNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone release(Object tokenObj,
+                        @Cached CastToJavaIntExactNode castTokenNode,
+                        @CachedLanguage PythonLanguage lang) {
+            Object shared = lang.inProcessContexts.takeSharedFD(castTokenNode.execute(tokenObj));
+            if (shared != null) {
+                PosixResources.releaseShared(shared);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_channel_create", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class ChannelCreateNode extends PythonBuiltinNode {
+        @Specialization
+        int create(VirtualFrame frame,
+                        @CachedLanguage PythonLanguage lang) {
+            try {
+                return lang.inProcessContexts.createChannel();
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+        }
+    }
+
+    @Builtin(name = "_channel_retain", minNumOfPositionalArgs = 1, parameterNames = {"id"})
+    @GenerateNodeFactory
+    abstract static class ChannelRetainNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone retain(VirtualFrame frame, Object idObj,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @CachedLanguage PythonLanguage lang) {
+            if (!lang.inProcessContexts.retainChannel(castIdNode.execute(idObj))) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_channel_release", minNumOfPositionalArgs = 1, parameterNames = {"id"})
+    @GenerateNodeFactory
+    abstract static class ChannelReleaseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone release(Object idObj,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @CachedLanguage PythonLanguage lang) {
+            lang.inProcessContexts.releaseChannel(castIdNode.execute(idObj));
+            return PNone.NONE;
+        }
+    }
+
+    /**
+     * Returns a new descriptor that is readable while the channel is not empty.
+     */
+    @Builtin(name = "_channel_fileno", minNumOfPositionalArgs = 1, parameterNames = {"id"})
+    @GenerateNodeFactory
+    abstract static class ChannelFilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int fileno(VirtualFrame frame, Object idObj,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @CachedLanguage PythonLanguage lang) {
+            Channel channel = getChannel(frame, this, lang, castIdNode.execute(idObj));
+            return getContext().getResources().adoptFD(channel.shareReadySource());
+        }
+    }
+
+    /**
+     * Puts an object into the channel. Exact instances of immutable builtin types (and tuples of
+     * them) are handed over directly. For other objects this returns {@code False}, and the caller
+     * must put the pickled object with {@code pickled=True} instead.
+     */
+    @Builtin(name = "_channel_put", minNumOfPositionalArgs = 3, parameterNames = {"id", "obj", "pickled"})
+    @GenerateNodeFactory
+    abstract static class ChannelPutNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        boolean put(VirtualFrame frame, Object idObj, Object obj, boolean pickled,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @CachedLanguage PythonLanguage lang) {
+            Channel channel = getChannel(frame, this, lang, castIdNode.execute(idObj));
+            Object item;
+            if (pickled) {
+                try {
+                    item = new Pickled(lib.getBufferBytes(obj));
+                } catch (UnsupportedMessageException e) {
+                    throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.BYTESLIKE_OBJ_REQUIRED, obj);
+                }
+            } else {
+                item = toShared(obj);
+                if (item == null) {
+                    return false;
+                }
+            }
+            try {
+                channel.put(item);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return true;
+        }
+
+        @TruffleBoundary
+        private static Object toShared(Object obj) {
+            if (obj instanceof Integer || obj instanceof Long || obj instanceof Double || obj instanceof Boolean || obj instanceof String || obj == PNone.NONE) {
+                return obj;
+            }
+            PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+            Object cls = lib.getLazyPythonClass(obj);
+            if (cls == PythonBuiltinClassType.PInt && obj instanceof PInt) {
+                return ((PInt) obj).getValue();
+            } else if (cls == PythonBuiltinClassType.PFloat && obj instanceof PFloat) {
+                return ((PFloat) obj).getValue();
+            } else if (cls == PythonBuiltinClassType.PString && obj instanceof PString) {
+                return ((PString) obj).getValue();
+            } else if (cls == PythonBuiltinClassType.PBytes && obj instanceof PBytes) {
+                try {
+                    return new SharedBytes(lib.getBufferBytes(obj));
+                } catch (UnsupportedMessageException e) {
+                    return null;
+                }
+            } else if (cls == PythonBuiltinClassType.PTuple && obj instanceof PTuple) {
+                Object[] items = ((PTuple) obj).getSequenceStorage().getCopyOfInternalArray();
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = toShared(items[i]);
+                    if (items[i] == null) {
+                        return null;
+                    }
+                }
+                return new SharedTuple(items);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Takes the next object from the channel. Returns a tuple {@code (obj, pickled)}, or
+     * {@code None} if the timeout expired.
+     */
+    @Builtin(name = "_channel_get", minNumOfPositionalArgs = 1, parameterNames = {"id", "timeout"})
+    @GenerateNodeFactory
+    abstract static class ChannelGetNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object get(VirtualFrame frame, Object idObj, Object timeoutObj,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @Cached CastToJavaDoubleNode castTimeoutNode,
+                        @CachedLanguage PythonLanguage lang) {
+            Channel channel = getChannel(frame, this, lang, castIdNode.execute(idObj));
+            Object item;
+            try {
+                item = channel.take(toMillis(timeoutObj, castTimeoutNode));
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            } catch (InterruptedException e) {
+                throw raiseOSError(frame, OSErrorEnum.EINTR);
+            }
+            if (item == null) {
+                return PNone.NONE;
+            } else if (item instanceof Pickled) {
+                return factory().createTuple(new Object[]{factory().createBytes(((Pickled) item).data), true});
+            }
+            return factory().createTuple(new Object[]{fromShared(factory(), item), false});
+        }
+
+        @TruffleBoundary
+        private static Object fromShared(PythonObjectFactory factory, Object item) {
+            if (item instanceof BigInteger) {
+                return factory.createInt((BigInteger) item);
+            } else if (item instanceof SharedBytes) {
+                return factory.createBytes(((SharedBytes) item).data);
+            } else if (item instanceof SharedTuple) {
+                Object[] items = ((SharedTuple) item).items;
+                Object[] result = new Object[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    result[i] = fromShared(factory, items[i]);
+                }
+                return factory.createTuple(result);
+            }
+            return item;
+        }
+    }
+
+    @Builtin(name = "_channel_poll", minNumOfPositionalArgs = 1, parameterNames = {"id"})
+    @GenerateNodeFactory
+    abstract static class ChannelPollNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean poll(VirtualFrame frame, Object idObj,
+                        @Cached CastToJavaIntExactNode castIdNode,
+                        @CachedLanguage PythonLanguage lang) {
+            return !getChannel(frame, this, lang, castIdNode.execute(idObj)).isEmpty();
+        }
+    }
+
+    private static Channel getChannel(VirtualFrame frame, PythonBuiltinBaseNode node, PythonLanguage lang, int id) {
+        Channel channel = lang.inProcessContexts.getChannel(id);
+        if (channel == null) {
+            throw node.raiseOSError(frame, OSErrorEnum.EBADF);
+        }
+        return channel;
+    }
+
+    private static long toMillis(Object timeoutObj, CastToJavaDoubleNode castTimeoutNode) {
+        if (timeoutObj == PNone.NONE || timeoutObj == PNone.NO_VALUE) {
+            return -1;
+        }
+        return Math.max(0, (long) (castTimeoutNode.execute(timeoutObj) * 1000));
+    }
+
+    private static final class SharedBytes {
+        private final byte[] data;
+
+        SharedBytes(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    private static final class SharedTuple {
+        private final Object[] items;
+
+        SharedTuple(Object[] items) {
+            this.items = items;
+        }
+    }
+
+    private static final class Pickled {
+        private final byte[] data;
+
+        Pickled(byte[] data) {
+            this.data = data;
+        }
+    }
 }
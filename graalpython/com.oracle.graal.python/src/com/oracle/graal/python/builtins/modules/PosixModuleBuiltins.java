@@ -57,8 +57,10 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.SelectableChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.LinkOption;
 import java.nio.file.StandardCopyOption;
@@ -1194,6 +1196,32 @@ public class PosixModuleBuiltins extends PythonBuiltins {
             return write(frame, fd, getByteArray(data.getSequenceStorage()), channelClassProfile);
         }
 
+        @Specialization(guards = "getContext().isHostByteBuffer(data)")
+        Object writeHostBuffer(VirtualFrame frame, int fd, Object data,
+                        @Cached("createClassProfile()") ValueProfile channelClassProfile) {
+            Channel channel = getResources().getFileChannel(fd, channelClassProfile);
+            try {
+                // the host memory is only read, so it is written without a copy
+                Object ret = writableOp(getContext().getHostByteBuffer(data), channel);
+                if (ret != null) {
+                    return ret;
+                }
+            } catch (Exception e) {
+                gotException.enter();
+                throw raiseOSError(frame, e);
+            }
+            notWritable.enter();
+            throw raiseOSError(frame, OSErrorEnum.EBADF);
+        }
+
+        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        private static Object writableOp(ByteBuffer data, Object channel) throws IOException {
+            if (channel instanceof WritableByteChannel) {
+                return ((WritableByteChannel) channel).write(data);
+            }
+            return null;
+        }
+
         @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
         static Object writePInt(VirtualFrame frame, Object fd, Object data,
                         @CachedLibrary("fd") PythonObjectLibrary lib,
@@ -1255,6 +1283,103 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    // sendfile(out_fd, in_fd, offset, count)
+    @Builtin(name = "sendfile", minNumOfPositionalArgs = 4, parameterNames = {"out_fd", "in_fd", "offset", "count"})
+    @GenerateNodeFactory
+    public abstract static class SendfileNode extends PythonFileNode {
+        private static final int COPY_CHUNK_SIZE = 64 * 1024;
+
+        private final BranchProfile gotException = BranchProfile.create();
+
+        @Specialization
+        Object sendfile(VirtualFrame frame, Object outFd, Object inFd, Object offset, Object count,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib) {
+            ThreadState threadState = PArguments.getThreadState(frame);
+            int out = lib.asFileDescriptorWithState(outFd, threadState);
+            int in = lib.asFileDescriptorWithState(inFd, threadState);
+            // a None offset means the current position of in_fd, which is then advanced
+            long position = -1;
+            if (offset != PNone.NONE) {
+                position = lib.asJavaLongWithState(offset, threadState);
+                if (position < 0) {
+                    throw raiseOSError(frame, OSErrorEnum.EINVAL);
+                }
+            }
+            long n = lib.asJavaLongWithState(count, threadState);
+            if (n < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            Channel inChannel = getResources().getFileChannel(in);
+            if (!(inChannel instanceof SeekableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            WritableByteChannel outChannel = getWritableChannel(getResources().getFileChannel(out));
+            if (outChannel == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            long sent;
+            try {
+                sent = transfer((SeekableByteChannel) inChannel, outChannel, position, n);
+            } catch (IOException e) {
+                gotException.enter();
+                throw raiseOSError(frame, e);
+            }
+            if (sent < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return sent;
+        }
+
+        private static WritableByteChannel getWritableChannel(Channel channel) {
+            if (channel instanceof PSocket) {
+                return ((PSocket) channel).getSocket();
+            } else if (channel instanceof WritableByteChannel) {
+                return (WritableByteChannel) channel;
+            }
+            return null;
+        }
+
+        /**
+         * Transfers up to {@code count} bytes and returns how many were sent, {@code 0} at the end of
+         * the file and {@code -1} if a non-blocking target cannot take any bytes right now. File
+         * channels use {@link FileChannel#transferTo}, which lets the kernel copy straight from the
+         * page cache into the socket.
+         */
+        @TruffleBoundary
+        private static long transfer(SeekableByteChannel in, WritableByteChannel out, long offset, long count) throws IOException {
+            long position = offset < 0 ? in.position() : offset;
+            if (count == 0 || position >= in.size()) {
+                return 0;
+            }
+            long sent;
+            if (in instanceof FileChannel) {
+                sent = ((FileChannel) in).transferTo(position, count, out);
+            } else {
+                sent = copy(in, out, position, count);
+            }
+            if (sent == 0 && out instanceof SelectableChannel && !((SelectableChannel) out).isBlocking()) {
+                return -1;
+            }
+            if (offset < 0) {
+                in.position(position + sent);
+            }
+            return sent;
+        }
+
+        private static long copy(SeekableByteChannel in, WritableByteChannel out, long position, long count) throws IOException {
+            long oldPosition = in.position();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, COPY_CHUNK_SIZE));
+            try {
+                in.position(position);
+                in.read(buffer);
+            } finally {
+                in.position(oldPosition);
+            }
+            buffer.flip();
+            return out.write(buffer);
+        }
+    }
+
     @Builtin(name = "isatty", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
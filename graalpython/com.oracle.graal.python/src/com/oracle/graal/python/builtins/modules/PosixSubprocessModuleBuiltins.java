@@ -42,6 +42,8 @@ package com.oracle.graal.python.builtins.modules;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.ProcessBuilder.Redirect;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
@@ -74,6 +76,7 @@ import com.oracle.graal.python.nodes.util.CannotCastException;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
 import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.ProcessPipePump;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -202,18 +205,15 @@ public class PosixSubprocessModuleBuiltins extends PythonBuiltins {
 
             try {
                 Process process = pb.start();
+                ProcessPipePump pump = resources.getPipePump();
                 if (p2cwrite != -1) {
-                    // user code is expected to close the unused ends of the pipes
-                    resources.getFileChannel(p2cwrite).close();
-                    resources.fdopen(p2cwrite, Channels.newChannel(process.getOutputStream()));
+                    connectInput(resources, pump, p2cread, p2cwrite, process.getOutputStream());
                 }
                 if (c2pread != -1) {
-                    resources.getFileChannel(c2pread).close();
-                    resources.fdopen(c2pread, Channels.newChannel(process.getInputStream()));
+                    connectOutput(resources, pump, c2pread, c2pwrite, process.getInputStream());
                 }
                 if (errread != -1) {
-                    resources.getFileChannel(errread).close();
-                    resources.fdopen(errread, Channels.newChannel(process.getErrorStream()));
+                    connectOutput(resources, pump, errread, errwrite, process.getErrorStream());
                 }
 
                 return resources.registerChild(process);
@@ -227,6 +227,33 @@ public class PosixSubprocessModuleBuiltins extends PythonBuiltins {
             }
         }
 
+        /**
+         * Keeps the pipe created by Python, so the end in {@code p2cwrite} stays selectable, and
+         * lets the pump feed the child from the other end. User code is expected to close the
+         * unused ends of the pipes, which only drops our reference to them.
+         */
+        private static void connectInput(PosixResources resources, ProcessPipePump pump, int p2cread, int p2cwrite, OutputStream in) throws IOException {
+            Object source = resources.shareFD(p2cread);
+            if (source == null || !pump.pumpInput(source, in)) {
+                if (source != null) {
+                    PosixResources.releaseShared(source);
+                }
+                resources.getFileChannel(p2cwrite).close();
+                resources.fdopen(p2cwrite, Channels.newChannel(in));
+            }
+        }
+
+        private static void connectOutput(PosixResources resources, ProcessPipePump pump, int readFd, int writeFd, InputStream out) throws IOException {
+            Object sink = resources.shareFD(writeFd);
+            if (sink == null || !pump.pumpOutput(out, sink)) {
+                if (sink != null) {
+                    PosixResources.releaseShared(sink);
+                }
+                resources.getFileChannel(readFd).close();
+                resources.fdopen(readFd, Channels.newChannel(out));
+            }
+        }
+
         @TruffleBoundary(allowInlining = true)
         private void handleIOError(int errpipe_write, PosixResources resources, IOException e) {
             Channel err = resources.getFileChannel(errpipe_write);
@@ -57,6 +57,8 @@ import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
+import com.oracle.graal.python.builtins.objects.socket.PSocket;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PGuards;
@@ -65,6 +67,9 @@ import com.oracle.graal.python.nodes.builtins.ListNodes.FastConstructListNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.PosixResources;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
@@ -83,6 +88,35 @@ public class SelectModuleBuiltins extends PythonBuiltins {
 
     public SelectModuleBuiltins() {
         builtinConstants.put("error", PythonErrorType.OSError);
+
+        builtinConstants.put("POLLIN", PPoll.POLLIN);
+        builtinConstants.put("POLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("POLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("POLLERR", PPoll.POLLERR);
+        builtinConstants.put("POLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("POLLNVAL", PPoll.POLLNVAL);
+        builtinConstants.put("POLLRDNORM", PPoll.POLLRDNORM);
+        builtinConstants.put("POLLRDBAND", PPoll.POLLRDBAND);
+        builtinConstants.put("POLLWRNORM", PPoll.POLLWRNORM);
+        builtinConstants.put("POLLWRBAND", PPoll.POLLWRBAND);
+        builtinConstants.put("POLLMSG", PPoll.POLLMSG);
+        builtinConstants.put("POLLRDHUP", PPoll.POLLRDHUP);
+
+        builtinConstants.put("EPOLLIN", PPoll.POLLIN);
+        builtinConstants.put("EPOLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("EPOLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("EPOLLERR", PPoll.POLLERR);
+        builtinConstants.put("EPOLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("EPOLLRDNORM", PPoll.POLLRDNORM);
+        builtinConstants.put("EPOLLRDBAND", PPoll.POLLRDBAND);
+        builtinConstants.put("EPOLLWRNORM", PPoll.POLLWRNORM);
+        builtinConstants.put("EPOLLWRBAND", PPoll.POLLWRBAND);
+        builtinConstants.put("EPOLLMSG", PPoll.POLLMSG);
+        builtinConstants.put("EPOLLRDHUP", PPoll.POLLRDHUP);
+        builtinConstants.put("EPOLLEXCLUSIVE", PPoll.EPOLLEXCLUSIVE);
+        builtinConstants.put("EPOLLONESHOT", PPoll.EPOLLONESHOT);
+        builtinConstants.put("EPOLLET", PPoll.EPOLLET & 0xFFFFFFFFL);
+        builtinConstants.put("EPOLL_CLOEXEC", PPoll.EPOLL_CLOEXEC);
     }
 
     @Override
@@ -90,6 +124,61 @@ public class SelectModuleBuiltins extends PythonBuiltins {
         return SelectModuleBuiltinsFactory.getFactories();
     }
 
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, parameterNames = {"cls"}, constructsClass = PythonBuiltinClassType.PPoll)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PPoll doCreate(VirtualFrame frame, Object cls) {
+            PPoll poll;
+            try {
+                poll = factory().createPoll(cls, openSelector());
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            // there is no close() for poll objects, the selector goes away with the object
+            getContext().registerCleanup(poll, poll.getChannel());
+            return poll;
+        }
+    }
+
+    @Builtin(name = "epoll", minNumOfPositionalArgs = 1, parameterNames = {"cls", "sizehint", "flags"}, constructsClass = PythonBuiltinClassType.PEpoll)
+    @GenerateNodeFactory
+    abstract static class EpollNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PPoll doCreate(VirtualFrame frame, Object cls, @SuppressWarnings("unused") Object sizehint, @SuppressWarnings("unused") Object flags) {
+            PPoll epoll;
+            try {
+                epoll = factory().createPoll(cls, openSelector());
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            // an epoll object is a file descriptor, so 'os.close' works on it
+            PosixResources resources = getContext().getResources();
+            Channel channel = epoll.getChannel();
+            int fd = resources.openChannel(channel);
+            epoll.setFileno(fd);
+            // an epoll object that is dropped without close() closes its file descriptor
+            getContext().registerCleanup(epoll, () -> closeIfOpen(resources, fd, channel));
+            return epoll;
+        }
+
+        @TruffleBoundary
+        private static void closeIfOpen(PosixResources resources, int fd, Channel channel) throws IOException {
+            // the descriptor may have been closed and reused in the meantime
+            if (resources.getFileChannel(fd) == channel) {
+                resources.close(fd);
+            }
+            channel.close();
+        }
+    }
+
+    @TruffleBoundary
+    private static Selector openSelector() throws IOException {
+        return Selector.open();
+    }
+
     @Builtin(name = "select", minNumOfPositionalArgs = 3, parameterNames = {"rlist", "wlist", "xlist", "timeout"})
     @GenerateNodeFactory
     abstract static class SelectNode extends PythonBuiltinNode {
@@ -228,6 +317,9 @@ public class SelectModuleBuiltins extends PythonBuiltins {
             for (int i = 0; i < len; i++) {
                 int fd = itemLib.asFileDescriptorWithState(callGetItemNode.executeObject(frame, pSequence, i), threadState);
                 Channel fileChannel = getContext().getResources().getFileChannel(fd);
+                if (fileChannel instanceof PSocket) {
+                    fileChannel = ((PSocket) fileChannel).getSelectableChannel();
+                }
                 if (!(fileChannel instanceof SelectableChannel)) {
                     throw NonSelectableChannel.INSTANCE;
                 }
@@ -46,7 +46,9 @@ import java.net.IDN;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
+import java.net.StandardProtocolFamily;
 import java.net.UnknownHostException;
+import java.nio.channels.DatagramChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -69,6 +71,7 @@ import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
+import com.oracle.graal.python.builtins.objects.socket.UnixDomainSockets;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
@@ -214,6 +217,9 @@ public class SocketModuleBuiltins extends PythonBuiltins {
         builtinConstants.put("AF_UNSPEC", AF_UNSPEC);
         builtinConstants.put("AF_INET", AF_INET);
         builtinConstants.put("AF_INET6", AF_INET6);
+        if (UnixDomainSockets.isSupported()) {
+            builtinConstants.put("AF_UNIX", PSocket.AF_UNIX);
+        }
         if (ImageInfo.inImageBuildtimeCode()) {
             // we do this eagerly for SVM images
             services = parseServices(core.getContext().getEnv());
@@ -226,9 +232,9 @@ public class SocketModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class SocketNode extends PythonBuiltinNode {
         @Specialization(guards = {"isNoValue(family)", "isNoValue(type)", "isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(Object cls, @SuppressWarnings("unused") PNone family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto,
+        Object socket(VirtualFrame frame, Object cls, @SuppressWarnings("unused") PNone family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto,
                         @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, PSocket.AF_INET, PSocket.SOCK_STREAM, 0);
+            return createSocketInternal(frame, cls, PSocket.AF_INET, PSocket.SOCK_STREAM, 0);
         }
 
         @Specialization(guards = {"isNoValue(family)", "isNoValue(type)", "isNoValue(proto)", "!isNoValue(fileno)"})
@@ -242,30 +248,30 @@ public class SocketModuleBuiltins extends PythonBuiltins {
         }
 
         @Specialization(guards = {"!isNoValue(family)", "isNoValue(type)", "isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(Object cls, Object family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno,
+        Object socket(VirtualFrame frame, Object cls, Object family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno,
                         @Cached CastToJavaIntExactNode cast) {
             try {
-                return createSocketInternal(cls, cast.execute(family), PSocket.SOCK_STREAM, 0);
+                return createSocketInternal(frame, cls, cast.execute(family), PSocket.SOCK_STREAM, 0);
             } catch (CannotCastException e) {
                 throw raise(PythonErrorType.TypeError, ErrorMessages.INTEGER_REQUIRED_GOT, family);
             }
         }
 
         @Specialization(guards = {"!isNoValue(family)", "!isNoValue(type)", "isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(Object cls, Object family, Object type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno,
+        Object socket(VirtualFrame frame, Object cls, Object family, Object type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno,
                         @Cached CastToJavaIntExactNode cast) {
             try {
-                return createSocketInternal(cls, cast.execute(family), cast.execute(type), 0);
+                return createSocketInternal(frame, cls, cast.execute(family), cast.execute(type), 0);
             } catch (CannotCastException e) {
                 throw raise(PythonErrorType.TypeError, ErrorMessages.INTEGER_REQUIRED_GOT, family);
             }
         }
 
         @Specialization(guards = {"!isNoValue(family)", "!isNoValue(type)", "!isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(Object cls, Object family, Object type, Object proto, @SuppressWarnings("unused") PNone fileno,
+        Object socket(VirtualFrame frame, Object cls, Object family, Object type, Object proto, @SuppressWarnings("unused") PNone fileno,
                         @Cached CastToJavaIntExactNode cast) {
             try {
-                return createSocketInternal(cls, cast.execute(family), cast.execute(type), cast.execute(proto));
+                return createSocketInternal(frame, cls, cast.execute(family), cast.execute(type), cast.execute(proto));
             } catch (CannotCastException e) {
                 throw raise(PythonErrorType.TypeError, ErrorMessages.INTEGER_REQUIRED_GOT, family);
             }
@@ -281,9 +287,20 @@ public class SocketModuleBuiltins extends PythonBuiltins {
             }
         }
 
-        private Object createSocketInternal(Object cls, int family, int type, int proto) {
+        private Object createSocketInternal(VirtualFrame frame, Object cls, int family, int type, int proto) {
             if (getContext().getEnv().isNativeAccessAllowed()) {
+                if (family == PSocket.AF_UNIX && (type != PSocket.SOCK_STREAM || !UnixDomainSockets.isSupported())) {
+                    // the JDK only has Unix domain stream sockets
+                    throw raiseOSError(frame, OSErrorEnum.EAFNOSUPPORT);
+                }
                 PSocket newSocket = factory().createSocket(cls, family, type, proto);
+                if (type == PSocket.SOCK_DGRAM) {
+                    try {
+                        newSocket.setDatagramSocket(openDatagramChannel(family));
+                    } catch (IOException e) {
+                        throw raiseOSError(frame, e);
+                    }
+                }
                 int fd = getContext().getResources().openSocket(newSocket);
                 newSocket.setFileno(fd);
                 return newSocket;
@@ -304,13 +321,23 @@ public class SocketModuleBuiltins extends PythonBuiltins {
                     newSocket.setSocket(oldSocket.getSocket());
                 } else if (oldSocket.getServerSocket() != null) {
                     newSocket.setServerSocket(oldSocket.getServerSocket());
+                } else if (oldSocket.getDatagramSocket() != null) {
+                    newSocket.setDatagramSocket(oldSocket.getDatagramSocket());
                 }
+                // the channels are shared, so is their blocking mode
+                newSocket.setTimeout(oldSocket.getTimeout());
                 getContext().getResources().reopenSocket(newSocket, fileno);
                 return newSocket;
             } else {
                 throw raise(PythonErrorType.RuntimeError, ErrorMessages.CREATING_SOCKETS_NOT_ALLOWED);
             }
         }
+
+        @TruffleBoundary
+        private static DatagramChannel openDatagramChannel(int family) throws IOException {
+            // without a family the JDK may open an IPv6 socket and report IPv4 peers as such
+            return family == PSocket.AF_INET ? DatagramChannel.open(StandardProtocolFamily.INET) : DatagramChannel.open();
+        }
     }
 
     @Builtin(name = "gethostname", minNumOfPositionalArgs = 0)
@@ -77,6 +77,7 @@ import com.oracle.graal.python.nodes.frame.ReadCallerFrameNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.GetCaughtExceptionNode;
 import com.oracle.graal.python.runtime.PythonContext;
@@ -415,6 +416,46 @@ public class SysModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "settrace", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SetTraceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone settrace(Object function) {
+            getContext().getTracer().setTrace(function == PNone.NONE ? null : function);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "gettrace", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GetTraceNode extends PythonBuiltinNode {
+        @Specialization
+        Object gettrace() {
+            Object function = getContext().getTracer().getTrace();
+            return function == null ? PNone.NONE : function;
+        }
+    }
+
+    @Builtin(name = "setprofile", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SetProfileNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone setprofile(Object function) {
+            getContext().getTracer().setProfile(function == PNone.NONE ? null : function);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "getprofile", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GetProfileNode extends PythonBuiltinNode {
+        @Specialization
+        Object getprofile() {
+            Object function = getContext().getTracer().getProfile();
+            return function == null ? PNone.NONE : function;
+        }
+    }
+
     @Builtin(name = "getfilesystemencoding", minNumOfPositionalArgs = 0)
     @GenerateNodeFactory
     public abstract static class GetFileSystemEncodingNode extends PythonBuiltinNode {
@@ -66,6 +66,7 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.runtime.AsyncHandler;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -112,7 +113,8 @@ public class WeakRefModuleBuiltins extends PythonBuiltins {
         weakrefModule.setAttribute(weakRefQueueKey, weakRefQueue);
         core.lookupType(PythonBuiltinClassType.PReferenceType).setAttribute(weakRefQueueKey, weakRefQueue);
 
-        core.getContext().registerAsyncAction(() -> {
+        PythonContext context = core.getContext();
+        context.registerAsyncAction(() -> {
             Reference<? extends Object> reference = null;
             try {
                 reference = weakRefQueue.remove();
@@ -120,6 +122,7 @@ public class WeakRefModuleBuiltins extends PythonBuiltins {
                 Thread.currentThread().interrupt();
             }
             if (reference instanceof PReferenceType.WeakRefStorage) {
+                context.addReclaimedReferences(1);
                 return new WeakrefCallbackAction((PReferenceType.WeakRefStorage) reference);
             } else {
                 return null;
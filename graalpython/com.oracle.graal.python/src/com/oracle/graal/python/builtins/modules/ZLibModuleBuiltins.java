@@ -61,25 +61,28 @@ import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.ToByteArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibCompress;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibDecompress;
+import com.oracle.graal.python.builtins.objects.zlib.ZLibStreamPool;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
-import com.oracle.graal.python.nodes.util.CastToJavaIntExactNode;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
@@ -89,7 +92,7 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
     protected static final int MAX_WBITS = 15;
     protected static final int DEFLATED = 8;
     protected static final int DEF_MEM_LEVEL = 8;
-    protected static final int DEF_BUF_SIZE = 16 * 1024;
+    public static final int DEF_BUF_SIZE = 16 * 1024;
     // compression levels
     protected static final int Z_NO_COMPRESSION = 0;
     protected static final int Z_BEST_SPEED = 1;
@@ -102,13 +105,13 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
     protected static final int Z_FIXED = 4;
     protected static final int Z_DEFAULT_STRATEGY = 0;
     // allowed flush values
-    protected static final int Z_NO_FLUSH = 0;
-    protected static final int Z_PARTIAL_FLUSH = 1;
-    protected static final int Z_SYNC_FLUSH = 2;
-    protected static final int Z_FULL_FLUSH = 3;
-    protected static final int Z_FINISH = 4;
-    protected static final int Z_BLOCK = 5;
-    protected static final int Z_TREES = 6;
+    public static final int Z_NO_FLUSH = 0;
+    public static final int Z_PARTIAL_FLUSH = 1;
+    public static final int Z_SYNC_FLUSH = 2;
+    public static final int Z_FULL_FLUSH = 3;
+    public static final int Z_FINISH = 4;
+    public static final int Z_BLOCK = 5;
+    public static final int Z_TREES = 6;
 
     // errors
     protected static final int Z_BUF_ERROR = -5;
@@ -341,177 +344,105 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "zlib_deflateInit", minNumOfPositionalArgs = 6)
+    // zlib.compressobj(level=-1, method=DEFLATED, wbits=MAX_WBITS, memLevel=DEF_MEM_LEVEL,
+    // strategy=Z_DEFAULT_STRATEGY, zdict=None)
+    @Builtin(name = "compressobj", parameterNames = {"level", "method", "wbits", "memLevel", "strategy", "zdict"})
     @GenerateNodeFactory
-    abstract static class DeflateInitNode extends PythonBuiltinNode {
+    abstract static class CompressObjNode extends PythonBuiltinNode {
         /**
-         * @param memLevel is ignored - it mostly affects performance and compression rate, we trust
-         *            that the Deflater implementation will work well
+         * {@code memLevel} is ignored - it mostly affects performance and compression rate, we
+         * trust that the Deflater implementation will work well.
          */
         @Specialization
-        @TruffleBoundary
-        Object deflateInit(int level, int method, int wbits, int memLevel, int strategy, Object zdict) {
-            Deflater deflater;
-            if (wbits < 0) {
-                // generate a RAW stream, i.e., no wrapping
-                deflater = new Deflater(level, true);
-            } else if (wbits >= 25) {
-                // include gzip container
-                throw raise(PythonBuiltinClassType.NotImplementedError, "gzip containers");
-            } else {
-                // wrap stream with zlib header and trailer
-                deflater = new Deflater(level, false);
-            }
-
+        Object compressobj(VirtualFrame frame, Object levelObj, Object methodObj, Object wbitsObj, Object memLevelObj, Object strategyObj, Object zdictObj,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached ToBytesNode toBytesNode) {
+            int level = asInt(frame, levelObj, Z_DEFAULT_COMPRESSION, lib);
+            int method = asInt(frame, methodObj, DEFLATED, lib);
+            int wbits = asInt(frame, wbitsObj, MAX_WBITS, lib);
+            asInt(frame, memLevelObj, DEF_MEM_LEVEL, lib);
+            int strategy = asInt(frame, strategyObj, Z_DEFAULT_STRATEGY, lib);
             if (method != DEFLATED) {
                 throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.ONLY_DEFLATED_ALLOWED_AS_METHOD, DEFLATED, method);
             }
-            deflater.setStrategy(strategy);
-            if (zdict instanceof String) {
-                deflater.setDictionary(((String) zdict).getBytes());
-            } else if (!(zdict instanceof PNone)) {
-                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.MUST_BE_STRINGS_NOT_P, "zdict", zdict);
+            if (level < Z_DEFAULT_COMPRESSION || level > Z_BEST_COMPRESSION || strategy < Z_DEFAULT_STRATEGY || strategy > Z_FIXED) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.INVALID_INITIALIZATION_OPTION);
             }
-            return new DeflaterWrapper(deflater);
+            if (wbits >= 25) {
+                // include gzip container
+                throw raise(PythonBuiltinClassType.NotImplementedError, "gzip containers");
+            }
+            // a negative wbits generates a RAW stream, i.e., no zlib header and trailer
+            boolean nowrap = wbits < 0;
+            // Deflater has no equivalent for Z_RLE and Z_FIXED, use the default strategy for them
+            int javaStrategy = strategy == Z_FILTERED || strategy == Z_HUFFMAN_ONLY ? strategy : Z_DEFAULT_STRATEGY;
+            byte[] zdict = zdictObj == PNone.NO_VALUE || zdictObj == PNone.NONE ? null : toBytesNode.execute(frame, zdictObj);
+            Deflater deflater;
+            if (zdict == null) {
+                deflater = ZLibStreamPool.acquireDeflater(level, javaStrategy, nowrap);
+            } else {
+                deflater = newDeflater(level, javaStrategy, nowrap, zdict);
+            }
+            PZLibCompress compress = factory().createZLibCompress(PythonBuiltinClassType.PZLibCompress, deflater, level, javaStrategy, nowrap, zdict);
+            getContext().registerCleanup(compress, compress.getCleanup());
+            return compress;
         }
-    }
-
-    static class DeflaterWrapper implements TruffleObject {
-        private final Deflater deflater;
 
-        public DeflaterWrapper(Deflater deflater) {
-            this.deflater = deflater;
+        @TruffleBoundary
+        private static Deflater newDeflater(int level, int strategy, boolean nowrap, byte[] zdict) {
+            Deflater deflater = new Deflater(level, nowrap);
+            deflater.setStrategy(strategy);
+            deflater.setDictionary(zdict);
+            return deflater;
         }
     }
 
-    @Builtin(name = "zlib_deflateCompress", minNumOfPositionalArgs = 3)
+    // zlib.decompressobj(wbits=MAX_WBITS, zdict=b'')
+    @Builtin(name = "decompressobj", parameterNames = {"wbits", "zdict"})
     @GenerateNodeFactory
-    abstract static class DeflateCompress extends PythonTernaryBuiltinNode {
-        @Child private ToBytesNode toBytes = ToBytesNode.create();
-
+    abstract static class DecompressObjNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object deflateCompress(VirtualFrame frame, DeflaterWrapper stream, Object pb, int mode) {
-            byte[] data = toBytes.execute(frame, pb);
-            byte[] result = new byte[DEF_BUF_SIZE];
-
-            ByteArrayOutputStream baos = deflate(stream, mode, data, result);
-
-            return factory().createBytes(baos.toByteArray());
-        }
-
-        @TruffleBoundary
-        private static ByteArrayOutputStream deflate(DeflaterWrapper stream, int mode, byte[] data, byte[] result) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            stream.deflater.setInput(data);
-            int deflateMode = mode;
-            if (mode == Z_FINISH) {
-                deflateMode = Z_SYNC_FLUSH;
-                stream.deflater.finish();
+        Object decompressobj(VirtualFrame frame, Object wbitsObj, Object zdictObj,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached ToBytesNode toBytesNode) {
+            int wbits = asInt(frame, wbitsObj, MAX_WBITS, lib);
+            if (wbits >= 25) {
+                // include gzip container
+                throw raise(PythonBuiltinClassType.NotImplementedError, "gzip containers");
             }
-
-            int bytesWritten = result.length;
-            while (bytesWritten == result.length) {
-                bytesWritten = stream.deflater.deflate(result, 0, result.length, deflateMode);
-                baos.write(result, 0, bytesWritten);
+            // a negative wbits expects a RAW stream, i.e., no zlib header and trailer
+            boolean nowrap = wbits < 0;
+            byte[] zdict = zdictObj == PNone.NO_VALUE ? null : toBytesNode.execute(frame, zdictObj);
+            if (zdict != null && zdict.length == 0) {
+                zdict = null;
             }
-
-            if (mode == Z_FINISH) {
-                stream.deflater.end();
+            Inflater inflater;
+            if (zdict == null) {
+                inflater = ZLibStreamPool.acquireInflater(nowrap);
+            } else {
+                inflater = newInflater(nowrap, zdict);
             }
-            return baos;
-        }
-    }
-
-    @Builtin(name = "zlib_inflateInit", minNumOfPositionalArgs = 2)
-    @GenerateNodeFactory
-    abstract static class InflateInitNode extends PythonBinaryBuiltinNode {
-        @Child private ToBytesNode toBytes = ToBytesNode.create();
-
-        @Specialization
-        Object init(VirtualFrame frame, int wbits, PBytes zdict) {
-            byte[] bytes = toBytes.execute(frame, zdict);
-            return new InflaterWrapper(inflate(wbits, bytes));
+            PZLibDecompress decompress = factory().createZLibDecompress(PythonBuiltinClassType.PZLibDecompress, inflater, nowrap, zdict);
+            getContext().registerCleanup(decompress, decompress.getCleanup());
+            return decompress;
         }
 
         @TruffleBoundary
-        private Inflater inflate(int wbits, byte[] bytes) {
-            Inflater inflater;
-            if (wbits < 0) {
-                // generate a RAW stream, i.e., no wrapping
-                inflater = new Inflater(true);
-            } else if (wbits >= 25) {
-                // include gzip container
-                throw raise(PythonBuiltinClassType.NotImplementedError, "gzip containers");
-            } else {
-                // wrap stream with zlib header and trailer
-                inflater = new Inflater(false);
+        private static Inflater newInflater(boolean nowrap, byte[] zdict) {
+            Inflater inflater = new Inflater(nowrap);
+            if (nowrap) {
+                // a raw stream does not announce its dictionary, it has to be set upfront
+                inflater.setDictionary(zdict);
             }
-
-            inflater.setDictionary(bytes);
             return inflater;
         }
     }
 
-    static class InflaterWrapper implements TruffleObject {
-        private final Inflater inflater;
-
-        public InflaterWrapper(Inflater inflater) {
-            this.inflater = inflater;
-        }
-
-        @TruffleBoundary(allowInlining = true)
-        private boolean needsInput() {
-            return inflater.needsInput();
-        }
-
-        @TruffleBoundary(allowInlining = true)
-        private int getRemaining() {
-            return inflater.getRemaining();
-        }
-    }
-
-    @Builtin(name = "zlib_inflateDecompress", minNumOfPositionalArgs = 3)
-    @GenerateNodeFactory
-    abstract static class InflaterDecompress extends PythonTernaryBuiltinNode {
-        @Child private ToBytesNode toBytes = ToBytesNode.create();
-
-        @Specialization
-        Object decompress(VirtualFrame frame, InflaterWrapper stream, PBytesLike pb, int maxLen) {
-            int maxLength = maxLen == 0 ? Integer.MAX_VALUE : maxLen;
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] data = toBytes.execute(frame, pb);
-            byte[] result = new byte[Math.min(maxLen, DEF_BUF_SIZE)];
-            byte[] decompressed = decompress(stream, maxLength, baos, data, result);
-
-            return factory().createTuple(new Object[]{
-                            factory().createBytes(decompressed),
-                            stream.inflater.finished(),
-                            stream.getRemaining()
-            });
-        }
-
-        @Specialization
-        Object decompress(VirtualFrame frame, InflaterWrapper stream, PBytesLike pb, long maxLen,
-                        @Cached CastToJavaIntExactNode castInt) {
-            return decompress(frame, stream, pb, castInt.execute(maxLen));
-        }
-
-        @TruffleBoundary
-        private byte[] decompress(InflaterWrapper stream, int maxLength, ByteArrayOutputStream baos, byte[] data, byte[] result) {
-            stream.inflater.setInput(data);
-            int bytesWritten = result.length;
-            while (baos.size() < maxLength && bytesWritten == result.length) {
-                try {
-                    bytesWritten = stream.inflater.inflate(result, 0, result.length);
-                } catch (DataFormatException e) {
-                    throw raise(ZLibError, e);
-                }
-                baos.write(result, 0, bytesWritten);
-            }
-            byte[] decompressed = baos.toByteArray();
-            return decompressed;
+    private static int asInt(VirtualFrame frame, Object value, int defaultValue, PythonObjectLibrary lib) {
+        if (value == PNone.NO_VALUE) {
+            return defaultValue;
         }
+        return lib.asSizeWithState(value, PArguments.getThreadState(frame));
     }
 
     // zlib.compress(data, level=-1)
@@ -532,7 +463,7 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
 
         @TruffleBoundary
         private static byte[] compress(byte[] input, int level) {
-            Deflater compresser = new Deflater(level);
+            Deflater compresser = ZLibStreamPool.acquireDeflater(level, Z_DEFAULT_STRATEGY, false);
             compresser.setInput(input);
             compresser.finish();
             byte[] resultArray = new byte[DEF_BUF_SIZE];
@@ -541,7 +472,7 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
                 int howmany = compresser.deflate(resultArray);
                 baos.write(resultArray, 0, howmany);
             }
-            compresser.end();
+            ZLibStreamPool.releaseDeflater(compresser, level, false);
             return baos.toByteArray();
         }
 
@@ -561,6 +492,21 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
             return factory().createBytes(compress(array, (int) level));
         }
 
+        @Specialization(guards = "!isBytes(data)")
+        public PBytes doitNone(VirtualFrame frame, Object data, @SuppressWarnings("unused") PNone level,
+                        @Shared("toBytes") @Cached ToBytesNode toBytesNode) {
+            return factory().createBytes(compress(toBytesNode.execute(frame, data), -1));
+        }
+
+        @Specialization(guards = "!isBytes(data)")
+        public PBytes doitLong(VirtualFrame frame, Object data, long level,
+                        @Shared("toBytes") @Cached ToBytesNode toBytesNode,
+                        @Cached("createBinaryProfile()") ConditionProfile wrongLevelProfile) {
+            if (wrongLevelProfile.profile(level < -1 || 9 < level)) {
+                throw raise(ZLibError, ErrorMessages.BAD_COMPRESSION_LEVEL);
+            }
+            return factory().createBytes(compress(toBytesNode.execute(frame, data), (int) level));
+        }
     }
 
     // zlib.decompress(data, wbits=MAX_WBITS, bufsize=DEF_BUF_SIZE)
@@ -585,7 +531,7 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
         private byte[] decompress(byte[] data, @SuppressWarnings("unused") long wbits, int bufsize) {
             // decompress
             // We don't use wbits currently. There is no easy way how to map to java Inflater.
-            Inflater decompresser = new Inflater();
+            Inflater decompresser = ZLibStreamPool.acquireInflater(false);
             decompresser.setInput(data);
             byte[] resultArray = new byte[bufsize];
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -593,14 +539,16 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
                 while (!decompresser.finished()) {
                     int howmany = decompresser.inflate(resultArray);
                     if (howmany == 0 && decompresser.needsInput()) {
+                        decompresser.end();
                         throw raise(ZLibError, ErrorMessages.ERROR_5_WHILE_DECOMPRESSING);
                     }
                     baos.write(resultArray, 0, howmany);
                 }
             } catch (DataFormatException e) {
+                decompresser.end();
                 throw raise(ZLibError, ErrorMessages.WHILE_PREPARING_TO_DECOMPRESS_DATA);
             }
-            decompresser.end();
+            ZLibStreamPool.releaseInflater(decompresser, false);
             return baos.toByteArray();
         }
 
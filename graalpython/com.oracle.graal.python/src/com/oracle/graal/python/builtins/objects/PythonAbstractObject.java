@@ -82,7 +82,9 @@ import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.cext.CApiGuards;
 import com.oracle.graal.python.builtins.objects.cext.DynamicObjectNativeWrapper;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeWrapper;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
@@ -134,6 +136,8 @@ import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.util.OverflowException;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -1645,11 +1649,43 @@ public abstract class PythonAbstractObject extends DynamicObject implements Truf
 
         public abstract Object execute(Object primary, Object index);
 
+        /*
+         * Instances of the builtin list and tuple types cannot override '__getitem__', so we can
+         * read their storage directly.
+         */
+        @Specialization(guards = "isBuiltinListOrTuple(primary, isBuiltinClassProfile)")
+        static Object doBuiltinSequence(PSequence primary, long index,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                        @Cached SequenceStorageNodes.LenNode lenNode,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            SequenceStorage storage = primary.getSequenceStorage();
+            int len = lenNode.execute(storage);
+            long normalized = index < 0 ? index + len : index;
+            if (normalized < 0 || normalized >= len) {
+                throw raiseNode.raise(PythonBuiltinClassType.IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+            }
+            return getItemNode.execute(storage, (int) normalized);
+        }
+
+        @Specialization(guards = "isBuiltinDict(primary, isBuiltinClassProfile)")
+        static Object doBuiltinDict(PDict primary, Object key,
+                        @SuppressWarnings("unused") @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                        @CachedLibrary(limit = "3") HashingStorageLibrary hlib,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            // a plain dict has no '__missing__'
+            Object value = hlib.getItem(primary.getDictStorage(), key);
+            if (value == null) {
+                throw raiseNode.raise(PythonBuiltinClassType.KeyError, new Object[]{key});
+            }
+            return value;
+        }
+
         @Specialization
         Object doSpecialObject(Object primary, Object index,
                         @Cached LookupInheritedAttributeNode.Dynamic lookupGetItemNode,
                         @Cached CallBinaryMethodNode callGetItemNode,
-                        @Cached PRaiseNode raiseNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode,
                         @Cached ConditionProfile profile) {
             Object attrGetItem = lookupGetItemNode.execute(primary, __GETITEM__);
             if (profile.profile(attrGetItem == PNone.NO_VALUE)) {
@@ -1658,6 +1694,14 @@ public abstract class PythonAbstractObject extends DynamicObject implements Truf
             return callGetItemNode.executeObject(attrGetItem, primary, index);
         }
 
+        static boolean isBuiltinListOrTuple(PSequence primary, IsBuiltinClassProfile profile) {
+            return profile.profileObject(primary, PythonBuiltinClassType.PList) || profile.profileObject(primary, PythonBuiltinClassType.PTuple);
+        }
+
+        static boolean isBuiltinDict(PDict primary, IsBuiltinClassProfile profile) {
+            return profile.profileObject(primary, PythonBuiltinClassType.PDict);
+        }
+
         public static PInteropSubscriptNode create() {
             return PythonAbstractObjectFactory.PInteropSubscriptNodeGen.create();
         }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.asyncio;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PEventLoopCore)
+public class EventLoopCoreBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return EventLoopCoreBuiltinsFactory.getFactories();
+    }
+
+    abstract static class AddHandleNode extends PythonTernaryBuiltinNode {
+
+        Object addHandle(VirtualFrame frame, PEventLoopCore self, Object fdObj, Object handle, PythonObjectLibrary fdLib, boolean writer) {
+            int fd = fdLib.asFileDescriptorWithState(fdObj, PArguments.getThreadState(frame));
+            Object previous;
+            try {
+                previous = self.addHandle(fd, getContext().getResources().getFileChannel(fd), handle, writer);
+            } catch (ClosedChannelException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return previous != null ? previous : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "add_reader", minNumOfPositionalArgs = 3, parameterNames = {"$self", "fd", "handle"})
+    @GenerateNodeFactory
+    abstract static class AddReaderNode extends AddHandleNode {
+
+        @Specialization(limit = "3")
+        Object add(VirtualFrame frame, PEventLoopCore self, Object fd, Object handle,
+                        @CachedLibrary("fd") PythonObjectLibrary fdLib) {
+            return addHandle(frame, self, fd, handle, fdLib, false);
+        }
+    }
+
+    @Builtin(name = "add_writer", minNumOfPositionalArgs = 3, parameterNames = {"$self", "fd", "handle"})
+    @GenerateNodeFactory
+    abstract static class AddWriterNode extends AddHandleNode {
+
+        @Specialization(limit = "3")
+        Object add(VirtualFrame frame, PEventLoopCore self, Object fd, Object handle,
+                        @CachedLibrary("fd") PythonObjectLibrary fdLib) {
+            return addHandle(frame, self, fd, handle, fdLib, true);
+        }
+    }
+
+    @Builtin(name = "remove_reader", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd"})
+    @GenerateNodeFactory
+    abstract static class RemoveReaderNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        Object remove(VirtualFrame frame, PEventLoopCore self, Object fd,
+                        @CachedLibrary("fd") PythonObjectLibrary fdLib) {
+            Object previous;
+            try {
+                previous = self.removeHandle(fdLib.asFileDescriptorWithState(fd, PArguments.getThreadState(frame)), false);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return previous != null ? previous : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "remove_writer", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd"})
+    @GenerateNodeFactory
+    abstract static class RemoveWriterNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        Object remove(VirtualFrame frame, PEventLoopCore self, Object fd,
+                        @CachedLibrary("fd") PythonObjectLibrary fdLib) {
+            Object previous;
+            try {
+                previous = self.removeHandle(fdLib.asFileDescriptorWithState(fd, PArguments.getThreadState(frame)), true);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return previous != null ? previous : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "call_at", minNumOfPositionalArgs = 3, parameterNames = {"$self", "when", "handle"})
+    @GenerateNodeFactory
+    abstract static class CallAtNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(limit = "1")
+        static PNone callAt(VirtualFrame frame, PEventLoopCore self, Object when, Object handle,
+                        @CachedLibrary("when") PythonObjectLibrary whenLib) {
+            self.callAt(whenLib.asJavaDoubleWithState(when, PArguments.getThreadState(frame)), handle);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "cancel_timer", minNumOfPositionalArgs = 2, parameterNames = {"$self", "handle"})
+    @GenerateNodeFactory
+    abstract static class CancelTimerNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        static PNone cancel(PEventLoopCore self, Object handle) {
+            self.cancelTimer(handle);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "run_once", minNumOfPositionalArgs = 4, parameterNames = {"$self", "block", "max_timeout", "clock_resolution"})
+    @GenerateNodeFactory
+    abstract static class RunOnceNode extends PythonBuiltinNode {
+
+        @Specialization(limit = "1")
+        PList runOnce(VirtualFrame frame, PEventLoopCore self, Object block, Object maxTimeout, Object clockResolution,
+                        @CachedLibrary("block") PythonObjectLibrary blockLib,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary doubleLib) {
+            PArguments.ThreadState threadState = PArguments.getThreadState(frame);
+            boolean doBlock = blockLib.isTrueWithState(block, threadState);
+            double max = doubleLib.asJavaDoubleWithState(maxTimeout, threadState);
+            double resolution = doubleLib.asJavaDoubleWithState(clockResolution, threadState);
+            try {
+                return factory().createList(self.runOnce(doBlock, max, resolution));
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone close(VirtualFrame frame, PEventLoopCore self) {
+            if (self.isOpen()) {
+                try {
+                    self.close();
+                } catch (IOException e) {
+                    throw raiseOSError(frame, e);
+                }
+            }
+            return PNone.NONE;
+        }
+    }
+}
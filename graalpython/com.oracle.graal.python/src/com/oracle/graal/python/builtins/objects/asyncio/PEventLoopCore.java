@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.asyncio;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The selection and timer part of an asyncio event loop. The Python loop
+ * ({@code _TruffleSelectorEventLoop} in {@code asyncio/unix_events.py}) hands its reader and writer
+ * handles and its timer handles to this object. One {@link #runOnce} call then waits for I/O and
+ * returns all handles that became ready, in the order the Python loop would have queued them.
+ * The handles are opaque to the Java side, they are neither inspected nor called here.
+ *
+ * I/O is multiplexed by a {@link PPoll}, so registrations are only touched when a reader or writer
+ * is added or removed. Timers are kept in a binary heap ordered by deadline; cancelled timers are
+ * dropped lazily, like {@code BaseEventLoop._run_once} does.
+ */
+public final class PEventLoopCore extends PythonBuiltinObject {
+
+    /** Same thresholds as {@code _MIN_SCHEDULED_TIMER_HANDLES} and its fraction in asyncio. */
+    private static final int MIN_SCHEDULED_TIMERS_FOR_PURGE = 100;
+
+    private final PPoll poll;
+    private final HashMap<Integer, IOEntry> ioEntries = new HashMap<>();
+    private final PriorityQueue<TimerEntry> timers = new PriorityQueue<>();
+    private final IdentityHashMap<Object, TimerEntry> scheduled = new IdentityHashMap<>();
+    private int cancelledTimers;
+    private long timerSequence;
+
+    public PEventLoopCore(Object cls, Shape instanceShape, PPoll poll) {
+        super(cls, instanceShape);
+        this.poll = poll;
+    }
+
+    public static double now() {
+        // same clock as 'time.monotonic', which is what 'loop.time()' uses
+        return System.nanoTime() / 1000000000D;
+    }
+
+    @TruffleBoundary
+    public boolean isOpen() {
+        return poll.isOpen();
+    }
+
+    @TruffleBoundary
+    public void close() throws IOException {
+        ioEntries.clear();
+        timers.clear();
+        scheduled.clear();
+        cancelledTimers = 0;
+        poll.close();
+    }
+
+    /**
+     * Sets the reader (or writer) handle of {@code fd} and returns the previous one or
+     * {@code null}.
+     */
+    @TruffleBoundary
+    public Object addHandle(int fd, Channel channel, Object handle, boolean writer) throws IOException {
+        IOEntry entry = ioEntries.get(fd);
+        if (entry == null) {
+            entry = new IOEntry();
+            ioEntries.put(fd, entry);
+        }
+        Object previous;
+        if (writer) {
+            previous = entry.writer;
+            entry.writer = handle;
+        } else {
+            previous = entry.reader;
+            entry.reader = handle;
+        }
+        try {
+            poll.register(fd, channel, entry.events());
+        } catch (IOException e) {
+            if (writer) {
+                entry.writer = previous;
+            } else {
+                entry.reader = previous;
+            }
+            if (entry.events() == 0) {
+                ioEntries.remove(fd);
+            }
+            throw e;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the reader (or writer) handle of {@code fd} and returns it, or {@code null} if there
+     * was none.
+     */
+    @TruffleBoundary
+    public Object removeHandle(int fd, boolean writer) throws IOException {
+        IOEntry entry = ioEntries.get(fd);
+        if (entry == null) {
+            return null;
+        }
+        Object previous;
+        if (writer) {
+            previous = entry.writer;
+            entry.writer = null;
+        } else {
+            previous = entry.reader;
+            entry.reader = null;
+        }
+        int events = entry.events();
+        if (events == 0) {
+            ioEntries.remove(fd);
+            poll.unregister(fd);
+        } else {
+            poll.modify(fd, events);
+        }
+        return previous;
+    }
+
+    @TruffleBoundary
+    public void callAt(double when, Object handle) {
+        TimerEntry entry = new TimerEntry(when, timerSequence++, handle);
+        timers.add(entry);
+        scheduled.put(handle, entry);
+    }
+
+    @TruffleBoundary
+    public void cancelTimer(Object handle) {
+        TimerEntry entry = scheduled.remove(handle);
+        if (entry != null) {
+            entry.handle = null;
+            cancelledTimers++;
+        }
+    }
+
+    /**
+     * Runs the selection part of one event loop iteration.
+     *
+     * @param block {@code false} if callbacks are already ready, i.e., the selection must not wait
+     * @param maxTimeout the maximal time in seconds to wait for I/O
+     * @param clockResolution timers that are due within this many seconds are considered ready
+     * @return the ready reader and writer handles followed by the due timer handles
+     */
+    @TruffleBoundary
+    public Object[] runOnce(boolean block, double maxTimeout, double clockResolution) throws IOException {
+        purgeCancelledTimers();
+
+        long timeoutMillis;
+        if (!block) {
+            timeoutMillis = 0;
+        } else if (!timers.isEmpty()) {
+            double timeout = Math.min(Math.max(0, timers.peek().when - now()), maxTimeout);
+            timeoutMillis = (long) Math.ceil(timeout * 1000.0);
+        } else {
+            timeoutMillis = -1;
+        }
+
+        int[] events = poll.poll(timeoutMillis, -1);
+        ArrayList<Object> ready = new ArrayList<>(events.length / 2 + 4);
+        for (int i = 0; i < events.length; i += 2) {
+            IOEntry entry = ioEntries.get(events[i]);
+            if (entry == null) {
+                continue;
+            }
+            if ((events[i + 1] & PPoll.POLLIN) != 0 && entry.reader != null) {
+                ready.add(entry.reader);
+            }
+            if ((events[i + 1] & PPoll.POLLOUT) != 0 && entry.writer != null) {
+                ready.add(entry.writer);
+            }
+        }
+
+        double endTime = now() + clockResolution;
+        while (!timers.isEmpty()) {
+            TimerEntry entry = timers.peek();
+            if (entry.handle == null) {
+                timers.poll();
+                cancelledTimers--;
+                continue;
+            }
+            if (entry.when >= endTime) {
+                break;
+            }
+            timers.poll();
+            scheduled.remove(entry.handle);
+            ready.add(entry.handle);
+        }
+        return ready.toArray();
+    }
+
+    private void purgeCancelledTimers() {
+        int count = timers.size();
+        if (count > MIN_SCHEDULED_TIMERS_FOR_PURGE && cancelledTimers * 2 > count) {
+            timers.removeIf(e -> e.handle == null);
+            cancelledTimers = 0;
+        } else {
+            while (!timers.isEmpty() && timers.peek().handle == null) {
+                timers.poll();
+                cancelledTimers--;
+            }
+        }
+    }
+
+    private static final class IOEntry {
+        private Object reader;
+        private Object writer;
+
+        int events() {
+            return (reader != null ? PPoll.POLLIN : 0) | (writer != null ? PPoll.POLLOUT : 0);
+        }
+    }
+
+    private static final class TimerEntry implements Comparable<TimerEntry> {
+        private final double when;
+        private final long sequence;
+        /** The timer handle or {@code null} if the timer was cancelled. */
+        private Object handle;
+
+        TimerEntry(double when, long sequence, Object handle) {
+            this.when = when;
+            this.sequence = sequence;
+            this.handle = handle;
+        }
+
+        @Override
+        public int compareTo(TimerEntry other) {
+            int result = Double.compare(when, other.when);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -44,6 +44,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 
 import java.util.ArrayList;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins.BytesLikeNoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.BytesJoinNodeGen;
@@ -53,7 +54,9 @@ import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndex
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.ToByteArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PNodeWithContext;
@@ -76,10 +79,37 @@ import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.Node;
 
 public abstract class BytesNodes {
 
+    /**
+     * Copies the Java {@code byte[]} behind a foreign array iterator in bulk. Returns {@code null}
+     * if the iterator is not over a fresh host byte array. Java bytes are signed, so if there is any
+     * negative value we also return {@code null} and the caller falls back to the element-wise
+     * path, which raises the appropriate error.
+     */
+    @TruffleBoundary
+    public static byte[] copyHostByteArray(PForeignArrayIterator iterator) {
+        if (iterator.getCursor() != 0) {
+            return null;
+        }
+        Object hostArray = PythonLanguage.getContext().getHostPrimitiveArray(iterator.getForeignArray());
+        if (hostArray instanceof byte[]) {
+            byte[] bytes = (byte[]) hostArray;
+            for (byte b : bytes) {
+                if (b < 0) {
+                    return null;
+                }
+            }
+            iterator.exhaust(bytes.length);
+            return bytes.clone();
+        }
+        return null;
+    }
+
     public abstract static class BytesJoinNode extends PNodeWithContext {
 
         public abstract byte[] execute(VirtualFrame frame, byte[] sep, Object iterable);
@@ -170,6 +200,17 @@ public abstract class BytesNodes {
             return recursive.execute(frame, callToBytesNode.executeObject(frame, memoryView));
         }
 
+        @Specialization(guards = {"lib.isForeignObject(obj)", "lib.isBuffer(obj)"}, limit = "1")
+        static byte[] doHostBuffer(Object obj,
+                        @CachedLibrary("obj") PythonObjectLibrary lib) {
+            try {
+                // always a copy, the result may become the storage of a bytes object
+                return lib.getBufferBytes(obj);
+            } catch (UnsupportedMessageException e) {
+                throw CompilerDirectives.shouldNotReachHere(e);
+            }
+        }
+
         @Fallback
         byte[] doError(Object obj) {
             throw raise.raise(errorType, errorMessageFormat, obj);
@@ -450,6 +491,12 @@ public abstract class BytesNodes {
         byte[] doIt(VirtualFrame frame, Object iterObject,
                         @Cached("create()") GetNextNode getNextNode,
                         @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            if (iterObject instanceof PForeignArrayIterator) {
+                byte[] bulk = copyHostByteArray((PForeignArrayIterator) iterObject);
+                if (bulk != null) {
+                    return bulk;
+                }
+            }
             ByteSequenceStorage bss = new ByteSequenceStorage(16);
             while (true) {
                 try {
@@ -171,6 +171,7 @@ public final class CApiContext extends CExtContext {
             } while (reference != null);
 
             if (!refs.isEmpty()) {
+                context.addReclaimedReferences(refs.size());
                 return new CApiReferenceCleanerAction(refs.toArray(new NativeObjectReference[0]));
             }
 
@@ -625,6 +626,13 @@ public final class CApiContext extends CExtContext {
         throw new OutOfMemoryError("native memory");
     }
 
+    /**
+     * @return {@code true} if more than half of the native memory budget is in use
+     */
+    public boolean hasMemoryPressure() {
+        return allocatedMemory > getContext().getOption(PythonOptions.MaxNativeMemory) / 2;
+    }
+
     public void reduceMemoryPressure(long size) {
         allocatedMemory -= size;
     }
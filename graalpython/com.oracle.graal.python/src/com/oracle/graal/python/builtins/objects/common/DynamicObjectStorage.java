@@ -263,10 +263,10 @@ public final class DynamicObjectStorage extends HashingStorage {
         }
     }
 
-    private static void invalidateAttributeInMROFinalAssumptions(MroSequenceStorage mro, String name, BranchProfile profile) {
+    private static void notifyAttributeChanged(MroSequenceStorage mro, String name, BranchProfile profile) {
         if (mro != null) {
             profile.enter();
-            mro.invalidateAttributeInMROFinalAssumptions(name);
+            mro.attributeChanged(name);
         }
     }
 
@@ -280,7 +280,7 @@ public final class DynamicObjectStorage extends HashingStorage {
                         @Shared("hasMroprofile") @Cached BranchProfile profile,
                         @Shared("setitemWrite") @Cached WriteAttributeToDynamicObjectNode writeNode) {
             writeNode.execute(self.store, key, value);
-            invalidateAttributeInMROFinalAssumptions(self.mro, key, profile);
+            notifyAttributeChanged(self.mro, key, profile);
             return self;
         }
 
@@ -328,7 +328,7 @@ public final class DynamicObjectStorage extends HashingStorage {
             // if we're here, key is either a String or a built-in PString
             String strKey = key instanceof String ? (String) key : ((PString) key).getValue();
             writeNode.execute(store, strKey, PNone.NO_VALUE);
-            invalidateAttributeInMROFinalAssumptions(mro, strKey, hasMro);
+            notifyAttributeChanged(mro, strKey, hasMro);
         }
         return this;
     }
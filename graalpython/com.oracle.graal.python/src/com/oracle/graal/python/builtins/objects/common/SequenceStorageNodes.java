@@ -102,6 +102,7 @@ import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFacto
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.range.RangeNodes.LenOfRangeNode;
@@ -3775,6 +3776,12 @@ public abstract class SequenceStorageNodes {
         protected abstract Object nextObject(VirtualFrame frame, T nextNode, Object iterator);
 
         protected SequenceStorage doIt(VirtualFrame frame, Object iterator, int len, ListStorageType type, T nextNode, IsBuiltinClassProfile errorProfile) {
+            if (iterator instanceof PForeignArrayIterator) {
+                SequenceStorage bulkStorage = copyHostArray((PForeignArrayIterator) iterator);
+                if (bulkStorage != null) {
+                    return bulkStorage;
+                }
+            }
             SequenceStorage storage;
             final int size = len > 0 ? len : START_SIZE;
             if (type == Uninitialized || type == Empty) {
@@ -3965,6 +3972,23 @@ public abstract class SequenceStorageNodes {
             return storage;
         }
 
+        /**
+         * Host primitive arrays are copied directly into a primitive storage instead of reading and
+         * boxing every element through interop.
+         */
+        @TruffleBoundary
+        private static SequenceStorage copyHostArray(PForeignArrayIterator iterator) {
+            if (iterator.getCursor() != 0) {
+                return null;
+            }
+            Object hostArray = PythonLanguage.getContext().getHostPrimitiveArray(iterator.getForeignArray());
+            SequenceStorage storage = SequenceStorageFactory.createStorageFromHostArray(hostArray);
+            if (storage != null) {
+                iterator.exhaust(storage.length());
+            }
+            return storage;
+        }
+
         private SequenceStorage genericFallback(VirtualFrame frame, Object iterator, Object array, int count, Object result, T nextNode, IsBuiltinClassProfile errorProfile) {
             Object[] elements = new Object[Array.getLength(array) * 2];
             int i = 0;
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import java.util.ArrayList;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The {@code _csv.reader} object. Besides the input iterator and dialect it holds the state of
+ * the parser, which survives between input lines so that quoted fields may span several lines.
+ * The field buffer and the list collecting a row's fields are reused for all rows read by this
+ * reader.
+ */
+public final class CSVReader extends PythonBuiltinObject {
+    static final int START_RECORD = 0;
+    static final int START_FIELD = 1;
+    static final int ESCAPED_CHAR = 2;
+    static final int IN_FIELD = 3;
+    static final int IN_QUOTED_FIELD = 4;
+    static final int ESCAPE_IN_QUOTED_FIELD = 5;
+    static final int QUOTE_IN_QUOTED_FIELD = 6;
+    static final int EAT_CRNL = 7;
+    static final int AFTER_ESCAPED_CRNL = 8;
+
+    private final Object inputIter;
+    private final CSVDialect dialect;
+    private final CSVModuleState moduleState;
+    private long lineNum;
+
+    int state = START_RECORD;
+    boolean numericField;
+    private final StringBuilder field = new StringBuilder();
+    /* the field length in code points, which is what the field size limit applies to */
+    private long fieldLen;
+    private final ArrayList<Object> fields = new ArrayList<>();
+
+    public CSVReader(Object cls, Shape instanceShape, Object inputIter, CSVDialect dialect, CSVModuleState moduleState) {
+        super(cls, instanceShape);
+        this.inputIter = inputIter;
+        this.dialect = dialect;
+        this.moduleState = moduleState;
+    }
+
+    public Object getInputIter() {
+        return inputIter;
+    }
+
+    public CSVDialect getDialect() {
+        return dialect;
+    }
+
+    public long getLineNum() {
+        return lineNum;
+    }
+
+    void incrementLineNum() {
+        lineNum++;
+    }
+
+    long getFieldLimit() {
+        return moduleState.getFieldLimit();
+    }
+
+    long getFieldLen() {
+        return fieldLen;
+    }
+
+    @TruffleBoundary
+    void parseReset() {
+        fields.clear();
+        field.setLength(0);
+        fieldLen = 0;
+        state = START_RECORD;
+        numericField = false;
+    }
+
+    @TruffleBoundary
+    void appendCodePoint(int c) {
+        field.appendCodePoint(c);
+        fieldLen++;
+    }
+
+    @TruffleBoundary
+    void appendRange(String line, int start, int end, int codePoints) {
+        field.append(line, start, end);
+        fieldLen += codePoints;
+    }
+
+    @TruffleBoundary
+    String takeField() {
+        String result = field.toString();
+        field.setLength(0);
+        fieldLen = 0;
+        return result;
+    }
+
+    @TruffleBoundary
+    void addField(Object value) {
+        fields.add(value);
+    }
+
+    @TruffleBoundary
+    Object[] takeFields() {
+        Object[] result = fields.toArray();
+        fields.clear();
+        return result;
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.NOT_SET;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONE;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONNUMERIC;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.AFTER_ESCAPED_CRNL;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.EAT_CRNL;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.ESCAPED_CHAR;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.ESCAPE_IN_QUOTED_FIELD;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.IN_FIELD;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.IN_QUOTED_FIELD;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.QUOTE_IN_QUOTED_FIELD;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.START_FIELD;
+import static com.oracle.graal.python.builtins.objects.csv.CSVReader.START_RECORD;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.floats.FloatUtils;
+import com.oracle.graal.python.builtins.objects.str.StringBuiltins;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.CSVReader)
+public class CSVReaderBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVReaderBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object iter(CSVReader self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        /* passed to the state machine at the end of each input line */
+        private static final int EOL = 0;
+
+        @Specialization
+        Object next(VirtualFrame frame, CSVReader self,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile stopIterationProfile,
+                        @Cached CastToJavaStringNode castToString) {
+            self.parseReset();
+            do {
+                Object lineObj;
+                try {
+                    lineObj = getNextNode.execute(frame, self.getInputIter());
+                } catch (PException e) {
+                    e.expectStopIteration(stopIterationProfile);
+                    if (self.getFieldLen() != 0 || self.state == IN_QUOTED_FIELD) {
+                        if (self.getDialect().isStrict()) {
+                            throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.UNEXPECTED_END_OF_DATA);
+                        }
+                        saveField(self);
+                        break;
+                    }
+                    throw e;
+                }
+                String line;
+                try {
+                    line = castToString.execute(lineObj);
+                } catch (CannotCastException e) {
+                    throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.ITERATOR_SHOULD_RETURN_STRINGS_NOT_P, lineObj);
+                }
+                self.incrementLineNum();
+                parseLine(self, line);
+            } while (self.state != START_RECORD);
+            return factory().createList(self.takeFields());
+        }
+
+        @TruffleBoundary
+        private void parseLine(CSVReader self, String line) {
+            CSVDialect dialect = self.getDialect();
+            int len = line.length();
+            int pos = 0;
+            while (pos < len) {
+                int state = self.state;
+                if (state == IN_FIELD || state == IN_QUOTED_FIELD) {
+                    // copy runs of ordinary characters in one go instead of char by char
+                    int end = scanOrdinary(dialect, line, pos, len, state == IN_QUOTED_FIELD);
+                    if (end > pos) {
+                        addChars(self, line, pos, end);
+                        pos = end;
+                        continue;
+                    }
+                }
+                int c = line.codePointAt(pos);
+                if (c == 0) {
+                    throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.LINE_CONTAINS_NUL);
+                }
+                processChar(self, dialect, c);
+                pos += Character.charCount(c);
+            }
+            processChar(self, dialect, EOL);
+        }
+
+        /**
+         * Returns the end of the run of characters starting at {@code start} that the state
+         * machine would simply append to the current field.
+         */
+        private static int scanOrdinary(CSVDialect dialect, String line, int start, int len, boolean quoted) {
+            int escapechar = dialect.getEscapechar();
+            int pos = start;
+            if (quoted) {
+                int quotechar = dialect.getQuoting() != QUOTE_NONE ? dialect.getQuotechar() : NOT_SET;
+                while (pos < len) {
+                    int c = line.codePointAt(pos);
+                    if (c == 0 || c == escapechar || c == quotechar) {
+                        break;
+                    }
+                    pos += Character.charCount(c);
+                }
+            } else {
+                int delimiter = dialect.getDelimiter();
+                while (pos < len) {
+                    int c = line.codePointAt(pos);
+                    if (c == 0 || c == '\n' || c == '\r' || c == escapechar || c == delimiter) {
+                        break;
+                    }
+                    pos += Character.charCount(c);
+                }
+            }
+            return pos;
+        }
+
+        private void processChar(CSVReader self, CSVDialect dialect, int c) {
+            switch (self.state) {
+                case START_RECORD:
+                    // start of record
+                    if (c == EOL) {
+                        // empty line - return []
+                        break;
+                    } else if (c == '\n' || c == '\r') {
+                        self.state = EAT_CRNL;
+                        break;
+                    }
+                    // normal character - handle as START_FIELD
+                    self.state = START_FIELD;
+                    processStartField(self, dialect, c);
+                    break;
+                case START_FIELD:
+                    processStartField(self, dialect, c);
+                    break;
+                case ESCAPED_CHAR:
+                    if (c == '\n' || c == '\r') {
+                        addChar(self, c);
+                        self.state = AFTER_ESCAPED_CRNL;
+                        break;
+                    }
+                    addChar(self, c == EOL ? '\n' : c);
+                    self.state = IN_FIELD;
+                    break;
+                case AFTER_ESCAPED_CRNL:
+                    if (c == EOL) {
+                        break;
+                    }
+                    processInField(self, dialect, c);
+                    break;
+                case IN_FIELD:
+                    processInField(self, dialect, c);
+                    break;
+                case IN_QUOTED_FIELD:
+                    // in quoted field
+                    if (c == EOL) {
+                        // the field continues on the next line
+                    } else if (c == dialect.getEscapechar()) {
+                        // possible escape character
+                        self.state = ESCAPE_IN_QUOTED_FIELD;
+                    } else if (c == dialect.getQuotechar() && dialect.getQuoting() != QUOTE_NONE) {
+                        if (dialect.isDoublequote()) {
+                            // doublequote; " represented by ""
+                            self.state = QUOTE_IN_QUOTED_FIELD;
+                        } else {
+                            // end of quote part of field
+                            self.state = IN_FIELD;
+                        }
+                    } else {
+                        // normal character - save in field
+                        addChar(self, c);
+                    }
+                    break;
+                case ESCAPE_IN_QUOTED_FIELD:
+                    addChar(self, c == EOL ? '\n' : c);
+                    self.state = IN_QUOTED_FIELD;
+                    break;
+                case QUOTE_IN_QUOTED_FIELD:
+                    // doublequote - seen a quote in a quoted field
+                    if (dialect.getQuoting() != QUOTE_NONE && c == dialect.getQuotechar()) {
+                        // save "" as "
+                        addChar(self, c);
+                        self.state = IN_QUOTED_FIELD;
+                    } else if (c == dialect.getDelimiter()) {
+                        // save field - wait for new field
+                        saveField(self);
+                        self.state = START_FIELD;
+                    } else if (c == '\n' || c == '\r' || c == EOL) {
+                        // end of line - return [fields]
+                        saveField(self);
+                        self.state = c == EOL ? START_RECORD : EAT_CRNL;
+                    } else if (!dialect.isStrict()) {
+                        addChar(self, c);
+                        self.state = IN_FIELD;
+                    } else {
+                        // illegal
+                        throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.S_EXPECTED_AFTER_S, CSVDialectBuiltins.charToObject(dialect.getDelimiter()),
+                                        CSVDialectBuiltins.charToObject(dialect.getQuotechar()));
+                    }
+                    break;
+                case EAT_CRNL:
+                    if (c == '\n' || c == '\r') {
+                        // skip
+                    } else if (c == EOL) {
+                        self.state = START_RECORD;
+                    } else {
+                        throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.NEWLINE_IN_UNQUOTED_FIELD);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        private void processStartField(CSVReader self, CSVDialect dialect, int c) {
+            // expecting field
+            if (c == '\n' || c == '\r' || c == EOL) {
+                // save empty field - return [fields]
+                saveField(self);
+                self.state = c == EOL ? START_RECORD : EAT_CRNL;
+            } else if (c == dialect.getQuotechar() && dialect.getQuoting() != QUOTE_NONE) {
+                // start quoted field
+                self.state = IN_QUOTED_FIELD;
+            } else if (c == dialect.getEscapechar()) {
+                // possible escaped character
+                self.state = ESCAPED_CHAR;
+            } else if (c == ' ' && dialect.isSkipinitialspace()) {
+                // ignore space at start of field
+            } else if (c == dialect.getDelimiter()) {
+                // save empty field
+                saveField(self);
+            } else {
+                // begin new unquoted field
+                if (dialect.getQuoting() == QUOTE_NONNUMERIC) {
+                    self.numericField = true;
+                }
+                addChar(self, c);
+                self.state = IN_FIELD;
+            }
+        }
+
+        private void processInField(CSVReader self, CSVDialect dialect, int c) {
+            // in unquoted field
+            if (c == '\n' || c == '\r' || c == EOL) {
+                // end of line - return [fields]
+                saveField(self);
+                self.state = c == EOL ? START_RECORD : EAT_CRNL;
+            } else if (c == dialect.getEscapechar()) {
+                // possible escaped character
+                self.state = ESCAPED_CHAR;
+            } else if (c == dialect.getDelimiter()) {
+                // save field - wait for new field
+                saveField(self);
+                self.state = START_FIELD;
+            } else {
+                // normal character - save in field
+                addChar(self, c);
+            }
+        }
+
+        private void addChar(CSVReader self, int c) {
+            if (self.getFieldLen() >= self.getFieldLimit()) {
+                throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.FIELD_LARGER_THAN_FIELD_LIMIT, self.getFieldLimit());
+            }
+            self.appendCodePoint(c);
+        }
+
+        private void addChars(CSVReader self, String line, int start, int end) {
+            // the limit is on code points, the run may contain surrogate pairs
+            int count = line.codePointCount(start, end);
+            if (self.getFieldLen() + count > self.getFieldLimit()) {
+                throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.FIELD_LARGER_THAN_FIELD_LIMIT, self.getFieldLimit());
+            }
+            self.appendRange(line, start, end, count);
+        }
+
+        @TruffleBoundary
+        private void saveField(CSVReader self) {
+            String field = self.takeField();
+            if (self.numericField) {
+                self.numericField = false;
+                self.addField(toDouble(field));
+            } else {
+                self.addField(field);
+            }
+        }
+
+        private double toDouble(String field) {
+            // same parsing as float(str)
+            String str = FloatUtils.removeUnicodeAndUnderscores(field);
+            if (str != null) {
+                int len = str.length();
+                int offset = FloatUtils.skipAsciiWhitespace(str, 0, len);
+                FloatUtils.StringToDoubleResult res = FloatUtils.stringToDouble(str, offset, len);
+                if (res != null && FloatUtils.skipAsciiWhitespace(str, res.position, len) == len) {
+                    return res.value;
+                }
+            }
+            throw raise(ValueError, ErrorMessages.COULD_NOT_CONVERT_STRING_TO_FLOAT, StringBuiltins.ReprNode.repr(field));
+        }
+    }
+
+    @Builtin(name = "dialect", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DialectNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object dialect(CSVReader self) {
+            return self.getDialect();
+        }
+    }
+
+    @Builtin(name = "line_num", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LineNumNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static long lineNum(CSVReader self) {
+            return self.getLineNum();
+        }
+    }
+}
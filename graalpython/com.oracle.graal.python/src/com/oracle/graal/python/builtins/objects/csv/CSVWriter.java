@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The {@code _csv.writer} object. Each row is joined into a record buffer that is reused across
+ * rows and then passed to the {@code write} method of the underlying file as a single string.
+ */
+public final class CSVWriter extends PythonBuiltinObject {
+    private final Object write;
+    private final CSVDialect dialect;
+    private final StringBuilder rec = new StringBuilder();
+    private int numFields;
+
+    public CSVWriter(Object cls, Shape instanceShape, Object write, CSVDialect dialect) {
+        super(cls, instanceShape);
+        this.write = write;
+        this.dialect = dialect;
+    }
+
+    public Object getWrite() {
+        return write;
+    }
+
+    public CSVDialect getDialect() {
+        return dialect;
+    }
+
+    StringBuilder getRec() {
+        return rec;
+    }
+
+    int getNumFields() {
+        return numFields;
+    }
+
+    void setNumFields(int numFields) {
+        this.numFields = numFields;
+    }
+
+    @TruffleBoundary
+    void joinReset() {
+        rec.setLength(0);
+        numFields = 0;
+    }
+
+    @TruffleBoundary
+    String takeRecord() {
+        String result = rec.toString();
+        if (rec.capacity() > 64 * 1024) {
+            // don't keep a huge buffer around after an exceptionally large row
+            rec.setLength(0);
+            rec.trimToSize();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.csv;
+
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.NOT_SET;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_ALL;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONE;
+import static com.oracle.graal.python.builtins.objects.csv.CSVDialect.QUOTE_NONNUMERIC;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INDEX__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.CSVWriter)
+public class CSVWriterBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return CSVWriterBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "writerow", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class WriteRowNode extends PythonBinaryBuiltinNode {
+
+        public abstract Object execute(VirtualFrame frame, CSVWriter self, Object seq);
+
+        @Specialization
+        Object writerow(VirtualFrame frame, CSVWriter self, Object seq,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile typeErrorProfile,
+                        @Cached IsBuiltinClassProfile stopIterationProfile,
+                        @Cached CastToJavaStringNode castToString,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached CallNode callNode) {
+            CSVDialect dialect = self.getDialect();
+            Object iter;
+            try {
+                iter = getIterator.executeWith(frame, seq);
+            } catch (PException e) {
+                e.expect(TypeError, typeErrorProfile);
+                throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.ITERABLE_EXPECTED_NOT_P, seq);
+            }
+
+            // join all fields in the record buffer
+            self.joinReset();
+            while (true) {
+                Object field;
+                try {
+                    field = getNextNode.execute(frame, iter);
+                } catch (PException e) {
+                    e.expectStopIteration(stopIterationProfile);
+                    break;
+                }
+                boolean quoted;
+                switch (dialect.getQuoting()) {
+                    case QUOTE_NONNUMERIC:
+                        quoted = !isNumber(field, lib);
+                        break;
+                    case QUOTE_ALL:
+                        quoted = true;
+                        break;
+                    default:
+                        quoted = false;
+                        break;
+                }
+                String str;
+                if (field == PNone.NONE) {
+                    str = null;
+                } else if (field instanceof Integer || field instanceof Long) {
+                    str = longToString(((Number) field).longValue());
+                } else if (PGuards.isString(field)) {
+                    str = castToString.execute(field);
+                } else {
+                    str = castToString.execute(strNode.executeObject(frame, field));
+                }
+                joinAppend(self, dialect, str, quoted);
+            }
+
+            if (self.getNumFields() > 0 && self.getRec().length() == 0) {
+                if (dialect.getQuoting() == QUOTE_NONE) {
+                    throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.SINGLE_EMPTY_FIELD_RECORD_MUST_BE_QUOTED);
+                }
+                self.setNumFields(self.getNumFields() - 1);
+                joinAppend(self, dialect, null, true);
+            }
+            return callNode.execute(frame, self.getWrite(), takeRecord(self, dialect));
+        }
+
+        /**
+         * Equivalent of {@code PyNumber_Check}.
+         */
+        private static boolean isNumber(Object obj, PythonObjectLibrary lib) {
+            if (obj instanceof Integer || obj instanceof Long || obj instanceof Double || obj instanceof Boolean || obj instanceof PInt || obj instanceof PFloat || obj instanceof PComplex) {
+                return true;
+            }
+            return lib.lookupAttributeOnType(obj, __INDEX__) != PNone.NO_VALUE || lib.lookupAttributeOnType(obj, __INT__) != PNone.NO_VALUE ||
+                            lib.lookupAttributeOnType(obj, __FLOAT__) != PNone.NO_VALUE;
+        }
+
+        @TruffleBoundary
+        private static String longToString(long value) {
+            return Long.toString(value);
+        }
+
+        @TruffleBoundary
+        private static String takeRecord(CSVWriter self, CSVDialect dialect) {
+            self.getRec().append(dialect.getLineterminator());
+            return self.takeRecord();
+        }
+
+        /**
+         * Appends a field to the record, quoting and escaping it as the dialect requires. A
+         * {@code null} field is written as an empty field. Runs of characters that need no
+         * escaping are copied in bulk.
+         */
+        @TruffleBoundary
+        private void joinAppend(CSVWriter self, CSVDialect dialect, String field, boolean quotedArg) {
+            StringBuilder rec = self.getRec();
+            boolean quoted = quotedArg;
+            int delimiter = dialect.getDelimiter();
+            int escapechar = dialect.getEscapechar();
+            int quotechar = dialect.getQuotechar();
+            String lineterminator = dialect.getLineterminator();
+
+            // if this is not the first field we need a field separator
+            if (self.getNumFields() > 0) {
+                rec.appendCodePoint(delimiter);
+            }
+            int fieldStart = rec.length();
+            if (field != null) {
+                int len = field.length();
+                int runStart = 0;
+                int pos = 0;
+                while (pos < len) {
+                    int c = field.codePointAt(pos);
+                    if (c == delimiter || c == escapechar || c == quotechar || lineterminator.indexOf(c) >= 0) {
+                        rec.append(field, runStart, pos);
+                        // the character itself is copied with the next run
+                        runStart = pos;
+                        boolean wantEscape = false;
+                        if (dialect.getQuoting() == QUOTE_NONE) {
+                            wantEscape = true;
+                        } else {
+                            if (c == quotechar) {
+                                if (dialect.isDoublequote()) {
+                                    rec.appendCodePoint(quotechar);
+                                } else {
+                                    wantEscape = true;
+                                }
+                            } else if (c == escapechar) {
+                                wantEscape = true;
+                            }
+                            if (!wantEscape) {
+                                quoted = true;
+                            }
+                        }
+                        if (wantEscape) {
+                            if (escapechar == NOT_SET) {
+                                throw raise(PythonBuiltinClassType.CSVError, ErrorMessages.NEED_TO_ESCAPE_NO_ESCAPECHAR);
+                            }
+                            rec.appendCodePoint(escapechar);
+                        }
+                    }
+                    pos += Character.charCount(c);
+                }
+                rec.append(field, runStart, len);
+            }
+            if (quoted) {
+                rec.insert(fieldStart, Character.toChars(quotechar));
+                rec.appendCodePoint(quotechar);
+            }
+            self.setNumFields(self.getNumFields() + 1);
+        }
+
+        public static WriteRowNode create() {
+            return CSVWriterBuiltinsFactory.WriteRowNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "writerows", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteRowsNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object writerows(VirtualFrame frame, CSVWriter self, Object seqseq,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile typeErrorProfile,
+                        @Cached IsBuiltinClassProfile stopIterationProfile,
+                        @Cached WriteRowNode writeRowNode) {
+            Object iter;
+            try {
+                iter = getIterator.executeWith(frame, seqseq);
+            } catch (PException e) {
+                e.expect(TypeError, typeErrorProfile);
+                throw raise(TypeError, ErrorMessages.WRITEROWS_ARG_MUST_BE_ITERABLE);
+            }
+            while (true) {
+                Object row;
+                try {
+                    row = getNextNode.execute(frame, iter);
+                } catch (PException e) {
+                    e.expectStopIteration(stopIterationProfile);
+                    break;
+                }
+                writeRowNode.execute(frame, self, row);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "dialect", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DialectNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object dialect(CSVWriter self) {
+            return self.getDialect();
+        }
+    }
+}
@@ -45,6 +45,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexErr
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.foreign.AccessForeignItemNodesFactory.GetForeignItemNodeGen;
@@ -70,7 +71,10 @@ import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -139,13 +143,27 @@ abstract class AccessForeignItemNodes {
             } catch (UnsupportedMessageException e) {
                 throw raiseAttributeError(object);
             }
-            Object[] values = new Object[sliceLen.len(mslice)];
+            int len = sliceLen.len(mslice);
+            SequenceStorage bulkStorage = copyHostArraySlice(object, mslice, len);
+            if (bulkStorage != null) {
+                return factory.createList(bulkStorage);
+            }
+            Object[] values = new Object[len];
             for (int i = mslice.start, j = 0; i < mslice.stop; i += mslice.step, j++) {
                 values[j] = readForeignValue(object, i, lib);
             }
             return factory.createList(values);
         }
 
+        @TruffleBoundary
+        private static SequenceStorage copyHostArraySlice(Object object, SliceInfo slice, int len) {
+            Object hostArray = PythonLanguage.getContext().getHostPrimitiveArray(object);
+            if (hostArray != null) {
+                return SequenceStorageFactory.createStorageFromHostArray(hostArray, slice.start, slice.step, len);
+            }
+            return null;
+        }
+
         @Specialization
         public Object doForeignKey(Object object, String key,
                         @CachedLibrary(limit = "3") InteropLibrary lib) {
@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The object returned by {@code functools.lru_cache}.
+ *
+ * Entries are kept in a {@link ConcurrentHashMap} from the Python hash of the key to an immutable
+ * bucket of entries with that hash. Key comparisons that need to call {@code __eq__} therefore never
+ * run inside the map or while holding a lock: a bucket is read without locking, its keys are
+ * compared, and an insertion only installs a new bucket if the one it compared against is still
+ * current, otherwise it compares the new entries and tries again.
+ *
+ * The recency order needed for eviction is a doubly linked list guarded by a lock. A hit only
+ * updates the list if the lock can be taken right away; otherwise the access is queued and replayed
+ * by the next thread holding the lock, before anything is evicted.
+ */
+public final class PLruCacheWrapper extends PythonBuiltinObject {
+    /** Separates positional from keyword arguments in a cache key. */
+    static final Object KWD_MARK = new Object();
+    static final long KWD_MARK_HASH = 0x5bd1e995L;
+
+    private static final Entry[] EMPTY_BUCKET = new Entry[0];
+
+    private final Object function;
+    private final Object cacheInfoType;
+    private final Object maxsizeObject;
+    /** Maximum number of entries, or {@code -1} if the cache is unbounded. */
+    private final long maxsize;
+    private final boolean typed;
+
+    private final ConcurrentHashMap<Long, Entry[]> map = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Entry> pendingAccesses = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** Sentinel of the recency list; {@code head.next} is the most recently used entry. */
+    private final Entry head = new Entry(null, null);
+
+    public PLruCacheWrapper(Object cls, Shape instanceShape, Object function, Object maxsizeObject, long maxsize, boolean typed, Object cacheInfoType) {
+        super(cls, instanceShape);
+        this.function = function;
+        this.maxsizeObject = maxsizeObject;
+        this.maxsize = maxsize;
+        this.typed = typed;
+        this.cacheInfoType = cacheInfoType;
+        head.prev = head;
+        head.next = head;
+    }
+
+    public Object getFunction() {
+        return function;
+    }
+
+    public Object getCacheInfoType() {
+        return cacheInfoType;
+    }
+
+    public Object getMaxsizeObject() {
+        return maxsizeObject;
+    }
+
+    public boolean isTyped() {
+        return typed;
+    }
+
+    public boolean isDisabled() {
+        return maxsize == 0;
+    }
+
+    public boolean isUnbounded() {
+        return maxsize < 0;
+    }
+
+    @TruffleBoundary
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @TruffleBoundary
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @TruffleBoundary
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    @TruffleBoundary
+    public int getCurrentSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the cached result for {@code key}, or {@code null} on a miss. Hits and misses are
+     * counted here.
+     */
+    @TruffleBoundary
+    public Object lookup(CacheKey key) {
+        Entry entry = find(getBucket(key), key, EMPTY_BUCKET);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (!isUnbounded()) {
+            if (lock.tryLock()) {
+                try {
+                    drainPendingAccesses();
+                    moveToFront(entry);
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                pendingAccesses.add(entry);
+            }
+        }
+        // the entry may have been evicted meanwhile, but its value is still the right result
+        return entry.value;
+    }
+
+    /**
+     * Adds a freshly computed result. If the key was inserted meanwhile (e.g. by a recursive call
+     * of the cached function), the existing entry is kept.
+     */
+    @TruffleBoundary
+    public void insert(CacheKey key, Object value) {
+        Entry entry = new Entry(key, value);
+        Entry[] compared = EMPTY_BUCKET;
+        while (true) {
+            Entry[] bucket = getBucket(key);
+            // only the entries added since the last attempt still need to be compared
+            if (find(bucket, key, compared) != null) {
+                return;
+            }
+            compared = bucket;
+            if (isUnbounded()) {
+                if (replaceBucket(key.hash, bucket, append(bucket, entry))) {
+                    size.incrementAndGet();
+                    return;
+                }
+            } else {
+                lock.lock();
+                try {
+                    // all changes of a bounded cache happen under the lock, so this re-validates
+                    // the comparisons made above
+                    if (getBucket(key) == bucket) {
+                        drainPendingAccesses();
+                        replaceBucket(key.hash, bucket, append(bucket, entry));
+                        size.incrementAndGet();
+                        linkFirst(entry);
+                        while (size.get() > maxsize && head.prev != head) {
+                            Entry oldest = head.prev;
+                            unlink(oldest);
+                            removeFromBucket(oldest);
+                        }
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    @TruffleBoundary
+    public void clear() {
+        lock.lock();
+        try {
+            pendingAccesses.clear();
+            map.clear();
+            size.set(0);
+            head.prev = head;
+            head.next = head;
+            hits.reset();
+            misses.reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry[] getBucket(CacheKey key) {
+        Entry[] bucket = map.get(key.hash);
+        return bucket == null ? EMPTY_BUCKET : bucket;
+    }
+
+    /**
+     * Atomically replaces {@code expected} with {@code bucket}. Buckets are compared by identity,
+     * so no Python code runs in here.
+     */
+    private boolean replaceBucket(long hash, Entry[] expected, Entry[] bucket) {
+        if (expected == EMPTY_BUCKET) {
+            return map.putIfAbsent(hash, bucket) == null;
+        } else if (bucket.length == 0) {
+            return map.remove(hash, expected);
+        } else {
+            return map.replace(hash, expected, bucket);
+        }
+    }
+
+    private void removeFromBucket(Entry entry) {
+        Entry[] bucket = getBucket(entry.key);
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i] == entry) {
+                Entry[] newBucket = new Entry[bucket.length - 1];
+                System.arraycopy(bucket, 0, newBucket, 0, i);
+                System.arraycopy(bucket, i + 1, newBucket, i, newBucket.length - i);
+                replaceBucket(entry.key.hash, bucket, newBucket);
+                size.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private static Entry[] append(Entry[] bucket, Entry entry) {
+        Entry[] newBucket = new Entry[bucket.length + 1];
+        System.arraycopy(bucket, 0, newBucket, 0, bucket.length);
+        newBucket[bucket.length] = entry;
+        return newBucket;
+    }
+
+    /**
+     * Finds the entry of {@code bucket} whose key equals {@code key}, skipping the entries that are
+     * also in {@code compared}. Keys that can be compared without calling into Python are checked
+     * first. Must not be called while holding the lock.
+     */
+    private Entry find(Entry[] bucket, CacheKey key, Entry[] compared) {
+        assert !lock.isHeldByCurrentThread();
+        boolean needsEq = false;
+        for (Entry entry : bucket) {
+            int result = key.compareFast(entry.key);
+            if (result == CacheKey.EQUAL) {
+                return entry;
+            }
+            needsEq |= result == CacheKey.UNKNOWN;
+        }
+        if (needsEq) {
+            for (Entry entry : bucket) {
+                if (!contains(compared, entry) && key.compareFast(entry.key) == CacheKey.UNKNOWN && key.equalsSlow(entry.key)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(Entry[] bucket, Entry entry) {
+        for (Entry e : bucket) {
+            if (e == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drainPendingAccesses() {
+        Entry entry;
+        while ((entry = pendingAccesses.poll()) != null) {
+            moveToFront(entry);
+        }
+    }
+
+    private void moveToFront(Entry entry) {
+        if (entry.prev == null) {
+            // already evicted
+            return;
+        }
+        unlink(entry);
+        linkFirst(entry);
+    }
+
+    private void linkFirst(Entry entry) {
+        entry.prev = head;
+        entry.next = head.next;
+        head.next.prev = entry;
+        head.next = entry;
+    }
+
+    private static void unlink(Entry entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static final class Entry {
+        private final CacheKey key;
+        private final Object value;
+        private Entry prev;
+        private Entry next;
+
+        Entry(CacheKey key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A flattened argument list ({@code args + (KWD_MARK,) + kwds items [+ types]}) with its
+     * Python hash computed once up front, so that {@code __hash__} of an argument is called exactly
+     * once per call of the wrapper.
+     */
+    public static final class CacheKey {
+        static final int NOT_EQUAL = 0;
+        static final int EQUAL = 1;
+        static final int UNKNOWN = 2;
+
+        private final Object[] items;
+        private final long hash;
+
+        public CacheKey(Object[] items, long hash) {
+            this.items = items;
+            this.hash = hash;
+        }
+
+        /**
+         * Compares the keys as far as possible without running Python code: identical and
+         * primitive items are compared directly, anything else makes the result {@link #UNKNOWN}.
+         */
+        int compareFast(CacheKey other) {
+            if (this == other) {
+                return EQUAL;
+            }
+            if (hash != other.hash || items.length != other.items.length) {
+                return NOT_EQUAL;
+            }
+            int result = EQUAL;
+            for (int i = 0; i < items.length; i++) {
+                int itemResult = compareItemsFast(items[i], other.items[i]);
+                if (itemResult == NOT_EQUAL) {
+                    return NOT_EQUAL;
+                } else if (itemResult == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Compares the keys calling {@code __eq__} of the items where needed.
+         */
+        boolean equalsSlow(CacheKey other) {
+            PythonObjectLibrary lib = PythonObjectLibrary.getUncached();
+            for (int i = 0; i < items.length; i++) {
+                Object a = items[i];
+                Object b = other.items[i];
+                int itemResult = compareItemsFast(a, b);
+                if (itemResult == NOT_EQUAL || itemResult == UNKNOWN && !lib.equals(a, b, lib)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int compareItemsFast(Object a, Object b) {
+            if (a == b) {
+                return EQUAL;
+            }
+            if (a == KWD_MARK || b == KWD_MARK) {
+                return NOT_EQUAL;
+            }
+            if (a.getClass() == b.getClass()) {
+                if (a instanceof String || a instanceof Integer || a instanceof Long || a instanceof Boolean) {
+                    return a.equals(b) ? EQUAL : NOT_EQUAL;
+                } else if (a instanceof Double) {
+                    return (double) a == (double) b ? EQUAL : NOT_EQUAL;
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodesFactory.GetObjectArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode.ExpandKeywordStarargsNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPartial)
+public class PartialBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PartialBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Keywords given to the call override those stored in the partial object, keeping the
+     * position of the stored keyword.
+     */
+    @TruffleBoundary
+    public static PKeyword[] mergeKeywords(PKeyword[] stored, PKeyword[] given) {
+        PKeyword[] merged = new PKeyword[stored.length + given.length];
+        boolean[] used = new boolean[given.length];
+        int n = 0;
+        for (PKeyword kw : stored) {
+            PKeyword result = kw;
+            for (int i = 0; i < given.length; i++) {
+                if (given[i].getName().equals(kw.getName())) {
+                    result = given[i];
+                    used[i] = true;
+                    break;
+                }
+            }
+            merged[n++] = result;
+        }
+        for (int i = 0; i < given.length; i++) {
+            if (!used[i]) {
+                merged[n++] = given[i];
+            }
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    @Builtin(name = "func", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FuncNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object func(PPartial self) {
+            return self.getFn();
+        }
+    }
+
+    @Builtin(name = "args", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ArgsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object args(PPartial self) {
+            return self.getArgs();
+        }
+    }
+
+    @Builtin(name = "keywords", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class KeywordsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object keywords(PPartial self) {
+            return self.getKeywords();
+        }
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class PartialCallNode extends PythonVarargsBuiltinNode {
+        @Child private CallNode callNode = CallNode.create();
+        @Child private GetObjectArrayNode getArgsNode = GetObjectArrayNodeGen.create();
+        @Child private ExpandKeywordStarargsNode expandKeywordsNode = ExpandKeywordStarargsNode.create();
+
+        private final ConditionProfile noCallArgsProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile noCallKeywordsProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile noPartialKeywordsProfile = ConditionProfile.createBinaryProfile();
+
+        @Specialization
+        Object call(VirtualFrame frame, PPartial self, Object[] arguments, PKeyword[] keywords) {
+            Object[] partialArgs = getArgsNode.execute(self.getArgs());
+            Object[] callArgs;
+            if (noCallArgsProfile.profile(arguments.length == 0)) {
+                callArgs = partialArgs;
+            } else {
+                callArgs = new Object[partialArgs.length + arguments.length];
+                PythonUtils.arraycopy(partialArgs, 0, callArgs, 0, partialArgs.length);
+                PythonUtils.arraycopy(arguments, 0, callArgs, partialArgs.length, arguments.length);
+            }
+            PKeyword[] partialKeywords = expandKeywordsNode.executeWith(self.getKeywords());
+            PKeyword[] callKeywords;
+            if (noCallKeywordsProfile.profile(keywords.length == 0)) {
+                callKeywords = partialKeywords;
+            } else if (noPartialKeywordsProfile.profile(partialKeywords.length == 0)) {
+                callKeywords = keywords;
+            } else {
+                callKeywords = mergeKeywords(partialKeywords, keywords);
+            }
+            return callNode.execute(frame, self.getFn(), callArgs, callKeywords);
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, @SuppressWarnings("unused") Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            PythonUtils.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object repr(VirtualFrame frame, PPartial self,
+                        @CachedLibrary("self") PythonObjectLibrary lib,
+                        @Cached IsBuiltinClassProfile isExactPartial,
+                        @Cached GetNameNode getNameNode,
+                        @Cached GetObjectArrayNode getArgsNode,
+                        @Cached ExpandKeywordStarargsNode expandKeywordsNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            Object cls = lib.getLazyPythonClass(self);
+            String name = isExactPartial.profileClass(cls, PythonBuiltinClassType.PPartial) ? "functools.partial" : getNameNode.execute(cls);
+            Object[] args = getArgsNode.execute(self.getArgs());
+            PKeyword[] keywords = expandKeywordsNode.executeWith(self.getKeywords());
+            String[] reprs = new String[1 + args.length + keywords.length];
+            reprs[0] = reprItem(frame, self, self.getFn(), reprNode);
+            for (int i = 0; i < args.length; i++) {
+                reprs[1 + i] = reprItem(frame, self, args[i], reprNode);
+            }
+            for (int i = 0; i < keywords.length; i++) {
+                reprs[1 + args.length + i] = reprItem(frame, self, keywords[i].getValue(), reprNode);
+            }
+            return buildRepr(name, reprs, keywords);
+        }
+
+        @TruffleBoundary
+        private static String buildRepr(String name, String[] reprs, PKeyword[] keywords) {
+            StringBuilder sb = new StringBuilder(name).append('(').append(reprs[0]);
+            int firstKeyword = reprs.length - keywords.length;
+            for (int i = 1; i < reprs.length; i++) {
+                sb.append(", ");
+                if (i >= firstKeyword) {
+                    sb.append(keywords[i - firstKeyword].getName()).append('=');
+                }
+                sb.append(reprs[i]);
+            }
+            return sb.append(')').toString();
+        }
+
+        private String reprItem(VirtualFrame frame, PPartial self, Object item, LookupAndCallUnaryNode reprNode) {
+            if (item == self) {
+                return "...";
+            }
+            Object reprString = reprNode.executeObject(frame, item);
+            if (reprString instanceof PString) {
+                return ((PString) reprString).getValue();
+            } else if (reprString instanceof String) {
+                return (String) reprString;
+            }
+            throw raise(TypeError, ErrorMessages.RETURNED_NON_STRING, "__repr__", reprString);
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object reduce(PPartial self,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            PDict dict = lib.getDict(self);
+            PTuple state = factory().createTuple(new Object[]{self.getFn(), self.getArgs(), self.getKeywords(), dict != null ? dict : PNone.NONE});
+            return factory().createTuple(new Object[]{lib.getLazyPythonClass(self), factory().createTuple(new Object[]{self.getFn()}), state});
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "3")
+        Object setState(PPartial self, PTuple state,
+                        @CachedLibrary("self") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary itemLib,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary hlib,
+                        @Cached GetObjectArrayNode getArrayNode,
+                        @Cached IsBuiltinClassProfile isExactTuple,
+                        @Cached IsBuiltinClassProfile isExactDict) {
+            Object[] items = getArrayNode.execute(state);
+            if (items.length != 4) {
+                throw raise(TypeError, ErrorMessages.INVALID_PARTIAL_STATE);
+            }
+            Object fn = items[0];
+            Object fnArgs = items[1];
+            Object fnKeywords = items[2];
+            Object dict = items[3];
+            if (!itemLib.isCallable(fn) || !(fnArgs instanceof PTuple) || (fnKeywords != PNone.NONE && !(fnKeywords instanceof PDict)) || (dict != PNone.NONE && !(dict instanceof PDict))) {
+                throw raise(TypeError, ErrorMessages.INVALID_PARTIAL_STATE);
+            }
+            PTuple args = (PTuple) fnArgs;
+            if (!isExactTuple.profileObject(args, PythonBuiltinClassType.PTuple)) {
+                args = factory().createTuple(getArrayNode.execute(args));
+            }
+            PDict keywords;
+            if (fnKeywords == PNone.NONE) {
+                keywords = factory().createDict();
+            } else if (!isExactDict.profileObject(fnKeywords, PythonBuiltinClassType.PDict)) {
+                keywords = factory().createDict(hlib.copy(((PDict) fnKeywords).getDictStorage()));
+            } else {
+                keywords = (PDict) fnKeywords;
+            }
+            self.setState(fn, args, keywords);
+            if (dict != PNone.NONE) {
+                try {
+                    lib.setDict(self, (PDict) dict);
+                } catch (UnsupportedMessageException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPTuple(state)")
+        Object setState(@SuppressWarnings("unused") PPartial self, @SuppressWarnings("unused") Object state) {
+            throw raise(TypeError, ErrorMessages.ARG_TO_SETSTATE_MUST_BE_TUPLE);
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class DictNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "1")
+        PNone dict(PPartial self, PDict mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            try {
+                lib.setDict(self, mapping);
+            } catch (UnsupportedMessageException e) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw new IllegalStateException(e);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isNoValue(mapping)", limit = "1")
+        Object dict(PPartial self, @SuppressWarnings("unused") PNone mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            PDict dict = lib.getDict(self);
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(self);
+                try {
+                    lib.setDict(self, dict);
+                } catch (UnsupportedMessageException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return dict;
+        }
+
+        @Specialization(guards = {"!isNoValue(mapping)", "!isDict(mapping)"})
+        PNone dict(@SuppressWarnings("unused") PPartial self, Object mapping) {
+            throw raise(TypeError, ErrorMessages.DICT_MUST_BE_SET_TO_DICT, mapping);
+        }
+    }
+}
@@ -77,4 +77,11 @@ public class PForeignArrayIterator extends PythonBuiltinObject {
         return cursor++;
     }
 
+    /**
+     * Marks the elements up to {@code size} as consumed after they have been copied in bulk.
+     */
+    public void exhaust(int size) {
+        cursor = size;
+    }
+
 }
@@ -42,6 +42,8 @@ package com.oracle.graal.python.builtins.objects.object;
 
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
 
+import java.nio.ByteBuffer;
+
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObject;
@@ -49,11 +51,13 @@ import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Exclusive;
 import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.InteropLibrary;
@@ -246,6 +250,37 @@ final class DefaultPythonObjectExports {
         }
     }
 
+    @ExportMessage
+    static boolean isBuffer(Object receiver,
+                    @Shared("context") @CachedContext(PythonLanguage.class) PythonContext context) {
+        return context.isHostByteBuffer(receiver);
+    }
+
+    @ExportMessage
+    static int getBufferLength(Object receiver,
+                    @Shared("context") @CachedContext(PythonLanguage.class) PythonContext context) throws UnsupportedMessageException {
+        ByteBuffer buffer = context.getHostByteBuffer(receiver);
+        if (buffer == null) {
+            throw UnsupportedMessageException.create();
+        }
+        return remaining(buffer);
+    }
+
+    @ExportMessage
+    static byte[] getBufferBytes(Object receiver,
+                    @Shared("context") @CachedContext(PythonLanguage.class) PythonContext context) throws UnsupportedMessageException {
+        byte[] bytes = context.getHostBufferBytes(receiver);
+        if (bytes == null) {
+            throw UnsupportedMessageException.create();
+        }
+        return bytes;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static int remaining(ByteBuffer buffer) {
+        return buffer.remaining();
+    }
+
     @ExportMessage
     static Object asPString(Object receiver,
                     @CachedLibrary(limit = "1") InteropLibrary lib,
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.queue;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.BranchProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PSimpleQueue)
+public class SimpleQueueBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return SimpleQueueBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "put", minNumOfPositionalArgs = 2, parameterNames = {"$self", "item", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class PutNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        @SuppressWarnings("unused")
+        static Object put(PSimpleQueue self, Object item, Object block, Object timeout) {
+            // the queue is unbounded, 'block' and 'timeout' only exist for compatibility with
+            // queue.Queue
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "put_nowait", minNumOfPositionalArgs = 2, parameterNames = {"$self", "item"})
+    @GenerateNodeFactory
+    abstract static class PutNowaitNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static Object putNowait(PSimpleQueue self, Object item) {
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "get", minNumOfPositionalArgs = 1, parameterNames = {"$self", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class GetNode extends PythonTernaryBuiltinNode {
+        /** Longest time a waiting get goes without running async actions. */
+        private static final long WAIT_SLICE_NANOS = 50_000_000L;
+
+        @Specialization
+        Object get(VirtualFrame frame, PSimpleQueue self, Object blockObj, Object timeoutObj,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached BranchProfile waitProfile,
+                        @Cached BranchProfile asyncProfile) {
+            // fast path: don't bother with the arguments if an item is readily available
+            Object item = self.poll();
+            if (item != null) {
+                return item;
+            }
+            boolean block = blockObj == PNone.NO_VALUE || lib.isTrueWithState(blockObj, PArguments.getThreadState(frame));
+            long timeoutNanos = -1;
+            if (block && !(timeoutObj instanceof PNone)) {
+                double timeout = lib.asJavaDoubleWithState(timeoutObj, PArguments.getThreadState(frame));
+                if (timeout < 0) {
+                    throw raise(ValueError, ErrorMessages.TIMEOUT_MUST_BE_NON_NEG_NUMBER);
+                }
+                timeoutNanos = (long) (timeout * 1e9);
+            }
+            if (!block) {
+                throw raise(PythonBuiltinClassType.QueueEmpty);
+            }
+            waitProfile.enter();
+            long deadline = timeoutNanos < 0 ? 0 : System.nanoTime() + timeoutNanos;
+            while (true) {
+                long waitNanos = WAIT_SLICE_NANOS;
+                if (timeoutNanos >= 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw raise(PythonBuiltinClassType.QueueEmpty);
+                    }
+                    waitNanos = Math.min(waitNanos, remaining);
+                }
+                try {
+                    item = self.poll(waitNanos);
+                } catch (InterruptedException e) {
+                    // the interrupt only wakes us up, the queue is still there to wait on
+                    item = null;
+                }
+                if (item != null) {
+                    return item;
+                }
+                // let signal handlers and other async actions run between the slices, they may
+                // raise and so end the wait
+                getContext().triggerAsyncActions(frame, asyncProfile);
+            }
+        }
+    }
+
+    @Builtin(name = "get_nowait", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetNowaitNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object getNowait(PSimpleQueue self) {
+            Object item = self.poll();
+            if (item == null) {
+                throw raise(PythonBuiltinClassType.QueueEmpty);
+            }
+            return item;
+        }
+    }
+
+    @Builtin(name = "empty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EmptyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean empty(PSimpleQueue self) {
+            return self.size() == 0;
+        }
+    }
+
+    @Builtin(name = "qsize", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class QSizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int qsize(PSimpleQueue self) {
+            return self.size();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PEpoll)
+public class EpollBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return EpollBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    abstract static class RegisterNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        PNone register(VirtualFrame frame, PPoll self, Object fdObj, Object eventmask,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary maskLib) {
+            checkOpen(this, self);
+            PArguments.ThreadState threadState = PArguments.getThreadState(frame);
+            int fd = fdLib.asFileDescriptorWithState(fdObj, threadState);
+            int events = PollBuiltins.toEventMask(eventmask, maskLib, threadState);
+            if (self.isRegistered(fd)) {
+                throw raiseOSError(frame, OSErrorEnum.EEXIST);
+            }
+            Channel channel = getContext().getResources().getFileChannel(fd);
+            if (channel == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            } else if (!PPoll.canSelect(channel)) {
+                // regular files are always ready, epoll refuses them
+                throw raiseOSError(frame, OSErrorEnum.EPERM);
+            }
+            try {
+                self.register(fd, channel, events);
+            } catch (ClosedChannelException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "modify", minNumOfPositionalArgs = 3, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    abstract static class ModifyNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        PNone modify(VirtualFrame frame, PPoll self, Object fdObj, Object eventmask,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary maskLib) {
+            checkOpen(this, self);
+            PArguments.ThreadState threadState = PArguments.getThreadState(frame);
+            int fd = fdLib.asFileDescriptorWithState(fdObj, threadState);
+            if (!self.modify(fd, PollBuiltins.toEventMask(eventmask, maskLib, threadState))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unregister", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd"})
+    @GenerateNodeFactory
+    abstract static class UnregisterNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        PNone unregister(VirtualFrame frame, PPoll self, Object fdObj,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib) {
+            checkOpen(this, self);
+            int fd = fdLib.asFileDescriptorWithState(fdObj, PArguments.getThreadState(frame));
+            boolean registered;
+            try {
+                registered = self.unregister(fd);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            if (!registered) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, parameterNames = {"$self", "timeout", "maxevents"})
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(limit = "1")
+        PList poll(VirtualFrame frame, PPoll self, Object timeout, Object maxevents,
+                        @CachedLibrary("timeout") PythonObjectLibrary timeoutLib,
+                        @CachedLibrary("maxevents") PythonObjectLibrary maxeventsLib) {
+            checkOpen(this, self);
+            PArguments.ThreadState threadState = PArguments.getThreadState(frame);
+            long timeoutMillis;
+            if (PGuards.isPNone(timeout)) {
+                timeoutMillis = -1;
+            } else {
+                double seconds = timeoutLib.asJavaDoubleWithState(timeout, threadState);
+                timeoutMillis = seconds < 0 ? -1 : (long) Math.ceil(seconds * 1000.0);
+            }
+            int maxEvents = -1;
+            if (!PGuards.isNoValue(maxevents)) {
+                maxEvents = maxeventsLib.asSizeWithState(maxevents, PythonBuiltinClassType.OverflowError, threadState);
+                if (maxEvents == 0 || maxEvents < -1) {
+                    throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.MAXEVENTS_MUST_BE_GREATER_THAN_ZERO, maxEvents);
+                }
+            }
+            try {
+                return PollBuiltins.toList(factory(), self.poll(timeoutMillis, maxEvents));
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone close(PPoll self) {
+            if (self.isOpen()) {
+                // closing the file descriptor also closes the selector
+                getContext().getResources().close(self.getFileno());
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static boolean closed(PPoll self) {
+            return !self.isOpen();
+        }
+    }
+
+    @Builtin(name = "fileno", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        int fileno(PPoll self) {
+            checkOpen(this, self);
+            return self.getFileno();
+        }
+    }
+
+    @Builtin(name = __ENTER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object enter(PPoll self) {
+            checkOpen(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone exit(PPoll self, @SuppressWarnings("unused") Object typ, @SuppressWarnings("unused") Object val, @SuppressWarnings("unused") Object tb) {
+            if (self.isOpen()) {
+                getContext().getResources().close(self.getFileno());
+            }
+            return PNone.NONE;
+        }
+    }
+
+    private static void checkOpen(PythonBuiltinBaseNode node, PPoll self) {
+        if (!self.isOpen()) {
+            throw node.raise(PythonBuiltinClassType.ValueError, ErrorMessages.IO_OPERATION_ON_CLOSED_EPOLL);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.socket.PSocket;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The state of a {@code select.poll} or {@code select.epoll} object. Unlike {@code select.select},
+ * which opens a new {@link Selector} and registers all channels on every call, this object keeps
+ * one long-lived selector and only touches the registration of a channel when it is registered,
+ * modified or unregistered. A call to {@link #poll} then only has to walk the ready keys.
+ *
+ * Channels that cannot be selected (e.g. regular files or sockets that are neither connected nor
+ * listening yet) are always reported as ready, which is what {@code select.select} does for them.
+ * Sockets move to the selector once they are connected or listening. {@code epoll} refuses regular
+ * files, see {@link #canSelect}.
+ *
+ * A channel has to be non-blocking while it is registered. Its blocking mode is restored once its
+ * key has been removed from the selector, for a socket from its timeout. A blocking socket keeps
+ * waiting in its operations meanwhile, see {@link PSocket#configureBlocking()}.
+ *
+ * The selector is only reachable through {@link #getChannel()}, which is what the file descriptor
+ * of an {@code epoll} object refers to, so it can be closed when this object is collected.
+ */
+public final class PPoll extends PythonBuiltinObject {
+    public static final int POLLIN = 0x001;
+    public static final int POLLPRI = 0x002;
+    public static final int POLLOUT = 0x004;
+    public static final int POLLERR = 0x008;
+    public static final int POLLHUP = 0x010;
+    public static final int POLLNVAL = 0x020;
+    public static final int POLLRDNORM = 0x040;
+    public static final int POLLRDBAND = 0x080;
+    public static final int POLLWRNORM = 0x100;
+    public static final int POLLWRBAND = 0x200;
+    public static final int POLLMSG = 0x400;
+    public static final int POLLRDHUP = 0x2000;
+
+    public static final int EPOLLEXCLUSIVE = 1 << 28;
+    public static final int EPOLLONESHOT = 1 << 30;
+    public static final int EPOLLET = 1 << 31;
+    public static final int EPOLL_CLOEXEC = 0x80000;
+
+    public static final int DEFAULT_EVENTS = POLLIN | POLLPRI | POLLOUT;
+
+    private static final int READ_EVENTS = POLLIN | POLLPRI | POLLRDNORM | POLLRDBAND;
+    private static final int WRITE_EVENTS = POLLOUT | POLLWRNORM | POLLWRBAND;
+
+    private final Selector selector;
+    private final Channel channel;
+    private final HashMap<Integer, Registration> registrations = new HashMap<>();
+    private final HashMap<Integer, Registration> unselectable = new HashMap<>();
+    private int fileno = -1;
+
+    public PPoll(Object cls, Shape instanceShape, Selector selector) {
+        super(cls, instanceShape);
+        this.selector = selector;
+        this.channel = new SelectorChannel(selector, registrations);
+    }
+
+    /**
+     * Returns a channel that closes the selector. It does not refer to this object.
+     */
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Returns whether {@code channel} can be registered with a selector now or, for a socket, once
+     * it is connected or listening. Like Linux {@code epoll}, other channels are refused.
+     */
+    public static boolean canSelect(Channel channel) {
+        return channel instanceof PSocket || channel instanceof SelectableChannel;
+    }
+
+    public int getFileno() {
+        return fileno;
+    }
+
+    public void setFileno(int fileno) {
+        this.fileno = fileno;
+    }
+
+    @TruffleBoundary
+    public boolean isOpen() {
+        return selector.isOpen();
+    }
+
+    @TruffleBoundary
+    public void close() throws IOException {
+        unselectable.clear();
+        channel.close();
+    }
+
+    @TruffleBoundary
+    public boolean isRegistered(int fd) {
+        return registrations.containsKey(fd);
+    }
+
+    /**
+     * Registers {@code fd} (which refers to {@code channel}) for {@code events}, or changes the
+     * events if {@code fd} is already registered.
+     */
+    @TruffleBoundary
+    public void register(int fd, Channel channel, int events) throws IOException {
+        Registration registration = registrations.get(fd);
+        if (registration == null) {
+            registration = new Registration(fd);
+            registrations.put(fd, registration);
+        }
+        registration.channel = channel;
+        registration.events = events;
+        SelectableChannel selectable = getSelectableChannel(channel);
+        if (selectable != null) {
+            if (registration.key == null || !registration.key.isValid() || registration.key.channel() != selectable) {
+                unselectable.remove(fd);
+                registration.key = registerChannel(selectable, registration);
+            } else {
+                registration.key.interestOps(interestOps(selectable, events));
+            }
+        } else {
+            release(registration);
+            unselectable.put(fd, registration);
+        }
+    }
+
+    /**
+     * Changes the events of {@code fd}. Returns {@code false} if {@code fd} is not registered.
+     */
+    @TruffleBoundary
+    public boolean modify(int fd, int events) {
+        Registration registration = registrations.get(fd);
+        if (registration == null) {
+            return false;
+        }
+        registration.events = events;
+        SelectionKey key = registration.key;
+        if (key != null && key.isValid()) {
+            try {
+                key.interestOps(interestOps(key.channel(), events));
+            } catch (CancelledKeyException e) {
+                // the channel was closed concurrently; it will not be reported any more
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes {@code fd}. Returns {@code false} if {@code fd} is not registered.
+     */
+    @TruffleBoundary
+    public boolean unregister(int fd) throws IOException {
+        Registration registration = registrations.remove(fd);
+        if (registration == null) {
+            return false;
+        }
+        unselectable.remove(fd);
+        release(registration);
+        return true;
+    }
+
+    /**
+     * Waits for registered file descriptors to become ready.
+     *
+     * @param timeoutMillis the timeout in milliseconds; {@code 0} does not block and a negative
+     *            value blocks until at least one file descriptor is ready
+     * @param maxEvents the maximum number of events to report or {@code -1} for no limit
+     * @return pairs of file descriptor and ready events, flattened into one array
+     */
+    @TruffleBoundary
+    public int[] poll(long timeoutMillis, int maxEvents) throws IOException {
+        if (timeoutMillis == 0 || hasReadyUnselectable()) {
+            selector.selectNow();
+        } else if (timeoutMillis < 0) {
+            selector.select();
+        } else {
+            selector.select(timeoutMillis);
+        }
+        Set<SelectionKey> selectedKeys = selector.selectedKeys();
+        int limit = maxEvents < 0 ? Integer.MAX_VALUE : maxEvents;
+        int[] result = new int[2 * Math.min(selectedKeys.size() + unselectable.size(), limit)];
+        int n = 0;
+        Iterator<SelectionKey> it = selectedKeys.iterator();
+        while (it.hasNext() && n < result.length) {
+            SelectionKey key = it.next();
+            it.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            Registration registration = (Registration) key.attachment();
+            int ready = readyEvents(key.readyOps(), registration.events);
+            if (ready != 0) {
+                result[n++] = registration.fd;
+                result[n++] = ready;
+                if ((registration.events & EPOLLONESHOT) != 0) {
+                    registration.events = 0;
+                    key.interestOps(0);
+                }
+            }
+        }
+        // keys we did not report will be selected again by the next call
+        selectedKeys.clear();
+        Iterator<Registration> unselectableIt = unselectable.values().iterator();
+        while (unselectableIt.hasNext() && n < result.length) {
+            Registration registration = unselectableIt.next();
+            int ready = registration.events & (READ_EVENTS | WRITE_EVENTS);
+            if (ready != 0) {
+                result[n++] = registration.fd;
+                result[n++] = ready;
+                if ((registration.events & EPOLLONESHOT) != 0) {
+                    registration.events = 0;
+                }
+            }
+        }
+        if (n < result.length) {
+            int[] trimmed = new int[n];
+            System.arraycopy(result, 0, trimmed, 0, n);
+            return trimmed;
+        }
+        return result;
+    }
+
+    /**
+     * Moves sockets that got connected or started listening to the selector and returns whether any
+     * of the remaining unselectable channels is waited for, which makes them ready right away.
+     */
+    private boolean hasReadyUnselectable() throws IOException {
+        boolean ready = false;
+        Iterator<Registration> it = unselectable.values().iterator();
+        while (it.hasNext()) {
+            Registration registration = it.next();
+            SelectableChannel selectable = getSelectableChannel(registration.channel);
+            if (selectable != null) {
+                it.remove();
+                registration.key = registerChannel(selectable, registration);
+            } else if ((registration.events & (READ_EVENTS | WRITE_EVENTS)) != 0) {
+                ready = true;
+            }
+        }
+        return ready;
+    }
+
+    private SelectionKey registerChannel(SelectableChannel channel, Registration registration) throws IOException {
+        release(registration);
+        SelectionKey existing = channel.keyFor(selector);
+        if (existing != null && !existing.isValid()) {
+            // a cancelled key is only removed from the selector by the next selection operation
+            selector.selectNow();
+            selector.selectedKeys().clear();
+        }
+        registration.blocking = channel.isBlocking();
+        channel.configureBlocking(false);
+        return channel.register(selector, interestOps(channel, registration.events), registration);
+    }
+
+    /**
+     * Cancels the key of {@code registration} and restores the blocking mode of its channel.
+     */
+    private void release(Registration registration) throws IOException {
+        SelectionKey key = registration.key;
+        if (key != null) {
+            registration.key = null;
+            key.cancel();
+            // a cancelled key is only removed from the selector by the next selection operation,
+            // the keys it reports ready are reported again by the next poll
+            selector.selectNow();
+            selector.selectedKeys().clear();
+            restoreBlocking(registration, key.channel());
+        }
+    }
+
+    private static void restoreBlocking(Registration registration, SelectableChannel selectable) throws IOException {
+        if (!selectable.isOpen() || selectable.isRegistered()) {
+            // closed, or still registered with another poll object, which restores it
+            return;
+        }
+        if (registration.channel instanceof PSocket) {
+            ((PSocket) registration.channel).configureBlocking();
+        } else if (registration.blocking) {
+            selectable.configureBlocking(true);
+        }
+    }
+
+    private static SelectableChannel getSelectableChannel(Channel channel) {
+        if (channel instanceof PSocket) {
+            return ((PSocket) channel).getSelectableChannel();
+        } else if (channel instanceof SelectableChannel) {
+            return (SelectableChannel) channel;
+        }
+        return null;
+    }
+
+    private static int interestOps(SelectableChannel channel, int events) {
+        int ops = 0;
+        if ((events & READ_EVENTS) != 0) {
+            ops |= SelectionKey.OP_READ | SelectionKey.OP_ACCEPT;
+        }
+        if ((events & WRITE_EVENTS) != 0) {
+            if (channel instanceof SocketChannel && ((SocketChannel) channel).isConnectionPending()) {
+                ops |= SelectionKey.OP_CONNECT;
+            } else {
+                ops |= SelectionKey.OP_WRITE;
+            }
+        }
+        return ops & channel.validOps();
+    }
+
+    private static int readyEvents(int readyOps, int events) {
+        int ready = 0;
+        if ((readyOps & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0) {
+            ready |= events & READ_EVENTS;
+        }
+        if ((readyOps & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT)) != 0) {
+            ready |= events & WRITE_EVENTS;
+        }
+        return ready;
+    }
+
+    private static final class Registration {
+        private final int fd;
+        private Channel channel;
+        private int events;
+        private SelectionKey key;
+        /** The blocking mode of the channel before it was registered. */
+        private boolean blocking;
+
+        Registration(int fd) {
+            this.fd = fd;
+        }
+    }
+
+    private static final class SelectorChannel implements Channel {
+        private final Selector selector;
+        private final HashMap<Integer, Registration> registrations;
+
+        SelectorChannel(Selector selector, HashMap<Integer, Registration> registrations) {
+            this.selector = selector;
+            this.registrations = registrations;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return selector.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!selector.isOpen()) {
+                return;
+            }
+            // closing the selector deregisters all channels
+            selector.close();
+            for (Registration registration : registrations.values()) {
+                if (registration.key != null) {
+                    SelectableChannel selectable = registration.key.channel();
+                    registration.key = null;
+                    restoreBlocking(registration, selectable);
+                }
+            }
+            registrations.clear();
+        }
+    }
+}
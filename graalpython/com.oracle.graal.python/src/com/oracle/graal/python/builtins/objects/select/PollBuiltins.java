@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPoll)
+public class PollBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PollBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    abstract static class RegisterNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        PNone register(VirtualFrame frame, PPoll self, Object fdObj, Object eventmask,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary maskLib) {
+            PArguments.ThreadState threadState = PArguments.getThreadState(frame);
+            int fd = fdLib.asFileDescriptorWithState(fdObj, threadState);
+            int events = toEventMask(eventmask, maskLib, threadState);
+            Channel channel = getContext().getResources().getFileChannel(fd);
+            if (channel == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            try {
+                self.register(fd, channel, events);
+            } catch (ClosedChannelException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "modify", minNumOfPositionalArgs = 3, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    abstract static class ModifyNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        PNone modify(VirtualFrame frame, PPoll self, Object fdObj, Object eventmask,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary maskLib) {
+            PArguments.ThreadState threadState = PArguments.getThreadState(frame);
+            int fd = fdLib.asFileDescriptorWithState(fdObj, threadState);
+            if (!self.modify(fd, toEventMask(eventmask, maskLib, threadState))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unregister", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd"})
+    @GenerateNodeFactory
+    abstract static class UnregisterNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        PNone unregister(VirtualFrame frame, PPoll self, Object fdObj,
+                        @CachedLibrary("fdObj") PythonObjectLibrary fdLib) {
+            int fd = fdLib.asFileDescriptorWithState(fdObj, PArguments.getThreadState(frame));
+            boolean registered;
+            try {
+                registered = self.unregister(fd);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            if (!registered) {
+                throw raise(PythonBuiltinClassType.KeyError, fdObj);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, parameterNames = {"$self", "timeout"})
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(limit = "1")
+        PList poll(VirtualFrame frame, PPoll self, Object timeout,
+                        @CachedLibrary("timeout") PythonObjectLibrary timeoutLib) {
+            long timeoutMillis;
+            if (PGuards.isPNone(timeout)) {
+                timeoutMillis = -1;
+            } else {
+                double millis = timeoutLib.asJavaDoubleWithState(timeout, PArguments.getThreadState(frame));
+                timeoutMillis = millis < 0 ? -1 : (long) Math.ceil(millis);
+            }
+            try {
+                return toList(factory(), self.poll(timeoutMillis, -1));
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+        }
+    }
+
+    /**
+     * Converts the {@code eventmask} argument, which is an unsigned C int in CPython.
+     */
+    static int toEventMask(Object eventmask, PythonObjectLibrary lib, PArguments.ThreadState threadState) {
+        if (PGuards.isNoValue(eventmask)) {
+            return PPoll.DEFAULT_EVENTS;
+        }
+        return (int) lib.asJavaLongWithState(eventmask, threadState);
+    }
+
+    static PList toList(PythonObjectFactory factory, int[] fdsAndEvents) {
+        Object[] result = new Object[fdsAndEvents.length / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = factory.createTuple(new Object[]{fdsAndEvents[2 * i], fdsAndEvents[2 * i + 1]});
+        }
+        return factory.createList(result);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.socket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One direct buffer per thread for socket reads. NIO reads into heap buffers through a temporary
+ * direct buffer anyway, so reading into a pooled direct buffer and copying out only the received
+ * bytes saves allocating a heap buffer of the requested size on every {@code recv}.
+ */
+final class DirectBufferPool {
+    private static final int INITIAL_SIZE = 64 * 1024;
+    private static final int MAX_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(INITIAL_SIZE));
+
+    private DirectBufferPool() {
+    }
+
+    /**
+     * Returns the cleared buffer of the current thread, limited to {@code size} bytes. The buffer
+     * may be smaller than {@code size} if more than {@link #MAX_SIZE} bytes are requested. It must
+     * not be used after the thread acquires it again.
+     */
+    static ByteBuffer acquire(int size) {
+        ByteBuffer buffer = BUFFERS.get();
+        if (size > buffer.capacity() && buffer.capacity() < MAX_SIZE) {
+            buffer = ByteBuffer.allocateDirect(Math.min(size, MAX_SIZE));
+            BUFFERS.set(buffer);
+        }
+        buffer.clear();
+        buffer.limit(Math.min(size, buffer.capacity()));
+        return buffer;
+    }
+}
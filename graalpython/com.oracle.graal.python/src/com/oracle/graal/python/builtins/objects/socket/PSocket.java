@@ -42,10 +42,15 @@ package com.oracle.graal.python.builtins.objects.socket;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
 import java.nio.channels.Channel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
@@ -56,11 +61,12 @@ import com.oracle.truffle.api.object.Shape;
 
 public class PSocket extends PythonBuiltinObject implements Channel {
     public static final int AF_UNSPEC = 0;
+    public static final int AF_UNIX = 1;
     public static final int AF_INET = 2;
     public static final int AF_INET6 = 23;
 
-    public static final int SOCK_DGRAM = 1;
-    public static final int SOCK_STREAM = 2;
+    public static final int SOCK_STREAM = 1;
+    public static final int SOCK_DGRAM = 2;
 
     public static final int AI_PASSIVE = 1;
     public static final int AI_CANONNAME = 2;
@@ -83,6 +89,9 @@ public class PSocket extends PythonBuiltinObject implements Channel {
 
     public static final int IPPROTO_TCP = 6;
 
+    /** The deadline of an operation on a blocking socket, see {@link #getDeadline()}. */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
     @CompilationFinal private static InetSocketAddress EPHEMERAL_ADDRESS;
 
     private static InetSocketAddress getEphemeralAddress() {
@@ -101,15 +110,22 @@ public class PSocket extends PythonBuiltinObject implements Channel {
 
     public int serverPort;
     public String serverHost;
+    public String serverPath;
 
-    private double timeout;
+    /**
+     * The timeout in seconds, {@code 0} for a non-blocking socket and negative for a blocking
+     * socket without timeout.
+     */
+    private double timeout = -1.0;
 
     private InetSocketAddress address = getEphemeralAddress();
 
     private SocketChannel socket;
 
     private ServerSocketChannel serverSocket;
-    private boolean blocking;
+
+    private DatagramChannel datagramSocket;
+    private InetSocketAddress lastSendAddress;
 
     private HashMap<Object, Object> options;
 
@@ -186,24 +202,118 @@ public class PSocket extends PythonBuiltinObject implements Channel {
     }
 
     public boolean isBlocking() {
-        return blocking;
+        return timeout != 0;
+    }
+
+    public DatagramChannel getDatagramSocket() {
+        return datagramSocket;
+    }
+
+    public void setDatagramSocket(DatagramChannel datagramSocket) {
+        this.datagramSocket = datagramSocket;
+    }
+
+    /**
+     * Returns the destination address for {@code sendto}. Clients usually send every datagram to
+     * the same peer, so the last address is kept to avoid resolving the host again.
+     */
+    @TruffleBoundary
+    public InetSocketAddress resolveSendAddress(String host, int port) {
+        InetSocketAddress last = lastSendAddress;
+        if (last != null && last.getPort() == port && last.getHostString().equals(host)) {
+            return last;
+        }
+        InetSocketAddress resolved = new InetSocketAddress(host, port);
+        if (!resolved.isUnresolved()) {
+            lastSendAddress = resolved;
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns the channel this socket can be registered with a selector by, or {@code null} if it
+     * is neither connected, listening nor a datagram socket.
+     */
+    public SelectableChannel getSelectableChannel() {
+        if (socket != null) {
+            return socket;
+        } else if (serverSocket != null) {
+            return serverSocket;
+        }
+        return datagramSocket;
     }
 
-    public void setBlocking(boolean blocking) {
-        this.blocking = blocking;
+    /**
+     * Returns the {@link System#nanoTime()} at which an operation that starts now times out, or
+     * {@link #NO_DEADLINE} for a blocking socket. Only meaningful for a blocking socket.
+     */
+    @TruffleBoundary
+    public long getDeadline() {
+        if (timeout < 0) {
+            return NO_DEADLINE;
+        }
+        return System.nanoTime() + (long) (timeout * 1_000_000_000L);
+    }
+
+    /**
+     * Puts the channels of this socket into the blocking mode that fits its timeout. Java channels
+     * have no timeouts, so a socket with a timeout keeps them non-blocking and waits in
+     * {@link #waitFor} instead. A channel that is registered with a {@code poll} or {@code epoll}
+     * object stays non-blocking, so does a blocking socket, until it is unregistered.
+     */
+    @TruffleBoundary
+    public void configureBlocking() throws IOException {
+        boolean block = timeout < 0;
+        configureBlocking(socket, block);
+        configureBlocking(serverSocket, block);
+        configureBlocking(datagramSocket, block);
+    }
+
+    private static void configureBlocking(SelectableChannel channel, boolean block) throws IOException {
+        if (channel != null && !(block && channel.isRegistered())) {
+            channel.configureBlocking(block);
+        }
+    }
+
+    /**
+     * Waits until the non-blocking {@code channel} is ready for one of {@code ops}.
+     *
+     * @throws SocketTimeoutException if {@code deadline} passes first
+     */
+    @TruffleBoundary
+    public static void waitFor(SelectableChannel channel, int ops, long deadline) throws IOException {
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, ops);
+            while (true) {
+                if (deadline == NO_DEADLINE) {
+                    if (selector.select() > 0) {
+                        return;
+                    }
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("timed out");
+                }
+                // select(0) waits forever, so always wait at least a millisecond
+                if (selector.select(Math.max(TimeUnit.NANOSECONDS.toMillis(remaining), 1)) > 0) {
+                    return;
+                }
+            }
+        }
     }
 
     @TruffleBoundary
     public boolean isOpen() {
-        return (getSocket() != null && getSocket().isOpen()) || (getServerSocket() != null && getServerSocket().isOpen());
+        SelectableChannel channel = getSelectableChannel();
+        return channel != null && channel.isOpen();
     }
 
     @TruffleBoundary
     public void close() throws IOException {
-        if (getSocket() != null) {
-            getSocket().close();
-        } else if (getServerSocket() != null) {
-            getServerSocket().close();
+        SelectableChannel channel = getSelectableChannel();
+        if (channel != null) {
+            channel.close();
         }
     }
 
@@ -46,14 +46,20 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.DatagramChannel;
 import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.Arrays;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
@@ -71,17 +77,25 @@ import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -113,27 +127,49 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class AcceptNode extends PythonUnaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object accept(PSocket socket) {
+        Object accept(VirtualFrame frame, PSocket socket) {
             try {
-                SocketChannel acceptSocket = socket.getServerSocket().accept();
+                SocketChannel acceptSocket = doAccept(socket);
                 if (acceptSocket == null) {
-                    throw raise(PythonBuiltinClassType.OSError);
+                    throw raiseOSError(frame, OSErrorEnum.EAGAIN);
                 }
-                SocketAddress addr = acceptSocket.getLocalAddress();
-                if (!acceptSocket.socket().isBound() || addr == null) {
-                    throw raise(PythonBuiltinClassType.OSError);
-                }
-                PSocket newSocket = factory().createSocket(socket.getFamily(), socket.getType(), socket.getProto());
-                int fd = getContext().getResources().openSocket(newSocket);
-                newSocket.setFileno(fd);
-                newSocket.setSocket(acceptSocket);
-                Object[] output = {fd, ((InetSocketAddress) addr).getAddress().getHostAddress()};
-                return factory().createTuple(output);
+                return createAccepted(socket, acceptSocket);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
         }
+
+        @TruffleBoundary
+        private static SocketChannel doAccept(PSocket socket) throws IOException {
+            ServerSocketChannel channel = socket.getServerSocket();
+            SocketChannel acceptSocket = channel.accept();
+            if (acceptSocket == null && socket.isBlocking()) {
+                long deadline = socket.getDeadline();
+                do {
+                    PSocket.waitFor(channel, SelectionKey.OP_ACCEPT, deadline);
+                    acceptSocket = channel.accept();
+                } while (acceptSocket == null);
+            }
+            return acceptSocket;
+        }
+
+        @TruffleBoundary
+        private Object createAccepted(PSocket socket, SocketChannel acceptSocket) throws IOException {
+            SocketAddress addr = acceptSocket.getLocalAddress();
+            if (addr == null) {
+                throw raise(PythonBuiltinClassType.OSError);
+            }
+            PSocket newSocket = factory().createSocket(socket.getFamily(), socket.getType(), socket.getProto());
+            int fd = getContext().getResources().openSocket(newSocket);
+            newSocket.setFileno(fd);
+            newSocket.setSocket(acceptSocket);
+            // peers of a Unix domain socket are usually unnamed
+            Object peer = addr instanceof InetSocketAddress ? ((InetSocketAddress) addr).getAddress().getHostAddress() : "";
+            Object[] output = {fd, peer};
+            return factory().createTuple(output);
+        }
     }
 
     // bind(address)
@@ -141,8 +177,11 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class BindNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object bind(PSocket socket, PTuple address,
+        Object bind(VirtualFrame frame, PSocket socket, PTuple address,
                         @Cached GetObjectArrayNode getObjectArrayNode) {
+            if (socket.getFamily() == PSocket.AF_UNIX) {
+                throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.S_AF_UNIX_ADDRESS_MUST_BE_STR, "bind", address);
+            }
             Object[] hostAndPort = getObjectArrayNode.execute(address);
 
             int port = (int) hostAndPort[1];
@@ -153,8 +192,72 @@ public class SocketBuiltins extends PythonBuiltins {
 
             socket.serverHost = (String) hostAndPort[0];
             socket.serverPort = port;
+            if (socket.getDatagramSocket() != null) {
+                // there is no listen() for datagram sockets, so they are bound right away
+                try {
+                    bindDatagram(socket);
+                } catch (IOException e) {
+                    throw raiseOSError(frame, e);
+                }
+            }
             return PNone.NONE;
         }
+
+        @Specialization(guards = "!isPTuple(address)")
+        Object bind(PSocket socket, Object address,
+                        @Cached CastToJavaStringNode castToString) {
+            socket.serverPath = getUnixPath(this, "bind", socket, address, castToString);
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private static void bindDatagram(PSocket socket) throws IOException {
+            String host = socket.serverHost;
+            InetSocketAddress address = host.isEmpty() ? new InetSocketAddress(socket.serverPort) : new InetSocketAddress(host, socket.serverPort);
+            socket.getDatagramSocket().bind(address);
+        }
+    }
+
+    /**
+     * Returns the path of an {@code AF_UNIX} address. Any other address of a socket of another
+     * family is not a tuple, otherwise it would not end up here.
+     */
+    private static String getUnixPath(PythonBuiltinBaseNode node, String function, PSocket socket, Object address, CastToJavaStringNode castToString) {
+        if (socket.getFamily() != PSocket.AF_UNIX) {
+            throw node.raise(PythonBuiltinClassType.TypeError, ErrorMessages.S_AF_INET_ADDRESS_MUST_BE_TUPLE, function, address);
+        } else if (!UnixDomainSockets.isSupported()) {
+            throw node.raiseOSError(null, OSErrorEnum.EAFNOSUPPORT);
+        }
+        try {
+            return castToString.execute(address);
+        } catch (CannotCastException e) {
+            throw node.raise(PythonBuiltinClassType.TypeError, ErrorMessages.S_AF_UNIX_ADDRESS_MUST_BE_STR, function, address);
+        }
+    }
+
+    /**
+     * Java channels take no message flags such as {@code MSG_PEEK}, so any flags but {@code 0} are
+     * refused rather than silently ignored.
+     */
+    private static void checkFlags(PythonBuiltinBaseNode node, VirtualFrame frame, Object flags, PythonObjectLibrary lib) {
+        if (!PGuards.isPNone(flags) && lib.asSizeWithState(flags, PArguments.getThreadState(frame)) != 0) {
+            throw node.raiseOSError(frame, OSErrorEnum.EOPNOTSUPP);
+        }
+    }
+
+    /**
+     * Converts a socket address to the Python representation, a {@code (host, port)} tuple for IP
+     * sockets and the path for Unix domain sockets.
+     */
+    @TruffleBoundary
+    static Object toPythonAddress(PythonObjectFactory factory, SocketAddress address) throws IOException {
+        if (address instanceof InetSocketAddress) {
+            InetSocketAddress inetAddress = (InetSocketAddress) address;
+            return factory.createTuple(new Object[]{inetAddress.getAddress().getHostAddress(), inetAddress.getPort()});
+        } else if (address == null) {
+            return PNone.NONE;
+        }
+        return UnixDomainSockets.getPath(address);
     }
 
     // close()
@@ -164,23 +267,14 @@ public class SocketBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object close(PSocket socket) {
-            if (socket.getSocket() != null) {
-                if (!socket.getSocket().isOpen()) {
+            SelectableChannel channel = socket.getSelectableChannel();
+            if (channel != null) {
+                if (!channel.isOpen()) {
                     throw raise(PythonBuiltinClassType.OSError, ErrorMessages.BAD_FILE_DESCRIPTOR);
                 }
 
                 try {
-                    socket.getSocket().close();
-                } catch (IOException e) {
-                    throw raise(PythonBuiltinClassType.OSError, ErrorMessages.BAD_FILE_DESCRIPTOR);
-                }
-            } else if (socket.getServerSocket() != null) {
-                if (!socket.getServerSocket().isOpen()) {
-                    throw raise(PythonBuiltinClassType.OSError, ErrorMessages.BAD_FILE_DESCRIPTOR);
-                }
-
-                try {
-                    socket.getServerSocket().close();
+                    channel.close();
                 } catch (IOException e) {
                     throw raise(PythonBuiltinClassType.OSError, ErrorMessages.BAD_FILE_DESCRIPTOR);
                 }
@@ -197,21 +291,67 @@ public class SocketBuiltins extends PythonBuiltins {
         @Specialization
         Object connect(PSocket socket, PTuple address,
                         @Cached GetObjectArrayNode getObjectArrayNode) {
+            if (socket.getFamily() == PSocket.AF_UNIX) {
+                throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.S_AF_UNIX_ADDRESS_MUST_BE_STR, "connect", address);
+            }
             Object[] hostAndPort = getObjectArrayNode.execute(address);
             try {
                 doConnect(socket, hostAndPort);
                 return PNone.NONE;
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
         }
 
+        @Specialization(guards = "!isPTuple(address)")
+        Object connect(VirtualFrame frame, PSocket socket, Object address,
+                        @Cached CastToJavaStringNode castToString) {
+            String path = getUnixPath(this, "connect", socket, address, castToString);
+            try {
+                doConnectUnix(socket, path);
+                return PNone.NONE;
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+        }
+
         @TruffleBoundary
         private static void doConnect(PSocket socket, Object[] hostAndPort) throws IOException {
             InetSocketAddress socketAddress = new InetSocketAddress((String) hostAndPort[0], (Integer) hostAndPort[1]);
-            SocketChannel channel = SocketChannel.open();
-            channel.connect(socketAddress);
+            if (socket.getDatagramSocket() != null) {
+                // only fixes the peer, nothing is sent
+                socket.getDatagramSocket().connect(socketAddress);
+                return;
+            }
+            connect(socket, SocketChannel.open(), socketAddress);
+        }
+
+        @TruffleBoundary
+        private static void doConnectUnix(PSocket socket, String path) throws IOException {
+            connect(socket, UnixDomainSockets.openSocket(), UnixDomainSockets.address(path));
+        }
+
+        private static void connect(PSocket socket, SocketChannel channel, SocketAddress address) throws IOException {
+            try {
+                if (socket.getTimeout() > 0) {
+                    channel.configureBlocking(false);
+                    if (!channel.connect(address)) {
+                        PSocket.waitFor(channel, SelectionKey.OP_CONNECT, socket.getDeadline());
+                        channel.finishConnect();
+                    }
+                } else {
+                    channel.connect(address);
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
             socket.setSocket(channel);
+            socket.configureBlocking();
         }
     }
 
@@ -222,13 +362,19 @@ public class SocketBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object get(PSocket socket) {
-            if (socket.getSocket() == null) {
-                throw raise(PythonBuiltinClassType.OSError, ErrorMessages.ERROR57_SOCKET_CANNOT_BE_CONNECTED);
-            }
-
+            SocketAddress addr;
             try {
-                InetSocketAddress addr = (InetSocketAddress) socket.getSocket().getRemoteAddress();
-                return factory().createTuple(new Object[]{addr.getAddress().getHostAddress(), addr.getPort()});
+                if (socket.getSocket() != null) {
+                    addr = socket.getSocket().getRemoteAddress();
+                } else if (socket.getDatagramSocket() != null) {
+                    addr = socket.getDatagramSocket().getRemoteAddress();
+                } else {
+                    addr = null;
+                }
+                if (addr == null) {
+                    throw raise(PythonBuiltinClassType.OSError, ErrorMessages.ERROR57_SOCKET_CANNOT_BE_CONNECTED);
+                }
+                return toPythonAddress(factory(), addr);
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
@@ -242,22 +388,25 @@ public class SocketBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object get(PSocket socket) {
-            if (socket.getServerSocket() != null) {
-                try {
-                    InetSocketAddress addr = (InetSocketAddress) socket.getServerSocket().getLocalAddress();
-                    return factory().createTuple(new Object[]{addr.getAddress().getHostAddress(), addr.getPort()});
-                } catch (IOException e) {
-                    throw raise(PythonBuiltinClassType.OSError);
+            try {
+                SocketAddress addr = null;
+                if (socket.getServerSocket() != null) {
+                    addr = socket.getServerSocket().getLocalAddress();
+                } else if (socket.getSocket() != null) {
+                    addr = socket.getSocket().getLocalAddress();
+                } else if (socket.getDatagramSocket() != null) {
+                    // null until the socket is bound
+                    addr = socket.getDatagramSocket().getLocalAddress();
                 }
+                if (addr != null) {
+                    return toPythonAddress(factory(), addr);
+                }
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError);
             }
 
-            if (socket.getSocket() != null) {
-                try {
-                    InetSocketAddress addr = (InetSocketAddress) socket.getSocket().getLocalAddress();
-                    return factory().createTuple(new Object[]{addr.getAddress().getHostAddress(), addr.getPort()});
-                } catch (IOException e) {
-                    throw raise(PythonBuiltinClassType.OSError);
-                }
+            if (socket.getFamily() == PSocket.AF_UNIX) {
+                return socket.serverPath != null ? socket.serverPath : "";
             }
 
             if (socket.serverHost != null) {
@@ -282,30 +431,11 @@ public class SocketBuiltins extends PythonBuiltins {
     @Builtin(name = "gettimeout", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class GetTimeoutNode extends PythonUnaryBuiltinNode {
-        @TruffleBoundary
-        private static int getSoTimeout(SocketChannel channel) throws SocketException {
-            return channel.socket().getSoTimeout();
-        }
-
-        @TruffleBoundary
-        private static int getSoTimeout(ServerSocketChannel channel) throws IOException {
-            return channel.socket().getSoTimeout();
-        }
-
         @Specialization
         Object get(PSocket socket) {
-            try {
-                if (socket.getSocket() != null) {
-                    return getSoTimeout(socket.getSocket());
-                }
-
-                if (socket.getServerSocket() != null) {
-                    return getSoTimeout(socket.getServerSocket());
-                }
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError);
-            }
-            return PNone.NONE;
+            double timeout = socket.getTimeout();
+            // non-blocking sockets report 0.0, only blocking ones without a timeout report None
+            return timeout < 0 ? PNone.NONE : timeout;
         }
     }
 
@@ -316,6 +446,9 @@ public class SocketBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object listen(PSocket socket, int backlog) {
+            if (socket.getFamily() == PSocket.AF_UNIX) {
+                return listenUnix(socket, backlog);
+            }
             try {
                 InetAddress host = InetAddress.getByName(socket.serverHost);
                 InetSocketAddress socketAddress = new InetSocketAddress(host, socket.serverPort);
@@ -325,9 +458,8 @@ public class SocketBuiltins extends PythonBuiltins {
                 // for some reason this only works on the ServerSocket not on the
                 // ServerSocketChannel
                 serverSocketChannel.socket().bind(socketAddress, backlog);
-                serverSocketChannel.configureBlocking(socket.isBlocking());
-
                 socket.setServerSocket(serverSocketChannel);
+                socket.configureBlocking();
                 return PNone.NONE;
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
@@ -339,6 +471,21 @@ public class SocketBuiltins extends PythonBuiltins {
         Object listen(PSocket socket, PNone backlog) {
             return listen(socket, 50);
         }
+
+        private Object listenUnix(PSocket socket, int backlog) {
+            if (socket.serverPath == null) {
+                throw raise(PythonBuiltinClassType.OSError);
+            }
+            try {
+                ServerSocketChannel serverSocketChannel = UnixDomainSockets.openServerSocket();
+                serverSocketChannel.bind(UnixDomainSockets.address(socket.serverPath), backlog);
+                socket.setServerSocket(serverSocketChannel);
+                socket.configureBlocking();
+                return PNone.NONE;
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError);
+            }
+        }
     }
 
     // recv(bufsize[, flags])
@@ -346,21 +493,30 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class RecvNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object recv(PSocket socket, int bufsize, int flags) {
-            return recv(socket, bufsize, PNone.NONE);
+        Object recv(VirtualFrame frame, PSocket socket, int bufsize, int flags) {
+            if (flags != 0) {
+                throw raiseOSError(frame, OSErrorEnum.EOPNOTSUPP);
+            }
+            return recv(frame, socket, bufsize, PNone.NONE);
         }
 
         @Specialization
-        @TruffleBoundary
-        PBytes recv(PSocket socket, int bufsize, PNone flags) {
-            SocketChannel nativeSocket = socket.getSocket();
-            ByteBuffer readBytes = ByteBuffer.allocate(bufsize);
+        PBytes recv(VirtualFrame frame, PSocket socket, int bufsize, PNone flags) {
+            if (bufsize < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.NEGATIVE_BUFFERSIZE_IN_RECV);
+            }
+            byte[] result;
             try {
-                int length = nativeSocket.read(readBytes);
-                return factory().createBytes(Arrays.copyOfRange(readBytes.array(), 0, length));
+                result = readPooled(socket, bufsize);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
             } catch (IOException | NullPointerException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
+            if (result == null) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return factory().createBytes(result);
         }
     }
 
@@ -369,91 +525,255 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class RecvFromNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object recvFrom(PSocket socket, int bufsize, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object recvFrom(VirtualFrame frame, PSocket socket, int bufsize, Object flags,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            checkFlags(this, frame, flags, lib);
+            if (bufsize < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.NEGATIVE_BUFFERSIZE_IN_RECVFROM);
+            }
+            try {
+                Object datagram = receive(factory(), socket, bufsize, true);
+                if (datagram == null) {
+                    throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+                }
+                return datagram;
+            } catch (NotYetConnectedException e) {
+                throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
         }
+    }
 
+    // _recvfrom_many(bufsize, maxcount)
+    /**
+     * Receives up to {@code maxcount} datagrams at once, like {@code recvmmsg}. Only the first
+     * receive may block, the remaining ones just drain what is already queued, so event loops can
+     * handle a burst of datagrams with one wakeup.
+     */
+    @Builtin(name = "_recvfrom_many", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class RecvFromManyNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object recvFrom(PSocket socket, int bufsize, PNone flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object recvFromMany(VirtualFrame frame, PSocket socket, int bufsize, int maxcount) {
+            if (bufsize < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.NEGATIVE_BUFFERSIZE_IN_RECVFROM);
+            }
+            if (maxcount <= 0) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.MAXCOUNT_MUST_BE_GREATER_THAN_ZERO, maxcount);
+            }
+            try {
+                Object[] datagrams = receiveMany(factory(), socket, bufsize, maxcount);
+                if (datagrams.length == 0) {
+                    throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+                }
+                return factory().createList(datagrams);
+            } catch (NotYetConnectedException e) {
+                throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+        }
+
+        @TruffleBoundary
+        private static Object[] receiveMany(PythonObjectFactory factory, PSocket socket, int bufsize, int maxcount) throws IOException {
+            Object first = receive(factory, socket, bufsize, true);
+            if (first == null) {
+                return new Object[0];
+            }
+            ArrayList<Object> datagrams = new ArrayList<>();
+            datagrams.add(first);
+            DatagramChannel channel = socket.getDatagramSocket();
+            if (channel != null && !channel.isBlocking()) {
+                while (datagrams.size() < maxcount) {
+                    Object next = receive(factory, socket, bufsize, false);
+                    if (next == null) {
+                        break;
+                    }
+                    datagrams.add(next);
+                }
+            }
+            return datagrams.toArray();
+        }
+    }
+
+    /**
+     * Receives one datagram and returns the {@code (data, address)} tuple, or {@code null} if a
+     * non-blocking socket has nothing queued. Stream sockets return their data with no address.
+     * Unless {@code wait} is {@code false}, a blocking socket waits for the datagram.
+     */
+    @TruffleBoundary
+    private static Object receive(PythonObjectFactory factory, PSocket socket, int bufsize, boolean wait) throws IOException {
+        ByteBuffer buffer = DirectBufferPool.acquire(bufsize);
+        Object address;
+        DatagramChannel channel = socket.getDatagramSocket();
+        if (channel == null) {
+            if (doRead(socket, buffer) < 0) {
+                return null;
+            }
+            address = PNone.NONE;
+        } else {
+            SocketAddress source = channel.receive(buffer);
+            if (source == null && wait && socket.isBlocking()) {
+                long deadline = socket.getDeadline();
+                do {
+                    PSocket.waitFor(channel, SelectionKey.OP_READ, deadline);
+                    source = channel.receive(buffer);
+                } while (source == null);
+            }
+            if (source == null) {
+                return null;
+            }
+            address = toPythonAddress(factory, source);
+        }
+        byte[] data = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(data);
+        return factory.createTuple(new Object[]{factory.createBytes(data), address});
+    }
+
+    /**
+     * Reads into {@code buffer} and returns the number of bytes read, {@code 0} at the end of the
+     * stream and {@code -1} if a non-blocking socket has nothing to read. A blocking socket
+     * waits for data until its deadline, if it has a timeout.
+     */
+    @TruffleBoundary
+    private static int doRead(PSocket socket, ByteBuffer buffer) throws IOException {
+        int read = readAvailable(socket, buffer);
+        if (read < 0 && socket.isBlocking()) {
+            long deadline = socket.getDeadline();
+            do {
+                PSocket.waitFor(socket.getSelectableChannel(), SelectionKey.OP_READ, deadline);
+                read = readAvailable(socket, buffer);
+            } while (read < 0);
+        }
+        return read;
+    }
+
+    private static int readAvailable(PSocket socket, ByteBuffer buffer) throws IOException {
+        DatagramChannel channel = socket.getDatagramSocket();
+        if (channel != null) {
+            if (channel.isConnected()) {
+                int read = channel.read(buffer);
+                return read == 0 && !channel.isBlocking() ? -1 : Math.max(read, 0);
+            }
+            // recv() on an unconnected datagram socket drops the source address
+            return channel.receive(buffer) == null ? -1 : buffer.position();
+        }
+        SocketChannel socketChannel = socket.getSocket();
+        int read = socketChannel.read(buffer);
+        if (read == 0 && !socketChannel.isBlocking() && buffer.hasRemaining()) {
+            return -1;
         }
+        return Math.max(read, 0);
     }
 
-    // recv_into(bufsize[, flags])
-    @Builtin(name = "recv_into", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 3, needsFrame = true)
+    // recv_into(buffer[, nbytes[, flags]])
+    @Builtin(name = "recv_into", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4, parameterNames = {"$self", "buffer", "nbytes", "flags"})
     @GenerateNodeFactory
-    abstract static class RecvIntoNode extends PythonTernaryBuiltinNode {
+    abstract static class RecvIntoNode extends PythonQuaternaryBuiltinNode {
         protected static SequenceStorageNodes.SetItemNode createSetItem() {
             return SequenceStorageNodes.SetItemNode.create("cannot happen: non-byte store in socket.recv_into");
         }
 
         @Specialization
-        Object recvInto(VirtualFrame frame, PSocket socket, PMemoryView buffer, Object flags,
-                        @Cached("createBinaryProfile()") ConditionProfile byteStorage,
+        Object recvInto(VirtualFrame frame, PSocket socket, PMemoryView buffer, Object nbytes, Object flags,
                         @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
                         @Cached("create(__LEN__)") LookupAndCallUnaryNode callLen,
                         @Cached("create(__SETITEM__)") LookupAndCallTernaryNode setItem) {
-            int bufferLen = lib.asSizeWithState(callLen.executeObject(frame, buffer), PArguments.getThreadState(frame));
-            byte[] targetBuffer = new byte[bufferLen];
-            ByteBuffer byteBuffer = ByteBuffer.wrap(targetBuffer);
-            int length;
+            checkFlags(this, frame, flags, lib);
+            PArguments.ThreadState threadState = PArguments.getThreadState(frame);
+            int bufferLen = lib.asSizeWithState(callLen.executeObject(frame, buffer), threadState);
+            int toRead = getReadLength(bufferLen, nbytes, lib, threadState);
+            byte[] received;
             try {
-                length = fillBuffer(socket, byteBuffer);
+                received = readPooled(socket, toRead);
             } catch (NotYetConnectedException e) {
                 throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
             } catch (IOException e) {
                 throw raiseOSError(frame, OSErrorEnum.EBADF, e);
             }
-            for (int i = 0; i < length; i++) {
-                int b = targetBuffer[i];
-                if (b < 0) {
-                    b += 256;
-                }
-                setItem.execute(frame, buffer, i, (Object) b);
+            if (received == null) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
             }
-            return length;
+            if (received.length > 0) {
+                // the memoryview is native, so store everything with one slice assignment
+                setItem.execute(frame, buffer, factory().createIntSlice(0, received.length, 1), factory().createBytes(received));
+            }
+            return received.length;
         }
 
         @Specialization
-        Object recvInto(VirtualFrame frame, PSocket socket, PByteArray buffer, Object flags,
+        Object recvInto(VirtualFrame frame, PSocket socket, PByteArray buffer, Object nbytes, Object flags,
                         @Cached("createBinaryProfile()") ConditionProfile byteStorage,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
                         @Cached SequenceStorageNodes.LenNode lenNode,
                         @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItem) {
+            checkFlags(this, frame, flags, lib);
             SequenceStorage storage = buffer.getSequenceStorage();
-            int bufferLen = lenNode.execute(storage);
-            if (byteStorage.profile(storage instanceof ByteSequenceStorage)) {
-                ByteBuffer byteBuffer = ((ByteSequenceStorage) storage).getBufferView();
-                try {
-                    return fillBuffer(socket, byteBuffer);
-                } catch (NotYetConnectedException e) {
-                    throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
-                } catch (IOException e) {
-                    throw raiseOSError(frame, OSErrorEnum.EBADF, e);
-                }
-            } else {
-                byte[] targetBuffer = new byte[bufferLen];
-                ByteBuffer byteBuffer = ByteBuffer.wrap(targetBuffer);
-                int length;
-                try {
-                    length = fillBuffer(socket, byteBuffer);
-                } catch (NotYetConnectedException e) {
-                    throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
-                } catch (IOException e) {
-                    throw raiseOSError(frame, OSErrorEnum.EBADF, e);
-                }
-                for (int i = 0; i < length; i++) {
-                    // we don't allow generalization
-                    setItem.execute(frame, storage, i, targetBuffer[i]);
+            int toRead = getReadLength(lenNode.execute(storage), nbytes, lib, PArguments.getThreadState(frame));
+            int length;
+            try {
+                if (byteStorage.profile(storage instanceof ByteSequenceStorage)) {
+                    // read straight into the storage
+                    length = doRead(socket, wrap((byte[]) storage.getInternalArrayObject(), toRead));
+                } else {
+                    byte[] received = readPooled(socket, toRead);
+                    length = received == null ? -1 : received.length;
+                    for (int i = 0; i < length; i++) {
+                        // we don't allow generalization
+                        setItem.execute(frame, storage, i, received[i]);
+                    }
                 }
-                return length;
+            } catch (NotYetConnectedException e) {
+                throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
+            } catch (IOException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF, e);
+            }
+            if (length < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
             }
+            return length;
         }
 
-        @TruffleBoundary
-        private static int fillBuffer(PSocket socket, ByteBuffer byteBuffer) throws IOException {
-            SocketChannel nativeSocket = socket.getSocket();
-            return nativeSocket.read(byteBuffer);
+        private int getReadLength(int bufferLen, Object nbytes, PythonObjectLibrary lib, PArguments.ThreadState threadState) {
+            if (PGuards.isNoValue(nbytes)) {
+                return bufferLen;
+            }
+            int n = lib.asSizeWithState(nbytes, threadState);
+            if (n < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.NEGATIVE_BUFFERSIZE_IN_RECV_INTO);
+            } else if (n > bufferLen) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.BUFFER_TOO_SMALL_FOR_REQUESTED_BYTES);
+            }
+            return n == 0 ? bufferLen : n;
+        }
+
+    }
+
+    /**
+     * Reads into the pooled direct buffer and only allocates what was received. Returns
+     * {@code null} if a non-blocking socket has nothing to read.
+     */
+    @TruffleBoundary
+    private static byte[] readPooled(PSocket socket, int n) throws IOException {
+        ByteBuffer byteBuffer = DirectBufferPool.acquire(n);
+        int length = doRead(socket, byteBuffer);
+        if (length < 0) {
+            return null;
         }
+        byte[] result = new byte[length];
+        byteBuffer.flip();
+        byteBuffer.get(result);
+        return result;
     }
 
     // recvmsg(bufsize[, ancbufsize[, flags]])
@@ -481,10 +801,11 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SendNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object send(VirtualFrame frame, PSocket socket, PBytes bytes, Object flags,
-                        @Cached SequenceStorageNodes.ToByteArrayNode toBytes) {
-            // TODO: do not ignore flags
-            if (socket.getSocket() == null) {
+        Object send(VirtualFrame frame, PSocket socket, PBytesLike bytes, Object flags,
+                        @Cached SequenceStorageNodes.ToByteArrayNode toBytes,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            checkFlags(this, frame, flags, lib);
+            if (getByteChannel(socket) == null) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
 
@@ -492,20 +813,113 @@ public class SocketBuiltins extends PythonBuiltins {
                 throw raise(PythonBuiltinClassType.OSError);
             }
 
+            int written;
             try {
-                byte[] storageArray = toBytes.execute(bytes.getSequenceStorage());
-                ByteBuffer buffer = ByteBuffer.wrap(storageArray);
-                doWrite(socket, buffer);
-                return PNone.NONE;
+                written = doWrite(socket, wrapStorage(bytes.getSequenceStorage(), toBytes));
+            } catch (NotYetConnectedException e) {
+                throw raiseOSError(frame, OSErrorEnum.EDESTADDRREQ, e);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError);
+            }
+            if (written < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return written;
+        }
+
+        @Specialization(guards = "context.isHostByteBuffer(bytes)")
+        Object sendHostBuffer(VirtualFrame frame, PSocket socket, Object bytes, Object flags,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            checkFlags(this, frame, flags, lib);
+            if (getByteChannel(socket) == null || !socket.isOpen()) {
+                throw raise(PythonBuiltinClassType.OSError);
+            }
+            int written;
+            try {
+                // write the host memory directly, direct buffers are not copied to the heap
+                written = doWrite(socket, context.getHostByteBuffer(bytes));
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
+            if (written < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Wraps the bytes of {@code storage} without copying them if it is a byte storage.
+     */
+    static ByteBuffer wrapStorage(SequenceStorage storage, SequenceStorageNodes.ToByteArrayNode toBytes) {
+        if (storage instanceof ByteSequenceStorage) {
+            ByteSequenceStorage byteStorage = (ByteSequenceStorage) storage;
+            return wrap((byte[]) byteStorage.getInternalArrayObject(), byteStorage.length());
+        }
+        return wrap(toBytes.execute(storage), storage.length());
+    }
+
+    @TruffleBoundary
+    private static ByteBuffer wrap(byte[] bytes, int length) {
+        return ByteBuffer.wrap(bytes, 0, length);
+    }
+
+    /**
+     * Returns the channel {@code send} writes to, the datagram channel only works once connected.
+     */
+    private static ByteChannel getByteChannel(PSocket socket) {
+        if (socket.getSocket() != null) {
+            return socket.getSocket();
+        }
+        return socket.getDatagramSocket();
+    }
+
+    /**
+     * Writes what the socket takes and returns the number of bytes written, or {@code -1} if a
+     * non-blocking socket cannot take anything. A blocking socket waits for room until its
+     * deadline.
+     */
+    @TruffleBoundary
+    private static int doWrite(PSocket socket, ByteBuffer buffer) throws IOException {
+        ByteChannel channel = getByteChannel(socket);
+        int written = channel.write(buffer);
+        if (written == 0 && buffer.hasRemaining()) {
+            if (socket.getTimeout() == 0) {
+                return -1;
+            } else {
+                long deadline = socket.getDeadline();
+                do {
+                    PSocket.waitFor(socket.getSelectableChannel(), SelectionKey.OP_WRITE, deadline);
+                    written = channel.write(buffer);
+                } while (written == 0);
+            }
         }
+        return written;
     }
 
+    /**
+     * Writes all of {@code buffer}. Returns {@code false} if a non-blocking socket ran out of room
+     * first. A blocking socket has to take everything before its deadline, if it has a timeout.
+     */
     @TruffleBoundary
-    private static void doWrite(PSocket socket, ByteBuffer buffer) throws IOException {
-        socket.getSocket().write(buffer);
+    private static boolean doWriteAll(PSocket socket, ByteBuffer buffer) throws IOException {
+        ByteChannel channel = getByteChannel(socket);
+        long deadline = socket.isBlocking() ? socket.getDeadline() : 0;
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                if (socket.getTimeout() == 0) {
+                    return false;
+                } else {
+                    PSocket.waitFor(socket.getSelectableChannel(), SelectionKey.OP_WRITE, deadline);
+                }
+            }
+        }
+        return true;
     }
 
     // sendall(bytes[, flags])
@@ -514,15 +928,33 @@ public class SocketBuiltins extends PythonBuiltins {
     abstract static class SendAllNode extends PythonTernaryBuiltinNode {
         @Specialization
         Object sendAll(VirtualFrame frame, PSocket socket, PBytesLike bytes, Object flags,
-                        @Cached SequenceStorageNodes.ToByteArrayNode toBytes) {
-            // TODO: do not ignore flags
+                        @Cached SequenceStorageNodes.ToByteArrayNode toBytes,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            checkFlags(this, frame, flags, lib);
+            return doSendAll(frame, socket, wrapStorage(bytes.getSequenceStorage(), toBytes));
+        }
+
+        @Specialization(guards = "context.isHostByteBuffer(bytes)")
+        Object sendAllHostBuffer(VirtualFrame frame, PSocket socket, Object bytes, Object flags,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            checkFlags(this, frame, flags, lib);
+            return doSendAll(frame, socket, context.getHostByteBuffer(bytes));
+        }
+
+        private Object doSendAll(VirtualFrame frame, PSocket socket, ByteBuffer buffer) {
+            boolean complete;
             try {
-                ByteBuffer buffer = ByteBuffer.wrap(toBytes.execute(bytes.getSequenceStorage()));
-                doWrite(socket, buffer);
-                return PNone.NONE;
+                complete = doWriteAll(socket, buffer);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
+            if (!complete) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -530,15 +962,72 @@ public class SocketBuiltins extends PythonBuiltins {
     // sendto(bytes, flags, address)
     @Builtin(name = "sendto", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 4)
     @GenerateNodeFactory
-    abstract static class SendToNode extends PythonBuiltinNode {
-        @Specialization
-        Object sendTo(PSocket socket, Object bytes, int flags, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+    abstract static class SendToNode extends PythonQuaternaryBuiltinNode {
+        @Specialization(guards = "isNoValue(address)")
+        Object sendTo(VirtualFrame frame, PSocket socket, PBytesLike bytes, PTuple flagsOrAddress, @SuppressWarnings("unused") PNone address,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached SequenceStorageNodes.ToByteArrayNode toBytes) {
+            return doSendTo(frame, socket, bytes, getObjectArrayNode.execute(flagsOrAddress), toBytes);
         }
 
         @Specialization
-        Object sendTo(PSocket socket, Object bytes, PNone flags, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object sendTo(VirtualFrame frame, PSocket socket, PBytesLike bytes, Object flags, PTuple address,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached SequenceStorageNodes.ToByteArrayNode toBytes,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            checkFlags(this, frame, flags, lib);
+            return doSendTo(frame, socket, bytes, getObjectArrayNode.execute(address), toBytes);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object sendToError(Object socket, Object bytes, Object flags, Object address) {
+            if (!(bytes instanceof PBytesLike)) {
+                throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.BYTESLIKE_OBJ_REQUIRED, bytes);
+            }
+            throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.S_AF_INET_ADDRESS_MUST_BE_TUPLE, "sendto", PGuards.isNoValue(address) ? flags : address);
+        }
+
+        private Object doSendTo(VirtualFrame frame, PSocket socket, PBytesLike bytes, Object[] hostAndPort, SequenceStorageNodes.ToByteArrayNode toBytes) {
+            if (socket.getDatagramSocket() == null) {
+                throw raiseOSError(frame, socket.getSocket() != null ? OSErrorEnum.EISCONN : OSErrorEnum.ENOTCONN);
+            }
+            int sent;
+            try {
+                sent = send(socket, wrapStorage(bytes.getSequenceStorage(), toBytes), (String) hostAndPort[0], (int) hostAndPort[1]);
+            } catch (UnresolvedAddressException e) {
+                throw raise(PythonBuiltinClassType.SocketGAIError, e);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, ErrorMessages.TIMED_OUT);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            if (sent < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return sent;
+        }
+
+        /**
+         * Sends one datagram, returns {@code -1} if a non-blocking socket has no room for it.
+         */
+        @TruffleBoundary
+        private static int send(PSocket socket, ByteBuffer buffer, String host, int port) throws IOException {
+            DatagramChannel channel = socket.getDatagramSocket();
+            InetSocketAddress target = socket.resolveSendAddress(host, port);
+            int sent = channel.send(buffer, target);
+            if (sent == 0 && buffer.hasRemaining()) {
+                if (socket.getTimeout() == 0) {
+                    return -1;
+                } else {
+                    long deadline = socket.getDeadline();
+                    do {
+                        PSocket.waitFor(channel, SelectionKey.OP_WRITE, deadline);
+                        sent = channel.send(buffer, target);
+                    } while (sent == 0);
+                }
+            }
+            return sent;
         }
     }
 
@@ -556,23 +1045,8 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SetBlockingNode extends PythonBinaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object setBlocking(PSocket socket, boolean blocking) {
-            socket.setBlocking(blocking);
-
-            try {
-                if (socket.getSocket() != null) {
-                    socket.getSocket().configureBlocking(socket.isBlocking());
-                }
-
-                if (socket.getServerSocket() != null) {
-                    socket.getServerSocket().configureBlocking(socket.isBlocking());
-                }
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError);
-            }
-
-            return PNone.NONE;
+        Object setBlocking(VirtualFrame frame, PSocket socket, boolean blocking) {
+            return setTimeout(this, frame, socket, blocking ? -1.0 : 0.0);
         }
     }
 
@@ -581,28 +1055,29 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SetTimeoutNode extends PythonBinaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object setTimeout(PSocket socket, Integer value) {
-            try {
-                if (socket.getSocket() != null) {
-                    socket.getSocket().socket().setSoTimeout(value);
-                }
+        Object setTimeout(VirtualFrame frame, PSocket socket, @SuppressWarnings("unused") PNone value) {
+            return SocketBuiltins.setTimeout(this, frame, socket, -1.0);
+        }
 
-                if (socket.getServerSocket() != null) {
-                    socket.getServerSocket().socket().setSoTimeout(value);
-                }
-            } catch (SocketException e) {
-                throw raise(PythonBuiltinClassType.OSError);
+        @Specialization(guards = "!isPNone(value)", limit = "3")
+        Object setTimeout(VirtualFrame frame, PSocket socket, Object value,
+                        @CachedLibrary("value") PythonObjectLibrary lib) {
+            double timeout = lib.asJavaDoubleWithState(value, PArguments.getThreadState(frame));
+            if (timeout < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, ErrorMessages.TIMEOUT_VALUE_OUT_OF_RANGE);
             }
-
-            return PNone.NONE;
+            return SocketBuiltins.setTimeout(this, frame, socket, timeout);
         }
+    }
 
-        @Specialization
-        Object setTimeout(PSocket socket, double value) {
-            Integer intValue = (int) value;
-            return setTimeout(socket, intValue);
+    private static Object setTimeout(PythonBuiltinBaseNode node, VirtualFrame frame, PSocket socket, double timeout) {
+        socket.setTimeout(timeout);
+        try {
+            socket.configureBlocking();
+        } catch (IOException e) {
+            throw node.raiseOSError(frame, e);
         }
+        return PNone.NONE;
     }
 
     // shutdown(how)
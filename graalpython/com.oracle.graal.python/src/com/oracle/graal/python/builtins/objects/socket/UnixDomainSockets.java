@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.socket;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Access to Unix domain stream sockets. The JDK supports them only since version 16 while we still
+ * compile against 8, so the few entry points we need are looked up reflectively once. If they are
+ * missing, {@link #isSupported()} returns {@code false}, the socket module does not define
+ * {@code AF_UNIX} and creating or addressing such a socket raises {@code EAFNOSUPPORT}. The
+ * reflectively used methods are registered in {@code reflect-config.json} for native images.
+ */
+public final class UnixDomainSockets {
+    private static final ProtocolFamily UNIX;
+    private static final Method OPEN_SOCKET;
+    private static final Method OPEN_SERVER_SOCKET;
+    private static final Method ADDRESS_OF;
+    private static final Method ADDRESS_GET_PATH;
+
+    static {
+        ProtocolFamily unix = null;
+        Method openSocket = null;
+        Method openServerSocket = null;
+        Method addressOf = null;
+        Method addressGetPath = null;
+        try {
+            unix = StandardProtocolFamily.valueOf("UNIX");
+            openSocket = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+            openServerSocket = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+            Class<?> addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+            addressOf = addressClass.getMethod("of", String.class);
+            addressGetPath = addressClass.getMethod("getPath");
+        } catch (IllegalArgumentException | ReflectiveOperationException e) {
+            unix = null;
+        }
+        UNIX = unix;
+        OPEN_SOCKET = openSocket;
+        OPEN_SERVER_SOCKET = openServerSocket;
+        ADDRESS_OF = addressOf;
+        ADDRESS_GET_PATH = addressGetPath;
+    }
+
+    private UnixDomainSockets() {
+    }
+
+    public static boolean isSupported() {
+        return UNIX != null;
+    }
+
+    @TruffleBoundary
+    public static SocketChannel openSocket() throws IOException {
+        return (SocketChannel) invoke(OPEN_SOCKET, null, UNIX);
+    }
+
+    @TruffleBoundary
+    public static ServerSocketChannel openServerSocket() throws IOException {
+        return (ServerSocketChannel) invoke(OPEN_SERVER_SOCKET, null, UNIX);
+    }
+
+    @TruffleBoundary
+    public static SocketAddress address(String path) throws IOException {
+        return (SocketAddress) invoke(ADDRESS_OF, null, path);
+    }
+
+    /**
+     * Returns the path of a Unix domain socket address, the empty string for unnamed sockets.
+     */
+    @TruffleBoundary
+    public static String getPath(SocketAddress address) throws IOException {
+        return invoke(ADDRESS_GET_PATH, address).toString();
+    }
+
+    private static Object invoke(Method method, Object receiver, Object... args) throws IOException {
+        if (!isSupported()) {
+            // AF_UNIX sockets and addresses are refused with EAFNOSUPPORT before getting here
+            throw CompilerDirectives.shouldNotReachHere("Unix domain sockets are not supported");
+        }
+        try {
+            return method.invoke(receiver, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
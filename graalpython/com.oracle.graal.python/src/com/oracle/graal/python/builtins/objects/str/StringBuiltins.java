@@ -223,7 +223,7 @@ public final class StringBuiltins extends PythonBuiltins {
         }
 
         @TruffleBoundary
-        static String repr(String self) {
+        public static String repr(String self) {
             boolean hasSingleQuote = self.contains("'");
             boolean hasDoubleQuote = self.contains("\"");
             boolean useDoubleQuotes = hasSingleQuote && !hasDoubleQuote;
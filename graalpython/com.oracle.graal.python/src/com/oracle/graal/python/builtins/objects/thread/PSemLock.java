@@ -43,6 +43,7 @@ package com.oracle.graal.python.builtins.objects.thread;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
+import com.oracle.graal.python.runtime.InProcessContexts.Worker;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.Shape;
 
@@ -73,23 +74,31 @@ public final class PSemLock extends AbstractPythonLock {
     @Override
     @TruffleBoundary
     protected boolean acquireBlocking() {
+        Worker worker = null;
         try {
+            worker = Worker.beginInterruptibleWait();
             semaphore.acquire();
             return true;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return false;
+        } finally {
+            Worker.endInterruptibleWait(worker);
         }
     }
 
     @Override
     @TruffleBoundary
     protected boolean acquireTimeout(long timeout) {
+        Worker worker = null;
         try {
+            worker = Worker.beginInterruptibleWait();
             return semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return false;
+        } finally {
+            Worker.endInterruptibleWait(worker);
         }
     }
 
@@ -131,6 +140,10 @@ public final class PSemLock extends AbstractPythonLock {
         return kind;
     }
 
+    public Semaphore getSemaphore() {
+        return semaphore;
+    }
+
     public String getName() {
         return name;
     }
@@ -44,7 +44,9 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
 
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
@@ -59,6 +61,8 @@ import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedLanguage;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -110,11 +114,42 @@ public class SemLockBuiltins extends PythonBuiltins {
     abstract static class GetHandleNode extends PythonUnaryBuiltinNode {
         @Specialization
         @TruffleBoundary
-        int getHandle(PSemLock self) {
+        Object getHandle(PSemLock self,
+                        @CachedLanguage PythonLanguage lang) {
+            // a linked semaphore is found by its name when it is rebuilt in another context
+            if (self.getName() != null && lang.namedSemaphores.get(self.getName()) == self.getSemaphore()) {
+                return self.getName();
+            }
             return self.hashCode();
         }
     }
 
+    @Builtin(name = "_rebuild", minNumOfPositionalArgs = 5, parameterNames = {"cls", "handle", "kind", "maxvalue", "name"}, isClassmethod = true)
+    @GenerateNodeFactory
+    abstract static class RebuildNode extends PythonBuiltinNode {
+        @Specialization
+        PSemLock rebuild(Object cls, String handle, int kind, @SuppressWarnings("unused") Object maxvalue, @SuppressWarnings("unused") Object name,
+                        @CachedLanguage PythonLanguage lang) {
+            Semaphore semaphore = getSemaphore(lang, handle);
+            if (semaphore == null) {
+                throw raise(PythonBuiltinClassType.FileNotFoundError, ErrorMessages.NO_SUCH_FILE_OR_DIR, "semaphores", handle);
+            }
+            return factory().createSemLock(cls, handle, kind, semaphore);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PSemLock rebuild(Object cls, Object handle, Object kind, Object maxvalue, Object name) {
+            // only linked semaphores can be shared between contexts
+            throw raise(PythonBuiltinClassType.FileNotFoundError, ErrorMessages.NO_SUCH_FILE_OR_DIR, "semaphores", handle);
+        }
+
+        @TruffleBoundary
+        private static Semaphore getSemaphore(PythonLanguage lang, String name) {
+            return lang.namedSemaphores.get(name);
+        }
+    }
+
     @Builtin(name = "name", minNumOfPositionalArgs = 1, isGetter = true)
     @GenerateNodeFactory
     abstract static class GetNameNode extends PythonUnaryBuiltinNode {
@@ -178,7 +178,7 @@ public abstract class PythonManagedClass extends PythonObject implements PythonA
     public void invalidateFinalAttribute(Object key) {
         CompilerAsserts.neverPartOfCompilation();
         if (key instanceof String) {
-            methodResolutionOrder.invalidateAttributeInMROFinalAssumptions((String) key);
+            methodResolutionOrder.attributeChanged((String) key);
         }
     }
 
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.zlib;
+
+import java.util.zip.Deflater;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The object returned by {@code zlib.compressobj}. The deflater is taken from the
+ * {@link ZLibStreamPool} and given back once the stream is finished. If the object is dropped
+ * before that, the cleanup registered for it ends the deflater.
+ */
+public final class PZLibCompress extends PythonBuiltinObject {
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private final DeflaterHolder stream;
+    private final int level;
+    private final int strategy;
+    private final boolean nowrap;
+    private final byte[] zdict;
+
+    public PZLibCompress(Object cls, Shape instanceShape, Deflater deflater, int level, int strategy, boolean nowrap, byte[] zdict) {
+        super(cls, instanceShape);
+        this.stream = new DeflaterHolder(deflater);
+        this.level = level;
+        this.strategy = strategy;
+        this.nowrap = nowrap;
+        this.zdict = zdict;
+    }
+
+    public boolean isFinished() {
+        return stream.deflater == null;
+    }
+
+    /**
+     * The resource to register with {@code PythonContext#registerCleanup}, it ends the deflater if
+     * this object is collected before the stream is finished.
+     */
+    public AutoCloseable getCleanup() {
+        return stream;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getStrategy() {
+        return strategy;
+    }
+
+    public boolean isNowrap() {
+        return nowrap;
+    }
+
+    public byte[] getZdict() {
+        return zdict;
+    }
+
+    /**
+     * Feeds {@code length} bytes of {@code data} starting at {@code offset} to the deflater and
+     * returns whatever output is ready. The array is only read during this call.
+     */
+    @TruffleBoundary
+    public ByteSequenceStorage compress(byte[] data, int offset, int length) {
+        Deflater deflater = stream.deflater;
+        deflater.setInput(data, offset, length);
+        byte[] out = new byte[Math.max(MIN_BUFFER_SIZE, length / 2)];
+        int pos = 0;
+        while (true) {
+            if (pos == out.length) {
+                out = ZLibStreamPool.grow(out, Integer.MAX_VALUE);
+            }
+            int n = deflater.deflate(out, pos, out.length - pos, Deflater.NO_FLUSH);
+            pos += n;
+            if (n == 0) {
+                break;
+            }
+        }
+        return ZLibStreamPool.toStorage(out, pos);
+    }
+
+    /**
+     * Flushes pending output. If {@code finish} is set, the stream is completed and the deflater
+     * released.
+     */
+    @TruffleBoundary
+    public ByteSequenceStorage flush(boolean finish, boolean fullFlush) {
+        Deflater deflater = stream.deflater;
+        byte[] out = new byte[MIN_BUFFER_SIZE * 4];
+        int pos = 0;
+        if (finish) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (pos == out.length) {
+                    out = ZLibStreamPool.grow(out, Integer.MAX_VALUE);
+                }
+                pos += deflater.deflate(out, pos, out.length - pos);
+            }
+            if (zdict == null) {
+                ZLibStreamPool.releaseDeflater(deflater, level, nowrap);
+            } else {
+                deflater.end();
+            }
+            stream.deflater = null;
+        } else {
+            // Deflater only knows the sync and full flush modes, the partial and block flushes of
+            // zlib are treated as a sync flush
+            int javaMode = fullFlush ? Deflater.FULL_FLUSH : Deflater.SYNC_FLUSH;
+            while (true) {
+                if (pos == out.length) {
+                    out = ZLibStreamPool.grow(out, Integer.MAX_VALUE);
+                }
+                int avail = out.length - pos;
+                int n = deflater.deflate(out, pos, avail, javaMode);
+                pos += n;
+                if (n < avail) {
+                    break;
+                }
+            }
+        }
+        return ZLibStreamPool.toStorage(out, pos);
+    }
+
+    private static final class DeflaterHolder implements AutoCloseable {
+        private Deflater deflater;
+
+        DeflaterHolder(Deflater deflater) {
+            this.deflater = deflater;
+        }
+
+        @Override
+        public void close() {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.zlib;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * The object returned by {@code zlib.decompressobj}. The inflater is taken from the
+ * {@link ZLibStreamPool} and given back as soon as the end of the compressed stream is reached. If
+ * the object is dropped before that, the cleanup registered for it ends the inflater.
+ */
+public final class PZLibDecompress extends PythonBuiltinObject {
+    private static final byte[] EMPTY = new byte[0];
+    private static final int MIN_BUFFER_SIZE = 256;
+
+    private final InflaterHolder stream;
+    private final boolean nowrap;
+    private final byte[] zdict;
+    private boolean eof;
+    private byte[] unusedData = EMPTY;
+    private byte[] unconsumedTail = EMPTY;
+
+    public PZLibDecompress(Object cls, Shape instanceShape, Inflater inflater, boolean nowrap, byte[] zdict) {
+        super(cls, instanceShape);
+        this.stream = new InflaterHolder(inflater);
+        this.nowrap = nowrap;
+        this.zdict = zdict;
+    }
+
+    /**
+     * The resource to register with {@code PythonContext#registerCleanup}, it ends the inflater if
+     * this object is collected before the end of the stream is reached.
+     */
+    public AutoCloseable getCleanup() {
+        return stream;
+    }
+
+    public boolean isEof() {
+        return eof;
+    }
+
+    public byte[] getUnusedData() {
+        return unusedData;
+    }
+
+    public byte[] getUnconsumedTail() {
+        return unconsumedTail;
+    }
+
+    /**
+     * Decompresses {@code length} bytes of {@code data} starting at {@code offset}, producing at
+     * most {@code maxLength} bytes if {@code maxLength > 0}. Input that was not consumed because of
+     * the limit is kept in {@link #getUnconsumedTail()}, input following the end of the compressed
+     * stream in {@link #getUnusedData()}. The array is only read during this call.
+     */
+    @TruffleBoundary
+    public ByteSequenceStorage decompress(byte[] data, int offset, int length, int maxLength) throws DataFormatException {
+        if (eof) {
+            unusedData = concat(unusedData, data, offset, length);
+            return new ByteSequenceStorage(EMPTY);
+        }
+        int limit = maxLength > 0 ? maxLength : Integer.MAX_VALUE;
+        return inflate(data, offset, length, limit, (int) Math.min(limit, Math.max(MIN_BUFFER_SIZE, length * 4L)));
+    }
+
+    /**
+     * Decompresses the {@linkplain #getUnconsumedTail() unconsumed tail} without a limit on the
+     * output, starting with an output buffer of {@code bufferSize} bytes.
+     */
+    @TruffleBoundary
+    public ByteSequenceStorage flush(int bufferSize) throws DataFormatException {
+        if (eof) {
+            return new ByteSequenceStorage(EMPTY);
+        }
+        byte[] tail = unconsumedTail;
+        return inflate(tail, 0, tail.length, Integer.MAX_VALUE, bufferSize);
+    }
+
+    private ByteSequenceStorage inflate(byte[] data, int offset, int length, int limit, int bufferSize) throws DataFormatException {
+        Inflater inflater = stream.inflater;
+        inflater.setInput(data, offset, length);
+        byte[] out = new byte[bufferSize];
+        int pos = 0;
+        while (true) {
+            if (pos == out.length) {
+                if (pos >= limit) {
+                    break;
+                }
+                out = ZLibStreamPool.grow(out, limit);
+            }
+            int n = inflater.inflate(out, pos, out.length - pos);
+            pos += n;
+            if (inflater.finished()) {
+                break;
+            }
+            if (n == 0) {
+                if (inflater.needsDictionary()) {
+                    if (zdict == null) {
+                        throw new DataFormatException(ErrorMessages.ERROR_2_WHILE_DECOMPRESSING);
+                    }
+                    inflater.setDictionary(zdict);
+                } else {
+                    break;
+                }
+            }
+        }
+        int remaining = inflater.getRemaining();
+        if (inflater.finished()) {
+            eof = true;
+            unusedData = concat(unusedData, data, offset + length - remaining, remaining);
+            unconsumedTail = EMPTY;
+            if (zdict == null) {
+                ZLibStreamPool.releaseInflater(inflater, nowrap);
+            } else {
+                inflater.end();
+            }
+            stream.inflater = null;
+        } else {
+            unconsumedTail = remaining == 0 ? EMPTY : Arrays.copyOfRange(data, offset + length - remaining, offset + length);
+        }
+        return ZLibStreamPool.toStorage(out, pos);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b, int offset, int length) {
+        if (length == 0) {
+            return a;
+        }
+        byte[] result = Arrays.copyOf(a, a.length + length);
+        System.arraycopy(b, offset, result, a.length, length);
+        return result;
+    }
+
+    private static final class InflaterHolder implements AutoCloseable {
+        private Inflater inflater;
+
+        InflaterHolder(Inflater inflater) {
+            this.inflater = inflater;
+        }
+
+        @Override
+        public void close() {
+            if (inflater != null) {
+                inflater.end();
+                inflater = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.zlib;
+
+import static com.oracle.graal.python.builtins.modules.ZLibModuleBuiltins.Z_FINISH;
+import static com.oracle.graal.python.builtins.modules.ZLibModuleBuiltins.Z_FULL_FLUSH;
+import static com.oracle.graal.python.builtins.modules.ZLibModuleBuiltins.Z_NO_FLUSH;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ZLibError;
+
+import java.util.List;
+import java.util.zip.Deflater;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PBytesLike;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PZLibCompress)
+public class ZLibCompressBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ZLibCompressBuiltinsFactory.getFactories();
+    }
+
+    static boolean isByteStorage(Object data) {
+        return data instanceof PBytesLike && ((PBytesLike) data).getSequenceStorage() instanceof ByteSequenceStorage;
+    }
+
+    @Builtin(name = "compress", minNumOfPositionalArgs = 2, parameterNames = {"$self", "data"})
+    @GenerateNodeFactory
+    abstract static class CompressNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isByteStorage(data)")
+        PBytes doByteStorage(PZLibCompress self, PBytesLike data) {
+            // the input is only read during the call, so there is no need to copy it
+            ByteSequenceStorage storage = (ByteSequenceStorage) data.getSequenceStorage();
+            return doCompress(self, storage.getInternalByteArray(), storage.length());
+        }
+
+        @Specialization(guards = "!isByteStorage(data)")
+        PBytes doGeneric(VirtualFrame frame, PZLibCompress self, Object data,
+                        @Cached ToBytesNode toBytesNode) {
+            byte[] bytes = toBytesNode.execute(frame, data);
+            return doCompress(self, bytes, bytes.length);
+        }
+
+        private PBytes doCompress(PZLibCompress self, byte[] bytes, int length) {
+            if (self.isFinished()) {
+                throw raise(ZLibError, ErrorMessages.COMPRESSOR_OBJECT_ALREADY_FLUSHED);
+            }
+            return factory().createBytes(self.compress(bytes, 0, length));
+        }
+    }
+
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1, parameterNames = {"$self", "mode"})
+    @GenerateNodeFactory
+    abstract static class FlushNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(limit = "3")
+        PBytes flush(VirtualFrame frame, PZLibCompress self, Object modeObj,
+                        @CachedLibrary("modeObj") PythonObjectLibrary lib) {
+            int mode = modeObj == PNone.NO_VALUE ? Z_FINISH : lib.asSizeWithState(modeObj, PArguments.getThreadState(frame));
+            if (self.isFinished()) {
+                throw raise(ZLibError, ErrorMessages.COMPRESSOR_OBJECT_ALREADY_FLUSHED);
+            }
+            if (mode == Z_NO_FLUSH) {
+                return factory().createBytes(new byte[0]);
+            }
+            return factory().createBytes(self.flush(mode == Z_FINISH, mode == Z_FULL_FLUSH));
+        }
+    }
+
+    @Builtin(name = "copy", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CopyNode extends PythonUnaryBuiltinNode {
+
+        /**
+         * {@link Deflater} cannot duplicate its state, so like before the copy starts a fresh
+         * stream with the same parameters.
+         */
+        @Specialization
+        PZLibCompress copy(PZLibCompress self) {
+            if (self.isFinished()) {
+                throw raise(ZLibError, ErrorMessages.COMPRESSOR_OBJECT_ALREADY_FLUSHED);
+            }
+            Deflater deflater;
+            if (self.getZdict() == null) {
+                deflater = ZLibStreamPool.acquireDeflater(self.getLevel(), self.getStrategy(), self.isNowrap());
+            } else {
+                deflater = newDeflaterWithDictionary(self);
+            }
+            PZLibCompress copy = factory().createZLibCompress(PythonBuiltinClassType.PZLibCompress, deflater, self.getLevel(), self.getStrategy(), self.isNowrap(), self.getZdict());
+            getContext().registerCleanup(copy, copy.getCleanup());
+            return copy;
+        }
+
+        @TruffleBoundary
+        private static Deflater newDeflaterWithDictionary(PZLibCompress self) {
+            Deflater deflater = new Deflater(self.getLevel(), self.isNowrap());
+            deflater.setStrategy(self.getStrategy());
+            deflater.setDictionary(self.getZdict());
+            return deflater;
+        }
+    }
+}
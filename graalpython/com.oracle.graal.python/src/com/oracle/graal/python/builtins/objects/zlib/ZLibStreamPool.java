@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.zlib;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Keeps a small number of finished {@link Deflater} and {@link Inflater} instances around so that
+ * the native zlib state does not need to be allocated for every (de)compression. Deflaters are
+ * pooled per compression level. Streams that used a preset dictionary are never pooled.
+ */
+public final class ZLibStreamPool {
+    private static final int MAX_POOLED_PER_KIND = 8;
+    private static final int MIN_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    private static final int LEVELS = Deflater.BEST_COMPRESSION - MIN_LEVEL + 1;
+
+    @SuppressWarnings("unchecked") private static final ArrayBlockingQueue<Deflater>[] DEFLATERS = new ArrayBlockingQueue[2 * LEVELS];
+    @SuppressWarnings("unchecked") private static final ArrayBlockingQueue<Inflater>[] INFLATERS = new ArrayBlockingQueue[2];
+
+    static {
+        for (int i = 0; i < DEFLATERS.length; i++) {
+            DEFLATERS[i] = new ArrayBlockingQueue<>(MAX_POOLED_PER_KIND);
+        }
+        for (int i = 0; i < INFLATERS.length; i++) {
+            INFLATERS[i] = new ArrayBlockingQueue<>(MAX_POOLED_PER_KIND);
+        }
+    }
+
+    private ZLibStreamPool() {
+    }
+
+    private static int deflaterSlot(int level, boolean nowrap) {
+        return (level - MIN_LEVEL) * 2 + (nowrap ? 1 : 0);
+    }
+
+    /**
+     * @param level must be in the range {@code -1..9}
+     */
+    @TruffleBoundary
+    public static Deflater acquireDeflater(int level, int strategy, boolean nowrap) {
+        Deflater deflater = DEFLATERS[deflaterSlot(level, nowrap)].poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, nowrap);
+        }
+        deflater.setStrategy(strategy);
+        return deflater;
+    }
+
+    @TruffleBoundary
+    public static void releaseDeflater(Deflater deflater, int level, boolean nowrap) {
+        deflater.reset();
+        if (!DEFLATERS[deflaterSlot(level, nowrap)].offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    @TruffleBoundary
+    public static Inflater acquireInflater(boolean nowrap) {
+        Inflater inflater = INFLATERS[nowrap ? 1 : 0].poll();
+        if (inflater == null) {
+            inflater = new Inflater(nowrap);
+        }
+        return inflater;
+    }
+
+    @TruffleBoundary
+    public static void releaseInflater(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!INFLATERS[nowrap ? 1 : 0].offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Wraps the output buffer as the storage of the resulting bytes object without copying, unless
+     * more than half of it would be wasted.
+     */
+    static ByteSequenceStorage toStorage(byte[] buffer, int length) {
+        if (length < buffer.length / 2) {
+            return new ByteSequenceStorage(Arrays.copyOf(buffer, length));
+        }
+        return new ByteSequenceStorage(buffer, length);
+    }
+
+    static byte[] grow(byte[] buffer, int maxLength) {
+        int newLength = (int) Math.min((long) buffer.length * 2, maxLength);
+        return Arrays.copyOf(buffer, Math.max(newLength, buffer.length + 1));
+    }
+}
@@ -42,6 +42,7 @@ package com.oracle.graal.python.nodes;
 
 public abstract class ErrorMessages {
     public static final String ABSOLUTE_VALUE_TOO_LARGE = "absolute value too large";
+    public static final String ARG_1_MUST_HAVE_WRITE_METHOD = "argument 1 must have a \"write\" method";
     public static final String ARG_AFTER_MUST_BE_ITERABLE = "argument after * must be an iterable, not %p";
     public static final String ARG_CONVERTED_NOT_EXECUTABLE = "argument converted is not executable";
     public static final String ARG_D_MUST_BE_S = "%s arg %d must be a %s";
@@ -61,6 +62,7 @@ public abstract class ErrorMessages {
     public static final String ARG_NOT_IN_RANGE = "%s arg not in range(%s)";
     public static final String ARG_SHOULD_NOT_EXCEED = "%s argument should not exceed %d";
     public static final String ARGS_MUST_HAVE_SAME_LENGTH = "%s arguments must have same length";
+    public static final String ARG_TO_SETSTATE_MUST_BE_TUPLE = "argument to __setstate__ must be a tuple";
     public static final String ARRAY_ASSIGN_OUT_OF_BOUNDS = "array assignment index out of range";
     public static final String ARRAY_OUT_OF_BOUNDS = "array index out of range";
     public static final String ARRAY_SIZE_TOO_LARGE = "array size too large";
@@ -72,6 +74,8 @@ public abstract class ErrorMessages {
     public static final String ATTR_S_OF_S_OBJ_IS_NOT_WRITABLE = "attribute %s of %s object is not writable";
     public static final String ATTR_S_READONLY = "attribute %s is read-only";
     public static final String ATTR_VALUE_MUST_BE_BOOL = "attribute value type must be bool";
+    public static final String BAD_QUOTING_VALUE = "bad \"quoting\" value";
+    public static final String BUFFER_TOO_SMALL_FOR_REQUESTED_BYTES = "buffer too small for requested bytes";
     public static final String B_REQUIRES_BYTES_OR_OBJ_THAT_IMPLEMENTS_S_NOT_P = "%%b requires a bytes-like object, or an object that implements __bytes__, not '%p'";
     public static final String BAD_ARG_TO_INTERNAL_FUNC = "bad argument to internal function";
     public static final String BAD_ARG_TO_INTERNAL_FUNC_P = "bad argument to internal function %p";
@@ -92,6 +96,8 @@ public abstract class ErrorMessages {
     public static final String BYTEARRAY_OUT_OF_BOUNDS = "bytearray index out of range";
     public static final String BYTEORDER_MUST_BE_LITTLE_OR_BIG = "byteorder must be either 'little' or 'big'";
     public static final String BYTESLIKE_OBJ_REQUIRED = "a bytes-like object is required, not '%p'";
+    public static final String CANNOT_PICKLE_P_OBJECT = "cannot pickle '%p' object";
+    public static final String COMPRESSOR_OBJECT_ALREADY_FLUSHED = "compressor object already flushed";
     public static final String C_ARG_NOT_IN_RANGE = "%%c arg not in range(0x%s)";
     public static final String CALL_STACK_NOT_DEEP_ENOUGH = "call stack is not deep enough";
     public static final String CALLING_ARG_CONVERTER_FAIL_EXPECTED_D_GOT_P = "calling argument converter failed; expected %d but got %d parameters.";
@@ -176,9 +182,11 @@ public abstract class ErrorMessages {
     public static final String COUNT_FUNC_MATH = "count function in Math";
     public static final String COVERAGE_TRACKER_NOT_RUNNING = "coverage tracker not running";
     public static final String CREATING_SOCKETS_NOT_ALLOWED = "creating sockets not allowed";
+    public static final String DAY_MUST_BE_IN_1_D = "day must be in 1..%d";
     public static final String DEFAULT_EXCEPT_MUST_BE_LAST = "default 'except:' must be last";
     public static final String DESC_S_FOR_S_DOESNT_APPLY_TO_S = "descriptor '%s' for '%s' objects doesn't apply to '%s' object";
     public static final String DESCRIPTOR_REQUIRES_OBJ = "descriptor '%s' requires a '%s' object but received a '%p'";
+    public static final String DIALECT_NAME_MUST_BE_STRING = "dialect name must be a string";
     public static final String DICT_CHANGED_DURING_COMPARISON = "dictionary changed during comparison operation";
     public static final String CHANGED_SIZE_DURING_ITERATION = "%s changed size during iteration";
     public static final String DICT_MUST_BE_SET_TO_DICT = "__dict__ must be set to a dictionary, not a '%p'";
@@ -193,6 +201,7 @@ public abstract class ErrorMessages {
     public static final String EMPTY_STR_FOR_COMPLEX = "empty string for complex()";
     public static final String END_MUST_BE_NONE_OR_STRING = "end must be None or a string, not %p";
     public static final String ERROR57_SOCKET_CANNOT_BE_CONNECTED = "[Errno 57] Socket is not connected";
+    public static final String ERROR_2_WHILE_DECOMPRESSING = "Error 2 while decompressing data";
     public static final String ERROR_5_WHILE_DECOMPRESSING = "Error -5 while decompressing data: incomplete or truncated stream";
     public static final String ERROR_WRITING_FORKEXEC = "there was an error writing the fork_exec error to the error pipe";
     public static final String ERROR_CALLING_SET_NAME = "Error calling __set_name__ on '%p' instance '%s' in '%N'";
@@ -213,6 +222,7 @@ public abstract class ErrorMessages {
     public static final String EXPECTED_UNICODE_CHAR_NOT_P = "expected a unicode character, not %p";
     public static final String EXPONENT_TOO_LARGE = "exponent too large";
     public static final String FACTORIAL_NOT_DEFINED_FOR_NEGATIVE = "factorial() not defined for negative values";
+    public static final String FIELD_LARGER_THAN_FIELD_LIMIT = "field larger than field limit (%d)";
     public static final String FILE_NOT_OPENED_FOR_READING = "file not opened for reading";
     public static final String FILL_CHAR_MUST_BE_LENGTH_1 = "The fill character must be exactly one character long";
     public static final String FILTER_SPEC_MUST_BE_DICT = "Filter specifier must be a dict or dict-like object";
@@ -253,6 +263,7 @@ public abstract class ErrorMessages {
     public static final String ILLEGAL_SOCKET_ADDR_ARG = "%s: illegal sockaddr argument";
     public static final String IMPORT_START_ONLY_ALLOWED_AT_MODULE_LEVEL = "import * only allowed at module level";
     public static final String INCOMPLETE_FORMAT = "incomplete format";
+    public static final String INCOMPLETE_TIME_COMPONENT = "Incomplete time component";
     public static final String INDEX_NOT_INT = "%s: index not int";
     public static final String INDEX_OUT_OF_BOUNDS = "index out of bounds";
     public static final String INDEX_OUT_OF_RANGE = "index out of range";
@@ -279,25 +290,33 @@ public abstract class ErrorMessages {
     public static final String INVALID_BASE_TYPE_OBJ_FOR_CLASS = "Invalid base type object for class %s (base type was '%p' object).";
     public static final String INVALID_CAPI_FUNC = "invalid C API function: %s";
     public static final String INVALID_CONTAINER_FORMAT = "Invalid container format: %d";
+    public static final String INVALID_DATE_SEPARATOR = "Invalid date separator";
     public static final String INVALID_ESCAPE_AT = "invalid %s escape at position %d";
     public static final String INVALID_ESCAPE_SEQ_AT = "invalid escape sequence '\\%s' at position %d";
     public static final String INVALID_FILE_DESCRIPTOR = "invalid file descriptor";
     public static final String INVALID_FILTER = "Invalid filter ID: %d";
     public static final String INVALID_FILTER_CHAIN_FOR_FORMAT = "Invalid filter chain for FORMAT_ALONE - must be a single LZMA1 filter";
+    public static final String INVALID_GENERATION = "invalid generation";
     public static final String INVALID_INDEX_S = "invalid index %s";
+    public static final String INVALID_INITIALIZATION_OPTION = "Invalid initialization option";
     public static final String INVALID_INPUT_ELEM_TYPE = "Invalid input element type '%p'";
     public static final String INVALID_INSTANTIATION_OF_FOREIGN_OBJ = "invalid instantiation of foreign object";
+    public static final String INVALID_ISOFORMAT_STRING = "Invalid isoformat string: '%s'";
     public static final String INVALID_ITEM_RETURNED_FROM_NATIVE_SEQ = "Invalid item type %s returned from native sequence storage (expected: %s)";
     public static final String INVALID_LITERAL_FOR_INT_WITH_BASE = "invalid literal for int() with base %s: %s";
     public static final String INVALID_LOCALE_CATEGORY = "invalid locale category";
+    public static final String INVALID_MICROSECOND_COMPONENT = "Invalid microsecond component";
     public static final String INVALID_MRO_OBJ = "invalid mro object";
     public static final String INVALID_NORMALIZATION_FORM = "invalid normalization form";
     public static final String INVALID_NUMBER_OF_ARGUMENTS = "%s: invalid number of arguments";
     public static final String INVALID_OBJ_FROM_NATIVE = "invalid object from native: %s";
     public static final String INVALID_PARAMS = "invalid parameters";
+    public static final String INVALID_PARTIAL_STATE = "invalid partial state";
     public static final String INVALID_PTR_OBJ = "invalid pointer object: %s";
     public static final String INVALID_SYNTAX = "invalid syntax";
+    public static final String INVALID_TIME_SEPARATOR = "Invalid time separator: %c";
     public static final String INVALID_USE_OF_W_FORMAT_CHAR = "invalid use of 'w' format character";
+    public static final String IO_OPERATION_ON_CLOSED_EPOLL = "I/O operation on closed epoll object";
     public static final String IS_EMPTY = "%s is empty";
     public static final String IS_NOT_A_DICTIONARY = "%s is not a dictionary";
     public static final String IS_NOT_IN_RANGE = "%s is not in range";
@@ -312,6 +331,8 @@ public abstract class ErrorMessages {
     public static final String ISINSTANCE_ARG_2_MUST_BE_TYPE_OR_TUPLE_OF_TYPE = "isinstance() arg 2 must be a type or tuple of types (was: %s)";
     public static final String ISNT_IN_BYTES_LITERAL = "%s is not in bytes literal";
     public static final String ISSUBCLASS_MUST_BE_CLASS_OR_TUPLE = "issubclass() arg 2 must be a class or tuple of classes";
+    public static final String ITERABLE_EXPECTED_NOT_P = "iterable expected, not %p";
+    public static final String ITERATOR_SHOULD_RETURN_STRINGS_NOT_P = "iterator should return strings, not %p (did you open the file in text mode?)";
     public static final String ITER_RETURNED_NON_ITERABLE = "iter() returned non-iterator of type '%p'";
     public static final String KEYWORD_NAMES_MUST_BE_STR_GOT_P = "keyword names must be str, get %p";
     public static final String KLASS_ARG_IS_NOT_HOST_OBJ = "klass argument '%p' is not a host object";
@@ -319,6 +340,10 @@ public abstract class ErrorMessages {
     public static final String LEFT_BRACKET_WO_RIGHT_BRACKET_IN_ARG = "')' without '(' in argument parsing";
     public static final String LEN_SHOULD_RETURN_MT_ZERO = "__len__() should return >= 0";
     public static final String LENGTH_HINT_SHOULD_RETURN_MT_ZERO = "__length_hint__() should return >= 0";
+    public static final String LENGTH_MUST_BE_GREATER_THAN_ZERO = "length must be greater than zero";
+    public static final String LIMIT_MUST_BE_INTEGER = "limit must be an integer";
+    public static final String LINETERMINATOR_MUST_BE_SET = "lineterminator must be set";
+    public static final String LINE_CONTAINS_NUL = "line contains NUL";
     public static final String LIST_ASSIGMENT_INDEX_OUT_OF_RANGE = "list assignment index out of range";
     public static final String LIST_INDEX_OUT_OF_RANGE = "list index out of range";
     public static final String LIST_LENGTH_OUT_OF_RANGE = "list length out of range";
@@ -328,6 +353,9 @@ public abstract class ErrorMessages {
     public static final String LENGTH_SHOULD_NOT_BE_NEG = "length should not be negative";
     public static final String MATH_DOMAIN_ERROR = "math domain error";
     public static final String MATH_RANGE_ERROR = "math range error";
+    public static final String MAXCOUNT_MUST_BE_GREATER_THAN_ZERO = "maxcount must be greater than 0, got %d";
+    public static final String MAXEVENTS_MUST_BE_GREATER_THAN_ZERO = "maxevents must be greater than 0, got %d";
+    public static final String MAXSIZE_SHOULD_BE_INTEGER_OR_NONE = "maxsize should be integer or None";
     public static final String MAX_MARSHAL_STACK_DEPTH = "Maximum marshal stack depth";
     public static final String MEM_MAPPED_LENGTH_MUST_BE_POSITIVE = "memory mapped length must be positive";
     public static final String METACLASS_CONFLICT = "metaclass conflict: the metaclass of a derived class must be a (non-strict) subclass of the metaclasses of all its bases";
@@ -338,6 +366,7 @@ public abstract class ErrorMessages {
     public static final String MODULE_HAS_NO_ATTR_S = "module has no attribute '%s'";
     public static final String MODULE_PARTIALLY_INITIALIZED_S_HAS_NO_ATTR_S = "partially initialized module '%s' has no attribute '%s' (most likely due to a circular import)";
     public static final String MODULE_S_HAS_NO_ATTR_S = "module '%s' has no attribute '%s'";
+    public static final String MONTH_MUST_BE_IN_1_12 = "month must be in 1..12";
     public static final String MULTIPLE_BASES_LAYOUT_CONFLICT = "multiple bases have instance lay-out conflict";
     public static final String MUST_BE_A_CELL = "%s must be a cell";
     public static final String MUST_BE_BYTE_STRING_LEGTH1_NOT_P = "must be a byte string of length 1, not %p";
@@ -360,10 +389,15 @@ public abstract class ErrorMessages {
     public static final String NAME_NOT_DEFINED = "name '%s' is not defined";
     public static final String NAMELESS_MODULE = "nameless module";
     public static final String NEED_BYTELIKE_OBJ = "decoding to str: need a bytes-like object, %p found";
+    public static final String NEED_TO_ESCAPE_NO_ESCAPECHAR = "need to escape, but no escapechar set";
     public static final String NEG_INF_PLUS_INF_IN = "-inf + inf in fsum";
+    public static final String NEGATIVE_BUFFERSIZE_IN_RECV = "negative buffersize in recv";
+    public static final String NEGATIVE_BUFFERSIZE_IN_RECVFROM = "negative buffersize in recvfrom";
+    public static final String NEGATIVE_BUFFERSIZE_IN_RECV_INTO = "negative buffersize in recv_into";
     public static final String NEGATIVE_COUNT = "negative count";
     public static final String NEGATIVE_DATA_SIZE = "negative data size";
     public static final String NEGATIVE_SHIFT_COUNT = "negative shift count";
+    public static final String NEWLINE_IN_UNQUOTED_FIELD = "new-line character seen in unquoted field - do you need to open the file in universal-newline mode?";
     public static final String NEW_TAKES_ONE_ARG = "object.__new__() takes exactly one argument (the type to instantiate)";
     public static final String NEW_TAKES_NO_ARGS = "%N() takes no arguments";
     public static final String NO_ACTIVE_EX_TO_RERAISE = "No active exception to reraise";
@@ -410,9 +444,11 @@ public abstract class ErrorMessages {
     public static final String POP_FROM_EMPTY_SET = "pop from an emtpy set";
     public static final String PORT_PROTO_NOT_FOUND = "port/proto not found";
     public static final String PRIVATE_IDENTIFIER_TOO_LARGE_TO_BE_MANGLED = "private identifier too large to be mangled";
+    public static final String PROFILER_CUSTOM_TIMER_NOT_SUPPORTED = "_lsprof.Profiler does not support custom timers";
     public static final String PROVIDED_OBJ_NOT_ARRAY = "provided object is not an array";
     public static final String PYTHON_INT_TOO_LARGE_TO_CONV_TO = "Python int too large to convert to %s";
     public static final String PYTHON_INT_TOO_LARGE_TO_CONV_TO_C_TYPE = "Python int too large to convert to %s-byte C type";
+    public static final String QUOTECHAR_MUST_BE_SET_IF_QUOTING_ENABLED = "quotechar must be set if quoting enabled";
     public static final String RANGE_OUT_OF_BOUNDS = "range index out of range";
     public static final String RAW_FORMAT_NOT_SUPPORTED = "RAW format unsupported";
     public static final String READ_BYTE_OUT_OF_RANGE = "read byte out of range";
@@ -420,7 +456,12 @@ public abstract class ErrorMessages {
     public static final String READONLY_ATTRIBUTE = "readonly attribute";
     public static final String REQUIRES_CODE_OBJ = "%s() requires a code object with %d free vars, not %d";
     public static final String REQUIRES_INT_OR_CHAR = "%%%c requires int or char";
+    public static final String RESULT_OUT_OF_RANGE = "result out of range";
     public static final String ROUNDED_VALUE_TOO_LARGE = "rounded value too large to represent";
+    public static final String S_AF_INET_ADDRESS_MUST_BE_TUPLE = "%s(): AF_INET address must be tuple, not %p";
+    public static final String S_AF_UNIX_ADDRESS_MUST_BE_STR = "%s(): AF_UNIX address must be str, not %p";
+    public static final String S_EXPECTED_AFTER_S = "'%s' expected after '%s'";
+    public static final String S_EXPECTED_EVEN_NUMBER_OF_ARGS_GOT_D = "%s expected an even number of arguments, got %d";
     public static final String S_FORMAT_NUMBER_IS_REQUIRED_NOT_S = "%%%s format: a number is required, not %p";
     public static final String S_FORMAT_INTEGER_IS_REQUIRED_NOT_S = "%%%s format: an integer is required, not %p";
     public static final String C_ARG_NOT_IN_RANGE256_DECIMAL = "%%c arg not in range(256)";
@@ -428,6 +469,10 @@ public abstract class ErrorMessages {
     public static final String REQUIRES_OBJ_THAT_IMPLEMENTS_S = " %%r requires an object that implements %s";
     public static final String REQUIRES_STRING_AS_LEFT_OPERAND = "'in <string>' requires string as left operand, not %P";
     public static final String RETURN_OUTSIDE_FUNC = "'return' outside function";
+    public static final String S_MUST_BE_1_CHAR_STRING = "\"%s\" must be a 1-character string";
+    public static final String S_MUST_BE_AN_INTEGER = "\"%s\" must be an integer";
+    public static final String S_MUST_BE_A_STRING = "\"%s\" must be a string";
+    public static final String S_MUST_BE_STRING_NOT_P = "\"%s\" must be string, not %p";
     public static final String S_RETURNED_BASE_WITH_UNSUITABLE_LAYOUT = "%s returned base with unsuitable layout ('%p')";
     public static final String RETURNED_NON_FLOAT = "%p.%s returned non-float (type %p)";
     public static final String RETURNED_NON_INT = "%s returned a non-int (type %p)";
@@ -455,6 +500,7 @@ public abstract class ErrorMessages {
     public static final String SIGNED_INT_LESS_THAN_MIN = "signed integer is less than minimum";
     public static final String SIGNED_SHORT_INT_GREATER_THAN_MAX = "signed short integer is greater than maximum";
     public static final String SIGNED_SHORT_INT_LESS_THAN_MIN = "signed short integer is less than minimum";
+    public static final String SINGLE_EMPTY_FIELD_RECORD_MUST_BE_QUOTED = "single empty field record must be quoted";
     public static final String SIZE_MUST_BE_D_OR_S = "size must be %d or %s";
     public static final String SLICE_INDICES_MUST_BE_INT_NONE_HAVE_INDEX = "slice indices must be integers or None or have an __index__ method";
     public static final String SLICE_STEP_CANNOT_BE_ZERO = "slice step cannot be zero";
@@ -476,7 +522,11 @@ public abstract class ErrorMessages {
     public static final String TAKES_EXACTLY_D_ARGUMENTS_D_GIVEN = "%s() takes exactly %d arguments (%d given)";
     public static final String TAKES_NO_KEYWORD_ARGS = "%s takes no keyword arguments";
     public static final String THROW_THIRD_ARG_MUST_BE_TRACEBACK = "throw() third argument must be a traceback object";
+    public static final String TIMEDELTA_DAYS_TOO_LARGE = "timedelta # of days is too large: %d";
+    public static final String TIMED_OUT = "timed out";
+    public static final String TIMEOUT_MUST_BE_NON_NEG_NUMBER = "'timeout' must be a non-negative number";
     public static final String TIMEOUT_VALUE_MUST_BE_POSITIVE = "timeout value must be positive";
+    public static final String TIMEOUT_VALUE_OUT_OF_RANGE = "Timeout value out of range";
     public static final String TIMEOUT_VALUE_TOO_LARGE = "timeout value is too large";
     public static final String TOLERANCE_MUST_NON_NEGATIVE = "tolerances must be non-negative";
     public static final String TOO_LARGE_TO_CONVERT_TO = "%s too large to convert to %s";
@@ -492,15 +542,19 @@ public abstract class ErrorMessages {
     public static final String TYPE_IS_NOT_ACCEPTABLE_BASE_TYPE = "type '%p' is not an acceptable base type";
     public static final String TYPE_NAME_NO_NULL_CHARS = "type name must not contain null characters";
     public static final String TYPE_P_NOT_SUPPORTED_BY_FOREIGN_OBJ = "type '%p' is not supported by the foreign object";
+    public static final String TYPE_S_TAKES_AT_LEAST_ONE_ARGUMENT = "type '%s' takes at least one argument";
+    public static final String UNEXPECTED_END_OF_DATA = "unexpected end of data";
     public static final String UNEXPECTED_KEYWORD_ARGS = "%s: unexpected keyword arguments";
     public static final String UNHASHABLE_TYPE = "unhashable type: '%p'";
     public static final String UNINITIALIZED_S_OBJECT = "uninitialized classmethod object";
     public static final String UNKNOWN_ADDR_FAMILY = "unknown address family %d";
     public static final String UNKNOWN_ATTR = "Unknown attribute: '%s'";
+    public static final String UNKNOWN_DIALECT = "unknown dialect";
     public static final String UNKNOWN_ENCODING = "unknown encoding %s";
     public static final String UNKNOWN_ERROR_HANDLER = "unknown error handler name '%s'";
     public static final String UNKNOWN_FORMAT_CODE = "Unknown format code '%c' for object of type '%s'";
     public static final String UNKNOWN_S_TYPE = "unknown %s type";
+    public static final String UNKNOWN_TIMESPEC_VALUE = "Unknown timespec value";
     public static final String UNOPERABLE_TYPES_P_P = "unorderable types: %p < %p";
     public static final String UNRECOGNIZED_FORMAT_CHAR = "unrecognized format char in arguments parsing: %c";
     public static final String UNRECOGNIZED_KIND = "unrecognized kind";
@@ -524,6 +578,7 @@ public abstract class ErrorMessages {
     public static final String WEAK_OBJ_GONE_AWAY = "weak object has gone away";
     public static final String WHILE_PREPARING_TO_DECOMPRESS_DATA = "while preparing to decompress data";
     public static final String WORK_DIR_NOT_ACCESSIBLE = "working directory %s is not accessible";
+    public static final String WRITEROWS_ARG_MUST_BE_ITERABLE = "writerows() argument must be iterable";
     public static final String WRITE_BYTE_OUT_OF_RANGE = "write byte out of range";
     public static final String X_NOT_IN_LIST = "x not in list";
     public static final String X_NOT_IN_TUPLE = "tuple.index(x): x not in tuple";
@@ -97,7 +97,7 @@ public abstract class CreateArgumentsNode extends PNodeWithContext {
         return CreateArgumentsNodeGen.getUncached();
     }
 
-    @Specialization(guards = {"isMethod(method)", "method == cachedMethod"}, limit = "getVariableArgumentInlineCacheLimit()")
+    @Specialization(guards = {"isMethod(method)", "method == cachedMethod"}, limit = "getVariableArgumentInlineCacheLimit()", assumptions = "singleContextAssumption()")
     Object[] doMethodCached(PythonObject method, Object[] userArguments, PKeyword[] keywords,
                     @Cached("create()") CreateAndCheckArgumentsNode createAndCheckArgumentsNode,
                     @Cached("create()") GetSignatureNode getSignatureNode,
@@ -115,7 +115,7 @@ public abstract class CreateArgumentsNode extends PNodeWithContext {
     }
 
     @Specialization(guards = {"isMethod(method)", "getFunction(method) == cachedFunction",
-                    "getSelf(method) == cachedSelf"}, limit = "getVariableArgumentInlineCacheLimit()", replaces = "doMethodCached")
+                    "getSelf(method) == cachedSelf"}, limit = "getVariableArgumentInlineCacheLimit()", replaces = "doMethodCached", assumptions = "singleContextAssumption()")
     Object[] doMethodFunctionAndSelfCached(PythonObject method, Object[] userArguments, PKeyword[] keywords,
                     @Cached("create()") CreateAndCheckArgumentsNode createAndCheckArgumentsNode,
                     @Cached("getFunction(method)") @SuppressWarnings("unused") Object cachedFunction,
@@ -132,7 +132,8 @@ public abstract class CreateArgumentsNode extends PNodeWithContext {
         return createAndCheckArgumentsNode.execute(method, userArguments, keywords, signature, cachedSelf, defaults, kwdefaults, isMethodCall(cachedSelf));
     }
 
-    @Specialization(guards = {"isMethod(method)", "getFunction(method) == cachedFunction"}, limit = "getVariableArgumentInlineCacheLimit()", replaces = "doMethodFunctionAndSelfCached")
+    @Specialization(guards = {"isMethod(method)", "getFunction(method) == cachedFunction"}, limit = "getVariableArgumentInlineCacheLimit()", replaces = "doMethodFunctionAndSelfCached", //
+                    assumptions = "singleContextAssumption()")
     Object[] doMethodFunctionCached(PythonObject method, Object[] userArguments, PKeyword[] keywords,
                     @Cached("create()") CreateAndCheckArgumentsNode createAndCheckArgumentsNode,
                     @Cached("create()") GetSignatureNode getSignatureNode,
@@ -149,7 +150,7 @@ public abstract class CreateArgumentsNode extends PNodeWithContext {
         return createAndCheckArgumentsNode.execute(method, userArguments, keywords, signature, self, defaults, kwdefaults, isMethodCall(self));
     }
 
-    @Specialization(guards = {"isFunction(callable)", "callable == cachedCallable"}, limit = "getVariableArgumentInlineCacheLimit()")
+    @Specialization(guards = {"isFunction(callable)", "callable == cachedCallable"}, limit = "getVariableArgumentInlineCacheLimit()", assumptions = "singleContextAssumption()")
     Object[] doFunctionCached(PythonObject callable, Object[] userArguments, PKeyword[] keywords,
                     @Cached("create()") CreateAndCheckArgumentsNode createAndCheckArgumentsNode,
                     @Cached("create()") GetSignatureNode getSignatureNode,
@@ -165,7 +166,38 @@ public abstract class CreateArgumentsNode extends PNodeWithContext {
         return createAndCheckArgumentsNode.execute(callable, userArguments, keywords, signature, null, defaults, kwdefaults, false);
     }
 
-    @Specialization(replaces = {"doFunctionCached", "doMethodCached", "doMethodFunctionAndSelfCached", "doMethodFunctionCached"})
+    // We have multiple contexts, so the function objects cannot be cached in the (shared) AST.
+    // The signature belongs to the root node, though, and is thus the same in every context.
+    protected static Signature getSignature(GetSignatureNode getSignatureNode, Object callable) {
+        return getSignatureNode.execute(callable);
+    }
+
+    @Specialization(guards = {"isMethod(method)", "getSignature(getSignatureNode, method) == cachedSignature"}, limit = "getVariableArgumentInlineCacheLimit()")
+    Object[] doMethodSignatureCached(PythonObject method, Object[] userArguments, PKeyword[] keywords,
+                    @Cached("create()") CreateAndCheckArgumentsNode createAndCheckArgumentsNode,
+                    @Cached("create()") GetSignatureNode getSignatureNode,
+                    @Cached("create()") GetDefaultsNode getDefaultsNode,
+                    @Cached("create()") GetKeywordDefaultsNode getKwDefaultsNode,
+                    @Cached("getSignature(getSignatureNode, method)") Signature cachedSignature) {
+        Object[] defaults = getDefaultsNode.execute(method);
+        PKeyword[] kwdefaults = getKwDefaultsNode.execute(method);
+        Object self = getSelf(method);
+        return createAndCheckArgumentsNode.execute(method, userArguments, keywords, cachedSignature, self, defaults, kwdefaults, isMethodCall(self));
+    }
+
+    @Specialization(guards = {"isFunction(callable)", "getSignature(getSignatureNode, callable) == cachedSignature"}, limit = "getVariableArgumentInlineCacheLimit()")
+    Object[] doFunctionSignatureCached(PythonObject callable, Object[] userArguments, PKeyword[] keywords,
+                    @Cached("create()") CreateAndCheckArgumentsNode createAndCheckArgumentsNode,
+                    @Cached("create()") GetSignatureNode getSignatureNode,
+                    @Cached("create()") GetDefaultsNode getDefaultsNode,
+                    @Cached("create()") GetKeywordDefaultsNode getKwDefaultsNode,
+                    @Cached("getSignature(getSignatureNode, callable)") Signature cachedSignature) {
+        Object[] defaults = getDefaultsNode.execute(callable);
+        PKeyword[] kwdefaults = getKwDefaultsNode.execute(callable);
+        return createAndCheckArgumentsNode.execute(callable, userArguments, keywords, cachedSignature, null, defaults, kwdefaults, false);
+    }
+
+    @Specialization(replaces = {"doFunctionCached", "doMethodCached", "doMethodFunctionAndSelfCached", "doMethodFunctionCached", "doMethodSignatureCached", "doFunctionSignatureCached"})
     Object[] uncached(PythonObject callable, Object[] userArguments, PKeyword[] keywords,
                     @Cached("create()") CreateAndCheckArgumentsNode createAndCheckArgumentsNode) {
 
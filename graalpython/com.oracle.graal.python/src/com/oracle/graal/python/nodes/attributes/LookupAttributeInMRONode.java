@@ -45,10 +45,12 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetMroStorageNode;
 import com.oracle.graal.python.builtins.objects.type.TypeNodesFactory.IsSameTypeNodeGen;
 import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.runtime.MethodCache;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
@@ -106,9 +108,16 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
         }
 
         @Specialization(replaces = "lookupConstantMRO")
-        protected static Object lookup(Object klass, Object key,
+        protected Object lookup(Object klass, Object key,
                         @Cached("create()") GetMroStorageNode getMroNode,
                         @Cached("createForceType()") ReadAttributeFromObjectNode readAttrNode) {
+            if (key instanceof String && klass instanceof PythonManagedClass) {
+                if (contextRef == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    contextRef = lookupContextReference(PythonLanguage.class);
+                }
+                return lookupInMethodCache(contextRef.get().getMethodCache(), (PythonManagedClass) klass, (String) key);
+            }
             return lookupSlow(klass, key, getMroNode, readAttrNode, false);
         }
     }
@@ -122,6 +131,8 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
         public Object execute(Object klass, Object key) {
             if (klass instanceof PythonBuiltinClassType) {
                 return findAttr(PythonLanguage.getCore(), (PythonBuiltinClassType) klass, key);
+            } else if (klass instanceof PythonManagedClass && key instanceof String) {
+                return lookupInMethodCache(PythonLanguage.getContext().getMethodCache(), (PythonManagedClass) klass, (String) key);
             } else if (klass instanceof PythonAbstractClass) {
                 return lookupSlow(klass, key, getMroNode, readAttrNode, false);
             } else {
@@ -131,18 +142,22 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
         }
     }
 
-    private final boolean skipPythonClasses;
+    protected final boolean skipPythonClasses;
     protected final String key;
     @CompilationFinal private ContextReference<PythonContext> contextRef;
     @Child private TypeNodes.IsSameTypeNode isSameTypeNode = IsSameTypeNodeGen.create();
     @Child private GetMroStorageNode getMroNode;
 
-    protected PythonCore getCore() {
+    protected PythonContext getContext() {
         if (contextRef == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             contextRef = lookupContextReference(PythonLanguage.class);
         }
-        return contextRef.get().getCore();
+        return contextRef.get();
+    }
+
+    protected PythonCore getCore() {
+        return getContext().getCore();
     }
 
     public LookupAttributeInMRONode(String key, boolean skipPythonClasses) {
@@ -183,56 +198,96 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
         return ReadAttributeFromDynamicObjectNode.getUncached().execute(core.lookupType(current).getStorage(), key);
     }
 
-    @Specialization(guards = {"klass == cachedKlass"}, limit = "getAttributeAccessInlineCacheMaxDepth()")
+    /**
+     * Finds the built-in type in the MRO of {@code klass} that defines {@code key}. Unlike the
+     * attribute value, this does not depend on the context.
+     */
+    @TruffleBoundary
+    protected static PythonBuiltinClassType findOwner(PythonCore core, PythonBuiltinClassType klass, Object key) {
+        PythonBuiltinClassType current = klass;
+        while (true) {
+            if (ReadAttributeFromDynamicObjectNode.getUncached().execute(core.lookupType(current).getStorage(), key) != PNone.NO_VALUE) {
+                return current;
+            }
+            if (current == PythonBuiltinClassType.PythonObject) {
+                return null;
+            }
+            current = current.getBase();
+        }
+    }
+
+    @Specialization(guards = {"klass == cachedKlass"}, limit = "getAttributeAccessInlineCacheMaxDepth()", assumptions = "singleContextAssumption()")
     protected static Object lookupPBCTCached(@SuppressWarnings("unused") PythonBuiltinClassType klass,
                     @Cached("klass") @SuppressWarnings("unused") PythonBuiltinClassType cachedKlass,
                     @Cached("findAttr(getCore(), cachedKlass, key)") Object cachedValue) {
         return cachedValue;
     }
 
-    @Specialization(replaces = "lookupPBCTCached")
+    // We have multiple contexts, the value is different in each of them, but the type defining it
+    // is not.
+    @Specialization(guards = {"klass == cachedKlass"}, limit = "getAttributeAccessInlineCacheMaxDepth()")
+    protected Object lookupPBCTOwnerCached(@SuppressWarnings("unused") PythonBuiltinClassType klass,
+                    @Cached("klass") @SuppressWarnings("unused") PythonBuiltinClassType cachedKlass,
+                    @Cached("findOwner(getCore(), cachedKlass, key)") PythonBuiltinClassType owner,
+                    @Cached ReadAttributeFromDynamicObjectNode readNode) {
+        if (owner == null) {
+            return PNone.NO_VALUE;
+        }
+        return readNode.execute(getCore().lookupType(owner).getStorage(), key);
+    }
+
+    @Specialization(replaces = {"lookupPBCTCached", "lookupPBCTOwnerCached"})
     protected Object lookupPBCTGeneric(PythonBuiltinClassType klass) {
         return findAttr(getCore(), klass, key);
     }
 
-    static final class PythonClassAssumptionPair {
-        public final Assumption assumption;
-        public final Object value;
-
-        PythonClassAssumptionPair(Assumption assumption, Object value) {
-            this.assumption = assumption;
-            this.value = value;
-        }
+    protected Object findAttrInMRO(MroSequenceStorage mro) {
+        CompilerAsserts.neverPartOfCompilation();
+        return findAttrInMRO(mro, key, skipPythonClasses);
     }
 
-    protected PythonClassAssumptionPair findAttrClassAndAssumptionInMRO(Object klass) {
-        CompilerAsserts.neverPartOfCompilation();
-        MroSequenceStorage mro = getMro(klass);
-        Assumption attrAssumption = mro.createAttributeInMROFinalAssumption(key);
+    private static Object findAttrInMRO(MroSequenceStorage mro, String key, boolean skipPythonClasses) {
         for (int i = 0; i < mro.length(); i++) {
             Object clsObj = mro.getItemNormalized(i);
-            if (i > 0) {
-                assert clsObj != klass : "MRO chain is incorrect: '" + klass + "' was found at position " + i;
-                getMro(clsObj).addAttributeInMROFinalAssumption(key, attrAssumption);
-            }
             if (skipPythonClasses && clsObj instanceof PythonClass) {
                 continue;
             }
             Object value = ReadAttributeFromObjectNode.getUncachedForceType().execute(clsObj, key);
             if (value != PNone.NO_VALUE) {
-                return new PythonClassAssumptionPair(attrAssumption, value);
+                return value;
             }
         }
-        return new PythonClassAssumptionPair(attrAssumption, PNone.NO_VALUE);
+        return PNone.NO_VALUE;
+    }
+
+    /**
+     * Megamorphic lookup through the context-wide {@link MethodCache}. The cache entries are
+     * validated with the version tag of the class' MRO.
+     */
+    @TruffleBoundary
+    protected static Object lookupInMethodCache(MethodCache cache, PythonManagedClass klass, String key) {
+        MroSequenceStorage mro = GetMroStorageNode.getUncached().execute(klass);
+        mro.ensureRegisteredWithBases();
+        int versionTag = mro.getVersionTag();
+        Object value = cache.get(klass, key, versionTag);
+        if (value == null) {
+            value = findAttrInMRO(mro, key, false);
+            cache.put(klass, key, versionTag, value);
+        }
+        return value;
     }
 
-    @Specialization(guards = {"isSameType(cachedKlass, klass)", "cachedClassInMROInfo != null"}, //
+    // Classes that are modified often hand out an invalid assumption, so this specialization is
+    // skipped for them in favor of lookupConstantMRO, which does not cache the values.
+    @Specialization(guards = "isSameType(cachedKlass, klass)", //
                     limit = "getAttributeAccessInlineCacheMaxDepth()", //
-                    assumptions = {"cachedClassInMROInfo.assumption", "singleContextAssumption()"})
+                    assumptions = {"attributesStable", "singleContextAssumption()"})
     protected static Object lookupConstantMROCached(@SuppressWarnings("unused") Object klass,
                     @Cached("klass") @SuppressWarnings("unused") Object cachedKlass,
-                    @Cached("findAttrClassAndAssumptionInMRO(cachedKlass)") PythonClassAssumptionPair cachedClassInMROInfo) {
-        return cachedClassInMROInfo.value;
+                    @Cached("getMro(cachedKlass)") @SuppressWarnings("unused") MroSequenceStorage mro,
+                    @Cached("mro.getAttributesStableAssumption()") @SuppressWarnings("unused") Assumption attributesStable,
+                    @Cached("findAttrInMRO(mro)") Object cachedValue) {
+        return cachedValue;
     }
 
     protected static ReadAttributeFromObjectNode[] create(int size) {
@@ -266,7 +321,43 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
         return PNone.NO_VALUE;
     }
 
-    @Specialization(replaces = {"lookupConstantMROCached", "lookupConstantMRO"})
+    protected int getMroLength(Object klass) {
+        return getMro(klass).length();
+    }
+
+    // We have multiple contexts, so the class objects cannot be cached in the (shared) AST. Classes
+    // created by the same code have an MRO of the same length in every context and their
+    // dictionaries have the same shapes, so we still get one attribute read node per MRO entry.
+    @Specialization(guards = {"getMroLength(klass) == mroLength", "mroLength < 32"}, //
+                    limit = "getAttributeAccessInlineCacheMaxDepth()")
+    @ExplodeLoop(kind = ExplodeLoop.LoopExplosionKind.FULL_UNROLL_UNTIL_RETURN)
+    protected Object lookupMROLengthCached(Object klass,
+                    @Cached("getMroLength(klass)") int mroLength,
+                    @Cached("create(mroLength)") ReadAttributeFromObjectNode[] readAttrNodes) {
+        MroSequenceStorage mro = getMro(klass);
+        for (int i = 0; i < mroLength; i++) {
+            Object kls = mro.getItemNormalized(i);
+            if (skipPythonClasses && kls instanceof PythonClass) {
+                continue;
+            }
+            Object value = readAttrNodes[i].execute(kls, key);
+            if (value != PNone.NO_VALUE) {
+                return value;
+            }
+        }
+        return PNone.NO_VALUE;
+    }
+
+    protected static boolean useMethodCache(Object klass, boolean skipPythonClasses) {
+        return !skipPythonClasses && klass instanceof PythonManagedClass;
+    }
+
+    @Specialization(guards = "useMethodCache(klass, skipPythonClasses)", replaces = {"lookupConstantMROCached", "lookupConstantMRO", "lookupMROLengthCached"})
+    protected Object lookupMethodCache(Object klass) {
+        return lookupInMethodCache(getContext().getMethodCache(), (PythonManagedClass) klass, key);
+    }
+
+    @Specialization(guards = "!useMethodCache(klass, skipPythonClasses)", replaces = {"lookupConstantMROCached", "lookupConstantMRO", "lookupMROLengthCached"})
     protected Object lookup(Object klass,
                     @Cached("createForceType()") ReadAttributeFromObjectNode readAttrNode) {
         return lookupSlow(klass, key, ensureGetMroNode(), readAttrNode, skipPythonClasses);
@@ -55,6 +55,7 @@ import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.object.GetDictNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.StartupTimes;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -140,12 +141,22 @@ public abstract class AbstractImportNode extends StatementNode {
                 getContext().pushCurrentImport(name);
             }
         }
+        StartupTimes startupTimes = getContext().getStartupTimes();
+        boolean outermostImport = false;
+        long start = 0;
+        if (startupTimes != null) {
+            outermostImport = startupTimes.enterImport();
+            start = StartupTimes.start();
+        }
         try {
             return __import__(frame, name, globals, fromList, level);
         } finally {
             if (emulateJython()) {
                 getContext().popCurrentImport();
             }
+            if (startupTimes != null) {
+                startupTimes.exitImport(name, start, outermostImport);
+            }
         }
     }
 
@@ -62,6 +62,7 @@ import com.oracle.graal.python.runtime.PythonCodeSerializer;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser;
+import com.oracle.graal.python.runtime.StartupTimes;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage.Env;
@@ -76,6 +77,7 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
 
     private final boolean logFiles;
     private final int timeStatistics;
+    private final boolean startupStatistics;
     private long timeInParser = 0;
     private long numberOfFiles = 0;
     private static final boolean IN_IMAGE_BUILD_TIME = ImageInfo.inImageBuildtimeCode();
@@ -87,6 +89,7 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
     public PythonParserImpl(Env env) {
         this.logFiles = env.getOptions().get(PythonOptions.ParserLogFiles);
         this.timeStatistics = env.getOptions().get(PythonOptions.ParserStatistics);
+        this.startupStatistics = env.getOptions().get(PythonOptions.StartupStatistics);
     }
 
     private static Python3Parser getPython3Parser(String sourceText) {
@@ -187,6 +190,8 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
 
         sstFactory.getScopeEnvironment().setGlobalScope(globalScope);
         ParserMode mode = sstNode instanceof BlockSSTNode ? ParserMode.File : ParserMode.Deserialization;
+        StartupTimes startupTimes = getStartupTimes();
+        long start = startupTimes != null ? StartupTimes.start() : 0;
         try {
             Node result = sstFactory.createParserResult(sstNode, mode, null);
             if (mode == ParserMode.Deserialization) {
@@ -207,6 +212,10 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
             return (RootNode) result;
         } catch (Exception e) {
             throw handleParserError(core, source, e);
+        } finally {
+            if (startupTimes != null) {
+                startupTimes.stop(StartupTimes.Phase.TRANSLATE, start);
+            }
         }
     }
 
@@ -355,14 +364,28 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
     @TruffleBoundary
     public Node parseN(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame, String[] argumentNames) {
         PythonSSTNodeFactory sstFactory = new PythonSSTNodeFactory(errors, source, this);
+        StartupTimes startupTimes = getStartupTimes();
+        long start = startupTimes != null ? StartupTimes.start() : 0;
         CacheItem parserSSTResult = parseWithANTLR(mode, errors, sstFactory, source, currentFrame, argumentNames);
+        if (startupTimes != null) {
+            startupTimes.stop(StartupTimes.Phase.PARSE, start);
+            start = StartupTimes.start();
+        }
         try {
             return sstFactory.createParserResult(parserSSTResult.antlrResult, mode, currentFrame);
         } catch (Exception e) {
             throw handleParserError(errors, source, e);
+        } finally {
+            if (startupTimes != null) {
+                startupTimes.stop(StartupTimes.Phase.TRANSLATE, start);
+            }
         }
     }
 
+    private StartupTimes getStartupTimes() {
+        return startupStatistics ? PythonLanguage.getContext().getStartupTimes() : null;
+    }
+
     @Override
     @TruffleBoundary
     public boolean isIdentifier(PythonCore core, String snippet) {
@@ -42,10 +42,9 @@ package com.oracle.graal.python.runtime;
 
 import java.util.Arrays;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -127,7 +126,7 @@ public class AsyncHandler {
         }
     }
 
-    private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(3, new ThreadFactory() {
+    private final ExecutorService executorService = Executors.newCachedThreadPool(new ThreadFactory() {
         public Thread newThread(Runnable r) {
             Thread t = Executors.defaultThreadFactory().newThread(r);
             t.setDaemon(true);
@@ -139,8 +138,13 @@ public class AsyncHandler {
     private final ConcurrentLinkedQueue<AsyncAction> scheduledActions = new ConcurrentLinkedQueue<>();
     private volatile boolean hasScheduledAction = false;
     private final Lock executingScheduledActions = new ReentrantLock();
-    private static final int ASYNC_ACTION_DELAY = 15; // chosen by a fair D20 dice roll
+    private static final int MAX_ACTIONS_PER_TRIGGER = 64;
 
+    /**
+     * Runs on its own thread for each registered supplier. The suppliers block until there is
+     * something to do (e.g. in {@link java.lang.ref.ReferenceQueue#remove()}), so an action is
+     * flagged for the next safepoint as soon as its event happens.
+     */
     private class AsyncRunnable implements Runnable {
         private final Supplier<AsyncAction> actionSupplier;
 
@@ -149,16 +153,18 @@ public class AsyncHandler {
         }
 
         public void run() {
-            AsyncAction asyncAction = actionSupplier.get();
-            if (asyncAction != null) {
-                // If there's thread executing scheduled actions right now,
-                // we wait until adding the next work item
-                executingScheduledActions.lock();
-                try {
-                    scheduledActions.add(asyncAction);
-                    hasScheduledAction = true;
-                } finally {
-                    executingScheduledActions.unlock();
+            while (!Thread.currentThread().isInterrupted()) {
+                AsyncAction asyncAction = actionSupplier.get();
+                if (asyncAction != null) {
+                    // If there's thread executing scheduled actions right now,
+                    // we wait until adding the next work item
+                    executingScheduledActions.lock();
+                    try {
+                        scheduledActions.add(asyncAction);
+                        hasScheduledAction = true;
+                    } finally {
+                        executingScheduledActions.unlock();
+                    }
                 }
             }
         }
@@ -225,7 +231,7 @@ public class AsyncHandler {
         if (PythonLanguage.getContext().getOption(PythonOptions.NoAsyncActions)) {
             return;
         }
-        executorService.scheduleWithFixedDelay(new AsyncRunnable(actionSupplier), ASYNC_ACTION_DELAY, ASYNC_ACTION_DELAY, TimeUnit.MILLISECONDS);
+        executorService.execute(new AsyncRunnable(actionSupplier));
     }
 
     void triggerAsyncActions(VirtualFrame frame, BranchProfile actionProfile) {
@@ -266,12 +272,14 @@ public class AsyncHandler {
      * <li>Thread2 - releaseLock</li>
      * </ul>
      *
-     * because Thread1 is sure to check the flag again soon enough, and very likely much sooner than
-     * the {@value #ASYNC_ACTION_DELAY} ms delay between successive runs of the async handler
-     * threads (Thread2 in this example). Of course, there can be more than one handler thread, but
-     * it's unlikely that there are so many that it would completely saturate the ability to process
-     * async actions on the main thread, because there's only one per "type" of async thing (e.g. 1
-     * for weakref finalizers, 1 for signals, 1 for destructors).
+     * because Thread1 is sure to check the flag again soon enough, at its next safepoint. Of course,
+     * there can be more than one handler thread, but it's unlikely that there are so many that it
+     * would completely saturate the ability to process async actions on the main thread, because
+     * there's only one per "type" of async thing (e.g. 1 for weakref finalizers, 1 for signals, 1
+     * for destructors).
+     *
+     * To keep the pauses short, at most {@value #MAX_ACTIONS_PER_TRIGGER} actions are processed at
+     * once. If more are pending, the flag is set again so that the next safepoint continues.
      */
     private void processAsyncActions() {
         if (executingScheduledActions.tryLock()) {
@@ -279,8 +287,13 @@ public class AsyncHandler {
             try {
                 ConcurrentLinkedQueue<AsyncAction> actions = scheduledActions;
                 AsyncAction action;
+                int processed = 0;
                 while ((action = actions.poll()) != null) {
                     action.execute(context);
+                    if (++processed >= MAX_ACTIONS_PER_TRIGGER && !actions.isEmpty()) {
+                        hasScheduledAction = true;
+                        break;
+                    }
                 }
             } finally {
                 executingScheduledActions.unlock();
@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.AsyncHandler.AsyncAction;
+import com.oracle.graal.python.runtime.exception.PythonExitException;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * The worker contexts, channels and inherited file descriptors of the {@code inprocess} start
+ * method of {@code multiprocessing}. A worker "process" is an inner context of the spawning
+ * context that runs on its own thread in the same engine, so it shares the parsed and compiled code
+ * with its parent. Like named semaphores, this state is kept per language instance and can be
+ * reached from all contexts of the engine.
+ */
+public final class InProcessContexts {
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Worker> workers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Channel> channels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Object> sharedFDs = new ConcurrentHashMap<>();
+
+    /**
+     * A worker context and the thread running it. The thread belongs to the parent context and
+     * enters the worker context only while running its code, so that it can close the worker
+     * context itself when the worker was abandoned before it finished.
+     *
+     * A worker is never interrupted with {@link Thread#interrupt()} while it may be doing I/O,
+     * because that would close an {@link java.nio.channels.InterruptibleChannel} it shares with its
+     * parent. {@link #terminate()} instead makes the worker exit at its next safepoint and only
+     * wakes it from the waits marked with {@link #beginInterruptibleWait()}.
+     */
+    public static final class Worker implements Runnable {
+        private static final int SIGTERM = 15;
+        private static final ThreadLocal<Worker> CURRENT = new ThreadLocal<>();
+
+        private final TruffleContext context;
+        private final String code;
+        private final Object sentinel;
+        private final Semaphore terminateSignal = new Semaphore(0);
+        private Thread thread;
+        private volatile int exitCode;
+        private boolean terminated;
+        private boolean waiting;
+        private boolean finished;
+        private boolean closeRequested;
+        private boolean contextClosed;
+
+        /**
+         * @param code the Python source the worker runs
+         * @param sentinel a shared descriptor (see {@link PosixResources#shareFD(int)}) that is
+         *            released when the worker finishes, so that the parent sees end of file on the
+         *            other end of the pipe
+         */
+        public Worker(TruffleContext context, String code, Object sentinel) {
+            this.context = context;
+            this.code = code;
+            this.sentinel = sentinel;
+        }
+
+        public void start(Thread workerThread) {
+            this.thread = workerThread;
+            workerThread.start();
+        }
+
+        @Override
+        public void run() {
+            int status = 0;
+            CURRENT.set(this);
+            Object prev = context.enter();
+            try {
+                Source source = Source.newBuilder(PythonLanguage.ID, code, "<inprocess>").build();
+                PythonContext pythonContext = PythonLanguage.getContext();
+                CallTarget target = pythonContext.getEnv().parsePublic(source);
+                pythonContext.registerAsyncAction(this::awaitTermination);
+                target.call();
+            } catch (PythonExitException e) {
+                status = e.getExitStatus();
+            } catch (RuntimeException e) {
+                // the top level exception handler already printed the exception
+                status = 1;
+            } finally {
+                context.leave(prev);
+                CURRENT.remove();
+                synchronized (this) {
+                    exitCode = terminated ? -SIGTERM : status;
+                    PosixResources.releaseShared(sentinel);
+                    finished = true;
+                    if (closeRequested) {
+                        closeContext();
+                    }
+                }
+            }
+        }
+
+        private AsyncAction awaitTermination() {
+            try {
+                terminateSignal.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return (ctx) -> {
+                throw new PythonExitException(null, -SIGTERM);
+            };
+        }
+
+        /**
+         * Waits for the worker to finish and disposes its context.
+         *
+         * @param timeoutMillis the maximum time to wait, or a negative number to wait indefinitely
+         * @return {@code true} if the worker has finished
+         */
+        @TruffleBoundary
+        public boolean join(long timeoutMillis) throws InterruptedException {
+            if (timeoutMillis < 0) {
+                thread.join();
+            } else if (timeoutMillis > 0) {
+                thread.join(timeoutMillis);
+            }
+            if (thread.isAlive()) {
+                return false;
+            }
+            close();
+            return true;
+        }
+
+        /**
+         * Makes the worker exit at its next safepoint. A worker blocked in I/O only notices once
+         * the I/O completes.
+         */
+        @TruffleBoundary
+        public synchronized void terminate() {
+            if (!terminated && !finished) {
+                terminated = true;
+                terminateSignal.release();
+                if (waiting) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        /**
+         * Disposes the worker context, right away if the worker has finished, otherwise it is
+         * terminated and its thread disposes the context when it is done. Can be called more than
+         * once.
+         */
+        @TruffleBoundary
+        public synchronized void close() {
+            if (finished) {
+                closeContext();
+            } else {
+                closeRequested = true;
+                terminate();
+            }
+        }
+
+        private void closeContext() {
+            if (!contextClosed) {
+                contextClosed = true;
+                context.close();
+            }
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * Marks the start of a wait of the current thread that {@link #terminate()} may interrupt.
+         * Only waits on monitors and semaphores may be marked, never I/O. Must be followed by
+         * {@link #endInterruptibleWait(Worker)}.
+         *
+         * @return the worker running on the current thread, or {@code null}
+         * @throws InterruptedException if the worker was terminated already
+         */
+        @TruffleBoundary
+        public static Worker beginInterruptibleWait() throws InterruptedException {
+            Worker worker = CURRENT.get();
+            if (worker != null) {
+                synchronized (worker) {
+                    if (worker.terminated) {
+                        throw new InterruptedException();
+                    }
+                    worker.waiting = true;
+                }
+            }
+            return worker;
+        }
+
+        @TruffleBoundary
+        public static void endInterruptibleWait(Worker worker) {
+            if (worker != null) {
+                synchronized (worker) {
+                    worker.waiting = false;
+                    // no interrupt may leak into the I/O that follows
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * An unbounded in-memory queue between contexts. A pipe carries a single byte while the queue
+     * is not empty, so that its read end can be waited for with {@code select} like the read end of
+     * a {@code multiprocessing} connection.
+     */
+    public static final class Channel {
+        private final ArrayDeque<Object> items = new ArrayDeque<>();
+        private final Pipe pipe;
+        private final Object readySource;
+        private final ByteBuffer signal = ByteBuffer.allocate(1);
+        private boolean signalled;
+        private int refCount = 1;
+
+        Channel() throws IOException {
+            pipe = Pipe.open();
+            readySource = PosixResources.shareChannel(pipe.source());
+        }
+
+        /**
+         * @return a new reference to the read end of the readiness pipe, to be adopted with
+         *         {@link PosixResources#adoptFD(Object)}
+         */
+        public Object shareReadySource() {
+            return PosixResources.retainShared(readySource);
+        }
+
+        @TruffleBoundary
+        public synchronized void put(Object item) throws IOException {
+            items.add(item);
+            updateSignal();
+            notifyAll();
+        }
+
+        /**
+         * @param timeoutMillis the maximum time to wait, or a negative number to wait indefinitely
+         * @return the next item, or {@code null} if the timeout expired
+         */
+        @TruffleBoundary
+        public synchronized Object take(long timeoutMillis) throws IOException, InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (items.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (timeoutMillis >= 0 && remaining <= 0) {
+                    return null;
+                }
+                Worker worker = Worker.beginInterruptibleWait();
+                try {
+                    if (timeoutMillis < 0) {
+                        wait();
+                    } else {
+                        wait(remaining);
+                    }
+                } finally {
+                    Worker.endInterruptibleWait(worker);
+                }
+            }
+            Object item = items.poll();
+            updateSignal();
+            return item;
+        }
+
+        @TruffleBoundary
+        public synchronized boolean isEmpty() {
+            return items.isEmpty();
+        }
+
+        private void updateSignal() throws IOException {
+            if (signalled == items.isEmpty()) {
+                signal.clear();
+                if (signalled) {
+                    while (pipe.source().read(signal) == 0) {
+                        // the byte was written while we hold the lock, it is only not visible yet
+                        Thread.yield();
+                    }
+                } else {
+                    pipe.sink().write(signal);
+                }
+                signalled = !signalled;
+            }
+        }
+
+        synchronized void retain() {
+            refCount++;
+        }
+
+        synchronized boolean release() {
+            if (--refCount > 0) {
+                return false;
+            }
+            items.clear();
+            try {
+                pipe.sink().close();
+            } catch (IOException ignored) {
+            }
+            PosixResources.releaseShared(readySource);
+            return true;
+        }
+    }
+
+    @TruffleBoundary
+    public int addWorker(Worker worker) {
+        int id = nextId.incrementAndGet();
+        workers.put(id, worker);
+        return id;
+    }
+
+    @TruffleBoundary
+    public Worker getWorker(int id) {
+        return workers.get(id);
+    }
+
+    @TruffleBoundary
+    public void removeWorker(int id) {
+        workers.remove(id);
+    }
+
+    /**
+     * Forgets the worker and disposes its context, see {@link Worker#close()}.
+     */
+    @TruffleBoundary
+    public void closeWorker(int id) {
+        Worker worker = workers.remove(id);
+        if (worker != null) {
+            worker.close();
+        }
+    }
+
+    @TruffleBoundary
+    public int createChannel() throws IOException {
+        int id = nextId.incrementAndGet();
+        channels.put(id, new Channel());
+        return id;
+    }
+
+    @TruffleBoundary
+    public Channel getChannel(int id) {
+        return channels.get(id);
+    }
+
+    @TruffleBoundary
+    public boolean retainChannel(int id) {
+        Channel channel = channels.get(id);
+        if (channel == null) {
+            return false;
+        }
+        channel.retain();
+        return true;
+    }
+
+    @TruffleBoundary
+    public void releaseChannel(int id) {
+        Channel channel = channels.get(id);
+        if (channel != null && channel.release()) {
+            channels.remove(id);
+        }
+    }
+
+    /**
+     * Registers a shared descriptor (see {@link PosixResources#shareFD(int)}) under a token that a
+     * worker can pass to {@link #takeSharedFD(int)}.
+     */
+    @TruffleBoundary
+    public int putSharedFD(Object shared) {
+        int token = nextId.incrementAndGet();
+        sharedFDs.put(token, shared);
+        return token;
+    }
+
+    @TruffleBoundary
+    public Object takeSharedFD(int token) {
+        return sharedFDs.remove(token);
+    }
+}
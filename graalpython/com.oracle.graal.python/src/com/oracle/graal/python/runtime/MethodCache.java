@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.lang.ref.WeakReference;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A fixed-size, direct-mapped cache of attribute lookups in the MRO, similar to CPython's type
+ * attribute cache (cpython://Objects/typeobject.c#_PyType_Lookup). It is used by the generic paths
+ * of the MRO lookup nodes, i.e., once a call site has seen more classes than its inline cache can
+ * hold.
+ *
+ * Every entry records the version tag of the class' MRO at the time of the lookup (see
+ * {@code MroSequenceStorage#getVersionTag}). Entries with an outdated tag are treated as misses and
+ * simply overwritten. Collisions evict the older entry. The entries do not keep the classes or the
+ * looked-up values alive.
+ */
+public final class MethodCache {
+
+    private static final int SIZE_BITS = 12;
+    private static final int SIZE = 1 << SIZE_BITS;
+    private static final int MASK = SIZE - 1;
+
+    /**
+     * The class is referenced weakly so that the cache does not keep classes alive. The value is
+     * referenced weakly too, because it may refer back to the class, e.g., through the
+     * {@code __class__} cell of a method. While the class is alive and its MRO unchanged, the value
+     * is still reachable from one of the dicts in the MRO, so it cannot be cleared before the
+     * entry goes stale anyway.
+     */
+    private static final class Entry extends WeakReference<Object> {
+        final String key;
+        final int versionTag;
+        final WeakReference<Object> value;
+
+        Entry(Object klass, String key, int versionTag, Object value) {
+            super(klass);
+            this.key = key;
+            this.versionTag = versionTag;
+            this.value = new WeakReference<>(value);
+        }
+    }
+
+    // entries are immutable, so racy reads and writes of the slots from multiple threads are fine
+    private final Entry[] entries = new Entry[SIZE];
+
+    private static int index(Object klass, String key) {
+        int h = System.identityHashCode(klass) ^ key.hashCode();
+        return (h ^ (h >>> SIZE_BITS)) & MASK;
+    }
+
+    /**
+     * @return the cached result of looking up {@code key} in the MRO of {@code klass}, or
+     *         {@code null} if there is no valid entry.
+     */
+    @TruffleBoundary
+    public Object get(Object klass, String key, int versionTag) {
+        Entry entry = entries[index(klass, key)];
+        if (entry != null && entry.get() == klass && entry.versionTag == versionTag && entry.key.equals(key)) {
+            // null if the value was collected, which only happens once the entry is stale
+            return entry.value.get();
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    public void put(Object klass, String key, int versionTag, Object value) {
+        entries[index(klass, key)] = new Entry(klass, key, versionTag, value);
+    }
+}
@@ -81,6 +81,7 @@ public class PosixResources {
     private final List<Process> children;
     private final Map<String, Integer> inodes;
     private int inodeCnt = 0;
+    private ProcessPipePump pipePump;
 
     private static class ProcessGroup extends Process {
         private final List<Process> children;
@@ -229,29 +230,102 @@ public class PosixResources {
 
         if (channelWrapper != null) {
             synchronized (files) {
-                if (channelWrapper.cnt == 1) {
-                    channelWrapper.channel.close();
-                } else if (channelWrapper.cnt > 1) {
-                    channelWrapper.cnt -= 1;
-                }
-
+                release(channelWrapper);
                 files.remove(fd);
                 filePaths.remove(fd);
             }
         }
     }
 
+    private static void release(ChannelWrapper channelWrapper) throws IOException {
+        // the wrapper may be shared with the resources of other contexts, see shareFD
+        synchronized (channelWrapper) {
+            if (channelWrapper.cnt == 1) {
+                channelWrapper.channel.close();
+            } else if (channelWrapper.cnt > 1) {
+                channelWrapper.cnt -= 1;
+            }
+        }
+    }
+
+    private static ChannelWrapper retain(ChannelWrapper channelWrapper) {
+        synchronized (channelWrapper) {
+            channelWrapper.cnt += 1;
+        }
+        return channelWrapper;
+    }
+
     @TruffleBoundary
     private void dupFD(int fd1, int fd2) {
         ChannelWrapper channelWrapper = files.getOrDefault(fd1, null);
         if (channelWrapper != null) {
             synchronized (files) {
-                channelWrapper.cnt += 1;
-                files.put(fd2, channelWrapper);
+                files.put(fd2, retain(channelWrapper));
             }
         }
     }
 
+    /**
+     * Takes a new reference to the channel behind {@code fd} that can be installed in the resources
+     * of another context of the same engine with {@link #adoptFD(Object)}, much like a descriptor
+     * inherited by a child process. Closing the descriptor in either context only drops one
+     * reference. A reference that is never adopted must be given up with
+     * {@link #releaseShared(Object)}.
+     *
+     * @return an opaque handle, or {@code null} if {@code fd} is not open
+     */
+    @TruffleBoundary
+    public Object shareFD(int fd) {
+        ChannelWrapper channelWrapper = files.getOrDefault(fd, null);
+        if (channelWrapper != null) {
+            return retain(channelWrapper);
+        }
+        return null;
+    }
+
+    /**
+     * Creates a handle for a channel that is not yet open in any context, holding one reference.
+     */
+    @TruffleBoundary
+    public static Object shareChannel(Channel channel) {
+        return new ChannelWrapper(channel);
+    }
+
+    /**
+     * Takes another reference to a handle returned by {@link #shareFD(int)} or
+     * {@link #shareChannel(Channel)}.
+     */
+    @TruffleBoundary
+    public static Object retainShared(Object shared) {
+        return retain((ChannelWrapper) shared);
+    }
+
+    @TruffleBoundary
+    public static void releaseShared(Object shared) {
+        try {
+            release((ChannelWrapper) shared);
+        } catch (IOException ignored) {
+        }
+    }
+
+    @TruffleBoundary
+    public static Channel getSharedChannel(Object shared) {
+        return ((ChannelWrapper) shared).channel;
+    }
+
+    /**
+     * Installs a shared channel under a new descriptor, taking over the reference held by the
+     * handle.
+     */
+    @TruffleBoundary
+    public int adoptFD(Object shared) {
+        synchronized (files) {
+            int fd = nextFreeFd();
+            files.put(fd, (ChannelWrapper) shared);
+            return fd;
+        }
+    }
+
     @TruffleBoundary(allowInlining = true)
     public Channel getFileChannel(int fd, ValueProfile classProfile) {
         ChannelWrapper channelWrapper = files.getOrDefault(fd, null);
@@ -316,6 +390,13 @@ public class PosixResources {
         return fd;
     }
 
+    @TruffleBoundary
+    public int openChannel(Channel channel) {
+        int fd = nextFreeFd();
+        addFD(fd, channel);
+        return fd;
+    }
+
     @TruffleBoundary
     public void reopenSocket(PSocket socket, int fd) {
         addFD(fd, socket);
@@ -397,6 +478,24 @@ public class PosixResources {
         }
     }
 
+    @TruffleBoundary
+    public synchronized ProcessPipePump getPipePump() {
+        if (pipePump == null) {
+            pipePump = new ProcessPipePump();
+        }
+        return pipePump;
+    }
+
+    /**
+     * Stops the threads that connect the streams of child processes to pipes.
+     */
+    @TruffleBoundary
+    public synchronized void dispose() {
+        if (pipePump != null) {
+            pipePump.shutdown();
+        }
+    }
+
     @TruffleBoundary(allowInlining = true)
     public int registerChild(Process child) {
         int pid = nextFreePid();
@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Connects the standard streams of child processes to the {@link Pipe}s that Python created with
+ * {@code os.pipe}, so that the Python ends stay selectable. The streams of a {@link Process} can
+ * only be used with blocking calls, so each output of a child gets a worker thread that blocks
+ * reading it, and each write to the input of a child is handed to a worker while it is pending.
+ * The workers wake up a single pump thread per context, which waits in a {@link Selector} on the
+ * pipe ends and on these wakeups. The pump thread ends when no streams are left, the workers are
+ * shut down with the {@link PosixResources}.
+ * <p>
+ * Only the pump thread is shared. Every connected output holds a worker thread until the child
+ * closes it, so a context with {@code n} running children that pipe both stdout and stderr uses
+ * {@code 2 * n} blocked workers plus the pump thread. Idle workers are reused for later streams.
+ */
+public final class ProcessPipePump implements Runnable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ConcurrentLinkedQueue<Stream> added = new ConcurrentLinkedQueue<>();
+    private final List<Stream> active = new ArrayList<>();
+    private Thread thread;
+    private Selector selector;
+    private ExecutorService workers;
+    private boolean shutdown;
+
+    private abstract static class Stream {
+        protected final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final Object shared;
+        private SelectionKey key;
+
+        Stream(Object shared) {
+            this.shared = shared;
+        }
+
+        abstract SelectableChannel channel();
+
+        void start() {
+        }
+
+        /**
+         * Moves data without blocking.
+         *
+         * @return {@code true} if any progress was made
+         */
+        abstract boolean pump() throws IOException;
+
+        /** The operations of the pipe end that the next {@link #pump()} waits for. */
+        abstract int interestOps();
+
+        abstract boolean isDone();
+
+        void close() {
+            if (key != null) {
+                key.cancel();
+            }
+            PosixResources.releaseShared(shared);
+        }
+    }
+
+    /**
+     * Copies the output of a child to the write end of a pipe. A worker reads the next chunk of the
+     * output while the pump writes the previous one.
+     */
+    private final class ChildOutput extends Stream {
+        private final InputStream in;
+        private final Pipe.SinkChannel sink;
+        private final byte[] chunk = new byte[BUFFER_SIZE];
+        // guarded by this: the length of the chunk the pump has not taken yet, or -1 at the end
+        private int chunkLength;
+        private IOException error;
+        private boolean eof;
+        private boolean closed;
+
+        ChildOutput(InputStream in, Pipe.SinkChannel sink, Object shared) throws IOException {
+            super(shared);
+            this.in = in;
+            this.sink = sink;
+            sink.configureBlocking(false);
+            buffer.limit(0);
+        }
+
+        @Override
+        void start() {
+            getWorkers().execute(this::read);
+        }
+
+        private void read() {
+            try {
+                int n;
+                do {
+                    synchronized (this) {
+                        while (chunkLength != 0 && !closed) {
+                            wait();
+                        }
+                        if (closed) {
+                            return;
+                        }
+                    }
+                    n = in.read(chunk, 0, BUFFER_SIZE);
+                    if (n != 0) {
+                        synchronized (this) {
+                            chunkLength = n;
+                        }
+                        wakeUp();
+                    }
+                } while (n >= 0);
+            } catch (IOException e) {
+                synchronized (this) {
+                    error = e;
+                }
+                wakeUp();
+            } catch (InterruptedException e) {
+                // shut down
+            }
+        }
+
+        @Override
+        SelectableChannel channel() {
+            return sink;
+        }
+
+        @Override
+        boolean pump() throws IOException {
+            boolean progress = false;
+            if (buffer.hasRemaining()) {
+                progress = sink.write(buffer) > 0;
+                if (buffer.hasRemaining()) {
+                    return progress;
+                }
+            }
+            synchronized (this) {
+                if (error != null) {
+                    throw error;
+                } else if (chunkLength < 0) {
+                    eof = true;
+                    return true;
+                } else if (chunkLength == 0) {
+                    return progress;
+                }
+                buffer.clear();
+                buffer.put(chunk, 0, chunkLength).flip();
+                chunkLength = 0;
+                notifyAll();
+            }
+            sink.write(buffer);
+            return true;
+        }
+
+        @Override
+        int interestOps() {
+            return buffer.hasRemaining() ? SelectionKey.OP_WRITE : 0;
+        }
+
+        @Override
+        boolean isDone() {
+            return eof && !buffer.hasRemaining();
+        }
+
+        @Override
+        void close() {
+            super.close();
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                // unblocks the worker
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /** Copies what Python writes into a pipe to the input of a child. */
+    private final class ChildInput extends Stream {
+        private final Pipe.SourceChannel source;
+        private final OutputStream out;
+        // guarded by this: a worker is writing the buffer to the child, or failed to do so
+        private boolean writing;
+        private IOException writeError;
+        private boolean done;
+
+        ChildInput(Pipe.SourceChannel source, Object shared, OutputStream out) throws IOException {
+            super(shared);
+            this.source = source;
+            this.out = out;
+            source.configureBlocking(false);
+        }
+
+        @Override
+        SelectableChannel channel() {
+            return source;
+        }
+
+        @Override
+        boolean pump() throws IOException {
+            synchronized (this) {
+                if (writing) {
+                    return false;
+                } else if (writeError != null) {
+                    // the child closed its input
+                    done = true;
+                    return true;
+                }
+            }
+            buffer.clear();
+            int n = source.read(buffer);
+            if (n < 0) {
+                out.close();
+                done = true;
+                return true;
+            } else if (n == 0) {
+                return false;
+            }
+            synchronized (this) {
+                writing = true;
+            }
+            getWorkers().execute(() -> write(n));
+            return true;
+        }
+
+        private void write(int n) {
+            IOException error = null;
+            try {
+                out.write(buffer.array(), 0, n);
+                out.flush();
+            } catch (IOException e) {
+                error = e;
+            }
+            synchronized (this) {
+                writing = false;
+                writeError = error;
+            }
+            wakeUp();
+        }
+
+        @Override
+        synchronized int interestOps() {
+            return writing ? 0 : SelectionKey.OP_READ;
+        }
+
+        @Override
+        boolean isDone() {
+            return done;
+        }
+
+        @Override
+        void close() {
+            super.close();
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Copies the output {@code in} of a child to the pipe of the shared descriptor {@code sink}
+     * (see {@link PosixResources#shareFD(int)}), and closes the pipe when the output ends. This
+     * occupies a worker thread until then.
+     *
+     * @return {@code false} if {@code sink} is not the write end of a pipe
+     */
+    @TruffleBoundary
+    public boolean pumpOutput(InputStream in, Object sink) throws IOException {
+        Object channel = PosixResources.getSharedChannel(sink);
+        if (!(channel instanceof Pipe.SinkChannel)) {
+            return false;
+        }
+        add(new ChildOutput(in, (Pipe.SinkChannel) channel, sink));
+        return true;
+    }
+
+    /**
+     * Copies everything written into the pipe of the shared descriptor {@code source} to
+     * {@code out}, and closes {@code out} when the pipe is closed.
+     *
+     * @return {@code false} if {@code source} is not the read end of a pipe
+     */
+    @TruffleBoundary
+    public boolean pumpInput(Object source, OutputStream out) throws IOException {
+        Object channel = PosixResources.getSharedChannel(source);
+        if (!(channel instanceof Pipe.SourceChannel)) {
+            return false;
+        }
+        add(new ChildInput((Pipe.SourceChannel) channel, source, out));
+        return true;
+    }
+
+    private synchronized void add(Stream stream) throws IOException {
+        if (shutdown) {
+            stream.close();
+            throw new IOException("the subprocess pipes are shut down");
+        }
+        added.add(stream);
+        stream.start();
+        if (thread == null) {
+            selector = Selector.open();
+            thread = Executors.defaultThreadFactory().newThread(this);
+            thread.setName("python-subprocess-pump");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            selector.wakeup();
+        }
+    }
+
+    private synchronized void wakeUp() {
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private synchronized ExecutorService getWorkers() {
+        if (workers == null) {
+            workers = Executors.newCachedThreadPool(r -> {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setName("python-subprocess-stream");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * Stops the pump and its workers and closes the streams that are still connected.
+     */
+    @TruffleBoundary
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (thread != null) {
+            thread.interrupt();
+        } else {
+            for (Stream s = added.poll(); s != null; s = added.poll()) {
+                s.close();
+            }
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    @Override
+    public void run() {
+        Selector sel;
+        synchronized (this) {
+            sel = selector;
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (Stream s = added.poll(); s != null; s = added.poll()) {
+                    active.add(s);
+                }
+                boolean progress = false;
+                for (Iterator<Stream> it = active.iterator(); it.hasNext();) {
+                    Stream stream = it.next();
+                    try {
+                        if (stream.key == null) {
+                            stream.key = stream.channel().register(sel, 0, stream);
+                        }
+                        progress |= stream.pump();
+                        if (!stream.isDone()) {
+                            stream.key.interestOps(stream.interestOps());
+                            continue;
+                        }
+                    } catch (IOException | CancelledKeyException | RejectedExecutionException e) {
+                        // the Python end of the pipe or the child's stream was closed, or the
+                        // workers were shut down
+                    }
+                    stream.close();
+                    it.remove();
+                }
+                synchronized (this) {
+                    if (active.isEmpty() && added.isEmpty()) {
+                        thread = null;
+                        selector = null;
+                        closeSelector(sel);
+                        return;
+                    }
+                }
+                if (progress) {
+                    sel.selectNow();
+                } else {
+                    sel.select();
+                }
+                sel.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            // the selector failed, drop all streams
+        }
+        for (Stream s : active) {
+            s.close();
+        }
+        active.clear();
+        synchronized (this) {
+            for (Stream s = added.poll(); s != null; s = added.poll()) {
+                s.close();
+            }
+            thread = null;
+            selector = null;
+            closeSelector(sel);
+        }
+    }
+
+    private static void closeSelector(Selector sel) {
+        try {
+            sel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -37,6 +37,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.nio.file.LinkOption;
 import java.text.MessageFormat;
 import java.util.ArrayDeque;
@@ -125,6 +126,9 @@ public final class PythonContext {
         /* corresponds to 'PyThreadState.exc_*' */
         PException caughtException;
 
+        /* corresponds to 'PyThreadState.c_tracefunc' and 'PyThreadState.c_profilefunc' */
+        PythonTracer.ThreadState traceState;
+
         PythonThreadState() {
             owners = new LinkedList<>();
         }
@@ -223,6 +227,11 @@ public final class PythonContext {
     // The context-local resources
     private final PosixResources resources;
     private final AsyncHandler handler;
+    private ResourceCleaner resourceCleaner;
+
+    // The number of weak and native object references that were dequeued after their referent
+    // was collected
+    private final AtomicLong reclaimedReferences = new AtomicLong();
 
     // A thread-local to store the full path to the currently active import statement, for Jython
     // compat
@@ -230,6 +239,14 @@ public final class PythonContext {
 
     @CompilationFinal(dimensions = 1) private Object[] optionValues;
 
+    private final MethodCache methodCache = new MethodCache();
+
+    /* created with the first call to 'sys.settrace' or 'sys.setprofile' */
+    private PythonTracer tracer;
+
+    /* null unless startup statistics are enabled */
+    private final StartupTimes startupTimes;
+
     public PythonContext(PythonLanguage language, TruffleLanguage.Env env, PythonCore core) {
         this.language = language;
         this.core = core;
@@ -241,6 +258,7 @@ public final class PythonContext {
         this.in = env.in();
         this.out = env.out();
         this.err = env.err();
+        this.startupTimes = env.getOptions().get(PythonOptions.StartupStatistics) ? new StartupTimes() : null;
     }
 
     public ThreadGroup getThreadGroup() {
@@ -294,6 +312,66 @@ public final class PythonContext {
         return env;
     }
 
+    /**
+     * Returns the Java primitive array wrapped by {@code object} if it is a host array, or
+     * {@code null} otherwise. This lets sequence constructors copy such arrays in bulk instead of
+     * reading them element by element through interop.
+     */
+    @TruffleBoundary
+    public Object getHostPrimitiveArray(Object object) {
+        if (env.isHostObject(object)) {
+            Object hostObject = env.asHostObject(object);
+            if (hostObject != null && hostObject.getClass().isArray() && hostObject.getClass().getComponentType().isPrimitive()) {
+                return hostObject;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a view of the bytes held by a host {@code byte[]} or {@link ByteBuffer}, or
+     * {@code null} if the object is neither. The view covers the remaining bytes of a buffer and
+     * shares memory with the host object.
+     */
+    @TruffleBoundary
+    public ByteBuffer getHostByteBuffer(Object object) {
+        if (env.isHostObject(object)) {
+            Object hostObject = env.asHostObject(object);
+            if (hostObject instanceof byte[]) {
+                return ByteBuffer.wrap((byte[]) hostObject);
+            } else if (hostObject instanceof ByteBuffer) {
+                return ((ByteBuffer) hostObject).duplicate();
+            }
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    public boolean isHostByteBuffer(Object object) {
+        if (env.isHostObject(object)) {
+            Object hostObject = env.asHostObject(object);
+            return hostObject instanceof byte[] || hostObject instanceof ByteBuffer;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a copy of the bytes of a host {@code byte[]} or {@link ByteBuffer}, or {@code null}
+     * if the object is neither. The result may end up as the storage of a Python {@code bytes}
+     * object, so it must not alias the mutable host memory. Consumers that only read the bytes use
+     * {@link #getHostByteBuffer(Object)} instead.
+     */
+    @TruffleBoundary
+    public byte[] getHostBufferBytes(Object object) {
+        ByteBuffer buffer = getHostByteBuffer(object);
+        if (buffer == null) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
     public void setEnv(TruffleLanguage.Env newEnv) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         env = newEnv;
@@ -338,6 +416,34 @@ public final class PythonContext {
         return out;
     }
 
+    public MethodCache getMethodCache() {
+        return methodCache;
+    }
+
+    @TruffleBoundary
+    public synchronized PythonTracer getTracer() {
+        if (tracer == null) {
+            tracer = new PythonTracer(this);
+        }
+        return tracer;
+    }
+
+    /**
+     * Returns the trace and profile functions of the current thread or {@code null} if it never
+     * had any and {@code create} is {@code false}.
+     */
+    public PythonTracer.ThreadState getTraceState(boolean create) {
+        PythonThreadState ts = getThreadState();
+        if (create && ts.traceState == null) {
+            ts.traceState = new PythonTracer.ThreadState();
+        }
+        return ts.traceState;
+    }
+
+    public StartupTimes getStartupTimes() {
+        return startupTimes;
+    }
+
     public void setCurrentException(PException e) {
         getThreadState().currentException = e;
     }
@@ -770,10 +876,36 @@ public final class PythonContext {
         return handler;
     }
 
+    public void addReclaimedReferences(long count) {
+        reclaimedReferences.addAndGet(count);
+    }
+
+    public long getReclaimedReferences() {
+        return reclaimedReferences.get();
+    }
+
     public void registerAsyncAction(Supplier<AsyncAction> actionSupplier) {
         handler.registerAction(actionSupplier);
     }
 
+    /**
+     * Closes {@code resource} once {@code owner} has been collected. Use this for Java resources of
+     * Python objects that may be dropped without being closed. {@code resource} must not refer to
+     * {@code owner} and must tolerate being closed again.
+     */
+    @TruffleBoundary
+    public void registerCleanup(Object owner, AutoCloseable resource) {
+        ResourceCleaner cleaner;
+        synchronized (this) {
+            cleaner = resourceCleaner;
+            if (cleaner == null) {
+                cleaner = resourceCleaner = new ResourceCleaner();
+                registerAsyncAction(cleaner::nextAction);
+            }
+        }
+        cleaner.register(owner, resource);
+    }
+
     @TruffleBoundary
     public CyclicAssumption getNativeClassStableAssumption(PythonNativeClass cls, boolean createOnDemand) {
         CyclicAssumption assumption = nativeClassStableAssumptions.get(cls);
@@ -963,6 +1095,7 @@ public final class PythonContext {
         // check if there is a live sentinel lock
         if (singleThreaded.isValid()) {
             assert threadStateMapping == null;
+            disposeTraceState(singleThreadState);
             singleThreadState.removeOwner(thread);
             // only release sentinel lock if all owners are gone
             if (!singleThreadState.hasOwners()) {
@@ -971,6 +1104,7 @@ public final class PythonContext {
         } else {
             PythonThreadState ts = threadStateMapping.get(threadId);
             assert ts != null : "thread was not attached to this context";
+            disposeTraceState(ts);
             ts.removeOwner(thread);
             threadStateMapping.remove(threadId);
             if (!ts.hasOwners()) {
@@ -979,6 +1113,13 @@ public final class PythonContext {
         }
     }
 
+    private void disposeTraceState(PythonThreadState ts) {
+        if (ts.traceState != null) {
+            getTracer().disposeThread(ts.traceState);
+            ts.traceState = null;
+        }
+    }
+
     private static void releaseSentinelLock(WeakReference<PLock> sentinelLockWeakref) {
         if (sentinelLockWeakref != null) {
             PLock sentinelLock = sentinelLockWeakref.get();
@@ -40,6 +40,7 @@ import org.graalvm.options.OptionDescriptor;
 import org.graalvm.options.OptionDescriptors;
 import org.graalvm.options.OptionKey;
 import org.graalvm.options.OptionStability;
+import org.graalvm.options.OptionType;
 import org.graalvm.options.OptionValues;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -141,6 +142,9 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Prints parser time statistics after number of parsed files, set by this option. 0 or <0 means no statistics are printed.") //
     public static final OptionKey<Integer> ParserStatistics = new OptionKey<>(0);
 
+    @Option(category = OptionCategory.EXPERT, help = "Prints the time spent in parsing, translation, core file execution, site and module imports when the context exits.") //
+    public static final OptionKey<Boolean> StartupStatistics = new OptionKey<>(false);
+
     @EngineOption @Option(category = OptionCategory.EXPERT, help = "") //
     public static final OptionKey<Integer> AttributeAccessInlineCacheMaxDepth = new OptionKey<>(5);
 
@@ -221,8 +225,22 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Max native memory heap size (default: 2 GB).") //
     public static final OptionKey<Long> MaxNativeMemory = new OptionKey<>(1L << 31);
 
+    @Option(category = OptionCategory.EXPERT, help = "How gc.collect() maps to Java garbage collections: 'full' runs a full collection for every generation, 'generational' (default) only for generation 2 or under native memory pressure.") //
+    public static final OptionKey<String> GcCollectPolicy = new OptionKey<>("generational", new OptionType<>("GcCollectPolicy", PythonOptions::parseGcCollectPolicy));
+
     public static final OptionDescriptors DESCRIPTORS = new PythonOptionsOptionDescriptors();
 
+    /**
+     * Rejects unknown policies when the context is created, instead of silently falling back to
+     * full collections in {@code gc.collect()}.
+     */
+    private static String parseGcCollectPolicy(String policy) {
+        if (!"full".equals(policy) && !"generational".equals(policy)) {
+            throw new IllegalArgumentException("Invalid GC collect policy '" + policy + "', expected 'full' or 'generational'.");
+        }
+        return policy;
+    }
+
     @CompilationFinal(dimensions = 1) private static final OptionKey<?>[] ENGINE_OPTION_KEYS;
     @CompilationFinal(dimensions = 1) private static final OptionKey<?>[] OPTION_KEYS;
     static {
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.HashMap;
+
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+
+/**
+ * An internal instrument that attaches the execution event nodes of {@link PythonTracer} for
+ * {@code sys.settrace} and {@code sys.setprofile}. The instrumenter is shared by all contexts of the
+ * engine and the event nodes look up the state of the current context themselves, so there is only
+ * one binding per tag, no matter how many contexts trace.
+ */
+@TruffleInstrument.Registration(id = PythonTraceInstrument.ID, name = "Python Trace", internal = true, services = PythonTraceInstrument.Service.class)
+public final class PythonTraceInstrument extends TruffleInstrument {
+    public static final String ID = "python-trace";
+
+    @Override
+    protected void onCreate(Env env) {
+        env.registerService(new Service(env.getInstrumenter()));
+    }
+
+    public static final class Service {
+        private final Instrumenter instrumenter;
+        private final HashMap<Class<?>, EventBinding<?>> bindings = new HashMap<>();
+        private final HashMap<Class<?>, Integer> users = new HashMap<>();
+
+        Service(Instrumenter instrumenter) {
+            this.instrumenter = instrumenter;
+        }
+
+        /**
+         * Attaches {@code factory} to the non-internal nodes tagged with {@code tag} unless another
+         * context did so already. Each call must be matched by a call to {@link #release}.
+         */
+        public synchronized void acquire(Class<?> tag, ExecutionEventNodeFactory factory) {
+            int count = users.getOrDefault(tag, 0);
+            if (count == 0) {
+                SourceSectionFilter filter = SourceSectionFilter.newBuilder().tagIs(tag).includeInternal(false).build();
+                bindings.put(tag, instrumenter.attachExecutionEventFactory(filter, factory));
+            }
+            users.put(tag, count + 1);
+        }
+
+        /**
+         * Disposes the binding for {@code tag} when its last user releases it.
+         */
+        public synchronized void release(Class<?> tag) {
+            int count = users.getOrDefault(tag, 0) - 1;
+            if (count <= 0) {
+                users.remove(tag);
+                EventBinding<?> binding = bindings.remove(tag);
+                if (binding != null) {
+                    binding.dispose();
+                }
+            } else {
+                users.put(tag, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.frame.PFrame;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.nodes.PNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.frame.MaterializeFrameNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.InstrumentInfo;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.nodes.ControlFlowException;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Implements {@code sys.settrace} and {@code sys.setprofile} with execution event nodes on function
+ * roots and statements.
+ *
+ * The event nodes are only attached while at least one thread has a trace or profile function and
+ * are disposed with the last one, so untraced code runs without any probes. The bindings belong to
+ * the engine and are shared by all contexts, see {@link PythonTraceInstrument.Service}. Profile functions that
+ * are {@link ProfileListener}s, like {@code _lsprof.Profiler}, receive the call and return events in
+ * batches and without materializing any frames.
+ */
+public final class PythonTracer {
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * A profiler implemented in Java. The event at index {@code i} is a call of {@code roots[i]} or
+     * a return from the innermost call if {@code roots[i]} is {@code null}. The arrays are reused
+     * for the next batch.
+     */
+    public interface ProfileListener {
+        void onEvents(RootNode[] roots, long[] timestamps, int count);
+    }
+
+    /**
+     * The trace and profile functions of a thread and the frames that have a local trace function.
+     */
+    public static final class ThreadState {
+        private Object traceFunction;
+        private Object profileFunction;
+
+        /* set while a trace or profile function runs, which is never traced itself */
+        private boolean tracing;
+        private TracedFrame current;
+
+        private RootNode[] batchRoots;
+        private long[] batchTimestamps;
+        private int batchCount;
+
+        public Object getTraceFunction() {
+            return traceFunction;
+        }
+
+        public Object getProfileFunction() {
+            return profileFunction;
+        }
+
+        boolean isActive() {
+            return traceFunction != null || profileFunction != null;
+        }
+
+        @TruffleBoundary
+        void record(RootNode root) {
+            if (batchRoots == null) {
+                batchRoots = new RootNode[BATCH_SIZE];
+                batchTimestamps = new long[BATCH_SIZE];
+            }
+            batchRoots[batchCount] = root;
+            batchTimestamps[batchCount] = System.nanoTime();
+            if (++batchCount == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @TruffleBoundary
+        void flush() {
+            int count = batchCount;
+            batchCount = 0;
+            if (count > 0 && profileFunction instanceof ProfileListener) {
+                ((ProfileListener) profileFunction).onEvents(batchRoots, batchTimestamps, count);
+            }
+        }
+    }
+
+    private static final class TracedFrame {
+        final TracedFrame caller;
+        final PFrame.Reference ref;
+        /** The local trace function, or {@code null} once it returned {@code None}. */
+        Object localTrace;
+        int lastLine = -1;
+        Node lastStatement;
+
+        TracedFrame(TracedFrame caller, PFrame.Reference ref, Object localTrace) {
+            this.caller = caller;
+            this.ref = ref;
+            this.localTrace = localTrace;
+        }
+    }
+
+    private static final ExecutionEventNodeFactory ROOT_EVENTS = (eventContext) -> isTraced(eventContext) ? new RootEventNode(eventContext) : null;
+    private static final ExecutionEventNodeFactory LINE_EVENTS = (eventContext) -> isTraced(eventContext) ? new LineEventNode(eventContext) : null;
+
+    private final PythonContext context;
+    private PythonTraceInstrument.Service service;
+    private int activeThreads;
+    private int tracedThreads;
+
+    PythonTracer(PythonContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Sets the trace function of the current thread, {@code null} removes it.
+     */
+    @TruffleBoundary
+    public void setTrace(Object function) {
+        ThreadState ts = context.getTraceState(true);
+        boolean wasActive = ts.isActive();
+        boolean wasTraced = ts.traceFunction != null;
+        ts.traceFunction = function;
+        if (function == null) {
+            ts.current = null;
+        }
+        update(wasActive, ts.isActive(), wasTraced, function != null);
+    }
+
+    /**
+     * Sets the profile function of the current thread, {@code null} removes it. This may be a
+     * {@link ProfileListener}.
+     */
+    @TruffleBoundary
+    public void setProfile(Object function) {
+        ThreadState ts = context.getTraceState(true);
+        boolean wasActive = ts.isActive();
+        boolean traced = ts.traceFunction != null;
+        ts.flush();
+        ts.profileFunction = function;
+        update(wasActive, ts.isActive(), traced, traced);
+    }
+
+    @TruffleBoundary
+    public Object getTrace() {
+        ThreadState ts = context.getTraceState(false);
+        return ts == null ? null : ts.traceFunction;
+    }
+
+    @TruffleBoundary
+    public Object getProfile() {
+        ThreadState ts = context.getTraceState(false);
+        return ts == null ? null : ts.profileFunction;
+    }
+
+    /**
+     * Delivers the pending events of the current thread if {@code listener} is its profile function.
+     */
+    @TruffleBoundary
+    public void flush(ProfileListener listener) {
+        ThreadState ts = context.getTraceState(false);
+        if (ts != null && ts.profileFunction == listener) {
+            ts.flush();
+        }
+    }
+
+    /**
+     * Removes the trace and profile functions of a thread that is disposed, so that they do not
+     * keep the event nodes attached.
+     */
+    @TruffleBoundary
+    void disposeThread(ThreadState ts) {
+        boolean wasActive = ts.isActive();
+        boolean wasTraced = ts.traceFunction != null;
+        ts.flush();
+        ts.traceFunction = null;
+        ts.profileFunction = null;
+        ts.current = null;
+        update(wasActive, false, wasTraced, false);
+    }
+
+    private synchronized void update(boolean wasActive, boolean active, boolean wasTraced, boolean traced) {
+        int oldActiveThreads = activeThreads;
+        int oldTracedThreads = tracedThreads;
+        activeThreads += (active ? 1 : 0) - (wasActive ? 1 : 0);
+        tracedThreads += (traced ? 1 : 0) - (wasTraced ? 1 : 0);
+        // the bindings are shared by all contexts of the engine, each context holds one reference
+        if (oldActiveThreads == 0 && activeThreads > 0) {
+            getService().acquire(StandardTags.RootTag.class, ROOT_EVENTS);
+        } else if (oldActiveThreads > 0 && activeThreads == 0) {
+            getService().release(StandardTags.RootTag.class);
+        }
+        if (oldTracedThreads == 0 && tracedThreads > 0) {
+            getService().acquire(StandardTags.StatementTag.class, LINE_EVENTS);
+        } else if (oldTracedThreads > 0 && tracedThreads == 0) {
+            getService().release(StandardTags.StatementTag.class);
+        }
+    }
+
+    private PythonTraceInstrument.Service getService() {
+        if (service == null) {
+            Env env = context.getEnv();
+            InstrumentInfo info = env.getInstruments().get(PythonTraceInstrument.ID);
+            service = env.lookup(info, PythonTraceInstrument.Service.class);
+        }
+        return service;
+    }
+
+    private static boolean isTraced(EventContext eventContext) {
+        // only Python code is traced, and only where we know the line
+        return eventContext.getInstrumentedNode() instanceof PNode && eventContext.getInstrumentedSourceSection() != null;
+    }
+
+    @TruffleBoundary
+    private static void removeFunction(boolean profile) {
+        // like CPython, a trace or profile function that raises an exception is removed
+        PythonTracer tracer = PythonLanguage.getContext().getTracer();
+        if (profile) {
+            tracer.setProfile(null);
+        } else {
+            tracer.setTrace(null);
+        }
+    }
+
+    private abstract static class TraceEventNode extends ExecutionEventNode {
+        protected final EventContext eventContext;
+        @Child private MaterializeFrameNode materializeNode;
+        @Child private CallNode callNode;
+
+        TraceEventNode(EventContext eventContext) {
+            this.eventContext = eventContext;
+        }
+
+        protected static ThreadState getThreadState() {
+            ThreadState ts = PythonLanguage.getContext().getTraceState(false);
+            if (ts == null || ts.tracing) {
+                return null;
+            }
+            return ts;
+        }
+
+        protected final Object call(VirtualFrame frame, ThreadState ts, Object function, boolean profile, String event, Object arg) {
+            return call(frame, ts, function, profile, event, arg, eventContext.getInstrumentedNode());
+        }
+
+        protected final Object call(VirtualFrame frame, ThreadState ts, Object function, boolean profile, String event, Object arg, Node location) {
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                materializeNode = insert(MaterializeFrameNode.create());
+                callNode = insert(CallNode.create());
+            }
+            PFrame pyFrame = materializeNode.execute(frame, location, true, true);
+            ts.tracing = true;
+            try {
+                return callNode.execute(frame, function, pyFrame, event, arg);
+            } catch (PException e) {
+                removeFunction(profile);
+                throw e;
+            } finally {
+                ts.tracing = false;
+            }
+        }
+    }
+
+    private static final class RootEventNode extends TraceEventNode {
+        RootEventNode(EventContext eventContext) {
+            super(eventContext);
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            ThreadState ts = getThreadState();
+            if (ts == null) {
+                return;
+            }
+            Object profile = ts.profileFunction;
+            if (profile instanceof ProfileListener) {
+                ts.record(eventContext.getInstrumentedNode().getRootNode());
+            } else if (profile != null) {
+                call(frame, ts, profile, true, "call", PNone.NONE);
+            }
+            Object trace = ts.traceFunction;
+            if (trace != null) {
+                Object localTrace = call(frame, ts, trace, false, "call", PNone.NONE);
+                if (localTrace != PNone.NONE) {
+                    ts.current = new TracedFrame(ts.current, PArguments.getCurrentFrameInfo(frame), localTrace);
+                }
+            }
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            ThreadState ts = getThreadState();
+            if (ts != null) {
+                onReturn(frame, ts, result == null ? PNone.NONE : result);
+            }
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            ThreadState ts = getThreadState();
+            if (ts != null) {
+                if (exception instanceof PException || exception instanceof ControlFlowException) {
+                    onReturn(frame, ts, PNone.NONE);
+                } else {
+                    popFrame(frame, ts);
+                }
+            }
+        }
+
+        private void onReturn(VirtualFrame frame, ThreadState ts, Object result) {
+            TracedFrame tracedFrame = popFrame(frame, ts);
+            // the frame reports the line it returns from if we know it
+            Node location = eventContext.getInstrumentedNode();
+            if (tracedFrame != null) {
+                if (tracedFrame.lastStatement != null) {
+                    location = tracedFrame.lastStatement;
+                }
+                if (tracedFrame.localTrace != null) {
+                    call(frame, ts, tracedFrame.localTrace, false, "return", result, location);
+                }
+            }
+            Object profile = ts.profileFunction;
+            if (profile instanceof ProfileListener) {
+                ts.record(null);
+            } else if (profile != null) {
+                call(frame, ts, profile, true, "return", result, location);
+            }
+        }
+
+        private static TracedFrame popFrame(VirtualFrame frame, ThreadState ts) {
+            TracedFrame tracedFrame = ts.current;
+            if (tracedFrame != null && tracedFrame.ref == PArguments.getCurrentFrameInfo(frame)) {
+                ts.current = tracedFrame.caller;
+                return tracedFrame;
+            }
+            return null;
+        }
+    }
+
+    private static final class LineEventNode extends TraceEventNode {
+        private final int line;
+
+        LineEventNode(EventContext eventContext) {
+            super(eventContext);
+            SourceSection section = eventContext.getInstrumentedSourceSection();
+            this.line = section.getStartLine();
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            ThreadState ts = getThreadState();
+            if (ts == null) {
+                return;
+            }
+            TracedFrame tracedFrame = ts.current;
+            if (tracedFrame == null || tracedFrame.localTrace == null || tracedFrame.ref != PArguments.getCurrentFrameInfo(frame)) {
+                return;
+            }
+            Node statement = eventContext.getInstrumentedNode();
+            // nested statements on the same line report it once, loops report it again
+            if (line == tracedFrame.lastLine && statement != tracedFrame.lastStatement) {
+                return;
+            }
+            tracedFrame.lastLine = line;
+            tracedFrame.lastStatement = statement;
+            Object localTrace = call(frame, ts, tracedFrame.localTrace, false, "line", PNone.NONE);
+            // like clearing f_trace, None stops the events of this frame
+            tracedFrame.localTrace = localTrace == PNone.NONE ? null : localTrace;
+        }
+    }
+}
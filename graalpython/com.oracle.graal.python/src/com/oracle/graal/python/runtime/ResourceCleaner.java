@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.graal.python.runtime.AsyncHandler.AsyncAction;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Closes Java resources (selectors, inner contexts, ...) that belong to a Python object once that
+ * object was collected without being closed explicitly. The resources must not refer back to their
+ * owner, otherwise it never becomes unreachable. Closing is done by an async action, so it happens
+ * on a thread running Python code of this context, like other finalization.
+ */
+final class ResourceCleaner {
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    // keeps the references themselves alive until they are enqueued
+    private final Set<CleanupReference> pending = ConcurrentHashMap.newKeySet();
+
+    private static final class CleanupReference extends PhantomReference<Object> {
+        private final AutoCloseable resource;
+
+        CleanupReference(Object owner, AutoCloseable resource, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.resource = resource;
+        }
+    }
+
+    @TruffleBoundary
+    void register(Object owner, AutoCloseable resource) {
+        pending.add(new CleanupReference(owner, resource, queue));
+    }
+
+    /**
+     * Blocks until at least one owner was collected and returns the action that closes the
+     * resources of all collected owners.
+     */
+    AsyncAction nextAction() {
+        Reference<?> reference = null;
+        try {
+            reference = queue.remove();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ArrayList<AutoCloseable> resources = new ArrayList<>();
+        while (reference != null) {
+            if (pending.remove(reference)) {
+                resources.add(((CleanupReference) reference).resource);
+            }
+            reference = queue.poll();
+        }
+        if (resources.isEmpty()) {
+            return null;
+        }
+        return context -> {
+            for (AutoCloseable resource : resources) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    // nobody is left to report it to
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.io.PrintStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Accumulates the wall-clock time spent in the individual phases of context startup and module
+ * loading. Only allocated when {@link PythonOptions#StartupStatistics} is enabled.
+ *
+ * Phases nest: parsing and translation are also contained in the core file, site and import times,
+ * and the site import contains the imports done by {@code site}. Imports are only accounted at the
+ * outermost level, so a module importing other modules is counted once.
+ */
+public final class StartupTimes {
+
+    public enum Phase {
+        PARSE("ANTLR parsing"),
+        TRANSLATE("SST to Truffle translation"),
+        CORE_FILES("core file execution"),
+        SITE_IMPORT("site import"),
+        IMPORT("module imports"),
+        EXTENSION_LOAD("C extension loading");
+
+        private final String description;
+
+        Phase(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long createdAt = System.nanoTime();
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+    private int importDepth;
+
+    @TruffleBoundary(allowInlining = true)
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    @TruffleBoundary
+    public void stop(Phase phase, long start) {
+        nanos[phase.ordinal()] += System.nanoTime() - start;
+        counts[phase.ordinal()]++;
+    }
+
+    /**
+     * Marks the start of an import and returns whether it is the outermost one, i.e., the one that
+     * should be accounted with {@link #exitImport}.
+     */
+    public boolean enterImport() {
+        return importDepth++ == 0;
+    }
+
+    public void exitImport(String name, long start, boolean outermost) {
+        importDepth--;
+        if (outermost) {
+            stop("site".equals(name) ? Phase.SITE_IMPORT : Phase.IMPORT, start);
+        }
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public int getCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * Time since the context was created.
+     */
+    public long getTotalNanos() {
+        return System.nanoTime() - createdAt;
+    }
+
+    @TruffleBoundary
+    public void print(PrintStream out) {
+        out.println("Startup statistics (nested phases are included in the enclosing ones):");
+        for (Phase phase : PHASES) {
+            out.printf("  %-28s %8.2f ms  (%d)%n", phase.getDescription(), nanos[phase.ordinal()] / 1e6, counts[phase.ordinal()]);
+        }
+        out.printf("  %-28s %8.2f ms%n", "total since context creation", getTotalNanos() / 1e6);
+        out.flush();
+    }
+}
@@ -29,8 +29,11 @@ import java.io.ByteArrayOutputStream;
 import java.lang.ref.ReferenceQueue;
 import java.math.BigInteger;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.Selector;
 import java.nio.file.DirectoryStream;
 import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import org.graalvm.collections.EconomicMap;
 import org.tukaani.xz.FinishableOutputStream;
@@ -38,6 +41,7 @@ import org.tukaani.xz.FinishableOutputStream;
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.asyncio.PEventLoopCore;
 import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.cell.PCell;
@@ -51,6 +55,10 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary.Has
 import com.oracle.graal.python.builtins.objects.common.LocalsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.csv.CSVDialect;
+import com.oracle.graal.python.builtins.objects.csv.CSVModuleState;
+import com.oracle.graal.python.builtins.objects.csv.CSVReader;
+import com.oracle.graal.python.builtins.objects.csv.CSVWriter;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemIterator;
@@ -67,6 +75,8 @@ import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
@@ -99,12 +109,14 @@ import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.PDirEntry;
 import com.oracle.graal.python.builtins.objects.posix.PScandirIterator;
+import com.oracle.graal.python.builtins.objects.queue.PSimpleQueue;
 import com.oracle.graal.python.builtins.objects.random.PRandom;
 import com.oracle.graal.python.builtins.objects.range.PBigRange;
 import com.oracle.graal.python.builtins.objects.range.PIntRange;
 import com.oracle.graal.python.builtins.objects.referencetype.PReferenceType;
 import com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator;
 import com.oracle.graal.python.builtins.objects.reversed.PStringReverseIterator;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
@@ -124,6 +136,8 @@ import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes;
 import com.oracle.graal.python.builtins.objects.zipimporter.PZipImporter;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibCompress;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibDecompress;
 import com.oracle.graal.python.nodes.literal.ListLiteralNode;
 import com.oracle.graal.python.parser.ExecutionCellSlots;
 import com.oracle.graal.python.parser.GeneratorInfo;
@@ -365,6 +379,14 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PRandom(cls, getShape(cls)));
     }
 
+    public PPartial createPartial(Object cls, Object fn, PTuple args, PDict keywords) {
+        return trace(new PPartial(cls, getShape(cls), fn, args, keywords));
+    }
+
+    public PLruCacheWrapper createLruCacheWrapper(Object cls, Object function, Object maxsizeObject, long maxsize, boolean typed, Object cacheInfoType) {
+        return trace(new PLruCacheWrapper(cls, getShape(cls), function, maxsizeObject, maxsize, typed, cacheInfoType));
+    }
+
     /*
      * Classes, methods and functions
      */
@@ -899,6 +921,14 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PDirEntry(cls, getShape(cls), name, file));
     }
 
+    public PEventLoopCore createEventLoopCore(Object clazz, PPoll poll) {
+        return trace(new PEventLoopCore(clazz, getShape(clazz), poll));
+    }
+
+    public PPoll createPoll(Object clazz, Selector selector) {
+        return trace(new PPoll(clazz, getShape(clazz), selector));
+    }
+
     public PMMap createMMap(SeekableByteChannel channel, long length, long offset) {
         return trace(new PMMap(PythonBuiltinClassType.PMMap, PythonBuiltinClassType.PMMap.getInstanceShape(), channel, length, offset));
     }
@@ -914,4 +944,29 @@ public abstract class PythonObjectFactory extends Node {
     public PLZMADecompressor createLZMADecompressor(Object clazz, int format, int memlimit) {
         return trace(new PLZMADecompressor(clazz, getShape(clazz), format, memlimit));
     }
+
+    public PZLibCompress createZLibCompress(Object clazz, Deflater deflater, int level, int strategy, boolean nowrap, byte[] zdict) {
+        return trace(new PZLibCompress(clazz, getShape(clazz), deflater, level, strategy, nowrap, zdict));
+    }
+
+    public PZLibDecompress createZLibDecompress(Object clazz, Inflater inflater, boolean nowrap, byte[] zdict) {
+        return trace(new PZLibDecompress(clazz, getShape(clazz), inflater, nowrap, zdict));
+    }
+
+    public CSVDialect createCSVDialect(Object clazz, int delimiter, boolean doublequote, int escapechar, String lineterminator, int quotechar, int quoting, boolean skipinitialspace,
+                    boolean strict) {
+        return trace(new CSVDialect(clazz, getShape(clazz), delimiter, doublequote, escapechar, lineterminator, quotechar, quoting, skipinitialspace, strict));
+    }
+
+    public CSVReader createCSVReader(Object clazz, Object inputIter, CSVDialect dialect, CSVModuleState moduleState) {
+        return trace(new CSVReader(clazz, getShape(clazz), inputIter, dialect, moduleState));
+    }
+
+    public CSVWriter createCSVWriter(Object clazz, Object write, CSVDialect dialect) {
+        return trace(new CSVWriter(clazz, getShape(clazz), write, dialect));
+    }
+
+    public PSimpleQueue createSimpleQueue(Object clazz) {
+        return trace(new PSimpleQueue(clazz, getShape(clazz)));
+    }
 }
@@ -27,11 +27,9 @@ package com.oracle.graal.python.runtime.sequence;
 
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
-import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
-import com.oracle.graal.python.util.OverflowException;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Exclusive;
@@ -181,16 +179,23 @@ public abstract class PSequence extends PythonBuiltinObject {
         return lenNode.execute(getSequenceStorageNode.execute(this));
     }
 
+    @ExportMessage
+    public boolean isArrayElementReadable(long index,
+                    @Exclusive @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
+                    @Exclusive @Cached SequenceStorageNodes.LenNode lenNode) {
+        return 0 <= index && index < lenNode.execute(getSequenceStorageNode.execute(this));
+    }
+
     @ExportMessage
     public Object readArrayElement(long index,
                     @Exclusive @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
+                    @Exclusive @Cached SequenceStorageNodes.LenNode lenNode,
                     @Cached SequenceStorageNodes.GetItemScalarNode getItem) throws InvalidArrayIndexException {
-        try {
-            return getItem.execute(getSequenceStorageNode.execute(this), PInt.intValueExact(index));
-        } catch (OverflowException e) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            throw InvalidArrayIndexException.create(index);
+        SequenceStorage storage = getSequenceStorageNode.execute(this);
+        if (0 <= index && index < lenNode.execute(storage)) {
+            return getItem.execute(storage, (int) index);
         }
+        throw InvalidArrayIndexException.create(index);
     }
 
 }
@@ -40,23 +40,22 @@
  */
 package com.oracle.graal.python.runtime.sequence.storage;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetMroStorageNode;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.Assumption;
-import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.utilities.CyclicAssumption;
+import com.oracle.truffle.api.utilities.NeverValidAssumption;
 
 public final class MroSequenceStorage extends TypedSequenceStorage {
 
@@ -67,10 +66,44 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
     private final CyclicAssumption lookupStableAssumption;
 
     /**
-     * These assumptions will be invalidated whenever the value of the given slot changes. All
-     * assumptions will be invalidated if the mro changes.
+     * Incremented whenever an attribute of this class or of any class in its MRO changes, or the MRO
+     * itself changes. Caches that cannot depend on an assumption, like the {@code MethodCache},
+     * compare this tag to validate their entries.
      */
-    private final Map<String, List<Assumption>> attributesInMROFinalAssumptions;
+    private int versionTag;
+
+    /**
+     * Invalidated on the same events that increment the {@link #versionTag}. This is the one
+     * assumption per class that compiled lookups depend on, so that classes with many attributes
+     * do not need one assumption per attribute.
+     */
+    private final CyclicAssumption attributesStableAssumption;
+
+    /**
+     * Set when {@link #attributesStableAssumption} was handed out, so that changes to classes nobody
+     * depends on (e.g. while the class body is being set up) neither allocate a new assumption nor
+     * count towards {@link #MAX_ATTRIBUTES_STABLE_INVALIDATIONS}.
+     */
+    private boolean attributesStableAssumptionUsed;
+    private int attributesStableInvalidations;
+
+    /**
+     * Classes are monkey-patched in a loop sometimes. Once their assumption was invalidated this
+     * often, lookups stop depending on it and read the class dictionaries instead.
+     */
+    private static final int MAX_ATTRIBUTES_STABLE_INVALIDATIONS = 8;
+
+    /**
+     * The MROs of the subclasses that depend on the attributes of this class. Changes here are
+     * propagated to them, since they change the result of lookups through them, too.
+     */
+    private final Set<MroSequenceStorage> dependents = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Whether this MRO is registered as a dependent of all the classes in it, see
+     * {@link #ensureRegisteredWithBases()}.
+     */
+    private boolean registeredWithBases;
 
     @CompilationFinal(dimensions = 1) private PythonAbstractClass[] values;
 
@@ -83,7 +116,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
         this.capacity = elements.length;
         this.length = elements.length;
         this.lookupStableAssumption = new CyclicAssumption(className);
-        this.attributesInMROFinalAssumptions = new HashMap<>();
+        this.attributesStableAssumption = new CyclicAssumption(className);
     }
 
     @TruffleBoundary
@@ -93,7 +126,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
         this.capacity = capacity;
         this.length = 0;
         this.lookupStableAssumption = new CyclicAssumption(className);
-        this.attributesInMROFinalAssumptions = new HashMap<>();
+        this.attributesStableAssumption = new CyclicAssumption(className);
     }
 
     @Override
@@ -256,6 +289,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
     @Override
     public void setInternalArrayObject(Object arrayObject) {
         PythonAbstractClass[] classArray = (PythonAbstractClass[]) arrayObject;
+        this.registeredWithBases = false;
         this.values = classArray;
         this.length = classArray.length;
         this.capacity = classArray.length;
@@ -278,61 +312,103 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
         return lookupStableAssumption.getAssumption();
     }
 
-    public Assumption createAttributeInMROFinalAssumption(String name) {
-        CompilerAsserts.neverPartOfCompilation();
-        List<Assumption> attrAssumptions = attributesInMROFinalAssumptions.getOrDefault(name, null);
-        if (attrAssumptions == null) {
-            attrAssumptions = new ArrayList<>();
-            attributesInMROFinalAssumptions.put(name, attrAssumptions);
+    /**
+     * @return the assumption that no attribute in this MRO changes, or an invalid assumption if this
+     *         class changes too often to be worth depending on
+     */
+    @TruffleBoundary
+    public Assumption getAttributesStableAssumption() {
+        if (attributesStableInvalidations >= MAX_ATTRIBUTES_STABLE_INVALIDATIONS) {
+            return NeverValidAssumption.INSTANCE;
         }
+        ensureRegisteredWithBases();
+        attributesStableAssumptionUsed = true;
+        return attributesStableAssumption.getAssumption();
+    }
 
-        Assumption assumption = Truffle.getRuntime().createAssumption(name.toString());
-        attrAssumptions.add(assumption);
-        return assumption;
+    /**
+     * @return the current version tag. Callers must make sure that {@link #ensureRegisteredWithBases}
+     *         was called before they rely on the tag, otherwise changes in base classes are missed.
+     */
+    public int getVersionTag() {
+        return versionTag;
     }
 
-    public void addAttributeInMROFinalAssumption(String name, Assumption assumption) {
-        CompilerAsserts.neverPartOfCompilation();
-        List<Assumption> attrAssumptions = attributesInMROFinalAssumptions.getOrDefault(name, null);
-        if (attrAssumptions == null) {
-            attrAssumptions = new ArrayList<>();
-            attributesInMROFinalAssumptions.put(name, attrAssumptions);
+    @TruffleBoundary
+    public void ensureRegisteredWithBases() {
+        if (!registeredWithBases) {
+            registeredWithBases = true;
+            for (int i = 1; i < length; i++) {
+                MroSequenceStorage baseMro = GetMroStorageNode.getUncached().execute(values[i]);
+                if (baseMro != this) {
+                    baseMro.addDependent(this);
+                }
+            }
         }
+    }
 
-        attrAssumptions.add(assumption);
+    private void addDependent(MroSequenceStorage dependent) {
+        synchronized (dependents) {
+            dependents.add(dependent);
+        }
     }
 
+    /**
+     * Called when the attribute {@code name} of this class is written or deleted.
+     */
     @TruffleBoundary
-    public void invalidateAttributeInMROFinalAssumptions(String name) {
-        List<Assumption> assumptions = attributesInMROFinalAssumptions.getOrDefault(name, new ArrayList<>());
-        if (!assumptions.isEmpty()) {
-            String message = getClassName() + "." + name;
-            for (Assumption assumption : assumptions) {
-                assumption.invalidate(message);
+    public void attributeChanged(String name) {
+        changed(this, name);
+    }
+
+    /**
+     * Increments the version tag of this MRO and of all dependents and invalidates their
+     * assumptions. The reason is either the attribute {@code name} of the class {@code origin}, or
+     * just {@code name} if there is no origin. The message is only built when an assumption is
+     * actually invalidated, since class attributes are written frequently.
+     */
+    private void changed(MroSequenceStorage origin, String name) {
+        attributesChanged(origin, name);
+        MroSequenceStorage[] toNotify;
+        synchronized (dependents) {
+            if (dependents.isEmpty()) {
+                return;
             }
+            toNotify = dependents.toArray(new MroSequenceStorage[0]);
+        }
+        for (MroSequenceStorage dependent : toNotify) {
+            dependent.attributesChanged(origin, name);
+        }
+    }
+
+    private void attributesChanged(MroSequenceStorage origin, String name) {
+        versionTag++;
+        if (attributesStableAssumptionUsed) {
+            attributesStableAssumptionUsed = false;
+            attributesStableInvalidations++;
+            attributesStableAssumption.invalidate(origin != null ? origin.getClassName() + "." + name : name);
         }
     }
 
     public void lookupChanged() {
         CompilerDirectives.transferToInterpreterAndInvalidate();
-        for (List<Assumption> list : attributesInMROFinalAssumptions.values()) {
-            for (Assumption assumption : list) {
-                assumption.invalidate();
-            }
-        }
+        mroChanged("MRO changed");
         lookupStableAssumption.invalidate();
     }
 
     public void lookupChanged(String msg) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
-        for (List<Assumption> list : attributesInMROFinalAssumptions.values()) {
-            for (Assumption assumption : list) {
-                assumption.invalidate();
-            }
-        }
+        mroChanged(msg);
         lookupStableAssumption.invalidate(msg);
     }
 
+    @TruffleBoundary
+    private void mroChanged(String msg) {
+        // the bases are different now, register again when needed
+        registeredWithBases = false;
+        changed(null, msg);
+    }
+
     @Override
     public Object[] getCopyOfInternalArray() {
         return getInternalArray();
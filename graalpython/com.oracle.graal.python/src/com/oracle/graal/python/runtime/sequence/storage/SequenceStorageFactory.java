@@ -25,8 +25,12 @@
  */
 package com.oracle.graal.python.runtime.sequence.storage;
 
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public abstract class SequenceStorageFactory {
 
@@ -83,6 +87,99 @@ public abstract class SequenceStorageFactory {
 
     }
 
+    /**
+     * Creates a storage with a copy of the elements of a host (i.e. Java) primitive array. The
+     * element types are widened the same way as when the elements are read one by one through
+     * interop, so {@code byte[]} and {@code short[]} become int storages and {@code float[]} a
+     * double storage. Returns {@code null} for any other kind of object.
+     */
+    @TruffleBoundary
+    public static SequenceStorage createStorageFromHostArray(Object hostArray) {
+        if (hostArray == null || !hostArray.getClass().isArray()) {
+            return null;
+        }
+        return createStorageFromHostArray(hostArray, 0, 1, Array.getLength(hostArray));
+    }
+
+    /**
+     * Like {@link #createStorageFromHostArray(Object)}, but only copies {@code length} elements
+     * starting at {@code start} with the given {@code step}, as needed for slicing.
+     */
+    @TruffleBoundary
+    public static SequenceStorage createStorageFromHostArray(Object hostArray, int start, int step, int length) {
+        if (hostArray instanceof int[]) {
+            int[] src = (int[]) hostArray;
+            int[] values;
+            if (step == 1) {
+                values = Arrays.copyOfRange(src, start, start + length);
+            } else {
+                values = new int[length];
+                for (int i = 0, j = start; i < length; i++, j += step) {
+                    values[i] = src[j];
+                }
+            }
+            return new IntSequenceStorage(values);
+        } else if (hostArray instanceof long[]) {
+            long[] src = (long[]) hostArray;
+            long[] values;
+            if (step == 1) {
+                values = Arrays.copyOfRange(src, start, start + length);
+            } else {
+                values = new long[length];
+                for (int i = 0, j = start; i < length; i++, j += step) {
+                    values[i] = src[j];
+                }
+            }
+            return new LongSequenceStorage(values);
+        } else if (hostArray instanceof double[]) {
+            double[] src = (double[]) hostArray;
+            double[] values;
+            if (step == 1) {
+                values = Arrays.copyOfRange(src, start, start + length);
+            } else {
+                values = new double[length];
+                for (int i = 0, j = start; i < length; i++, j += step) {
+                    values[i] = src[j];
+                }
+            }
+            return new DoubleSequenceStorage(values);
+        } else if (hostArray instanceof boolean[]) {
+            boolean[] src = (boolean[]) hostArray;
+            boolean[] values;
+            if (step == 1) {
+                values = Arrays.copyOfRange(src, start, start + length);
+            } else {
+                values = new boolean[length];
+                for (int i = 0, j = start; i < length; i++, j += step) {
+                    values[i] = src[j];
+                }
+            }
+            return new BoolSequenceStorage(values);
+        } else if (hostArray instanceof byte[]) {
+            byte[] src = (byte[]) hostArray;
+            int[] values = new int[length];
+            for (int i = 0, j = start; i < length; i++, j += step) {
+                values[i] = src[j];
+            }
+            return new IntSequenceStorage(values);
+        } else if (hostArray instanceof short[]) {
+            short[] src = (short[]) hostArray;
+            int[] values = new int[length];
+            for (int i = 0, j = start; i < length; i++, j += step) {
+                values[i] = src[j];
+            }
+            return new IntSequenceStorage(values);
+        } else if (hostArray instanceof float[]) {
+            float[] src = (float[]) hostArray;
+            double[] values = new double[length];
+            for (int i = 0, j = start; i < length; i++, j += step) {
+                values[i] = src[j];
+            }
+            return new DoubleSequenceStorage(values);
+        }
+        return null;
+    }
+
     public static boolean canSpecializeToInt(Object[] values) {
         for (Object item : values) {
             if (!(item instanceof Integer)) {
@@ -108,10 +108,6 @@ has_ipv6 = False  #: TODO implement me
 error = OSError
 
 
-class timeout(OSError):
-    pass
-
-
 __default_timeout = None
 
 
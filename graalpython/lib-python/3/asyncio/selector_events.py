@@ -1002,11 +1002,14 @@ class _SelectorDatagramTransport(_SelectorTransport):
     def get_write_buffer_size(self):
         return sum(len(data) for data, _ in self._buffer)
 
+    # Truffle change: receive all queued datagrams (up to a limit) per wakeup
+    _max_datagrams_per_read = 32
+
     def _read_ready(self):
         if self._conn_lost:
             return
         try:
-            data, addr = self._sock.recvfrom(self.max_size)
+            datagrams = self._sock._recvfrom_many(self.max_size, self._max_datagrams_per_read)
         except (BlockingIOError, InterruptedError):
             pass
         except OSError as exc:
@@ -1016,7 +1019,11 @@ class _SelectorDatagramTransport(_SelectorTransport):
         except BaseException as exc:
             self._fatal_error(exc, 'Fatal read error on datagram transport')
         else:
-            self._protocol.datagram_received(data, addr)
+            for data, addr in datagrams:
+                self._protocol.datagram_received(data, addr)
+                if self._conn_lost:
+                    break
+    # End of Truffle change
 
     def sendto(self, data, addr=None):
         if not isinstance(data, (bytes, bytearray, memoryview)):
@@ -433,6 +433,104 @@ class _UnixSelectorEventLoop(selector_events.BaseSelectorEventLoop):
         fut.add_done_callback(cb)
 
 
+# Truffle change: the default event loop keeps its I/O registrations and its
+# timers in a Java EventLoopCore. One core.run_once() call selects and returns
+# the ready I/O and timer handles, instead of going through selectors, heapq and
+# _process_events in Python.
+from _asyncio_truffle import EventLoopCore as _EventLoopCore
+
+
+class _TruffleSelectorEventLoop(_UnixSelectorEventLoop):
+    """Unix event loop whose selection and timer queue run in Java."""
+
+    def __init__(self):
+        self._core = _EventLoopCore()
+        # The Python selector is never polled, transports only look at it in
+        # their __repr__.
+        super().__init__(selectors.SelectSelector())
+
+    def close(self):
+        super().close()
+        self._core.close()
+
+    def call_at(self, when, callback, *args, context=None):
+        self._check_closed()
+        if self._debug:
+            self._check_thread()
+            self._check_callback(callback, 'call_at')
+        timer = events.TimerHandle(when, callback, args, self, context)
+        if timer._source_traceback:
+            del timer._source_traceback[-1]
+        self._core.call_at(when, timer)
+        timer._scheduled = True
+        return timer
+
+    def _timer_handle_cancelled(self, handle):
+        self._core.cancel_timer(handle)
+
+    def _add_reader(self, fd, callback, *args):
+        self._check_closed()
+        handle = events.Handle(callback, args, self, None)
+        previous = self._core.add_reader(fd, handle)
+        if previous is not None:
+            previous.cancel()
+
+    def _remove_reader(self, fd):
+        if self.is_closed():
+            return False
+        handle = self._core.remove_reader(fd)
+        if handle is not None:
+            handle.cancel()
+            return True
+        return False
+
+    def _add_writer(self, fd, callback, *args):
+        self._check_closed()
+        handle = events.Handle(callback, args, self, None)
+        previous = self._core.add_writer(fd, handle)
+        if previous is not None:
+            previous.cancel()
+
+    def _remove_writer(self, fd):
+        if self.is_closed():
+            return False
+        handle = self._core.remove_writer(fd)
+        if handle is not None:
+            handle.cancel()
+            return True
+        return False
+
+    def _run_once(self):
+        ready = self._ready
+        ready.extend(self._core.run_once(
+            not (ready or self._stopping),
+            base_events.MAXIMUM_SELECT_TIMEOUT,
+            self._clock_resolution))
+
+        # This is the only place where callbacks are actually *called*, see
+        # BaseEventLoop._run_once
+        ntodo = len(ready)
+        for i in range(ntodo):
+            handle = ready.popleft()
+            if handle._cancelled:
+                continue
+            if self._debug:
+                try:
+                    self._current_handle = handle
+                    t0 = self.time()
+                    handle._run()
+                    dt = self.time() - t0
+                    if dt >= self.slow_callback_duration:
+                        logger.warning('Executing %s took %.3f seconds',
+                                       base_events._format_handle(handle), dt)
+                finally:
+                    self._current_handle = None
+            else:
+                handle._run()
+        handle = None  # Needed to break cycles when an exception occurs.
+# End of Truffle change
+
+
 class _UnixReadPipeTransport(transports.ReadTransport):
 
     max_size = 256 * 1024  # max bytes we read in one event loop iteration
@@ -1336,7 +1434,8 @@ class ThreadedChildWatcher(AbstractChildWatcher):
 
 class _UnixDefaultEventLoopPolicy(events.BaseDefaultEventLoopPolicy):
     """UNIX event loop policy with a watcher for child processes."""
-    _loop_factory = _UnixSelectorEventLoop
+    # Truffle change: use the loop that runs its selection in Java
+    _loop_factory = _TruffleSelectorEventLoop
 
     def __init__(self):
         super().__init__()
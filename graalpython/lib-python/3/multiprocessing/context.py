@@ -290,6 +290,15 @@ if sys.platform != 'win32':
             from .popen_forkserver import Popen
             return Popen(process_obj)
 
+    # BEGIN TRUFFLE PATCH
+    class InProcessProcess(process.BaseProcess):
+        _start_method = 'inprocess'
+        @staticmethod
+        def _Popen(process_obj):
+            from .popen_inprocess import Popen
+            return Popen(process_obj)
+    # END TRUFFLE PATCH
+
     class ForkContext(BaseContext):
         _name = 'fork'
         Process = ForkProcess
@@ -305,11 +314,28 @@ if sys.platform != 'win32':
             if not reduction.HAVE_SEND_HANDLE:
                 raise ValueError('forkserver start method not available')
 
+    # BEGIN TRUFFLE PATCH
+    class InProcessContext(BaseContext):
+        _name = 'inprocess'
+        Process = InProcessProcess
+        def _check_available(self):
+            import _multiprocessing
+            if not hasattr(_multiprocessing, '_spawn_context'):
+                raise ValueError('inprocess start method not available')
+        def SimpleQueue(self):
+            '''Returns a queue object'''
+            from .popen_inprocess import SimpleQueue
+            return SimpleQueue(ctx=self.get_context())
+    # END TRUFFLE PATCH
+
     _concrete_contexts = {
         'fork': ForkContext(),
         'spawn': SpawnContext(),
         'forkserver': ForkServerContext(),
     }
+    # BEGIN TRUFFLE PATCH
+    _concrete_contexts['inprocess'] = InProcessContext()
+    # END TRUFFLE PATCH
     if sys.platform == 'darwin':
         # bpo-33725: running arbitrary code after fork() is no longer reliable
         # on macOS since macOS 10.14 (Mojave). Use spawn by default instead.
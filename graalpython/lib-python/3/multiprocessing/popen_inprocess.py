@@ -0,0 +1,208 @@
+#
+# Start child processes as contexts on threads of the same engine (GraalPython only)
+#
+# Each child runs in its own inner context, so it has its own modules and
+# globals like a process started with 'spawn', but it shares the parsed and
+# compiled code with its parent and starts without launching a new VM.
+#
+
+import io
+import os
+import sys
+
+import _multiprocessing
+
+from . import context
+from . import process
+from . import queues
+from . import spawn
+from . import util
+from .context import reduction, set_spawning_popen
+
+__all__ = ['Popen', 'SimpleQueue']
+
+_ForkingPickler = reduction.ForkingPickler
+
+#
+# Wrapper for an fd passed to a child context
+#
+
+class _DupFd(object):
+    def __init__(self, token):
+        self.token = token
+    def detach(self):
+        return _multiprocessing._adopt_fd(self.token)
+
+#
+# Start child process in a new context
+#
+
+class Popen(object):
+    method = 'inprocess'
+    DupFd = _DupFd
+
+    def __init__(self, process_obj):
+        util._flush_std_streams()
+        self.returncode = None
+        self.finalizer = None
+        self._tokens = []
+        self._launch(process_obj)
+
+    def duplicate_for_child(self, fd):
+        token = _multiprocessing._share_fd(fd)
+        self._tokens.append(token)
+        return token
+
+    def poll(self, flag=os.WNOHANG):
+        return self.wait(0 if flag == os.WNOHANG else None)
+
+    def wait(self, timeout=None):
+        if self.returncode is None:
+            self.returncode = _multiprocessing._wait_context(self._id, timeout)
+        return self.returncode
+
+    def terminate(self):
+        # the child exits at its next safepoint or when it wakes from waiting
+        # on a lock or a channel, but not while it is blocked in other I/O
+        if self.returncode is None:
+            _multiprocessing._terminate_context(self._id)
+
+    kill = terminate
+
+    def _launch(self, process_obj):
+        prep_data = spawn.get_preparation_data(process_obj._name)
+        fp = io.BytesIO()
+        set_spawning_popen(self)
+        try:
+            reduction.dump(prep_data, fp)
+            reduction.dump(process_obj, fp)
+        finally:
+            set_spawning_popen(None)
+
+        parent_r = child_w = child_r = parent_w = None
+        channel = _multiprocessing._channel_create()
+        try:
+            parent_r, child_w = os.pipe()
+            child_r, parent_w = os.pipe()
+            # a tuple of an int and bytes is handed over without pickling
+            _multiprocessing._channel_put(
+                channel, (self.duplicate_for_child(child_r), fp.getvalue()), False)
+            self._id = _multiprocessing._spawn_context(channel, child_w, self)
+            channel = None
+            self.sentinel = parent_r
+        finally:
+            if channel is not None:
+                _multiprocessing._channel_release(channel)
+            fds_to_close = []
+            for fd in (parent_r, parent_w):
+                if fd is not None:
+                    fds_to_close.append(fd)
+            self.finalizer = util.Finalize(self, _cleanup,
+                                           (fds_to_close, self._tokens))
+
+            for fd in (child_r, child_w):
+                if fd is not None:
+                    os.close(fd)
+
+    def close(self):
+        if self.finalizer is not None:
+            self.finalizer()
+
+
+def _cleanup(fds, tokens):
+    util.close_fds(*fds)
+    # drop the references the child did not adopt
+    for token in tokens:
+        _multiprocessing._release_fd(token)
+
+
+def _child_main(channel):
+    try:
+        (sentinel, data), pickled = _multiprocessing._channel_get(channel, None)
+    finally:
+        _multiprocessing._channel_release(channel)
+    parent_sentinel = _multiprocessing._adopt_fd(sentinel)
+    from_parent = io.BytesIO(data)
+    process.current_process()._inheriting = True
+    try:
+        preparation_data = reduction.pickle.load(from_parent)
+        spawn.prepare(preparation_data)
+        self = reduction.pickle.load(from_parent)
+    finally:
+        del process.current_process()._inheriting
+    sys.exit(self._bootstrap(parent_sentinel))
+
+#
+# Queue that hands objects over to other contexts in memory
+#
+
+class _Channel(object):
+    '''
+    An in-memory channel standing in for both connections of a pipe.
+
+    Exact instances of immutable builtin types and tuples of them are handed
+    over without pickling.
+    '''
+
+    def __init__(self, id):
+        self._id = id
+        self._fds = []
+        self._finalizer = util.Finalize(self, _Channel._release,
+                                        (id, self._fds), exitpriority=-1)
+
+    @staticmethod
+    def _release(id, fds):
+        util.close_fds(*fds)
+        _multiprocessing._channel_release(id)
+
+    def __reduce__(self):
+        context.assert_spawning(self)
+        # the rebuilt channel takes over this reference
+        _multiprocessing._channel_retain(self._id)
+        return _Channel, (self._id,)
+
+    def fileno(self):
+        '''File descriptor that is readable while the channel is not empty'''
+        if not self._fds:
+            self._fds.append(_multiprocessing._channel_fileno(self._id))
+        return self._fds[0]
+
+    def send(self, obj):
+        if not _multiprocessing._channel_put(self._id, obj, False):
+            _multiprocessing._channel_put(self._id,
+                                          _ForkingPickler.dumps(obj), True)
+
+    def recv(self):
+        obj, pickled = _multiprocessing._channel_get(self._id, None)
+        if pickled:
+            return _ForkingPickler.loads(obj)
+        return obj
+
+    def poll(self, timeout=0.0):
+        if _multiprocessing._channel_poll(self._id):
+            return True
+        if timeout is None or timeout > 0:
+            from .connection import wait
+            return bool(wait([self], timeout))
+        return False
+
+    def close(self):
+        # the channel is shared by both ends and released with its last user
+        pass
+
+
+class SimpleQueue(queues.SimpleQueue):
+
+    def __init__(self, *, ctx):
+        self._reader = self._writer = _Channel(_multiprocessing._channel_create())
+        self._rlock = ctx.Lock()
+        self._poll = self._reader.poll
+        # puts into a channel are atomic
+        self._wlock = None
+
+    def get(self):
+        with self._rlock:
+            return self._reader.recv()
+
+    def put(self, obj):
+        self._writer.send(obj)
@@ -54,11 +54,11 @@ import mx_sdk
 import mx_subst
 import mx_urlrewrites
 from mx_gate import Task
-from mx_graalpython_bench_param import PATH_MESO, BENCHMARKS, JBENCHMARKS
+from mx_graalpython_bench_param import PATH_MESO, BENCHMARKS, JBENCHMARKS, TBENCHMARKS
 from mx_graalpython_benchmark import PythonBenchmarkSuite, python_vm_registry, CPythonVm, PyPyVm, JythonVm, GraalPythonVm, \
     CONFIGURATION_DEFAULT, CONFIGURATION_SANDBOXED, CONFIGURATION_NATIVE, \
     CONFIGURATION_DEFAULT_MULTI, CONFIGURATION_SANDBOXED_MULTI, CONFIGURATION_NATIVE_MULTI, \
-    PythonInteropBenchmarkSuite
+    PythonInteropBenchmarkSuite, PythonThreadingBenchmarkSuite
 
 
 if not sys.modules.get("__main__"):
@@ -1435,6 +1435,8 @@ def _register_bench_suites(namespace):
         mx_benchmark.add_bm_suite(py_bench_suite)
     for java_bench_suite in PythonInteropBenchmarkSuite.get_benchmark_suites(JBENCHMARKS):
         mx_benchmark.add_bm_suite(java_bench_suite)
+    for threading_bench_suite in PythonThreadingBenchmarkSuite.get_benchmark_suites(TBENCHMARKS):
+        mx_benchmark.add_bm_suite(threading_bench_suite)
 
 
 def mx_post_parse_cmd_line(namespace):
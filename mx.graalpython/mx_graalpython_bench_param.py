@@ -37,6 +37,7 @@ PATH_MICRO = os.path.join(_BASE_PATH, 'micro')
 PATH_MESO = os.path.join(_BASE_PATH, 'meso')
 PATH_MACRO = os.path.join(_BASE_PATH, 'macro')
 PATH_INTEROP = os.path.join(_BASE_PATH, 'host_interop')
+PATH_MULTITHREADING = os.path.join(_BASE_PATH, 'multithreading')
 
 # ----------------------------------------------------------------------------------------------------------------------
 #
@@ -63,6 +64,7 @@ MICRO_BENCHMARKS = {
     'builtin-len': ITER_10 + [],
     'class-access': ITER_15 + ['10_000'],
     'call-method-polymorphic': ITER_10 + ['1000'],
+    'datetime-arith': ITER_10 + ['1000'],
     'for-range': ITER_15 + ['50000'],
     'function-call-sized': ITER_10 + ['2_000_000_000'],
     'generator-expression-sized': ITER_10 + ['30_000'],
@@ -189,6 +191,29 @@ INTEROP_BENCHMARKS = {
 }
 
 
+THREAD_COUNTS = [1, 2, 4, 8, 16]
+
+
+def _threading_benchmarks(benchmarks):
+    # every benchmark runs once per thread count, the first benchmark argument is the number of threads
+    return {
+        '{}-{}t'.format(name, threads): ITER_10 + [str(threads)] + args
+        for name, args in benchmarks.items() for threads in THREAD_COUNTS
+    }
+
+
+THREADING_BENCHMARKS = _threading_benchmarks({
+    'threads-dict': ['1_000_000'],
+    'threads-list': ['1_000_000'],
+    'threads-lock': ['1_000_000'],
+    'threads-queue': ['200_000'],
+    'threads-weakref': ['1_000_000'],
+    'threads-posix': ['20_000'],
+    # needs host access, i.e., only works when running on the JVM
+    'threads-interop': ['1_000_000'],
+})
+
+
 _INTEROP_JAVA_PACKAGE = 'com.oracle.graal.python.benchmarks.interop.'
 INTEROP_JAVA_BENCHMARKS = {
     'richards3': [_INTEROP_JAVA_PACKAGE + 'PyRichards'] + MESO_BENCHMARKS['richards3'],
@@ -212,6 +237,10 @@ BENCHMARKS = {
     "interop": [PATH_INTEROP, INTEROP_BENCHMARKS],
 }
 
+TBENCHMARKS = {
+    "threading": [PATH_MULTITHREADING, THREADING_BENCHMARKS],
+}
+
 JBENCHMARKS = {
     "pyjava": [INTEROP_JAVA_BENCHMARKS],
 }
@@ -522,6 +522,9 @@ class PythonBenchmarkSuite(PythonBaseBenchmarkSuite):
     def get_arg(self, bench_name):
         return " ".join(self._benchmarks[bench_name])
 
+    def get_bench_file(self, benchmark):
+        return benchmark
+
     def createVmCommandLineArgs(self, benchmarks, bmSuiteArgs):
         vm_args = self.vmArgs(bmSuiteArgs)
         run_args = self.runArgs(bmSuiteArgs)
@@ -545,7 +548,7 @@ class PythonBenchmarkSuite(PythonBaseBenchmarkSuite):
             cmd_args += ['-p', ",".join(python_path)]
 
         # the benchmark
-        cmd_args += [join(self._bench_path, "{}.py".format(benchmark))]
+        cmd_args += [join(self._bench_path, "{}.py".format(self.get_bench_file(benchmark)))]
 
         if "-i" not in run_args:
             run_args += self._benchmarks[benchmark]
@@ -565,6 +568,25 @@ class PythonBenchmarkSuite(PythonBaseBenchmarkSuite):
                 for suite_name, suite_info in benchmarks.items()]
 
 
+class PythonThreadingBenchmarkSuite(PythonBenchmarkSuite):  # pylint: disable=too-many-ancestors
+    """
+    Runs each benchmark file once per thread count. The benchmark names carry the thread count as a
+    '-<threads>t' suffix, which is stripped to find the file. On GraalPython, the _thread module is
+    enabled for these runs.
+    """
+    THREADS_SUFFIX = re.compile(r"-[0-9]+t$")
+
+    def get_bench_file(self, benchmark):
+        return PythonThreadingBenchmarkSuite.THREADS_SUFFIX.sub("", benchmark)
+
+    def createVmCommandLineArgs(self, benchmarks, bmSuiteArgs):
+        cmd_args = super(PythonThreadingBenchmarkSuite, self).createVmCommandLineArgs(benchmarks, bmSuiteArgs)
+        vm = self.get_vm_registry().get_vm_from_suite_args(bmSuiteArgs, quiet=True)
+        if vm.name() == VM_NAME_GRAALPYTHON:
+            cmd_args = ["--python.WithThread=true"] + cmd_args
+        return cmd_args
+
+
 class PythonInteropBenchmarkSuite(PythonBaseBenchmarkSuite): # pylint: disable=too-many-ancestors
 
     def get_vm_registry(self):
@@ -380,7 +380,7 @@ suite = {
         },
 
         "GRAALPYTHON_BENCH" : {
-            "description": "java python interop benchmarks",
+            "description": "java python interop and runtime micro benchmarks",
             "dependencies" : ["com.oracle.graal.python.benchmarks"],
             "exclude": ["mx:JMH_1_21"],
             "distDependencies": [